@@ -15,4 +15,10 @@ public class PropertyNames {
   public static final boolean OPTIMIZER_EXTEND_DISK_STORAGE_DEFAULT = false;
   public static final String OPTIMIZER_DISK_STORAGE_PATH = "disk-storage-path";
   public static final String OPTIMIZER_MEMORY_STORAGE_SIZE = "memory-storage-size";
+  public static final String OPTIMIZER_OFF_HEAP_STORAGE = "off-heap-storage";
+  public static final boolean OPTIMIZER_OFF_HEAP_STORAGE_DEFAULT = false;
+  public static final String OPTIMIZER_DELETE_LOAD_PARALLELISM = "delete-load-parallelism";
+  public static final String OPTIMIZER_DELETE_FILE_CACHE_SIZE = "delete-file-cache-size";
+  public static final String OPTIMIZER_PIPELINED_REWRITE = "pipelined-rewrite";
+  public static final boolean OPTIMIZER_PIPELINED_REWRITE_DEFAULT = false;
 }
@@ -61,6 +61,40 @@ public class CatalogMetaProperties {
   public static final String CLIENT_POOL_CACHE_EVICTION_INTERVAL_MS = "client.pool.cache.eviction-interval-ms";
   public static final long CLIENT_POOL_CACHE_EVICTION_INTERVAL_MS_DEFAULT = TimeUnit.MINUTES.toMillis(5);
 
+  // properties of the file io of tables
+  public static final String IO_PROPERTIES_PREFIX = "io.";
+
+  // read-ahead of input files, for stores with high latency of small reads
+  public static final String READ_AHEAD_ENABLED = "io.read-ahead.enabled";
+  public static final boolean READ_AHEAD_ENABLED_DEFAULT = false;
+  public static final String READ_AHEAD_BLOCK_SIZE_BYTES = "io.read-ahead.block-size-bytes";
+  public static final int READ_AHEAD_BLOCK_SIZE_BYTES_DEFAULT = 1024 * 1024; // 1 MB
+  public static final String READ_AHEAD_BLOCKS = "io.read-ahead.blocks";
+  public static final int READ_AHEAD_BLOCKS_DEFAULT = 4;
+
+  // local disk cache of blocks of small input files, like delete files
+  public static final String BLOCK_CACHE_ENABLED = "io.block-cache.enabled";
+  public static final boolean BLOCK_CACHE_ENABLED_DEFAULT = false;
+  public static final String BLOCK_CACHE_DIR = "io.block-cache.dir";
+  public static final String BLOCK_CACHE_CAPACITY_BYTES = "io.block-cache.capacity-bytes";
+  public static final long BLOCK_CACHE_CAPACITY_BYTES_DEFAULT = 10L * 1024 * 1024 * 1024; // 10 GB
+  public static final String BLOCK_CACHE_BLOCK_SIZE_BYTES = "io.block-cache.block-size-bytes";
+  public static final int BLOCK_CACHE_BLOCK_SIZE_BYTES_DEFAULT = 4 * 1024 * 1024; // 4 MB
+  public static final String BLOCK_CACHE_MAX_FILE_SIZE_BYTES = "io.block-cache.max-file-size-bytes";
+  public static final long BLOCK_CACHE_MAX_FILE_SIZE_BYTES_DEFAULT = 64L * 1024 * 1024; // 64 MB
+
+  // cache of tables loaded by catalogs of engines, a cached table instance is shared by all loads of the table
+  public static final String TABLE_CACHE_ENABLED = "table-cache.enabled";
+  public static final boolean TABLE_CACHE_ENABLED_DEFAULT = false;
+  public static final String TABLE_CACHE_MAX_SIZE = "table-cache.max-size";
+  public static final int TABLE_CACHE_MAX_SIZE_DEFAULT = 1000;
+  public static final String TABLE_CACHE_EXPIRATION_INTERVAL_MS = "table-cache.expiration-interval-ms";
+  public static final long TABLE_CACHE_EXPIRATION_INTERVAL_MS_DEFAULT = TimeUnit.MINUTES.toMillis(5);
+  // cached tables are refreshed when loaded after the interval, 0 to refresh for every load, loads within the
+  // interval may see the table as of the last refresh
+  public static final String TABLE_CACHE_REVALIDATION_INTERVAL_MS = "table-cache.revalidation-interval-ms";
+  public static final long TABLE_CACHE_REVALIDATION_INTERVAL_MS_DEFAULT = TimeUnit.SECONDS.toMillis(30);
+
   // only used for engine properties
   public static final String LOAD_AUTH_FROM_AMS = "auth.load-from-ams";
   public static final boolean LOAD_AUTH_FROM_AMS_DEFAULT = true;
@@ -12,6 +12,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.apache.iceberg.util.PropertyUtil.propertyAsBoolean;
+
 public abstract class AbstractResourceContainer implements ResourceContainer {
   private String containerName;
   private Map<String, String> containerProperties;
@@ -64,7 +66,7 @@ public abstract class AbstractResourceContainer implements ResourceContainer {
       stringBuilder.append(" -hb ")
           .append(resource.getProperties().get(PropertyNames.OPTIMIZER_HEART_BEAT_INTERVAL));
     }
-    if (org.apache.iceberg.util.PropertyUtil.propertyAsBoolean(
+    if (propertyAsBoolean(
         resource.getProperties(),
         PropertyNames.OPTIMIZER_EXTEND_DISK_STORAGE,
         PropertyNames.OPTIMIZER_EXTEND_DISK_STORAGE_DEFAULT)) {
@@ -77,6 +79,26 @@ public abstract class AbstractResourceContainer implements ResourceContainer {
             .append(resource.getProperties().get(PropertyNames.OPTIMIZER_MEMORY_STORAGE_SIZE));
       }
     }
+    if (propertyAsBoolean(
+        resource.getProperties(),
+        PropertyNames.OPTIMIZER_OFF_HEAP_STORAGE,
+        PropertyNames.OPTIMIZER_OFF_HEAP_STORAGE_DEFAULT)) {
+      stringBuilder.append(" -ohs");
+    }
+    if (resource.getProperties().containsKey(PropertyNames.OPTIMIZER_DELETE_LOAD_PARALLELISM)) {
+      stringBuilder.append(" -dlp ")
+          .append(resource.getProperties().get(PropertyNames.OPTIMIZER_DELETE_LOAD_PARALLELISM));
+    }
+    if (resource.getProperties().containsKey(PropertyNames.OPTIMIZER_DELETE_FILE_CACHE_SIZE)) {
+      stringBuilder.append(" -dcs ")
+          .append(resource.getProperties().get(PropertyNames.OPTIMIZER_DELETE_FILE_CACHE_SIZE));
+    }
+    if (propertyAsBoolean(
+        resource.getProperties(),
+        PropertyNames.OPTIMIZER_PIPELINED_REWRITE,
+        PropertyNames.OPTIMIZER_PIPELINED_REWRITE_DEFAULT)) {
+      stringBuilder.append(" -pr");
+    }
     if (StringUtils.isNotEmpty(resource.getResourceId())) {
       stringBuilder.append(" -id ").append(resource.getResourceId());
     }
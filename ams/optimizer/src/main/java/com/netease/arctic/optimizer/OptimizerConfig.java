@@ -62,9 +62,25 @@ public class OptimizerConfig implements Serializable {
   private String diskStoragePath;
 
   @Option(name = "-msz", aliases = "--" + PropertyNames.OPTIMIZER_MEMORY_STORAGE_SIZE,
-      usage = "Memory storage size limit when extending disk storage(MB), default 512MB")
+      usage = "Memory storage size limit of each task when extending disk storage(MB), default 512MB")
   private long memoryStorageSize = 512; // 512 M
 
+  @Option(name = "-ohs", aliases = "--" + PropertyNames.OPTIMIZER_OFF_HEAP_STORAGE,
+      usage = "Whether store fixed width equality delete keys off heap, default false")
+  private boolean offHeapStorage = false;
+
+  @Option(name = "-dlp", aliases = "--" + PropertyNames.OPTIMIZER_DELETE_LOAD_PARALLELISM,
+      usage = "Number of equality delete files read at the same time by one task, default 1")
+  private int deleteLoadParallelism = 1;
+
+  @Option(name = "-dcs", aliases = "--" + PropertyNames.OPTIMIZER_DELETE_FILE_CACHE_SIZE,
+      usage = "Size of the delete file cache shared by all executors(MB), default 0 to disable the cache")
+  private long deleteFileCacheSize = 0;
+
+  @Option(name = "-pr", aliases = "--" + PropertyNames.OPTIMIZER_PIPELINED_REWRITE,
+      usage = "Whether read and write rows of a task in different threads, default false")
+  private boolean pipelinedRewrite = false;
+
   @Option(name = "-id", aliases = "--" + PropertyNames.RESOURCE_ID, usage = "Resource id")
   private String resourceId;
 
@@ -140,6 +156,38 @@ public class OptimizerConfig implements Serializable {
     this.diskStoragePath = diskStoragePath;
   }
 
+  public boolean isOffHeapStorage() {
+    return offHeapStorage;
+  }
+
+  public void setOffHeapStorage(boolean offHeapStorage) {
+    this.offHeapStorage = offHeapStorage;
+  }
+
+  public int getDeleteLoadParallelism() {
+    return deleteLoadParallelism;
+  }
+
+  public void setDeleteLoadParallelism(int deleteLoadParallelism) {
+    this.deleteLoadParallelism = deleteLoadParallelism;
+  }
+
+  public long getDeleteFileCacheSize() {
+    return deleteFileCacheSize;
+  }
+
+  public void setDeleteFileCacheSize(long deleteFileCacheSize) {
+    this.deleteFileCacheSize = deleteFileCacheSize;
+  }
+
+  public boolean isPipelinedRewrite() {
+    return pipelinedRewrite;
+  }
+
+  public void setPipelinedRewrite(boolean pipelinedRewrite) {
+    this.pipelinedRewrite = pipelinedRewrite;
+  }
+
   public String getResourceId() {
     return resourceId;
   }
@@ -159,6 +207,10 @@ public class OptimizerConfig implements Serializable {
         .add("extendDiskStorage", extendDiskStorage)
         .add("rocksDBBasePath", diskStoragePath)
         .add("memoryStorageSize", memoryStorageSize)
+        .add("offHeapStorage", offHeapStorage)
+        .add("deleteLoadParallelism", deleteLoadParallelism)
+        .add("deleteFileCacheSize", deleteFileCacheSize)
+        .add("pipelinedRewrite", pipelinedRewrite)
         .add("resourceId", resourceId)
         .toString();
   }
@@ -8,6 +8,8 @@ import com.netease.arctic.optimizing.OptimizingInputProperties;
 import com.netease.arctic.optimizing.TableOptimizing;
 import com.netease.arctic.utils.ExceptionUtil;
 import com.netease.arctic.utils.SerializationUtil;
+import com.netease.arctic.utils.map.DeleteFileCache;
+import com.netease.arctic.utils.map.SpillMemoryArbiter;
 import org.apache.iceberg.common.DynConstructors;
 import org.apache.thrift.TException;
 import org.slf4j.Logger;
@@ -78,6 +80,7 @@ public class OptimizerExecutor extends AbstractOptimizerOperator {
 
   @SuppressWarnings({"rawtypes", "unchecked"})
   private OptimizingTaskResult executeTask(OptimizingTask task) {
+    SpillMemoryArbiter.TaskMemory taskMemory = null;
     try {
       OptimizingInputProperties properties = OptimizingInputProperties.parse(task.getProperties());
       String executorFactoryImpl = properties.getExecutorFactoryImpl();
@@ -88,9 +91,23 @@ public class OptimizerExecutor extends AbstractOptimizerOperator {
 
       if (getConfig().isExtendDiskStorage()) {
         properties.enableSpillMap();
+        // each task is guaranteed the memory storage size and may use the unused memory of idle executors
+        taskMemory = SpillService.getOrStart(getConfig()).registerTask();
+      }
+      if (getConfig().isOffHeapStorage()) {
+        properties.enableOffHeapMap();
       }
       properties.setMaxSizeInMemory(getConfig().getMemoryStorageSize() * 1024 * 1024);
       properties.setSpillMapPath(getConfig().getDiskStoragePath());
+      properties.setDeleteLoadParallelism(getConfig().getDeleteLoadParallelism());
+      if (getConfig().getDeleteFileCacheSize() > 0) {
+        // delete files referenced by tasks of different executors are read once
+        DeleteFileCache.initSharedInstance(getConfig().getDeleteFileCacheSize() * 1024 * 1024);
+        properties.enableDeleteFileCache();
+      }
+      if (getConfig().isPipelinedRewrite()) {
+        properties.enablePipelinedRewrite(getConfig().getExecutionParallel());
+      }
       factory.initialize(properties.getProperties());
 
       OptimizingExecutor executor = factory.createExecutor(input);
@@ -106,6 +123,10 @@ public class OptimizerExecutor extends AbstractOptimizerOperator {
       OptimizingTaskResult errorResult = new OptimizingTaskResult(task.getTaskId(), threadId);
       errorResult.setErrorMessage(ExceptionUtil.getErrorMessage(t, 4000));
       return errorResult;
+    } finally {
+      if (taskMemory != null) {
+        taskMemory.close();
+      }
     }
   }
 
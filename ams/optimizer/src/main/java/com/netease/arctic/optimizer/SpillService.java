@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.optimizer;
+
+import com.netease.arctic.utils.map.RocksDBBackend;
+import com.netease.arctic.utils.map.SpillMemoryArbiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spill resources shared by all optimizer executors of the JVM.
+ * <p>
+ * All executors spill into one RocksDB, each spillable map in its own column family, with one block cache and one
+ * memtable limit. The memory storage size is the in-memory size of one task, like when each task has its own
+ * spillable maps, so all executors share a budget of memory storage size * execution parallelism, which is divided
+ * among running tasks by a {@link SpillMemoryArbiter}. Every running task is guaranteed the memory storage size, and
+ * could use more while other executors are idle.
+ */
+public class SpillService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SpillService.class);
+
+  // native memory of the shared RocksDB, on top of memory storage size
+  private static final long BLOCK_CACHE_SIZE = 64L * 1024 * 1024;
+  private static final long WRITE_BUFFER_SIZE = 64L * 1024 * 1024;
+
+  private static SpillService instance;
+
+  private final SpillMemoryArbiter memoryArbiter;
+
+  private SpillService(OptimizerConfig config) {
+    RocksDBBackend.initSharedInstance(config.getDiskStoragePath(), BLOCK_CACHE_SIZE, WRITE_BUFFER_SIZE);
+    // memory storage size is per task
+    this.memoryArbiter = new SpillMemoryArbiter(
+        config.getMemoryStorageSize() * 1024 * 1024 * config.getExecutionParallel(), config.getExecutionParallel());
+    LOG.info("Started spill service with memory storage size {}MB per task for {} executors",
+        config.getMemoryStorageSize(), config.getExecutionParallel());
+  }
+
+  /**
+   * Get the spill service of the JVM, started by the first executor calling it.
+   */
+  public static synchronized SpillService getOrStart(OptimizerConfig config) {
+    if (instance == null) {
+      instance = new SpillService(config);
+    }
+    return instance;
+  }
+
+  /**
+   * Register a task executed by the current thread, spillable maps created by the thread acquire memory from it.
+   */
+  public SpillMemoryArbiter.TaskMemory registerTask() {
+    return memoryArbiter.registerTask();
+  }
+
+  public SpillMemoryArbiter getMemoryArbiter() {
+    return memoryArbiter;
+  }
+}
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netease.arctic.ams.api.CatalogMeta;
 import com.netease.arctic.ams.api.Constants;
 import com.netease.arctic.ams.api.TableFormat;
+import com.netease.arctic.catalog.CachingArcticCatalog;
 import com.netease.arctic.catalog.CatalogLoader;
 import com.netease.arctic.hive.HiveTableProperties;
 import com.netease.arctic.hive.catalog.ArcticHiveCatalog;
@@ -231,9 +232,9 @@ public class TableController {
     UpgradeHiveMeta upgradeHiveMeta = ctx.bodyAsClass(UpgradeHiveMeta.class);
 
     ArcticHiveCatalog arcticHiveCatalog
-        = (ArcticHiveCatalog) CatalogLoader.load(String.join("/",
+        = (ArcticHiveCatalog) CachingArcticCatalog.unwrap(CatalogLoader.load(String.join("/",
         AmsUtil.getAMSThriftAddress(serviceConfig, Constants.THRIFT_TABLE_SERVICE_NAME),
-        catalog));
+        catalog)));
 
     tableUpgradeExecutor.execute(() -> {
       TableIdentifier tableIdentifier = TableIdentifier.of(catalog, db, table);
@@ -22,6 +22,8 @@ import com.netease.arctic.optimizing.IcebergRewriteExecutorFactory;
 import com.netease.arctic.optimizing.OptimizingInputProperties;
 import com.netease.arctic.server.table.TableRuntime;
 import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.util.PropertyUtil;
 
 public class IcebergPartitionPlan extends AbstractPartitionPlan {
 
@@ -37,7 +39,8 @@ public class IcebergPartitionPlan extends AbstractPartitionPlan {
   @Override
   protected OptimizingInputProperties buildTaskProperties() {
     OptimizingInputProperties properties = new OptimizingInputProperties();
-    properties.setExecutorFactoryImpl(IcebergRewriteExecutorFactory.class.getName());
+    properties.setExecutorFactoryImpl(PropertyUtil.propertyAsString(tableObject.properties(),
+        TableProperties.SELF_OPTIMIZING_EXECUTOR_FACTORY_IMPL, IcebergRewriteExecutorFactory.class.getName()));
     return properties;
   }
 }
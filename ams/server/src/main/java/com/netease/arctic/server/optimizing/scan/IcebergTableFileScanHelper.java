@@ -23,6 +23,7 @@ import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.StructLike;
 import org.apache.iceberg.Table;
+import org.apache.iceberg.TableScan;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 
@@ -42,9 +43,14 @@ public class IcebergTableFileScanHelper implements TableFileScanHelper {
       return CloseableIterable.empty();
     }
     PartitionSpec partitionSpec = table.spec();
+    TableScan scan = table.newScan().useSnapshot(snapshotId);
+    if (!table.schema().identifierFieldIds().isEmpty()) {
+      // bounds of the identifier fields let optimizers skip equality deletes out of the key ranges of data files
+      scan = scan.includeColumnStats();
+    }
     return CloseableIterable.transform(
         CloseableIterable.filter(
-            table.newScan().useSnapshot(snapshotId).planFiles(),
+            scan.planFiles(),
             fileScanTask -> {
               if (partitionFilter != null) {
                 StructLike partition = fileScanTask.file().partition();
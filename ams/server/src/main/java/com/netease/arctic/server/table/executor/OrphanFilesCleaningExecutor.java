@@ -38,8 +38,8 @@ import org.apache.iceberg.ReachableFileUtil;
 import org.apache.iceberg.RewriteFiles;
 import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileInfo;
-import org.apache.iceberg.io.SupportsPrefixOperations;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +48,7 @@ import java.io.File;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -194,11 +195,9 @@ public class OrphanFilesCleaningExecutor extends BaseTableExecutor {
     try (ArcticFileIO io = internalTable.io()) {
       // listPrefix will not return the directory and the orphan file clean should clean the empty dir.
       if (io.supportFileSystemOperations()) {
-        SupportsFileSystemOperations fio = io.asFileSystemIO();
-        return deleteInvalidFilesInFs(fio, dataLocation, lastTime, exclude);
+        return deleteInvalidFilesInFs(io, dataLocation, lastTime, exclude);
       } else if (io.supportPrefixOperations()) {
-        SupportsPrefixOperations pio = io.asPrefixFileIO();
-        return deleteInvalidFilesByPrefix(pio, dataLocation, lastTime, exclude);
+        return deleteInvalidFilesByPrefix(io, dataLocation, lastTime, exclude);
       } else {
         LOG.warn(String.format(
             "Table %s doesn't support a fileIo with listDirectory or listPrefix, so skip clear files.",
@@ -211,17 +210,19 @@ public class OrphanFilesCleaningExecutor extends BaseTableExecutor {
   }
 
   private static int deleteInvalidFilesInFs(
-      SupportsFileSystemOperations fio, String location, long lastTime, Set<String> excludes
+      ArcticFileIO io, String location, long lastTime, Set<String> excludes
   ) {
+    SupportsFileSystemOperations fio = io.asFileSystemIO();
     if (!fio.exists(location)) {
       return 0;
     }
 
     int deleteCount = 0;
+    List<String> filesToDelete = new ArrayList<>();
     for (PathInfo p : fio.listDirectory(location)) {
       String uriPath = TableFileUtil.getUriPath(p.location());
       if (p.isDirectory()) {
-        int deleted = deleteInvalidFilesInFs(fio, p.location(), lastTime, excludes);
+        int deleted = deleteInvalidFilesInFs(io, p.location(), lastTime, excludes);
         deleteCount += deleted;
         if (!p.location().endsWith(METADATA_FOLDER_NAME) &&
             !p.location().endsWith(DATA_FOLDER_NAME) &&
@@ -235,26 +236,44 @@ public class OrphanFilesCleaningExecutor extends BaseTableExecutor {
         if (!excludes.contains(uriPath) &&
             !excludes.contains(parentUriPath) &&
             p.createdAtMillis() < lastTime) {
-          fio.deleteFile(p.location());
-          deleteCount += 1;
+          filesToDelete.add(p.location());
         }
       }
     }
+    // files of sub directories are deleted by the recursive calls, before checking whether they are empty
+    deleteCount += deleteFiles(io, filesToDelete);
     return deleteCount;
   }
 
   private static int deleteInvalidFilesByPrefix(
-      SupportsPrefixOperations pio, String prefix, long lastTime, Set<String> excludes
+      ArcticFileIO io, String prefix, long lastTime, Set<String> excludes
   ) {
-    int deleteCount = 0;
-    for (FileInfo fileInfo : pio.listPrefix(prefix)) {
+    List<String> filesToDelete = new ArrayList<>();
+    for (FileInfo fileInfo : io.asPrefixFileIO().listPrefix(prefix)) {
       String uriPath = TableFileUtil.getUriPath(fileInfo.location());
       if (!excludes.contains(uriPath) && fileInfo.createdAtMillis() < lastTime) {
-        pio.deleteFile(fileInfo.location());
-        deleteCount += 1;
+        filesToDelete.add(fileInfo.location());
       }
     }
-    return deleteCount;
+    return deleteFiles(io, filesToDelete);
+  }
+
+  /**
+   * Delete files in bulk.
+   *
+   * @return the count of deleted files
+   */
+  private static int deleteFiles(ArcticFileIO io, List<String> files) {
+    if (files.isEmpty()) {
+      return 0;
+    }
+    try {
+      io.deleteFiles(files);
+      return files.size();
+    } catch (BulkDeletionFailureException e) {
+      LOG.warn("Failed to delete {} files of {}", e.numberFailedObjects(), files.size());
+      return files.size() - e.numberFailedObjects();
+    }
   }
 
   private static int clearInternalTableMetadata(UnkeyedTable internalTable, long lastTime) {
@@ -266,8 +285,7 @@ public class OrphanFilesCleaningExecutor extends BaseTableExecutor {
 
     try (ArcticFileIO io = internalTable.io()) {
       if (io.supportPrefixOperations()) {
-        SupportsPrefixOperations pio = io.asPrefixFileIO();
-        return deleteInvalidMetadataFile(pio, metadataLocation, lastTime, validFiles, excludeFileNameRegex);
+        return deleteInvalidMetadataFile(io, metadataLocation, lastTime, validFiles, excludeFileNameRegex);
       } else {
         LOG.warn(String.format(
             "Table %s doesn't support a fileIo with listDirectory or listPrefix, so skip clear files.",
@@ -352,20 +370,19 @@ public class OrphanFilesCleaningExecutor extends BaseTableExecutor {
   }
 
   private static int deleteInvalidMetadataFile(
-      SupportsPrefixOperations pio, String location, long lastTime, Set<String> exclude, Pattern excludeRegex
+      ArcticFileIO io, String location, long lastTime, Set<String> exclude, Pattern excludeRegex
   ) {
-    int count = 0;
-    for (FileInfo fileInfo : pio.listPrefix(location)) {
+    List<String> filesToDelete = new ArrayList<>();
+    for (FileInfo fileInfo : io.asPrefixFileIO().listPrefix(location)) {
       String uriPath = TableFileUtil.getUriPath(fileInfo.location());
       if (!exclude.contains(uriPath) &&
           fileInfo.createdAtMillis() < lastTime &&
           (excludeRegex == null || !excludeRegex.matcher(
               TableFileUtil.getFileName(fileInfo.location())).matches())) {
-        pio.deleteFile(fileInfo.location());
-        count += 1;
+        filesToDelete.add(fileInfo.location());
       }
     }
-    return count;
+    return deleteFiles(io, filesToDelete);
   }
 
   private static String formatTime(long timestamp) {
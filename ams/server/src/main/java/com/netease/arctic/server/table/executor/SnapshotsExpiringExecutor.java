@@ -39,6 +39,7 @@ import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFiles;
 import org.apache.iceberg.FileContent;
 import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.util.StructLikeMap;
 import org.slf4j.Logger;
@@ -220,6 +221,8 @@ public class SnapshotsExpiringExecutor extends BaseTableExecutor {
     final AtomicInteger toDeleteFiles = new AtomicInteger(0);
     final AtomicInteger deleteFiles = new AtomicInteger(0);
     Set<String> parentDirectory = new HashSet<>();
+    // files are deleted in bulk after the commit, rather than one by one in separate security contexts
+    List<String> filesToDelete = new ArrayList<>();
     arcticInternalTable.expireSnapshots()
         .retainLast(1)
         .expireOlderThan(olderThan)
@@ -227,10 +230,11 @@ public class SnapshotsExpiringExecutor extends BaseTableExecutor {
           try {
             String filePath = TableFileUtil.getUriPath(file);
             if (!exclude.contains(filePath) && !exclude.contains(new Path(filePath).getParent().toString())) {
-              arcticInternalTable.io().deleteFile(file);
+              filesToDelete.add(file);
+            } else {
+              deleteFiles.incrementAndGet();
             }
             parentDirectory.add(new Path(file).getParent().toString());
-            deleteFiles.incrementAndGet();
           } catch (Throwable t) {
             LOG.warn("failed to delete file " + file, t);
           } finally {
@@ -239,6 +243,13 @@ public class SnapshotsExpiringExecutor extends BaseTableExecutor {
         })
         .cleanExpiredFiles(true)
         .commit();
+    try {
+      arcticInternalTable.io().deleteFiles(filesToDelete);
+      deleteFiles.addAndGet(filesToDelete.size());
+    } catch (BulkDeletionFailureException e) {
+      LOG.warn("failed to delete {} files of {}", e.numberFailedObjects(), filesToDelete.size());
+      deleteFiles.addAndGet(filesToDelete.size() - e.numberFailedObjects());
+    }
     if (arcticInternalTable.io().supportFileSystemOperations()) {
       parentDirectory.forEach(parent -> TableFileUtil.deleteEmptyDirectory(arcticInternalTable.io(), parent, exclude));
     }
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.netease.arctic.AmsClient;
+import com.netease.arctic.ams.api.CatalogMeta;
+import com.netease.arctic.ams.api.properties.CatalogMetaProperties;
+import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.table.TableBuilder;
+import com.netease.arctic.table.TableIdentifier;
+import com.netease.arctic.table.blocker.TableBlockerManager;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.util.PropertyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link ArcticCatalog} caching loaded tables, like the CachingCatalog of iceberg.
+ * <p>
+ * A cached table is refreshed when it is loaded again after
+ * {@link CatalogMetaProperties#TABLE_CACHE_REVALIDATION_INTERVAL_MS}. Refreshing a table only reads the current
+ * metadata location of its base and change store, the table metadata is parsed again only if the location changed,
+ * so the table meta is not loaded from AMS for every load.
+ * Tables are evicted after they are not loaded for {@link CatalogMetaProperties#TABLE_CACHE_EXPIRATION_INTERVAL_MS}
+ * and invalidated when they are dropped or renamed through this catalog.
+ * <p>
+ * Loads of a cached table return the same table instance, so a refresh by one caller is seen by all of them, and
+ * callers should not change the state of the instance, like its io, expecting it to be private.
+ */
+public class CachingArcticCatalog implements ArcticCatalog {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CachingArcticCatalog.class);
+
+  private final ArcticCatalog catalog;
+  private final long revalidationIntervalNanos;
+  private final Ticker ticker;
+  private final Cache<TableIdentifier, CachedTable> tableCache;
+
+  /**
+   * Wrap the catalog with a caching catalog if it is enabled by {@link CatalogMetaProperties#TABLE_CACHE_ENABLED}
+   * in catalog properties.
+   */
+  public static ArcticCatalog wrap(ArcticCatalog catalog) {
+    Map<String, String> properties = catalog.properties();
+    if (!PropertyUtil.propertyAsBoolean(properties, CatalogMetaProperties.TABLE_CACHE_ENABLED,
+        CatalogMetaProperties.TABLE_CACHE_ENABLED_DEFAULT)) {
+      return catalog;
+    }
+    return new CachingArcticCatalog(
+        catalog,
+        PropertyUtil.propertyAsInt(properties, CatalogMetaProperties.TABLE_CACHE_MAX_SIZE,
+            CatalogMetaProperties.TABLE_CACHE_MAX_SIZE_DEFAULT),
+        PropertyUtil.propertyAsLong(properties, CatalogMetaProperties.TABLE_CACHE_EXPIRATION_INTERVAL_MS,
+            CatalogMetaProperties.TABLE_CACHE_EXPIRATION_INTERVAL_MS_DEFAULT),
+        PropertyUtil.propertyAsLong(properties, CatalogMetaProperties.TABLE_CACHE_REVALIDATION_INTERVAL_MS,
+            CatalogMetaProperties.TABLE_CACHE_REVALIDATION_INTERVAL_MS_DEFAULT),
+        Ticker.systemTicker());
+  }
+
+  /**
+   * Return the catalog wrapped by a caching catalog, or the catalog itself.
+   */
+  public static ArcticCatalog unwrap(ArcticCatalog catalog) {
+    if (catalog instanceof CachingArcticCatalog) {
+      return ((CachingArcticCatalog) catalog).catalog;
+    }
+    return catalog;
+  }
+
+  @VisibleForTesting
+  CachingArcticCatalog(
+      ArcticCatalog catalog, int maxSize, long expirationIntervalMs, long revalidationIntervalMs, Ticker ticker) {
+    this.catalog = catalog;
+    this.revalidationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(revalidationIntervalMs);
+    this.ticker = ticker;
+    this.tableCache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(expirationIntervalMs, TimeUnit.MILLISECONDS)
+        .ticker(ticker)
+        .build();
+  }
+
+  @Override
+  public String name() {
+    return catalog.name();
+  }
+
+  @Override
+  public void initialize(AmsClient client, CatalogMeta meta, Map<String, String> properties) {
+    catalog.initialize(client, meta, properties);
+    tableCache.invalidateAll();
+  }
+
+  @Override
+  public List<String> listDatabases() {
+    return catalog.listDatabases();
+  }
+
+  @Override
+  public void createDatabase(String databaseName) {
+    catalog.createDatabase(databaseName);
+  }
+
+  @Override
+  public void dropDatabase(String databaseName) {
+    catalog.dropDatabase(databaseName);
+    tableCache.asMap().keySet().removeIf(identifier -> identifier.getDatabase().equals(databaseName));
+  }
+
+  @Override
+  public List<TableIdentifier> listTables(String database) {
+    return catalog.listTables(database);
+  }
+
+  @Override
+  public ArcticTable loadTable(TableIdentifier tableIdentifier) {
+    CachedTable cached = tableCache.getIfPresent(tableIdentifier);
+    if (cached != null && revalidate(tableIdentifier, cached)) {
+      return cached.table;
+    }
+    ArcticTable table = catalog.loadTable(tableIdentifier);
+    tableCache.put(tableIdentifier, new CachedTable(table, ticker.read()));
+    return table;
+  }
+
+  /**
+   * Refresh the cached table if it is not validated within the revalidation interval.
+   *
+   * @return false if the table could not be refreshed and should be loaded again
+   */
+  private boolean revalidate(TableIdentifier tableIdentifier, CachedTable cached) {
+    long now = ticker.read();
+    if (now - cached.validatedAtNanos < revalidationIntervalNanos) {
+      return true;
+    }
+    try {
+      // a keyed table refreshes both the base store and the change store
+      cached.table.refresh();
+      cached.validatedAtNanos = now;
+      return true;
+    } catch (RuntimeException e) {
+      LOG.info("Failed to refresh cached table {}, load it again", tableIdentifier, e);
+      tableCache.invalidate(tableIdentifier);
+      return false;
+    }
+  }
+
+  @Override
+  public void renameTable(TableIdentifier from, String newTableName) {
+    catalog.renameTable(from, newTableName);
+    tableCache.invalidate(from);
+    tableCache.invalidate(TableIdentifier.of(from.getCatalog(), from.getDatabase(), newTableName));
+  }
+
+  @Override
+  public boolean dropTable(TableIdentifier tableIdentifier, boolean purge) {
+    tableCache.invalidate(tableIdentifier);
+    return catalog.dropTable(tableIdentifier, purge);
+  }
+
+  @Override
+  public TableBuilder newTableBuilder(TableIdentifier identifier, Schema schema) {
+    tableCache.invalidate(identifier);
+    return catalog.newTableBuilder(identifier, schema);
+  }
+
+  @Override
+  public void refresh() {
+    catalog.refresh();
+    tableCache.invalidateAll();
+  }
+
+  @Override
+  public TableBlockerManager getTableBlockerManager(TableIdentifier tableIdentifier) {
+    return catalog.getTableBlockerManager(tableIdentifier);
+  }
+
+  @Override
+  public Map<String, String> properties() {
+    return catalog.properties();
+  }
+
+  /**
+   * Invalidate the cached table, so it is loaded from the wrapped catalog next time.
+   */
+  public void invalidateTable(TableIdentifier tableIdentifier) {
+    tableCache.invalidate(tableIdentifier);
+  }
+
+  @VisibleForTesting
+  long cachedTables() {
+    tableCache.cleanUp();
+    return tableCache.estimatedSize();
+  }
+
+  private static class CachedTable {
+    private final ArcticTable table;
+    private volatile long validatedAtNanos;
+
+    CachedTable(ArcticTable table, long validatedAtNanos) {
+      this.table = table;
+      this.validatedAtNanos = validatedAtNanos;
+    }
+  }
+}
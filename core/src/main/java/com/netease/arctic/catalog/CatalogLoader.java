@@ -155,7 +155,7 @@ public class CatalogLoader {
       }
       ArcticCatalog catalog = buildCatalog(catalogImpl);
       catalog.initialize(client, catalogMeta, props);
-      return catalog;
+      return CachingArcticCatalog.wrap(catalog);
     } catch (NoSuchObjectException e1) {
       throw new IllegalArgumentException("catalog not found, please check catalog name", e1);
     } catch (Exception e) {
@@ -25,6 +25,7 @@ import com.netease.arctic.ams.api.properties.CatalogMetaProperties;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.io.ArcticFileIOAdapter;
 import com.netease.arctic.io.ArcticFileIOs;
+import com.netease.arctic.io.ArcticHadoopFileIO;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.BasicTableBuilder;
 import com.netease.arctic.table.BasicUnkeyedTable;
@@ -252,7 +253,9 @@ public class IcebergCatalogWrapper implements ArcticCatalog {
 
   private ArcticFileIO createArcticFileIO(FileIO io) {
     if (io instanceof HadoopFileIO) {
-      return ArcticFileIOs.buildHadoopFileIO(tableMetaStore);
+      ArcticHadoopFileIO fileIO = ArcticFileIOs.buildHadoopFileIO(tableMetaStore);
+      fileIO.setCatalogIoProperties(meta.getCatalogProperties());
+      return fileIO;
     } else {
       return new ArcticFileIOAdapter(io);
     }
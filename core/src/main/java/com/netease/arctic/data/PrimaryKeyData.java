@@ -124,11 +124,29 @@ public class PrimaryKeyData implements StructLike, Serializable {
 
   @Override
   public int hashCode() {
-    int hashcode = Math.abs(Arrays.hashCode(primaryTuple));
-    return hashcode == Integer.MIN_VALUE ? Integer.MAX_VALUE : hashcode;
+    return positiveHash(Arrays.hashCode(primaryTuple));
   }
 
   public DataTreeNode treeNode(long mask) {
     return DataTreeNode.of(mask, Math.abs(hashCode()) & mask);
   }
+
+  /**
+   * Calculate the index of the tree node of a data row, the same as {@link #treeNode(long)} after
+   * {@link #primaryKey(StructLike)}, without keeping the primary key values or allocating the tree node.
+   */
+  public long treeNodeIndex(StructLike row, long mask) {
+    // the same as Arrays.hashCode of primary key values
+    int hash = 1;
+    for (Accessor<StructLike> accessor : accessors) {
+      Object value = accessor.get(row);
+      hash = 31 * hash + (value == null ? 0 : value.hashCode());
+    }
+    return positiveHash(hash) & mask;
+  }
+
+  private static int positiveHash(int hash) {
+    int positive = Math.abs(hash);
+    return positive == Integer.MIN_VALUE ? Integer.MAX_VALUE : positive;
+  }
 }
\ No newline at end of file
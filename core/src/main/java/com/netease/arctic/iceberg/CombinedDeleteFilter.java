@@ -20,11 +20,18 @@ package com.netease.arctic.iceberg;
 
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.io.CloseablePredicate;
+import com.netease.arctic.io.ParallelCloseableIterable;
 import com.netease.arctic.utils.ContentFiles;
-import com.netease.arctic.utils.map.StructLikeBaseMap;
+import com.netease.arctic.utils.SerializationUtil;
+import com.netease.arctic.utils.map.DeleteFileCache;
+import com.netease.arctic.utils.map.FixedSizeEstimator;
+import com.netease.arctic.utils.map.PosDeleteIndex;
+import com.netease.arctic.utils.map.SimpleMap;
 import com.netease.arctic.utils.map.StructLikeCollections;
+import com.netease.arctic.utils.map.StructLikeWrapperSchemaSizeEstimator;
 import org.apache.iceberg.Accessor;
 import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
 import org.apache.iceberg.MetadataColumns;
 import org.apache.iceberg.Schema;
@@ -34,8 +41,10 @@ import org.apache.iceberg.data.Record;
 import org.apache.iceberg.data.avro.DataReader;
 import org.apache.iceberg.data.orc.GenericOrcReader;
 import org.apache.iceberg.data.parquet.GenericParquetReaders;
+import org.apache.iceberg.deletes.PositionDelete;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.io.CloseableIterable;
-import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.DeleteSchemaUtil;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.orc.ORC;
@@ -45,19 +54,24 @@ import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.Filter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Special point:
@@ -75,10 +89,20 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
   private static final Accessor<StructLike> POSITION_ACCESSOR = POS_DELETE_SCHEMA
       .accessorForField(MetadataColumns.DELETE_FILE_POS.fieldId());
 
+  // projection of position delete files in the delete file cache
+  private static final String POSITIONS = "positions";
+
+  // heap size of the LSN of a delete key in the hash table
+  private static final long LSN_SIZE_IN_BYTES = new FixedSizeEstimator<Long>().sizeEstimate(0L);
+
   private final List<DeleteFile> posDeletes;
   private final List<DeleteFile> eqDeletes;
 
-  private Map<String, Set<Long>> positionMap;
+  private PosDeleteIndex positionIndex;
+
+  // position delete files read for each data file, and read once for all data files
+  private List<DeleteFile> dataFilePosDeletes;
+  private List<DeleteFile> sharedPosDeletes;
 
   private final Set<String> positionPathSets;
 
@@ -90,11 +114,28 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
 
   private StructLikeCollections structLikeCollections = StructLikeCollections.DEFAULT;
 
+  private Boolean sortMergeEqDeletes;
+
+  private final DeleteKeyBounds deleteKeyBounds;
+
   protected CombinedDeleteFilter(
       ContentFile<?>[] deleteFiles,
       Set<String> positionPathSets,
       Schema tableSchema,
       StructLikeCollections structLikeCollections) {
+    this(deleteFiles, positionPathSets, tableSchema, structLikeCollections, null);
+  }
+
+  /**
+   * @param dataFiles data files the deletes are applied to, equality deletes out of the bounds of delete fields of
+   *                  the data files are skipped if all data files have the bounds
+   */
+  protected CombinedDeleteFilter(
+      ContentFile<?>[] deleteFiles,
+      Set<String> positionPathSets,
+      Schema tableSchema,
+      StructLikeCollections structLikeCollections,
+      DataFile[] dataFiles) {
     ImmutableList.Builder<DeleteFile> posDeleteBuilder = ImmutableList.builder();
     ImmutableList.Builder<DeleteFile> eqDeleteBuilder = ImmutableList.builder();
     if (deleteFiles != null) {
@@ -121,9 +162,22 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
 
     this.positionPathSets = positionPathSets;
     this.posDeletes = posDeleteBuilder.build();
-    this.eqDeletes = eqDeleteBuilder.build();
     this.deleteSchema = TypeUtil.select(tableSchema, deleteIds);
 
+    List<DeleteFile> allEqDeletes = eqDeleteBuilder.build();
+    this.deleteKeyBounds = allEqDeletes.isEmpty() ? null : DeleteKeyBounds.of(dataFiles, deleteSchema.asStruct());
+    if (deleteKeyBounds != null) {
+      this.eqDeletes = allEqDeletes.stream()
+          .filter(deleteKeyBounds::mayOverlap)
+          .collect(Collectors.toList());
+      if (eqDeletes.size() < allEqDeletes.size()) {
+        LOG.info("Skip {} of {} equality delete files out of the key bounds of data files",
+            allEqDeletes.size() - eqDeletes.size(), allEqDeletes.size());
+      }
+    } else {
+      this.eqDeletes = allEqDeletes;
+    }
+
     if (structLikeCollections != null) {
       this.structLikeCollections = structLikeCollections;
     }
@@ -133,6 +187,16 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
 
   protected abstract ArcticFileIO getArcticFileIo();
 
+  /**
+   * Serializer of data rows, data rows are spilled to local files while equality deletes are applied by sort-merge,
+   * so that data files are read only once. Equality deletes are always applied by a hash table of delete keys if it
+   * is null.
+   */
+  @Nullable
+  protected SerializationUtil.SimpleSerializer<T> rowSerializer() {
+    return null;
+  }
+
   public Set<Integer> deleteIds() {
     return deleteIds;
   }
@@ -141,8 +205,19 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
     return posDeletes != null && posDeletes.size() > 0;
   }
 
+  /**
+   * Whether any delete file is applied to the data files, equality delete files out of the key bounds of data files
+   * are not counted.
+   */
+  public boolean hasDeletes() {
+    return hasPosition() || !eqDeletes.isEmpty();
+  }
+
   public void close() {
-    positionMap = null;
+    if (positionIndex != null) {
+      positionIndex.close();
+    }
+    positionIndex = null;
     try {
       if (eqPredicate != null) {
         eqPredicate.close();
@@ -154,10 +229,16 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
   }
 
   public CloseableIterable<StructForDelete<T>> filter(CloseableIterable<StructForDelete<T>> records) {
+    if (sortMergeEqDeletes()) {
+      return sortMerger().merge(this::eqDeleteRecords, records, applyPosDeletes(), false);
+    }
     return applyEqDeletes(applyPosDeletes(records));
   }
 
   public CloseableIterable<StructForDelete<T>> filterNegate(CloseableIterable<StructForDelete<T>> records) {
+    if (sortMergeEqDeletes()) {
+      return sortMerger().merge(this::eqDeleteRecords, records, applyPosDeletes(), true);
+    }
     Predicate<StructForDelete<T>> inEq = applyEqDeletes();
     Predicate<StructForDelete<T>> inPos = applyPosDeletes();
     Predicate<StructForDelete<T>> or = inEq.or(inPos);
@@ -180,17 +261,12 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
       return record -> false;
     }
 
-    CloseableIterable<RecordWithLsn> deleteRecords = CloseableIterable.transform(
-        CloseableIterable.concat(
-            Iterables.transform(
-                eqDeletes, s -> CloseableIterable.transform(
-                    openDeletes(ContentFiles.asDeleteFile(s), deleteSchema),
-                    r -> new RecordWithLsn(s.dataSequenceNumber(), r)))),
-        RecordWithLsn::recordCopy);
+    CloseableIterable<RecordWithLsn> deleteRecords = eqDeleteRecords(structLikeCollections.getDeleteFileCache());
 
     InternalRecordWrapper internalRecordWrapper = new InternalRecordWrapper(deleteSchema.asStruct());
 
-    StructLikeBaseMap<Long> structLikeMap = structLikeCollections.createStructLikeMap(deleteSchema.asStruct());
+    SimpleMap<StructLike, Long> structLikeMap =
+        structLikeCollections.createStructLikeMap(deleteSchema.asStruct(), Long.class);
 
     //init map
     try (CloseableIterable<RecordWithLsn> deletes = deleteRecords) {
@@ -225,6 +301,100 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
     return isInDeleteSet;
   }
 
+  private CloseableIterable<RecordWithLsn> eqDeleteRecords() {
+    return eqDeleteRecords(null);
+  }
+
+  /**
+   * Records of all equality delete files, files are read in parallel if delete load parallelism is greater than 1.
+   * Files are read through the delete file cache if it is given.
+   */
+  private CloseableIterable<RecordWithLsn> eqDeleteRecords(@Nullable DeleteFileCache deleteFileCache) {
+    CloseableIterable<RecordWithLsn> records = ParallelCloseableIterable.concat(
+        Iterables.transform(
+            eqDeletes, s -> CloseableIterable.transform(
+                eqDeleteRecords(s, deleteFileCache),
+                r -> new RecordWithLsn(s.dataSequenceNumber(), r))),
+        structLikeCollections.getDeleteLoadParallelism(),
+        getArcticFileIo());
+    if (deleteKeyBounds == null) {
+      return records;
+    }
+    // delete keys out of the bounds can not match any data file
+    InternalRecordWrapper internalRecordWrapper = new InternalRecordWrapper(deleteSchema.asStruct());
+    return CloseableIterable.filter(
+        records, record -> deleteKeyBounds.contains(internalRecordWrapper.wrap(record.getRecord())));
+  }
+
+  private CloseableIterable<Record> eqDeleteRecords(DeleteFile deleteFile, @Nullable DeleteFileCache deleteFileCache) {
+    // records are copied while each file is read, since readers reuse containers
+    Supplier<CloseableIterable<Record>> reader = () -> CloseableIterable.transform(
+        openDeletes(deleteFile, deleteSchema), Record::copy);
+    if (deleteFileCache == null) {
+      return reader.get();
+    }
+    StructLikeWrapperSchemaSizeEstimator sizeEstimator =
+        new StructLikeWrapperSchemaSizeEstimator(deleteSchema.asStruct());
+    return deleteFileCache.read(
+        DeleteFileCache.Key.of(deleteFile.path().toString(), deleteFile.dataSequenceNumber(),
+            deleteSchema.asStruct().toString()),
+        reader,
+        sizeEstimator::structSizeEstimate);
+  }
+
+  /**
+   * Sort-merge is chosen when the estimated size of delete keys exceeds the memory limit of the spillable map, in
+   * which case a hash table of delete keys would be mostly looked up from disk. Sort-merge needs a
+   * {@link #rowSerializer()} to spill data rows.
+   */
+  private boolean sortMergeEqDeletes() {
+    if (sortMergeEqDeletes == null) {
+      sortMergeEqDeletes = !eqDeletes.isEmpty() &&
+          structLikeCollections.isEnableSpillableMap() &&
+          rowSerializer() != null &&
+          EqDeleteSortMerger.isSupported(deleteSchema.asStruct()) &&
+          estimatedEqDeleteSizeInBytes() > structLikeCollections.getMaxInMemorySizeInBytes();
+      if (sortMergeEqDeletes) {
+        LOG.info("Apply equality deletes by sort-merge, estimated size of delete keys {} bytes",
+            estimatedEqDeleteSizeInBytes());
+      }
+    }
+    return sortMergeEqDeletes;
+  }
+
+  /**
+   * Estimate the size of delete keys in the hash table by {@link StructLikeWrapperSchemaSizeEstimator}, with average
+   * lengths of variable-length values from the column sizes of delete files.
+   */
+  private long estimatedEqDeleteSizeInBytes() {
+    long deleteRecordCount = eqDeletes.stream().mapToLong(DeleteFile::recordCount).sum();
+    Map<Integer, Long> averageLengths = Maps.newHashMap();
+    for (Types.NestedField field : TypeUtil.indexById(deleteSchema.asStruct()).values()) {
+      long columnSize = 0L;
+      long recordCount = 0L;
+      for (DeleteFile delete : eqDeletes) {
+        Long size = delete.columnSizes() == null ? null : delete.columnSizes().get(field.fieldId());
+        if (size != null) {
+          columnSize += size;
+          recordCount += delete.recordCount();
+        }
+      }
+      if (recordCount > 0) {
+        averageLengths.put(field.fieldId(), columnSize / recordCount);
+      }
+    }
+    long keySize = new StructLikeWrapperSchemaSizeEstimator(deleteSchema.asStruct()).keySizeEstimate(averageLengths);
+    return deleteRecordCount * (keySize + LSN_SIZE_IN_BYTES);
+  }
+
+  private EqDeleteSortMerger<T> sortMerger() {
+    return new EqDeleteSortMerger<>(
+        deleteSchema.asStruct(),
+        rowSerializer(),
+        structLikeCollections.getMaxInMemorySizeInBytes(),
+        structLikeCollections.getBackendBaseDir());
+  }
+
   private CloseableIterable<StructForDelete<T>> applyEqDeletes(CloseableIterable<StructForDelete<T>> records) {
     Predicate<StructForDelete<T>> remainingRows = applyEqDeletes()
         .negate();
@@ -259,33 +429,14 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
       return record -> false;
     }
 
-    // if there are fewer deletes than a reasonable number to keep in memory, use a set
-    if (positionMap == null) {
-      positionMap = new HashMap<>();
-      List<CloseableIterable<Record>> deletes = Lists.transform(
-          posDeletes,
-          this::openPosDeletes);
-      CloseableIterator<Record> iterator = CloseableIterable.concat(deletes).iterator();
-      while (iterator.hasNext()) {
-        Record deleteRecord = iterator.next();
-        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
-        if (positionPathSets != null && !positionPathSets.contains(path)) {
-          continue;
-        }
-        Set<Long> posSet = positionMap.computeIfAbsent(path, k -> new HashSet<>());
-        posSet.add((Long) POSITION_ACCESSOR.get(deleteRecord));
-      }
+    // positions are loaded lazily for the data file being read
+    if (positionIndex == null) {
+      splitPosDeletes();
+      positionIndex = structLikeCollections.createPosDeleteIndex(this::openPosDeletes, this::openSharedPosDeletes);
     }
 
-    return structLikeForDelete -> {
-      Set<Long> posSet;
-      posSet = positionMap.get(structLikeForDelete.filePath());
-
-      if (posSet == null) {
-        return false;
-      }
-      return posSet.contains(structLikeForDelete.getPosition());
-    };
+    return structLikeForDelete -> positionIndex.isDeleted(
+        structLikeForDelete.filePath(), structLikeForDelete.getPosition());
   }
 
   private CloseableIterable<StructForDelete<T>> applyPosDeletesBase(
@@ -305,11 +456,71 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
     return filter.filter(records);
   }
 
-  private CloseableIterable<Record> openPosDeletes(DeleteFile file) {
-    return openDeletes(file, POS_DELETE_SCHEMA);
+  /**
+   * Position delete files are read for each data file in their file_path bounds only if the bounds prune them to a
+   * single data file, other files are read once for all data files. All files are read for each data file if the
+   * delete file cache is enabled, since the cache parses each file once.
+   */
+  private void splitPosDeletes() {
+    if (structLikeCollections.getDeleteFileCache() != null) {
+      dataFilePosDeletes = posDeletes;
+      sharedPosDeletes = Collections.emptyList();
+    } else {
+      Map<Boolean, List<DeleteFile>> split = posDeletes.stream().collect(Collectors.partitioningBy(
+          deleteFile -> ContentFiles.mayContainPosDeletesOfSingleFile(deleteFile, positionPathSets)));
+      dataFilePosDeletes = split.get(true);
+      sharedPosDeletes = split.get(false);
+    }
+  }
+
+  private CloseableIterable<PositionDelete<?>> openSharedPosDeletes() {
+    CloseableIterable<Record> records = CloseableIterable.concat(
+        Lists.transform(sharedPosDeletes, deleteFile -> openDeletes(deleteFile, POS_DELETE_SCHEMA)));
+    if (positionPathSets != null) {
+      records = CloseableIterable.filter(
+          records, record -> positionPathSets.contains(FILENAME_ACCESSOR.get(record).toString()));
+    }
+    PositionDelete<Void> positionDelete = PositionDelete.create();
+    return CloseableIterable.transform(records, record -> positionDelete.set(
+        (CharSequence) FILENAME_ACCESSOR.get(record), (Long) POSITION_ACCESSOR.get(record), null));
+  }
+
+  private CloseableIterable<Long> openPosDeletes(String dataFilePath) {
+    if (positionPathSets != null && !positionPathSets.contains(dataFilePath)) {
+      return CloseableIterable.empty();
+    }
+
+    DeleteFileCache deleteFileCache = structLikeCollections.getDeleteFileCache();
+    if (deleteFileCache != null) {
+      // whole files are parsed into the cache, since other tasks read positions of other data files
+      return CloseableIterable.concat(dataFilePosDeletes.stream()
+          .filter(deleteFile -> ContentFiles.mayContainPosDeletes(deleteFile, dataFilePath))
+          .map(deleteFile -> deleteFileCache.readPositions(
+              DeleteFileCache.Key.of(deleteFile.path().toString(), deleteFile.dataSequenceNumber(), POSITIONS),
+              dataFilePath,
+              () -> openDeletes(deleteFile, POS_DELETE_SCHEMA),
+              record -> (CharSequence) FILENAME_ACCESSOR.get(record),
+              record -> (Long) POSITION_ACCESSOR.get(record)))
+          .collect(Collectors.toList()));
+    }
+
+    List<CloseableIterable<Record>> deletes = dataFilePosDeletes.stream()
+        .filter(deleteFile -> ContentFiles.mayContainPosDeletes(deleteFile, dataFilePath))
+        .map(deleteFile -> openDeletes(
+            deleteFile, POS_DELETE_SCHEMA,
+            Expressions.equal(MetadataColumns.DELETE_FILE_PATH.name(), dataFilePath)))
+        .collect(Collectors.toList());
+    CloseableIterable<Record> records = CloseableIterable.filter(
+        CloseableIterable.concat(deletes),
+        record -> dataFilePath.equals(FILENAME_ACCESSOR.get(record).toString()));
+    return CloseableIterable.transform(records, record -> (Long) POSITION_ACCESSOR.get(record));
   }
 
   private CloseableIterable<Record> openDeletes(DeleteFile deleteFile, Schema deleteSchema) {
+    return openDeletes(deleteFile, deleteSchema, Expressions.alwaysTrue());
+  }
+
+  private CloseableIterable<Record> openDeletes(DeleteFile deleteFile, Schema deleteSchema, Expression filter) {
     InputFile input = getInputFile(deleteFile.path().toString());
     switch (deleteFile.format()) {
       case AVRO:
@@ -320,8 +531,10 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
             .build();
 
       case PARQUET:
+        // the filter only skips row groups, rows still need to be checked by the caller
         return Parquet.read(input)
             .project(deleteSchema)
+            .filter(filter)
             .reuseContainers()
             .createReaderFunc(fileSchema -> GenericParquetReaders.buildReader(deleteSchema, fileSchema))
             .build();
@@ -360,5 +573,6 @@ public abstract class CombinedDeleteFilter<T extends StructLike> {
       record = record.copy();
       return this;
     }
+
   }
 }
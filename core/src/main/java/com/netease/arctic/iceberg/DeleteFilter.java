@@ -20,6 +20,7 @@ package com.netease.arctic.iceberg;
 
 import com.netease.arctic.io.CloseableIterableWrapper;
 import com.netease.arctic.io.CloseablePredicate;
+import com.netease.arctic.io.ParallelCloseableIterable;
 import com.netease.arctic.utils.StructLikeSet;
 import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.iceberg.Accessor;
@@ -155,11 +156,11 @@ public abstract class DeleteFilter<T> {
       // a projection to select and reorder fields of the file schema to match the delete rows
       StructProjection projectRow = StructProjection.create(requiredSchema, deleteSchema);
 
-      Iterable<CloseableIterable<Record>> deleteRecords = Iterables.transform(deletes,
-          delete -> openDeletes(delete, deleteSchema));
+      // copy the delete records because they will be held in a set
+      Iterable<CloseableIterable<StructLike>> deleteRecords = Iterables.transform(deletes,
+          delete -> CloseableIterable.transform(openDeletes(delete, deleteSchema), Record::copy));
       StructLikeSet deleteSet = Deletes.toEqualitySet(
-          // copy the delete records because they will be held in a set
-          CloseableIterable.transform(CloseableIterable.concat(deleteRecords), Record::copy),
+          ParallelCloseableIterable.concat(deleteRecords, structLikeCollections.getDeleteLoadParallelism(), null),
           deleteSchema.asStruct(), structLikeCollections);
 
       Predicate<T> isInDeleteSet = record -> deleteSet.contains(projectRow.wrap(asStructLike(record)));
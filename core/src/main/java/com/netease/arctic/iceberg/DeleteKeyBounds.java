@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.iceberg;
+
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lower and upper bounds of equality delete fields over a set of data files, built from the column stats of the data
+ * files. Delete files and delete keys out of the bounds can not delete any row of the data files.
+ */
+public class DeleteKeyBounds {
+
+  private final List<Types.NestedField> fields;
+  private final Comparator<Object>[] comparators;
+  private final Object[] lowerBounds;
+  private final Object[] upperBounds;
+
+  private DeleteKeyBounds(
+      List<Types.NestedField> fields, Comparator<Object>[] comparators,
+      Object[] lowerBounds, Object[] upperBounds) {
+    this.fields = fields;
+    this.comparators = comparators;
+    this.lowerBounds = lowerBounds;
+    this.upperBounds = upperBounds;
+  }
+
+  /**
+   * Build the bounds of delete fields over data files.
+   *
+   * @param dataFiles  data files deletes are applied to
+   * @param deleteType struct type of equality delete fields
+   * @return null if any data file has no bounds for a delete field, or a delete field is not supported
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public static DeleteKeyBounds of(DataFile[] dataFiles, Types.StructType deleteType) {
+    if (dataFiles == null || dataFiles.length == 0) {
+      return null;
+    }
+    List<Types.NestedField> fields = deleteType.fields();
+    if (fields.isEmpty()) {
+      return null;
+    }
+    Comparator<Object>[] comparators = new Comparator[fields.size()];
+    Object[] lowerBounds = new Object[fields.size()];
+    Object[] upperBounds = new Object[fields.size()];
+    for (int i = 0; i < fields.size(); i++) {
+      Types.NestedField field = fields.get(i);
+      if (!isSupported(field.type())) {
+        return null;
+      }
+      comparators[i] = (Comparator<Object>) Comparators.forType(field.type().asPrimitiveType());
+      for (DataFile dataFile : dataFiles) {
+        Object lower = bound(dataFile.lowerBounds(), field);
+        Object upper = bound(dataFile.upperBounds(), field);
+        if (lower == null || upper == null) {
+          return null;
+        }
+        if (lowerBounds[i] == null || comparators[i].compare(lower, lowerBounds[i]) < 0) {
+          lowerBounds[i] = lower;
+        }
+        if (upperBounds[i] == null || comparators[i].compare(upper, upperBounds[i]) > 0) {
+          upperBounds[i] = upper;
+        }
+      }
+    }
+    return new DeleteKeyBounds(fields, comparators, lowerBounds, upperBounds);
+  }
+
+  /**
+   * Check whether the delete file may contain keys in the bounds, true if the delete file has no bounds.
+   */
+  public boolean mayOverlap(ContentFile<?> deleteFile) {
+    for (int i = 0; i < fields.size(); i++) {
+      Object lower = bound(deleteFile.lowerBounds(), fields.get(i));
+      Object upper = bound(deleteFile.upperBounds(), fields.get(i));
+      if (lower != null && comparators[i].compare(lower, upperBounds[i]) > 0) {
+        return false;
+      }
+      if (upper != null && comparators[i].compare(upper, lowerBounds[i]) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Check whether the delete key is in the bounds.
+   *
+   * @param deleteKey delete key with values of delete fields in the internal representation, like
+   *                  {@link InternalRecordWrapper}
+   */
+  public boolean contains(StructLike deleteKey) {
+    for (int i = 0; i < fields.size(); i++) {
+      Object value = deleteKey.get(i, Object.class);
+      if (value == null) {
+        // bounds do not count nulls
+        continue;
+      }
+      if (comparators[i].compare(value, lowerBounds[i]) < 0 || comparators[i].compare(value, upperBounds[i]) > 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupported(Type type) {
+    if (!type.isPrimitiveType()) {
+      return false;
+    }
+    switch (type.typeId()) {
+      case FLOAT:
+      case DOUBLE:
+        // bounds do not count NaN
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  private static Object bound(Map<Integer, ByteBuffer> bounds, Types.NestedField field) {
+    if (bounds == null) {
+      return null;
+    }
+    ByteBuffer bound = bounds.get(field.fieldId());
+    return bound == null ? null : Conversions.fromByteBuffer(field.type(), bound);
+  }
+}
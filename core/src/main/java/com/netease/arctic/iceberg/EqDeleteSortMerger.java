@@ -0,0 +1,456 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.iceberg;
+
+import com.netease.arctic.utils.BinaryStructLikeSerializer;
+import com.netease.arctic.utils.SerializationUtil;
+import com.netease.arctic.utils.map.ExternalSorter;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.primitives.UnsignedBytes;
+import org.apache.iceberg.types.Types;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Apply equality deletes by sort-merge instead of a hash table of delete keys.
+ * <p>
+ * Deletes and the keys of data rows are externally sorted by the order-preserving binary encoding of the primary
+ * key, then merged in a single pass into the ordinals of deleted rows. A data row is deleted if the max LSN of
+ * deletes with the same key is greater than the LSN of the row. Spilled runs are written and read sequentially, so
+ * this is cheaper than random lookups into a spilled hash table when the delete set is much larger than memory.
+ * <p>
+ * Data rows are read only once. Only keys and row ordinals are sorted, while the rows are spilled in their original
+ * order to a local file along the sort, and read back from it and filtered by the ordinals of deleted rows.
+ */
+class EqDeleteSortMerger<T extends StructLike> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EqDeleteSortMerger.class);
+
+  private static final Comparator<byte[]> KEY_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+  private static final Comparator<SortEntry> ENTRY_COMPARATOR = (e1, e2) -> KEY_COMPARATOR.compare(e1.key, e2.key);
+  // object headers and references of an entry buffered in memory
+  private static final long ENTRY_OVERHEAD_IN_BYTES = 64L;
+
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+
+  private final InternalRecordWrapper internalRecordWrapper;
+  private final BinaryStructLikeSerializer keySerializer;
+  private final StructLikeWrapperFactory structLikeWrapperFactory;
+  private final SerializationUtil.SimpleSerializer<T> rowSerializer;
+  private final long maxInMemorySizeInBytes;
+  private final String spillBaseDir;
+
+  /**
+   * @param deleteType             type of delete keys
+   * @param rowSerializer          serializer of data rows spilled along the sort
+   * @param maxInMemorySizeInBytes memory limit of the sorters
+   * @param spillBaseDir           local directory of sorted runs and spilled rows, the temp directory if null
+   */
+  EqDeleteSortMerger(
+      Types.StructType deleteType,
+      SerializationUtil.SimpleSerializer<T> rowSerializer,
+      long maxInMemorySizeInBytes,
+      String spillBaseDir) {
+    this.internalRecordWrapper = new InternalRecordWrapper(deleteType);
+    this.structLikeWrapperFactory = new StructLikeWrapperFactory(deleteType);
+    this.keySerializer = new BinaryStructLikeSerializer(deleteType, structLikeWrapperFactory);
+    this.rowSerializer = rowSerializer;
+    // deletes and data are sorted by two sorters living at the same time
+    this.maxInMemorySizeInBytes = maxInMemorySizeInBytes / 2;
+    this.spillBaseDir = spillBaseDir;
+  }
+
+  static boolean isSupported(Types.StructType deleteType) {
+    return BinaryStructLikeSerializer.isSupported(deleteType);
+  }
+
+  /**
+   * Merge data rows with deletes, data rows are read once for each iterator.
+   *
+   * @param deletes    supplier of delete keys with their LSN, deletes are read again for each iterator
+   * @param records    data rows
+   * @param posDeleted whether a data row is deleted by position deletes
+   * @param negate     return deleted rows instead of remaining rows if true
+   */
+  CloseableIterable<StructForDelete<T>> merge(
+      Supplier<CloseableIterable<CombinedDeleteFilter.RecordWithLsn>> deletes,
+      CloseableIterable<StructForDelete<T>> records,
+      Predicate<StructForDelete<T>> posDeleted,
+      boolean negate) {
+    return new CloseableIterable<StructForDelete<T>>() {
+      private final List<MergeIterator> iterators = Lists.newArrayList();
+
+      @Override
+      public CloseableIterator<StructForDelete<T>> iterator() {
+        MergeIterator iterator = new MergeIterator(deletes, records, posDeleted, negate);
+        iterators.add(iterator);
+        return iterator;
+      }
+
+      @Override
+      public void close() throws IOException {
+        for (MergeIterator iterator : iterators) {
+          iterator.close();
+        }
+        iterators.clear();
+        records.close();
+      }
+    };
+  }
+
+  private ExternalSorter<SortEntry> newSorter() {
+    return new ExternalSorter<>(
+        ENTRY_COMPARATOR, SortEntry.SERIALIZER, SortEntry::sizeInBytes, maxInMemorySizeInBytes, spillBaseDir);
+  }
+
+  private byte[] encodeKey(StructLike pk) {
+    return keySerializer.serialize(structLikeWrapperFactory.create().set(internalRecordWrapper.copyFor(pk)));
+  }
+
+  private class MergeIterator implements CloseableIterator<StructForDelete<T>> {
+    private final Supplier<CloseableIterable<CombinedDeleteFilter.RecordWithLsn>> deletes;
+    private final CloseableIterable<StructForDelete<T>> records;
+    private final Predicate<StructForDelete<T>> posDeleted;
+    private final boolean negate;
+
+    private ExternalSorter<SortEntry> deleteSorter;
+    private ExternalSorter<SortEntry> dataSorter;
+    private Roaring64Bitmap eqDeletedOrdinals;
+    private SpilledRows rows;
+    // wrapper of data rows from the records, spilled rows are wrapped by it again
+    private StructForDelete<T> wrapper;
+    private long ordinal = 0L;
+    private StructForDelete<T> next;
+    private boolean closed = false;
+
+    MergeIterator(
+        Supplier<CloseableIterable<CombinedDeleteFilter.RecordWithLsn>> deletes,
+        CloseableIterable<StructForDelete<T>> records,
+        Predicate<StructForDelete<T>> posDeleted,
+        boolean negate) {
+      this.deletes = deletes;
+      this.records = records;
+      this.posDeleted = posDeleted;
+      this.negate = negate;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (closed) {
+        return false;
+      }
+      if (rows == null) {
+        rows = new SpilledRows();
+        eqDeletedOrdinals = mergeDeletedOrdinals();
+      }
+      while (next == null && rows.hasNext()) {
+        boolean rowPosDeleted = rows.nextPosDeleted();
+        T row = rows.nextRow();
+        boolean deleted = eqDeletedOrdinals.contains(ordinal++) || rowPosDeleted;
+        if (deleted == negate) {
+          next = wrapper.wrap(row);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public StructForDelete<T> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      StructForDelete<T> result = next;
+      next = null;
+      return result;
+    }
+
+    /**
+     * Sort deletes and keys of data rows, spill data rows, and merge the keys into ordinals of rows deleted by
+     * equality deletes.
+     */
+    private Roaring64Bitmap mergeDeletedOrdinals() {
+      try {
+        deleteSorter = newSorter();
+        try (CloseableIterable<CombinedDeleteFilter.RecordWithLsn> closeable = deletes.get()) {
+          for (CombinedDeleteFilter.RecordWithLsn delete : closeable) {
+            deleteSorter.add(new SortEntry(encodeKey(delete.getRecord()), delete.getLsn(), -1L));
+          }
+        }
+        dataSorter = newSorter();
+        try (CloseableIterator<StructForDelete<T>> iterator = records.iterator()) {
+          long dataOrdinal = 0L;
+          while (iterator.hasNext()) {
+            StructForDelete<T> record = iterator.next();
+            boolean recordPosDeleted = posDeleted.test(record);
+            // rows deleted by position are not returned anyway
+            if (!negate && recordPosDeleted) {
+              continue;
+            }
+            wrapper = record;
+            rows.write(recordPosDeleted, record.recover());
+            dataSorter.add(new SortEntry(encodeKey(record.getPk()), record.getLsn(), dataOrdinal++));
+          }
+        }
+        rows.finishWriting();
+        LOG.info("Merging equality deletes with data, spilled {} delete runs, {} data runs and {} data rows",
+            deleteSorter.spilledRunCount(), dataSorter.spilledRunCount(), rows.count);
+
+        Roaring64Bitmap ordinals = new Roaring64Bitmap();
+        try (CloseableIterator<SortEntry> deleteEntries = deleteSorter.sortedIterator();
+             CloseableIterator<SortEntry> dataEntries = dataSorter.sortedIterator()) {
+          DeleteGroups groups = new DeleteGroups(deleteEntries);
+          while (dataEntries.hasNext()) {
+            SortEntry data = dataEntries.next();
+            if (groups.isDeleted(data)) {
+              ordinals.addLong(data.ordinal);
+            }
+          }
+        }
+        return ordinals;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        closeSorters();
+      }
+    }
+
+    private void closeSorters() {
+      if (deleteSorter != null) {
+        deleteSorter.close();
+        deleteSorter = null;
+      }
+      if (dataSorter != null) {
+        dataSorter.close();
+        dataSorter = null;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      closeSorters();
+      eqDeletedOrdinals = null;
+      next = null;
+      wrapper = null;
+      if (rows != null) {
+        rows.close();
+        rows = null;
+      }
+    }
+  }
+
+  /**
+   * Data rows spilled in their original order with whether they are deleted by position deletes, written once and
+   * then read sequentially.
+   */
+  private class SpilledRows implements Closeable {
+    private final File file;
+    private DataOutputStream output;
+    private DataInputStream input;
+    private long count = 0L;
+    private long read = 0L;
+
+    SpilledRows() {
+      String baseDir = spillBaseDir == null ? System.getProperty("java.io.tmpdir") : spillBaseDir;
+      this.file = new File(baseDir, "rows-" + UUID.randomUUID());
+      try {
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), IO_BUFFER_SIZE));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to create spilled rows " + file, e);
+      }
+    }
+
+    void write(boolean rowPosDeleted, T row) throws IOException {
+      byte[] bytes = rowSerializer.serialize(row);
+      output.writeBoolean(rowPosDeleted);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+      count++;
+    }
+
+    void finishWriting() throws IOException {
+      output.close();
+      output = null;
+      input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), IO_BUFFER_SIZE));
+    }
+
+    boolean hasNext() {
+      return read < count;
+    }
+
+    boolean nextPosDeleted() {
+      try {
+        return input.readBoolean();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read spilled rows " + file, e);
+      }
+    }
+
+    T nextRow() {
+      try {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        read++;
+        return rowSerializer.deserialize(bytes);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read spilled rows " + file, e);
+      }
+    }
+
+    @Override
+    public void close() {
+      try {
+        if (output != null) {
+          output.close();
+        }
+        if (input != null) {
+          input.close();
+        }
+      } catch (IOException e) {
+        LOG.warn("Failed to close spilled rows {}", file, e);
+      }
+      output = null;
+      input = null;
+      if (file.exists() && !file.delete()) {
+        LOG.warn("Failed to delete spilled rows {}", file);
+      }
+    }
+  }
+
+  /**
+   * Groups of sorted deletes with the same key, data entries come in key order, so delete groups with smaller keys
+   * could be skipped for good.
+   */
+  private static class DeleteGroups {
+    private final CloseableIterator<SortEntry> deleteEntries;
+    // key and max LSN of the current group of deletes, and the first delete of the next group
+    private byte[] deleteKey;
+    private long deleteLsn;
+    private SortEntry nextDelete;
+
+    DeleteGroups(CloseableIterator<SortEntry> deleteEntries) {
+      this.deleteEntries = deleteEntries;
+      this.nextDelete = deleteEntries.hasNext() ? deleteEntries.next() : null;
+      nextGroup();
+    }
+
+    boolean isDeleted(SortEntry data) {
+      while (deleteKey != null && KEY_COMPARATOR.compare(deleteKey, data.key) < 0) {
+        nextGroup();
+      }
+      return deleteKey != null && KEY_COMPARATOR.compare(deleteKey, data.key) == 0 && deleteLsn > data.lsn;
+    }
+
+    /**
+     * Merge all deletes of the next key into its max LSN.
+     */
+    private void nextGroup() {
+      if (nextDelete == null) {
+        deleteKey = null;
+        return;
+      }
+      deleteKey = nextDelete.key;
+      deleteLsn = nextDelete.lsn;
+      nextDelete = null;
+      while (deleteEntries.hasNext()) {
+        SortEntry delete = deleteEntries.next();
+        if (KEY_COMPARATOR.compare(delete.key, deleteKey) != 0) {
+          nextDelete = delete;
+          break;
+        }
+        deleteLsn = Math.max(deleteLsn, delete.lsn);
+      }
+    }
+  }
+
+  /**
+   * Key with the LSN of a delete or a data row, and the ordinal of the data row in all data rows.
+   */
+  static class SortEntry {
+    static final SerializationUtil.SimpleSerializer<SortEntry> SERIALIZER =
+        new SerializationUtil.SimpleSerializer<SortEntry>() {
+          @Override
+          public byte[] serialize(SortEntry entry) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.key.length + 20);
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+              output.writeInt(entry.key.length);
+              output.write(entry.key);
+              output.writeLong(entry.lsn);
+              output.writeLong(entry.ordinal);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+          }
+
+          @Override
+          public SortEntry deserialize(byte[] bytes) {
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+              byte[] key = new byte[input.readInt()];
+              input.readFully(key);
+              long lsn = input.readLong();
+              long ordinal = input.readLong();
+              return new SortEntry(key, lsn, ordinal);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }
+        };
+
+    private final byte[] key;
+    private final long lsn;
+    private final long ordinal;
+
+    SortEntry(byte[] key, long lsn, long ordinal) {
+      this.key = key;
+      this.lsn = lsn;
+      this.ordinal = ordinal;
+    }
+
+    long sizeInBytes() {
+      return ENTRY_OVERHEAD_IN_BYTES + key.length;
+    }
+  }
+}
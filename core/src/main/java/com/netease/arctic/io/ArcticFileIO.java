@@ -18,10 +18,13 @@
 
 package com.netease.arctic.io;
 
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.io.SupportsPrefixOperations;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 /**
@@ -49,6 +52,48 @@ public interface ArcticFileIO extends FileIO {
     return inputFile.exists();
   }
 
+  /**
+   * Check which of the paths exist, in a single security context.
+   *
+   * @param paths paths to check
+   * @return the paths that exist
+   */
+  default Set<String> existingPaths(Iterable<String> paths) {
+    return doAs(() -> {
+      Set<String> existing = Sets.newHashSet();
+      for (String path : paths) {
+        if (exists(path)) {
+          existing.add(path);
+        }
+      }
+      return existing;
+    });
+  }
+
+  /**
+   * Delete the files, in a single security context. Files are deleted as {@link #deleteFile(String)} does, like
+   * being moved to the trash of the table.
+   *
+   * @param paths paths of files to delete
+   * @throws BulkDeletionFailureException if any file is failed to delete, the other files are still deleted
+   */
+  default void deleteFiles(Iterable<String> paths) throws BulkDeletionFailureException {
+    int failures = doAs(() -> {
+      int failed = 0;
+      for (String path : paths) {
+        try {
+          deleteFile(path);
+        } catch (RuntimeException e) {
+          failed++;
+        }
+      }
+      return failed;
+    });
+    if (failures > 0) {
+      throw new BulkDeletionFailureException(failures);
+    }
+  }
+
   /**
    * Returns true if this tableIo is an {@link SupportsPrefixOperations}
    */
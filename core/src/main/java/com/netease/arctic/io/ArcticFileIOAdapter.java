@@ -18,9 +18,11 @@
 
 package com.netease.arctic.io;
 
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.SupportsBulkOperations;
 import org.apache.iceberg.io.SupportsPrefixOperations;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 
@@ -121,6 +123,15 @@ public class ArcticFileIOAdapter implements ArcticFileIO {
     io.deleteFile(file);
   }
 
+  @Override
+  public void deleteFiles(Iterable<String> paths) throws BulkDeletionFailureException {
+    if (io instanceof SupportsBulkOperations) {
+      ((SupportsBulkOperations) io).deleteFiles(paths);
+    } else {
+      ArcticFileIO.super.deleteFiles(paths);
+    }
+  }
+
   @Override
   public Map<String, String> properties() {
     return io.properties();
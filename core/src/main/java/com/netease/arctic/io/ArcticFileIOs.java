@@ -45,9 +45,16 @@ public class ArcticFileIOs {
       String trashFilePattern = PropertyUtil.propertyAsString(tableProperties, TableProperties.TABLE_TRASH_FILE_PATTERN,
           TableProperties.TABLE_TRASH_FILE_PATTERN_DEFAULT);
 
-      return new RecoverableHadoopFileIO(tableMetaStore, trashManager, trashFilePattern);
+      RecoverableHadoopFileIO recoverableFileIO =
+          new RecoverableHadoopFileIO(tableMetaStore, trashManager, trashFilePattern);
+      recoverableFileIO.setWriteBehindProperties(tableProperties);
+      recoverableFileIO.setCatalogIoProperties(catalogProperties);
+      return recoverableFileIO;
     } else {
-      return new ArcticHadoopFileIO(tableMetaStore);
+      ArcticHadoopFileIO fileIO = new ArcticHadoopFileIO(tableMetaStore);
+      fileIO.setWriteBehindProperties(tableProperties);
+      fileIO.setCatalogIoProperties(catalogProperties);
+      return fileIO;
     }
   }
 
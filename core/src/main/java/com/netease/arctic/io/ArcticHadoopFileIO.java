@@ -18,6 +18,7 @@
 
 package com.netease.arctic.io;
 
+import com.netease.arctic.ams.api.properties.CatalogMetaProperties;
 import com.netease.arctic.table.TableMetaStore;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
@@ -26,19 +27,33 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.iceberg.hadoop.HadoopFileIO;
 import org.apache.iceberg.hadoop.Util;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileInfo;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.io.OutputFile;
 import org.apache.iceberg.io.SupportsPrefixOperations;
 import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -47,8 +62,25 @@ import java.util.stream.Stream;
 public class ArcticHadoopFileIO extends HadoopFileIO
     implements ArcticFileIO, SupportsPrefixOperations, SupportsFileSystemOperations {
 
+  private static final Logger LOG = LoggerFactory.getLogger(ArcticHadoopFileIO.class);
+
+  /**
+   * Number of paths handled in a single security context by bulk operations.
+   */
+  static final int BULK_BATCH_SIZE = 1000;
+  private static final int BULK_THREADS = 8;
+  // bounded, so cleaning a large table does not flood the name node
+  private static final ExecutorService BULK_POOL = Executors.newFixedThreadPool(BULK_THREADS,
+      new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat("arctic-file-io-bulk-%d")
+          .build());
+
   private final TableMetaStore tableMetaStore;
   private boolean fileRecycleEnabled;
+  private final Map<String, String> writeBehindProperties = Maps.newHashMap();
+  private final Map<String, String> catalogIoProperties = Maps.newHashMap();
+  private final ReadAheadMetrics readAheadMetrics = new ReadAheadMetrics();
 
   ArcticHadoopFileIO(TableMetaStore tableMetaStore) {
     super(tableMetaStore.getConfiguration());
@@ -57,17 +89,59 @@ public class ArcticHadoopFileIO extends HadoopFileIO
 
   @Override
   public InputFile newInputFile(String path) {
-    return tableMetaStore.doAs(() -> super.newInputFile(path));
+    InputFile inputFile = tableMetaStore.doAs(() -> super.newInputFile(path));
+    return wrapInputFile(inputFile);
   }
 
   @Override
   public InputFile newInputFile(String path, long length) {
-    return tableMetaStore.doAs(() -> super.newInputFile(path, length));
+    InputFile inputFile = tableMetaStore.doAs(() -> super.newInputFile(path, length));
+    return wrapInputFile(inputFile);
+  }
+
+  /**
+   * Set io properties of the catalog, which enable reading input files ahead
+   * ({@link CatalogMetaProperties#READ_AHEAD_ENABLED}) and caching blocks of input files on local disks
+   * ({@link CatalogMetaProperties#BLOCK_CACHE_ENABLED}).
+   */
+  public void setCatalogIoProperties(Map<String, String> catalogProperties) {
+    catalogIoProperties.clear();
+    catalogProperties.forEach((key, value) -> {
+      if (key.startsWith(CatalogMetaProperties.IO_PROPERTIES_PREFIX)) {
+        catalogIoProperties.put(key, value);
+      }
+    });
+  }
+
+  private InputFile wrapInputFile(InputFile inputFile) {
+    InputFile cachedFile = CachedInputFile.wrap(inputFile, catalogIoProperties);
+    return ReadAheadInputFile.wrap(cachedFile, catalogIoProperties, readAheadMetrics);
+  }
+
+  /**
+   * Metrics of the input files read ahead by this file io.
+   */
+  public ReadAheadMetrics readAheadMetrics() {
+    return readAheadMetrics;
   }
 
   @Override
   public OutputFile newOutputFile(String path) {
-    return tableMetaStore.doAs(() -> super.newOutputFile(path));
+    OutputFile outputFile = tableMetaStore.doAs(() -> super.newOutputFile(path));
+    return WriteBehindOutputFile.wrap(outputFile, writeBehindProperties, this);
+  }
+
+  /**
+   * Upload bytes of output files in background threads if it is enabled by the table properties,
+   * see {@link com.netease.arctic.table.TableProperties#WRITE_BEHIND_ENABLED}.
+   */
+  public void setWriteBehindProperties(Map<String, String> tableProperties) {
+    writeBehindProperties.clear();
+    tableProperties.forEach((key, value) -> {
+      if (key.startsWith(WriteBehindOutputFile.PROPERTIES_PREFIX)) {
+        writeBehindProperties.put(key, value);
+      }
+    });
   }
 
   @Override
@@ -85,6 +159,77 @@ public class ArcticHadoopFileIO extends HadoopFileIO
     });
   }
 
+  @Override
+  public void deleteFiles(Iterable<String> paths) throws BulkDeletionFailureException {
+    int failures = 0;
+    for (int failed : runInBatches(paths, batch -> {
+      int failedInBatch = 0;
+      for (String path : batch) {
+        try {
+          deleteFile(path);
+        } catch (RuntimeException e) {
+          failedInBatch++;
+          LOG.warn("Failed to delete file {}", path, e);
+        }
+      }
+      return failedInBatch;
+    })) {
+      failures += failed;
+    }
+    if (failures > 0) {
+      throw new BulkDeletionFailureException(failures);
+    }
+  }
+
+  @Override
+  public Set<String> existingPaths(Iterable<String> paths) {
+    Set<String> existing = Sets.newHashSet();
+    runInBatches(paths, batch -> {
+      List<String> existingInBatch = Lists.newArrayList();
+      for (String path : batch) {
+        if (exists(path)) {
+          existingInBatch.add(path);
+        }
+      }
+      return existingInBatch;
+    }).forEach(existing::addAll);
+    return existing;
+  }
+
+  /**
+   * Split the paths into batches of {@link #BULK_BATCH_SIZE} and run the action for batches in parallel, each batch
+   * in a single security context. Batches should not run other bulk operations, as the pool is bounded.
+   *
+   * @return results of batches, in the order of batches
+   */
+  <R> List<R> runInBatches(Iterable<String> paths, Function<List<String>, R> action) {
+    List<List<String>> batches = Lists.newArrayList(Iterables.partition(paths, BULK_BATCH_SIZE));
+    if (batches.size() <= 1) {
+      return Lists.newArrayList(Lists.transform(batches, batch -> doAs(() -> action.apply(batch))));
+    }
+    List<Future<R>> futures = Lists.newArrayListWithCapacity(batches.size());
+    for (List<String> batch : batches) {
+      futures.add(BULK_POOL.submit(() -> doAs(() -> action.apply(batch))));
+    }
+    List<R> results = Lists.newArrayListWithCapacity(batches.size());
+    try {
+      for (Future<R> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while running bulk operations", e);
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Failed to run bulk operations", e.getCause());
+    }
+    return results;
+  }
+
   @Override
   public Iterable<PathInfo> listDirectory(String location) {
     return tableMetaStore.doAs(() -> {
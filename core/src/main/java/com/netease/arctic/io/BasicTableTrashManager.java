@@ -20,10 +20,12 @@ package com.netease.arctic.io;
 
 import com.netease.arctic.table.TableIdentifier;
 import com.netease.arctic.utils.TableFileUtil;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.FileInfo;
 import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +37,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Basic implementation of {@link TableTrashManager}.
@@ -100,6 +103,34 @@ class BasicTableTrashManager implements TableTrashManager {
 
   @Override
   public void moveFileToTrash(String path) {
+    moveFileToTrash(path, null);
+  }
+
+  @Override
+  public void moveFilesToTrash(Iterable<String> paths) {
+    int failures = 0;
+    for (int failed : arcticFileIO.runInBatches(paths, batch -> {
+      // trash directories known to exist, files of a batch are usually in the same directories
+      Set<String> trashDirs = Sets.newHashSet();
+      int failedInBatch = 0;
+      for (String path : batch) {
+        try {
+          moveFileToTrash(path, trashDirs);
+        } catch (RuntimeException e) {
+          failedInBatch++;
+        }
+      }
+      return failedInBatch;
+    })) {
+      failures += failed;
+    }
+    if (failures > 0) {
+      LOG.warn("{} failed to move {} files to trash", tableIdentifier, failures);
+      throw new BulkDeletionFailureException(failures);
+    }
+  }
+
+  private void moveFileToTrash(String path, Set<String> trashDirs) {
     try {
       Preconditions.checkArgument(
           !arcticFileIO.supportFileSystemOperations() || !arcticFileIO.asFileSystemIO().isDirectory(path),
@@ -109,8 +140,13 @@ class BasicTableTrashManager implements TableTrashManager {
           this.trashLocation,
           System.currentTimeMillis());
       String targetFileDir = TableFileUtil.getFileDir(targetFileLocation);
-      if (!arcticFileIO.exists(targetFileDir)) {
-        arcticFileIO.makeDirectories(targetFileDir);
+      if (trashDirs == null || !trashDirs.contains(targetFileDir)) {
+        if (!arcticFileIO.exists(targetFileDir)) {
+          arcticFileIO.makeDirectories(targetFileDir);
+        }
+        if (trashDirs != null) {
+          trashDirs.add(targetFileDir);
+        }
       }
       if (arcticFileIO.exists(targetFileLocation)) {
         arcticFileIO.deleteFile(targetFileLocation);
@@ -178,13 +214,14 @@ class BasicTableTrashManager implements TableTrashManager {
 
     Iterable<PathInfo> paths = arcticFileIO.listDirectory(this.trashLocation);
 
-    List<String> targetLocationsInTrash = Lists.newArrayList();
+    List<String> fullLocations = Lists.newArrayList();
     for (PathInfo p : paths) {
-      String fullLocation = p.location() + "/" + targetRelationLocationInTable;
-      if (arcticFileIO.exists(fullLocation)) {
-        if (!arcticFileIO.isDirectory(fullLocation)) {
-          targetLocationsInTrash.add(fullLocation);
-        }
+      fullLocations.add(p.location() + "/" + targetRelationLocationInTable);
+    }
+    List<String> targetLocationsInTrash = Lists.newArrayList();
+    for (String fullLocation : arcticFileIO.existingPaths(fullLocations)) {
+      if (!arcticFileIO.isDirectory(fullLocation)) {
+        targetLocationsInTrash.add(fullLocation);
       }
     }
 
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bound of the bytes buffered by streams of the process, like blocks read ahead or chunks waiting for upload.
+ */
+class BufferBudget {
+
+  private final long maxBytes;
+  private final AtomicLong usedBytes = new AtomicLong(0L);
+
+  BufferBudget(long maxBytes) {
+    Preconditions.checkArgument(maxBytes > 0, "maxBytes should be positive");
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Create a budget sized by a JVM system property, or by a fraction of the max heap size if it is not set.
+   *
+   * @param property     system property of the max bytes
+   * @param heapFraction fraction of the max heap size used if the property is not set
+   */
+  static BufferBudget fromSystemProperty(String property, double heapFraction) {
+    long defaultBytes = Math.max(1L, (long) (Runtime.getRuntime().maxMemory() * heapFraction));
+    return new BufferBudget(Long.getLong(property, defaultBytes));
+  }
+
+  /**
+   * Acquire bytes if the budget has room for them.
+   *
+   * @return false if the used bytes would exceed the budget
+   */
+  boolean tryAcquire(long bytes) {
+    long used = usedBytes.addAndGet(bytes);
+    if (used > maxBytes) {
+      usedBytes.addAndGet(-bytes);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Acquire bytes even if the budget has no room for them, for buffers a stream needs to make progress.
+   */
+  void acquire(long bytes) {
+    usedBytes.addAndGet(bytes);
+  }
+
+  void release(long bytes) {
+    usedBytes.addAndGet(-bytes);
+  }
+
+  long maxBytes() {
+    return maxBytes;
+  }
+
+  long usedBytes() {
+    return usedBytes.get();
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import com.netease.arctic.ams.api.properties.CatalogMetaProperties;
+import org.apache.iceberg.io.IOUtil;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.util.PropertyUtil;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * {@link InputFile} whose streams read blocks of the file through a {@link LocalBlockCache}, see
+ * {@link CatalogMetaProperties#BLOCK_CACHE_ENABLED}. Files larger than the max file size are read directly, since
+ * the cache is meant for small files read again and again, like delete files and change files.
+ */
+public class CachedInputFile implements InputFile {
+
+  private final InputFile file;
+  private final LocalBlockCache cache;
+  private final int blockSize;
+  private final long maxFileSize;
+
+  public CachedInputFile(InputFile file, LocalBlockCache cache, int blockSize, long maxFileSize) {
+    this.file = file;
+    this.cache = cache;
+    this.blockSize = blockSize;
+    this.maxFileSize = maxFileSize;
+  }
+
+  /**
+   * Wrap the input file if the block cache is enabled by the catalog properties.
+   */
+  public static InputFile wrap(InputFile file, Map<String, String> catalogProperties) {
+    if (file instanceof CachedInputFile || !PropertyUtil.propertyAsBoolean(catalogProperties,
+        CatalogMetaProperties.BLOCK_CACHE_ENABLED, CatalogMetaProperties.BLOCK_CACHE_ENABLED_DEFAULT)) {
+      return file;
+    }
+    String directory = PropertyUtil.propertyAsString(catalogProperties, CatalogMetaProperties.BLOCK_CACHE_DIR,
+        System.getProperty("java.io.tmpdir"));
+    long capacity = PropertyUtil.propertyAsLong(catalogProperties, CatalogMetaProperties.BLOCK_CACHE_CAPACITY_BYTES,
+        CatalogMetaProperties.BLOCK_CACHE_CAPACITY_BYTES_DEFAULT);
+    return new CachedInputFile(
+        file,
+        LocalBlockCache.getOrCreateSharedInstance(directory, capacity),
+        PropertyUtil.propertyAsInt(catalogProperties, CatalogMetaProperties.BLOCK_CACHE_BLOCK_SIZE_BYTES,
+            CatalogMetaProperties.BLOCK_CACHE_BLOCK_SIZE_BYTES_DEFAULT),
+        PropertyUtil.propertyAsLong(catalogProperties, CatalogMetaProperties.BLOCK_CACHE_MAX_FILE_SIZE_BYTES,
+            CatalogMetaProperties.BLOCK_CACHE_MAX_FILE_SIZE_BYTES_DEFAULT));
+  }
+
+  @Override
+  public long getLength() {
+    return file.getLength();
+  }
+
+  @Override
+  public SeekableInputStream newStream() {
+    long length = file.getLength();
+    if (length > maxFileSize) {
+      return file.newStream();
+    }
+    return new CachedInputStream(length);
+  }
+
+  @Override
+  public String location() {
+    return file.location();
+  }
+
+  @Override
+  public boolean exists() {
+    return file.exists();
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+
+  private class CachedInputStream extends SeekableInputStream {
+    private final long length;
+    private SeekableInputStream stream;
+    private byte[] block;
+    private long blockOffset = -1L;
+    private long pos = 0L;
+    private boolean closed = false;
+
+    CachedInputStream(long length) {
+      this.length = length;
+    }
+
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      checkOpen();
+      if (newPos < 0) {
+        throw new EOFException("Cannot seek to a negative position: " + newPos);
+      }
+      pos = newPos;
+    }
+
+    @Override
+    public int read() throws IOException {
+      checkOpen();
+      if (pos >= length) {
+        return -1;
+      }
+      loadBlock();
+      int value = block[(int) (pos - blockOffset)] & 0xFF;
+      pos += 1;
+      return value;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+      checkOpen();
+      Preconditions.checkPositionIndexes(off, off + len, bytes.length);
+      if (len == 0) {
+        return 0;
+      }
+      if (pos >= length) {
+        return -1;
+      }
+      int read = 0;
+      while (read < len && pos < length) {
+        loadBlock();
+        int blockPos = (int) (pos - blockOffset);
+        int toCopy = Math.min(len - read, block.length - blockPos);
+        System.arraycopy(block, blockPos, bytes, off + read, toCopy);
+        pos += toCopy;
+        read += toCopy;
+      }
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      block = null;
+      if (stream != null) {
+        stream.close();
+      }
+    }
+
+    private void checkOpen() throws IOException {
+      if (closed) {
+        throw new IOException("Stream is closed: " + file.location());
+      }
+    }
+
+    private void loadBlock() throws IOException {
+      long offset = pos / blockSize * blockSize;
+      if (offset == blockOffset) {
+        return;
+      }
+      int blockLength = (int) Math.min(blockSize, length - offset);
+      block = cache.read(file.location(), length, offset, blockLength, () -> readFromFile(offset, blockLength));
+      blockOffset = offset;
+    }
+
+    private byte[] readFromFile(long offset, int blockLength) throws IOException {
+      if (stream == null) {
+        stream = file.newStream();
+      }
+      byte[] bytes = new byte[blockLength];
+      stream.seek(offset);
+      IOUtil.readFully(stream, bytes, 0, blockLength);
+      return bytes;
+    }
+  }
+}
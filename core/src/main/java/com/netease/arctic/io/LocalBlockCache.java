@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.iceberg.relocated.com.google.common.base.Objects;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of file blocks on local disks shared by the threads of the process.
+ * <p>
+ * Table files are immutable, so a block is keyed by the file path, the file length and the range of the block. Each
+ * cached block is stored as a file in a directory created under the cache directory for the process. Once the cached
+ * blocks exceed the capacity, the least recently used blocks are deleted.
+ * <p>
+ * The directory is deleted with its blocks when the cache is closed or the process exits. The directory holds a lock
+ * file locked while the process is alive, so directories left by processes killed before cleaning up are found and
+ * deleted when a new cache is created under the same cache directory.
+ */
+public class LocalBlockCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LocalBlockCache.class);
+
+  private static final Map<String, LocalBlockCache> SHARED_INSTANCES = Maps.newHashMap();
+
+  private static final String DIRECTORY_PREFIX = "block-cache-";
+  private static final String LOCK_FILE = ".lock";
+  // a directory without a lock file is being created, or left by a process killed before locking it
+  private static final long UNLOCKED_DIRECTORY_TTL_MS = 10 * 60 * 1000L;
+
+  private final Path directory;
+  private final FileChannel lockChannel;
+  private final FileLock lock;
+  private final long capacityInBytes;
+  // access ordered, the eldest block is the least recently used one
+  private final LinkedHashMap<Key, CachedBlock> blocks = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeInBytes = 0L;
+  private long nextFileId = 0L;
+  private long hitCount = 0L;
+  private long missCount = 0L;
+  private long evictionCount = 0L;
+  private boolean closed = false;
+
+  public LocalBlockCache(String baseDirectory, long capacityInBytes) {
+    Preconditions.checkArgument(capacityInBytes > 0, "capacityInBytes should be positive");
+    this.capacityInBytes = capacityInBytes;
+    try {
+      Path base = Paths.get(baseDirectory);
+      Files.createDirectories(base);
+      deleteStaleDirectories(base);
+      this.directory = Files.createTempDirectory(base, DIRECTORY_PREFIX);
+      this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      this.lock = lockChannel.lock();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create block cache directory under " + baseDirectory, e);
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(this::close, "block-cache-cleaner"));
+  }
+
+  /**
+   * Return the cache of the directory and capacity shared by all threads of the process, creating it if it is not
+   * created. Catalogs configuring different capacities under the same directory get separate caches, each in its own
+   * directory, instead of the capacity of the first catalog.
+   */
+  public static synchronized LocalBlockCache getOrCreateSharedInstance(String baseDirectory, long capacityInBytes) {
+    return SHARED_INSTANCES.computeIfAbsent(baseDirectory + "#" + capacityInBytes, key -> {
+      LocalBlockCache cache = new LocalBlockCache(baseDirectory, capacityInBytes);
+      LOG.info("Created shared block cache in {} with capacity {} bytes", cache.directory, capacityInBytes);
+      return cache;
+    });
+  }
+
+  /**
+   * Read a block of a file through the cache.
+   *
+   * @param path       path of the file
+   * @param fileLength length of the file
+   * @param offset     offset of the block in the file
+   * @param length     length of the block
+   * @param loader     read the block from the file if it is not cached
+   */
+  public byte[] read(String path, long fileLength, long offset, int length, BlockLoader loader) throws IOException {
+    Key key = new Key(path, fileLength, offset, length);
+    CachedBlock cached;
+    synchronized (this) {
+      cached = blocks.get(key);
+    }
+    if (cached != null) {
+      try {
+        byte[] bytes = Files.readAllBytes(cached.file);
+        synchronized (this) {
+          hitCount++;
+        }
+        return bytes;
+      } catch (NoSuchFileException e) {
+        // evicted after it was looked up
+      }
+    }
+
+    byte[] bytes = loader.load();
+    Path file;
+    synchronized (this) {
+      missCount++;
+      if (closed) {
+        return bytes;
+      }
+      file = directory.resolve(String.valueOf(nextFileId++));
+    }
+    try {
+      Files.write(file, bytes);
+    } catch (IOException e) {
+      LOG.warn("Failed to cache block of {} to {}", path, file, e);
+      Files.deleteIfExists(file);
+      return bytes;
+    }
+    put(key, new CachedBlock(file, bytes.length));
+    return bytes;
+  }
+
+  private void put(Key key, CachedBlock block) {
+    List<Path> toDelete = Lists.newArrayList();
+    synchronized (this) {
+      if (closed) {
+        toDelete.add(block.file);
+      } else {
+        CachedBlock previous = blocks.put(key, block);
+        if (previous != null) {
+          // loaded by another thread at the same time
+          sizeInBytes -= previous.length;
+          toDelete.add(previous.file);
+        }
+        sizeInBytes += block.length;
+        Iterator<CachedBlock> iterator = blocks.values().iterator();
+        while (sizeInBytes > capacityInBytes && iterator.hasNext()) {
+          CachedBlock eldest = iterator.next();
+          iterator.remove();
+          sizeInBytes -= eldest.length;
+          evictionCount++;
+          toDelete.add(eldest.file);
+        }
+      }
+    }
+    for (Path file : toDelete) {
+      File toDeleteFile = file.toFile();
+      if (!toDeleteFile.delete() && toDeleteFile.exists()) {
+        LOG.warn("Failed to delete evicted block {}", file);
+      }
+    }
+  }
+
+  /**
+   * Delete the cached blocks and the directory of the cache, blocks read later are not cached. Called when the process
+   * exits.
+   */
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      blocks.clear();
+      sizeInBytes = 0L;
+    }
+    try {
+      lock.release();
+      lockChannel.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to release the lock of block cache directory {}", directory, e);
+    }
+    deleteDirectory(directory);
+  }
+
+  private static void deleteStaleDirectories(Path base) {
+    try (DirectoryStream<Path> directories = Files.newDirectoryStream(base, DIRECTORY_PREFIX + "*")) {
+      for (Path directory : directories) {
+        if (Files.isDirectory(directory) && isStale(directory)) {
+          LOG.info("Delete stale block cache directory {}", directory);
+          deleteDirectory(directory);
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to delete stale block cache directories under {}", base, e);
+    }
+  }
+
+  private static boolean isStale(Path directory) throws IOException {
+    Path lockFile = directory.resolve(LOCK_FILE);
+    if (!Files.exists(lockFile)) {
+      return System.currentTimeMillis() - Files.getLastModifiedTime(directory).toMillis() > UNLOCKED_DIRECTORY_TTL_MS;
+    }
+    try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+      // the lock is released once the channel is closed, the owner of the directory has exited anyway
+      return channel.tryLock() != null;
+    } catch (OverlappingFileLockException e) {
+      // locked by another cache of this process
+      return false;
+    } catch (NoSuchFileException e) {
+      // deleted by the owner at the same time
+      return false;
+    }
+  }
+
+  private static void deleteDirectory(Path directory) {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+      Files.deleteIfExists(directory);
+    } catch (NoSuchFileException e) {
+      // deleted by another process at the same time
+    } catch (IOException e) {
+      LOG.warn("Failed to delete block cache directory {}", directory, e);
+    }
+  }
+
+  public synchronized long sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  public long capacityInBytes() {
+    return capacityInBytes;
+  }
+
+  /**
+   * Number of cached blocks.
+   */
+  public synchronized int size() {
+    return blocks.size();
+  }
+
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  public synchronized long evictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Fraction of block reads served by the cache.
+   */
+  public synchronized double hitRate() {
+    long requestCount = hitCount + missCount;
+    return requestCount == 0 ? 0D : (double) hitCount / requestCount;
+  }
+
+  public interface BlockLoader {
+    byte[] load() throws IOException;
+  }
+
+  private static class CachedBlock {
+    private final Path file;
+    private final long length;
+
+    CachedBlock(Path file, long length) {
+      this.file = file;
+      this.length = length;
+    }
+  }
+
+  private static class Key {
+    private final String path;
+    private final long fileLength;
+    private final long offset;
+    private final int length;
+
+    Key(String path, long fileLength, long offset, int length) {
+      this.path = path;
+      this.fileLength = fileLength;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return fileLength == key.fileLength && offset == key.offset && length == key.length &&
+          Objects.equal(path, key.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(path, fileLength, offset, length);
+    }
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import com.netease.arctic.utils.map.SpillMemoryArbiter;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.util.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concatenate iterables, reading up to parallelism of them at the same time in background threads.
+ * <p>
+ * Elements of different iterables are interleaved in no particular order, and elements are handed over to the
+ * consuming thread in batches through a bounded queue, so iterables reusing containers should copy elements before
+ * they are returned. If an {@link ArcticFileIO} is given, each iterable is opened and read in its doAs.
+ * <p>
+ * Background threads come from a pool of {@link ThreadPools#WORKER_THREAD_POOL_SIZE} threads shared by all
+ * iterables. Iterables could be read in threads of the pool themselves, so reading never waits for a free thread,
+ * fewer threads are used if the pool is busy, and the consuming thread reads the iterables itself if no thread of
+ * the pool is free.
+ */
+public class ParallelCloseableIterable<T> implements CloseableIterable<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelCloseableIterable.class);
+
+  private static final int BATCH_SIZE = 128;
+  private static final int QUEUE_BATCHES_PER_THREAD = 8;
+  private static final long OFFER_TIMEOUT_MS = 100L;
+  private static final Object END = new Object();
+
+  private static final Semaphore FREE_WORKERS = new Semaphore(ThreadPools.WORKER_THREAD_POOL_SIZE);
+  private static volatile ExecutorService workerPool;
+
+  private final List<CloseableIterable<T>> iterables;
+  private final int parallelism;
+  private final ArcticFileIO fileIO;
+
+  private ParallelCloseableIterable(
+      List<CloseableIterable<T>> iterables, int parallelism, @Nullable ArcticFileIO fileIO) {
+    this.iterables = iterables;
+    this.parallelism = Math.min(parallelism, iterables.size());
+    this.fileIO = fileIO;
+  }
+
+  /**
+   * Concatenate iterables, they are read one after another if parallelism is not greater than 1.
+   */
+  public static <T> CloseableIterable<T> concat(
+      Iterable<CloseableIterable<T>> iterables, int parallelism, @Nullable ArcticFileIO fileIO) {
+    List<CloseableIterable<T>> iterableList = ImmutableList.copyOf(iterables);
+    if (parallelism <= 1 || iterableList.size() <= 1) {
+      return CloseableIterable.concat(iterableList);
+    }
+    return new ParallelCloseableIterable<>(iterableList, parallelism, fileIO);
+  }
+
+  /**
+   * Read the iterable ahead in a background thread, so that reading and consuming elements are pipelined.
+   */
+  public static <T> CloseableIterable<T> prefetch(CloseableIterable<T> iterable, @Nullable ArcticFileIO fileIO) {
+    return new ParallelCloseableIterable<>(ImmutableList.of(iterable), 1, fileIO);
+  }
+
+  private static ExecutorService workerPool() {
+    if (workerPool == null) {
+      synchronized (ParallelCloseableIterable.class) {
+        if (workerPool == null) {
+          // workers are submitted only with a free worker, so they are never queued behind running workers
+          workerPool = ThreadPools.newWorkerPool("parallel-iterable", ThreadPools.WORKER_THREAD_POOL_SIZE);
+        }
+      }
+    }
+    return workerPool;
+  }
+
+  @Override
+  public CloseableIterator<T> iterator() {
+    return new ParallelIterator();
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (CloseableIterable<T> iterable : iterables) {
+      iterable.close();
+    }
+  }
+
+  private static class Failure {
+    private final Throwable cause;
+
+    Failure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
+  private class ParallelIterator implements CloseableIterator<T> {
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(parallelism * QUEUE_BATCHES_PER_THREAD);
+    private final AtomicInteger nextIterable = new AtomicInteger();
+    private final List<Future<?>> workers = Lists.newArrayList();
+    // threads running workers, guarded by itself
+    private final Set<Thread> workerThreads = Sets.newHashSet();
+    private volatile boolean closed = false;
+    private int runningWorkers;
+    private Iterator<T> batch = Collections.emptyIterator();
+    // iterable read by the consuming thread if no worker could be started
+    private CloseableIterable<T> currentIterable;
+    private CloseableIterator<T> currentIterator;
+
+    ParallelIterator() {
+      ExecutorService pool = workerPool();
+      for (int i = 0; i < parallelism && FREE_WORKERS.tryAcquire(); i++) {
+        workers.add(pool.submit(SpillMemoryArbiter.withCurrentTask(() -> {
+          try {
+            work();
+          } finally {
+            FREE_WORKERS.release();
+          }
+          return null;
+        })));
+      }
+      this.runningWorkers = workers.size();
+      if (runningWorkers < parallelism) {
+        LOG.debug("Read {} iterables with {} threads instead of {}, no more threads are free",
+            iterables.size(), runningWorkers, parallelism);
+      }
+    }
+
+    private void work() {
+      synchronized (workerThreads) {
+        workerThreads.add(Thread.currentThread());
+      }
+      Object result = END;
+      try {
+        int index;
+        while (!closed && (index = nextIterable.getAndIncrement()) < iterables.size()) {
+          CloseableIterable<T> iterable = iterables.get(index);
+          if (fileIO == null) {
+            read(iterable);
+          } else {
+            fileIO.doAs(() -> {
+              read(iterable);
+              return null;
+            });
+          }
+        }
+      } catch (Throwable t) {
+        result = new Failure(t);
+      }
+      try {
+        put(result);
+      } catch (InterruptedException e) {
+        // interrupted only when the iterator is closed
+      } finally {
+        synchronized (workerThreads) {
+          workerThreads.remove(Thread.currentThread());
+          // clear the interrupt of closing, the thread goes back to the pool
+          Thread.interrupted();
+        }
+      }
+    }
+
+    private void read(CloseableIterable<T> iterable) throws IOException, InterruptedException {
+      try (CloseableIterable<T> closeable = iterable;
+           CloseableIterator<T> iterator = closeable.iterator()) {
+        List<T> elements = Lists.newArrayListWithCapacity(BATCH_SIZE);
+        while (!closed && iterator.hasNext()) {
+          elements.add(iterator.next());
+          if (elements.size() == BATCH_SIZE) {
+            put(elements);
+            elements = Lists.newArrayListWithCapacity(BATCH_SIZE);
+          }
+        }
+        if (!elements.isEmpty()) {
+          put(elements);
+        }
+      }
+    }
+
+    /**
+     * Put into the queue until the iterator is closed, so workers never wait for a consumer that is gone.
+     */
+    private void put(Object element) throws InterruptedException {
+      while (!closed && !queue.offer(element, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        // wait for the consumer
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+      if (workers.isEmpty()) {
+        return readInCurrentThread();
+      }
+      while (!batch.hasNext() && runningWorkers > 0) {
+        Object element;
+        try {
+          element = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          close();
+          throw new RuntimeException("Interrupted while reading in parallel", e);
+        }
+        if (element == END) {
+          runningWorkers--;
+          if (runningWorkers == 0) {
+            waitForWorkers();
+          }
+        } else if (element instanceof Failure) {
+          close();
+          Throwable cause = ((Failure) element).cause;
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          throw new RuntimeException("Failed to read in parallel", cause);
+        } else {
+          batch = ((List<T>) element).iterator();
+        }
+      }
+      return batch.hasNext();
+    }
+
+    private boolean readInCurrentThread() {
+      try {
+        while (!closed) {
+          if (currentIterator == null) {
+            int index = nextIterable.getAndIncrement();
+            if (index >= iterables.size()) {
+              return false;
+            }
+            currentIterable = iterables.get(index);
+            currentIterator = fileIO == null ? currentIterable.iterator() : fileIO.doAs(currentIterable::iterator);
+          }
+          boolean hasNext = fileIO == null ? currentIterator.hasNext() : fileIO.doAs(currentIterator::hasNext);
+          if (hasNext) {
+            return true;
+          }
+          closeCurrent();
+        }
+        return false;
+      } catch (IOException e) {
+        close();
+        throw new RuntimeException("Failed to read in parallel", e);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+    }
+
+    private void closeCurrent() throws IOException {
+      try (CloseableIterable<T> closeable = currentIterable;
+           CloseableIterator<T> iterator = currentIterator) {
+        currentIterable = null;
+        currentIterator = null;
+      }
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (workers.isEmpty()) {
+        return fileIO == null ? currentIterator.next() : fileIO.doAs(currentIterator::next);
+      }
+      return batch.next();
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      // iterables not claimed by anyone could no longer be claimed
+      int unclaimed = Math.min(nextIterable.getAndSet(iterables.size()), iterables.size());
+      try {
+        for (int i = unclaimed; i < iterables.size(); i++) {
+          iterables.get(i).close();
+        }
+        if (currentIterator != null) {
+          closeCurrent();
+        }
+      } catch (IOException e) {
+        LOG.warn("Failed to close iterables read in parallel", e);
+      }
+
+      synchronized (workerThreads) {
+        for (Thread thread : workerThreads) {
+          thread.interrupt();
+        }
+      }
+      // workers close the iterables they are reading, wait for them instead of closing those iterables concurrently
+      waitForWorkers();
+      queue.clear();
+      runningWorkers = 0;
+      batch = Collections.emptyIterator();
+    }
+
+    private void waitForWorkers() {
+      for (Future<?> worker : workers) {
+        try {
+          worker.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          LOG.warn("Interrupted while waiting for workers reading in parallel");
+          return;
+        } catch (ExecutionException e) {
+          LOG.warn("Failed to read in parallel", e.getCause());
+        }
+      }
+    }
+  }
+}
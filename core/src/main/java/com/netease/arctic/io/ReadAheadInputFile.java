@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import com.netease.arctic.ams.api.properties.CatalogMetaProperties;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.apache.iceberg.util.PropertyUtil;
+
+import java.util.Map;
+
+/**
+ * {@link InputFile} whose streams read the file by blocks, requesting following blocks ahead in parallel when the
+ * file is read sequentially, see {@link CatalogMetaProperties#READ_AHEAD_ENABLED}.
+ */
+public class ReadAheadInputFile implements InputFile {
+
+  private final InputFile file;
+  private final int blockSize;
+  private final int readAheadBlocks;
+  private final ReadAheadMetrics metrics;
+
+  public ReadAheadInputFile(InputFile file, int blockSize, int readAheadBlocks, ReadAheadMetrics metrics) {
+    this.file = file;
+    this.blockSize = blockSize;
+    this.readAheadBlocks = Math.max(1, readAheadBlocks);
+    this.metrics = metrics;
+  }
+
+  /**
+   * Wrap the input file if read-ahead is enabled by the catalog properties.
+   */
+  public static InputFile wrap(InputFile file, Map<String, String> catalogProperties, ReadAheadMetrics metrics) {
+    if (file instanceof ReadAheadInputFile || !PropertyUtil.propertyAsBoolean(catalogProperties,
+        CatalogMetaProperties.READ_AHEAD_ENABLED, CatalogMetaProperties.READ_AHEAD_ENABLED_DEFAULT)) {
+      return file;
+    }
+    return new ReadAheadInputFile(
+        file,
+        PropertyUtil.propertyAsInt(catalogProperties, CatalogMetaProperties.READ_AHEAD_BLOCK_SIZE_BYTES,
+            CatalogMetaProperties.READ_AHEAD_BLOCK_SIZE_BYTES_DEFAULT),
+        PropertyUtil.propertyAsInt(catalogProperties, CatalogMetaProperties.READ_AHEAD_BLOCKS,
+            CatalogMetaProperties.READ_AHEAD_BLOCKS_DEFAULT),
+        metrics);
+  }
+
+  @Override
+  public long getLength() {
+    return file.getLength();
+  }
+
+  @Override
+  public SeekableInputStream newStream() {
+    return new ReadAheadInputStream(file, file.getLength(), blockSize, readAheadBlocks, metrics);
+  }
+
+  @Override
+  public String location() {
+    return file.location();
+  }
+
+  @Override
+  public boolean exists() {
+    return file.exists();
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+}
@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.iceberg.io.DelegatingInputStream;
+import org.apache.iceberg.io.IOUtil;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.RangeReadable;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.util.ThreadPools;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Stream reading a file by blocks of a fixed size.
+ * <p>
+ * When blocks are read one after another, the following blocks are requested ahead in background threads. Adjacent
+ * blocks that are not requested yet are fetched by one range read. Requested blocks are kept in a buffer of twice the
+ * read-ahead blocks, so seeking back to recent positions, like the footer of parquet files, reads no more bytes.
+ * <p>
+ * Ranges are read by a bounded pool shared by the streams of the process. Buffered blocks of all streams are bounded
+ * by a budget of {@link #MAX_BUFFERED_BYTES_PROPERTY} bytes, 1/8 of the max heap size by default. Blocks are not read
+ * ahead once the budget is used up and blocks behind the one being read are evicted, the block being read is always
+ * buffered so every stream makes progress.
+ */
+class ReadAheadInputStream extends SeekableInputStream {
+
+  static final String MAX_BUFFERED_BYTES_PROPERTY = "arctic.io.read-ahead.max-buffered-bytes";
+
+  private static final int READ_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+  private static final ExecutorService READ_POOL = ThreadPools.newWorkerPool("read-ahead", READ_THREADS);
+
+  private static final BufferBudget SHARED_BUDGET = BufferBudget.fromSystemProperty(MAX_BUFFERED_BYTES_PROPERTY, 0.125);
+
+  private final InputFile file;
+  private final long length;
+  private final int blockSize;
+  private final int readAheadBlocks;
+  private final ReadAheadMetrics metrics;
+  private final BufferBudget budget;
+  private final Map<Long, Block> blocks;
+
+  private SeekableInputStream positionedStream;
+  private long pos = 0L;
+  private long lastBlockIndex = -1L;
+  private boolean closed = false;
+
+  ReadAheadInputStream(InputFile file, long length, int blockSize, int readAheadBlocks, ReadAheadMetrics metrics) {
+    this(file, length, blockSize, readAheadBlocks, metrics, SHARED_BUDGET);
+  }
+
+  ReadAheadInputStream(
+      InputFile file, long length, int blockSize, int readAheadBlocks, ReadAheadMetrics metrics,
+      BufferBudget budget) {
+    this.file = file;
+    this.length = length;
+    this.blockSize = blockSize;
+    this.readAheadBlocks = readAheadBlocks;
+    this.metrics = metrics;
+    this.budget = budget;
+    int maxBlocks = readAheadBlocks * 2;
+    this.blocks = new LinkedHashMap<Long, Block>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Block> eldest) {
+        if (size() > maxBlocks) {
+          budget.release(eldest.getValue().length);
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  public long getPos() {
+    return pos;
+  }
+
+  @Override
+  public void seek(long newPos) throws IOException {
+    checkOpen();
+    if (newPos < 0) {
+      throw new EOFException("Cannot seek to a negative position: " + newPos);
+    }
+    pos = newPos;
+  }
+
+  @Override
+  public int read() throws IOException {
+    checkOpen();
+    if (pos >= length) {
+      return -1;
+    }
+    long blockIndex = pos / blockSize;
+    byte[] bytes = block(blockIndex);
+    int value = bytes[blocks.get(blockIndex).offset + (int) (pos - blockIndex * blockSize)] & 0xFF;
+    pos += 1;
+    return value;
+  }
+
+  @Override
+  public int read(byte[] bytes, int off, int len) throws IOException {
+    checkOpen();
+    Preconditions.checkPositionIndexes(off, off + len, bytes.length);
+    if (len == 0) {
+      return 0;
+    }
+    if (pos >= length) {
+      return -1;
+    }
+    int read = 0;
+    while (read < len && pos < length) {
+      long blockIndex = pos / blockSize;
+      byte[] blockBytes = block(blockIndex);
+      Block block = blocks.get(blockIndex);
+      int blockPos = (int) (pos - blockIndex * blockSize);
+      int toCopy = Math.min(len - read, block.length - blockPos);
+      System.arraycopy(blockBytes, block.offset + blockPos, bytes, off + read, toCopy);
+      pos += toCopy;
+      read += toCopy;
+    }
+    return read;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    blocks.values().forEach(block -> budget.release(block.length));
+    blocks.clear();
+    if (positionedStream != null) {
+      positionedStream.close();
+    }
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream is closed: " + file.location());
+    }
+  }
+
+  /**
+   * Bytes of the range the block belongs to, the block starts at {@link Block#offset} of them.
+   */
+  private byte[] block(long blockIndex) throws IOException {
+    if (blockIndex != lastBlockIndex) {
+      boolean sequential = blockIndex == lastBlockIndex + 1;
+      lastBlockIndex = blockIndex;
+      // get to keep the block from being evicted by blocks requested ahead
+      if (blocks.get(blockIndex) != null) {
+        metrics.reportBlockHit();
+      } else {
+        metrics.reportBlockMiss();
+      }
+      request(blockIndex, sequential ? readAheadBlocks : 1);
+    }
+    Block block = blocks.get(blockIndex);
+    try {
+      return block.range.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading " + file.location());
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to read " + file.location(), e.getCause());
+    }
+  }
+
+  /**
+   * Request blocks from the given one, blocks which are not requested yet are read by one range read. Blocks ahead of
+   * the given one are only requested while the budget has room for them.
+   */
+  private void request(long firstBlockIndex, int blockCount) throws IOException {
+    long blockNum = (length + blockSize - 1) / blockSize;
+    long endBlockIndex = Math.min(firstBlockIndex + blockCount, blockNum);
+    long rangeStart = -1L;
+    for (long index = firstBlockIndex; index <= endBlockIndex; index++) {
+      boolean missing = index < endBlockIndex && !blocks.containsKey(index);
+      if (missing) {
+        long bytes = blockLength(index);
+        if (!tryAcquire(bytes, firstBlockIndex)) {
+          if (index == firstBlockIndex) {
+            budget.acquire(bytes);
+          } else {
+            missing = false;
+            endBlockIndex = index;
+          }
+        }
+      }
+      if (missing && rangeStart < 0) {
+        rangeStart = index;
+      } else if (!missing && rangeStart >= 0) {
+        requestRange(rangeStart, index);
+        rangeStart = -1L;
+      }
+    }
+  }
+
+  /**
+   * Acquire bytes from the budget, evicting blocks of this stream behind the given block to make room.
+   */
+  private boolean tryAcquire(long bytes, long blockIndex) {
+    while (!budget.tryAcquire(bytes)) {
+      if (!evictEldestBefore(blockIndex)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean evictEldestBefore(long blockIndex) {
+    Iterator<Map.Entry<Long, Block>> iterator = blocks.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, Block> entry = iterator.next();
+      if (entry.getKey() < blockIndex) {
+        budget.release(entry.getValue().length);
+        iterator.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int blockLength(long blockIndex) {
+    return (int) (Math.min((blockIndex + 1) * blockSize, length) - blockIndex * blockSize);
+  }
+
+  private void requestRange(long startBlockIndex, long endBlockIndex) throws IOException {
+    long start = startBlockIndex * blockSize;
+    int rangeLength = (int) (Math.min(endBlockIndex * blockSize, length) - start);
+    PositionedReader reader = positionedReader();
+    Future<byte[]> range = READ_POOL.submit(() -> {
+      byte[] bytes = new byte[rangeLength];
+      reader.readFully(start, bytes, rangeLength);
+      metrics.reportRequest(rangeLength);
+      return bytes;
+    });
+    for (long index = startBlockIndex; index < endBlockIndex; index++) {
+      int offset = (int) ((index - startBlockIndex) * blockSize);
+      blocks.put(index, new Block(range, offset, Math.min(blockSize, rangeLength - offset)));
+    }
+  }
+
+  /**
+   * Read ranges by positioned reads of one stream if it supports, otherwise by a new stream per range.
+   */
+  private PositionedReader positionedReader() throws IOException {
+    if (positionedStream == null) {
+      positionedStream = file.newStream();
+    }
+    if (positionedStream instanceof RangeReadable) {
+      RangeReadable rangeReadable = (RangeReadable) positionedStream;
+      return (position, bytes, len) -> rangeReadable.readFully(position, bytes, 0, len);
+    }
+    if (positionedStream instanceof DelegatingInputStream) {
+      InputStream delegate = ((DelegatingInputStream) positionedStream).getDelegate();
+      if (delegate instanceof PositionedReadable) {
+        PositionedReadable positionedReadable = (PositionedReadable) delegate;
+        return (position, bytes, len) -> positionedReadable.readFully(position, bytes, 0, len);
+      }
+    }
+    return (position, bytes, len) -> {
+      try (SeekableInputStream stream = file.newStream()) {
+        stream.seek(position);
+        IOUtil.readFully(stream, bytes, 0, len);
+      }
+    };
+  }
+
+  private interface PositionedReader {
+    void readFully(long position, byte[] bytes, int len) throws IOException;
+  }
+
+  private static class Block {
+    private final Future<byte[]> range;
+    private final int offset;
+    private final int length;
+
+    Block(Future<byte[]> range, int offset, int length) {
+      this.range = range;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the input files read by {@link ReadAheadInputFile}.
+ */
+public class ReadAheadMetrics implements Serializable {
+
+  private final AtomicLong bytesRead = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong blockHits = new AtomicLong();
+  private final AtomicLong blockMisses = new AtomicLong();
+
+  void reportRequest(long bytes) {
+    requests.incrementAndGet();
+    bytesRead.addAndGet(bytes);
+  }
+
+  void reportBlockHit() {
+    blockHits.incrementAndGet();
+  }
+
+  void reportBlockMiss() {
+    blockMisses.incrementAndGet();
+  }
+
+  /**
+   * Bytes read from the underlying files.
+   */
+  public long bytesRead() {
+    return bytesRead.get();
+  }
+
+  /**
+   * Number of range reads issued to the underlying files.
+   */
+  public long requests() {
+    return requests.get();
+  }
+
+  /**
+   * Number of reads served by blocks which are requested before.
+   */
+  public long blockHits() {
+    return blockHits.get();
+  }
+
+  /**
+   * Number of reads waiting for blocks not requested before.
+   */
+  public long blockMisses() {
+    return blockMisses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "ReadAheadMetrics{bytesRead=" + bytesRead + ", requests=" + requests + ", blockHits=" + blockHits +
+        ", blockMisses=" + blockMisses + "}";
+  }
+}
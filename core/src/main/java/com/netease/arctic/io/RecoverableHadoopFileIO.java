@@ -19,15 +19,18 @@
 package com.netease.arctic.io;
 
 import com.netease.arctic.table.TableMetaStore;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.io.OutputFile;
 import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
 import org.apache.iceberg.relocated.com.google.common.base.Strings;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -78,6 +81,40 @@ public class RecoverableHadoopFileIO extends ArcticHadoopFileIO implements Suppo
     }
   }
 
+  @Override
+  public void deleteFiles(Iterable<String> paths) throws BulkDeletionFailureException {
+    List<String> toTrash = Lists.newArrayList();
+    List<String> toDelete = Lists.newArrayList();
+    for (String path : paths) {
+      if (matchTrashFilePattern(path)) {
+        toTrash.add(path);
+      } else {
+        toDelete.add(path);
+      }
+    }
+    // files failed to move to trash are counted as failed deletions like the files failed to delete
+    int failures = 0;
+    if (!toTrash.isEmpty()) {
+      try {
+        trashManager.moveFilesToTrash(toTrash);
+        LOG.debug("Move {} files to table trash", toTrash.size());
+      } catch (BulkDeletionFailureException e) {
+        failures += e.numberFailedObjects();
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to move {} files to table trash", toTrash.size(), e);
+        failures += toTrash.size();
+      }
+    }
+    try {
+      super.deleteFiles(toDelete);
+    } catch (BulkDeletionFailureException e) {
+      failures += e.numberFailedObjects();
+    }
+    if (failures > 0) {
+      throw new BulkDeletionFailureException(failures);
+    }
+  }
+
   @VisibleForTesting
   protected boolean matchTrashFilePattern(String path) {
     return pattern.matcher(path).matches();
@@ -19,6 +19,7 @@
 package com.netease.arctic.io;
 
 import com.netease.arctic.table.TableIdentifier;
+import org.apache.iceberg.io.BulkDeletionFailureException;
 
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -44,6 +45,26 @@ public interface TableTrashManager extends Serializable {
    */
   void moveFileToTrash(String path);
 
+  /**
+   * Move files to trash, not support directory.
+   *
+   * @param paths the file paths
+   * @throws BulkDeletionFailureException - if failed to move any file to trash, the other files are still moved
+   */
+  default void moveFilesToTrash(Iterable<String> paths) {
+    int failures = 0;
+    for (String path : paths) {
+      try {
+        moveFileToTrash(path);
+      } catch (RuntimeException e) {
+        failures++;
+      }
+    }
+    if (failures > 0) {
+      throw new BulkDeletionFailureException(failures);
+    }
+  }
+
   /**
    * If a file exist in trash, not support directory.
    *
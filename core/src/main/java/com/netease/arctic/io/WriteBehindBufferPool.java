@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Buffers of write-behind output streams shared by the streams of the process.
+ * <p>
+ * Streams start with a buffer of {@link #INITIAL_BUFFER_SIZE} and grow it up to the buffer size, so streams of small
+ * files, or files which are only opened, do not hold a full buffer. Bytes of buffers larger than the initial size are
+ * bounded by a budget shared by the pools of all buffer sizes, a stream hands off its buffer early instead of growing
+ * it when the bound is reached. The budget is set by the {@link #MAX_BUFFERED_BYTES_PROPERTY} system property, 1/8 of
+ * the max heap size by default. Released buffers of the full size are kept for reuse up to {@link #MAX_IDLE_BYTES}.
+ */
+class WriteBehindBufferPool {
+
+  static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+  static final String MAX_BUFFERED_BYTES_PROPERTY = "arctic.io.write-behind.max-buffered-bytes";
+
+  private static final BufferBudget SHARED_BUDGET = BufferBudget.fromSystemProperty(MAX_BUFFERED_BYTES_PROPERTY, 0.125);
+
+  private static final long MAX_IDLE_BYTES = 64L * 1024 * 1024;
+
+  private static final ConcurrentMap<Integer, WriteBehindBufferPool> POOLS = Maps.newConcurrentMap();
+
+  private final int bufferSize;
+  private final BufferBudget budget;
+  private final BlockingQueue<byte[]> idleBuffers;
+
+  @VisibleForTesting
+  WriteBehindBufferPool(int bufferSize, long maxBufferedBytes) {
+    this(bufferSize, new BufferBudget(maxBufferedBytes));
+  }
+
+  private WriteBehindBufferPool(int bufferSize, BufferBudget budget) {
+    this.bufferSize = bufferSize;
+    this.budget = budget;
+    this.idleBuffers = new ArrayBlockingQueue<>((int) Math.max(1, MAX_IDLE_BYTES / bufferSize));
+  }
+
+  static WriteBehindBufferPool forBufferSize(int bufferSize) {
+    return POOLS.computeIfAbsent(bufferSize, size -> new WriteBehindBufferPool(size, SHARED_BUDGET));
+  }
+
+  int bufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Acquire the first buffer of a stream, which is never refused so every stream can make progress.
+   */
+  byte[] acquireInitial() {
+    return new byte[Math.min(INITIAL_BUFFER_SIZE, bufferSize)];
+  }
+
+  /**
+   * Acquire a larger buffer for a growing stream.
+   *
+   * @return null if the buffered bytes would exceed the bound
+   */
+  byte[] tryAcquire(int size) {
+    if (!budget.tryAcquire(size)) {
+      return null;
+    }
+    byte[] buffer = size == bufferSize ? idleBuffers.poll() : null;
+    return buffer == null ? new byte[size] : buffer;
+  }
+
+  void release(byte[] buffer) {
+    if (buffer.length > INITIAL_BUFFER_SIZE) {
+      // initial buffers are not counted
+      budget.release(buffer.length);
+      if (buffer.length == bufferSize) {
+        // dropped if there are enough idle buffers
+        idleBuffers.offer(buffer);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  long bufferedBytes() {
+    return budget.usedBytes();
+  }
+}
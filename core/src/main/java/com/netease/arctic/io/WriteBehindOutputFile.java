@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.PositionOutputStream;
+import org.apache.iceberg.util.PropertyUtil;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * {@link OutputFile} whose streams upload written bytes in a background thread, see
+ * {@link TableProperties#WRITE_BEHIND_ENABLED}.
+ */
+public class WriteBehindOutputFile implements OutputFile {
+
+  static final String PROPERTIES_PREFIX = "write.write-behind.";
+
+  private final OutputFile file;
+  private final int bufferSize;
+  private final int maxPendingBuffers;
+  @Nullable
+  private final FileIO io;
+
+  public WriteBehindOutputFile(OutputFile file, int bufferSize, int maxPendingBuffers) {
+    this(file, bufferSize, maxPendingBuffers, null);
+  }
+
+  /**
+   * @param io file io to delete the partial file if uploading fails, null to leave the file
+   */
+  public WriteBehindOutputFile(OutputFile file, int bufferSize, int maxPendingBuffers, @Nullable FileIO io) {
+    this.file = file;
+    this.bufferSize = bufferSize;
+    this.maxPendingBuffers = maxPendingBuffers;
+    this.io = io;
+  }
+
+  /**
+   * Wrap the output file if write-behind is enabled by the table properties.
+   */
+  public static OutputFile wrap(OutputFile file, Map<String, String> properties) {
+    return wrap(file, properties, null);
+  }
+
+  /**
+   * Wrap the output file if write-behind is enabled by the table properties, the partial file is deleted by the file
+   * io if uploading fails.
+   */
+  public static OutputFile wrap(OutputFile file, Map<String, String> properties, @Nullable FileIO io) {
+    if (file instanceof WriteBehindOutputFile || !PropertyUtil.propertyAsBoolean(
+        properties, TableProperties.WRITE_BEHIND_ENABLED, TableProperties.WRITE_BEHIND_ENABLED_DEFAULT)) {
+      return file;
+    }
+    return new WriteBehindOutputFile(
+        file,
+        PropertyUtil.propertyAsInt(properties, TableProperties.WRITE_BEHIND_BUFFER_SIZE_BYTES,
+            TableProperties.WRITE_BEHIND_BUFFER_SIZE_BYTES_DEFAULT),
+        PropertyUtil.propertyAsInt(properties, TableProperties.WRITE_BEHIND_MAX_PENDING_BUFFERS,
+            TableProperties.WRITE_BEHIND_MAX_PENDING_BUFFERS_DEFAULT),
+        io);
+  }
+
+  @Override
+  public PositionOutputStream create() {
+    return writeBehind(file.create());
+  }
+
+  @Override
+  public PositionOutputStream createOrOverwrite() {
+    return writeBehind(file.createOrOverwrite());
+  }
+
+  @Override
+  public String location() {
+    return file.location();
+  }
+
+  @Override
+  public InputFile toInputFile() {
+    return file.toInputFile();
+  }
+
+  private PositionOutputStream writeBehind(PositionOutputStream stream) {
+    return new WriteBehindOutputStream(
+        stream, file.location(), io, WriteBehindBufferPool.forBufferSize(bufferSize), maxPendingBuffers);
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+}
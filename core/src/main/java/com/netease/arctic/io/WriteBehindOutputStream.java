@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.iceberg.common.DynMethods;
+import org.apache.iceberg.io.DelegatingOutputStream;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.PositionOutputStream;
+import org.apache.iceberg.util.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Output stream buffering written bytes in chunks and writing full chunks to the underlying stream in a background
+ * thread, so the writing thread keeps encoding while previous chunks are uploaded.
+ * <p>
+ * Chunks of one stream are written in order, chunks of different streams are written in parallel by a bounded pool.
+ * The buffer of a stream starts small and grows up to the buffer size, see {@link WriteBehindBufferPool}. The number
+ * of chunks waiting for upload is bounded, writing blocks when the bound is reached. A failure of the underlying stream
+ * fails later writes and the close of this stream. The underlying stream is aborted then if it supports abort, like
+ * streams of object stores, otherwise it is closed, and the partial file is deleted.
+ */
+class WriteBehindOutputStream extends PositionOutputStream {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBehindOutputStream.class);
+
+  private static final int UPLOAD_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+  private static final ExecutorService UPLOAD_POOL = ThreadPools.newWorkerPool("write-behind", UPLOAD_THREADS);
+
+  private final PositionOutputStream delegate;
+  private final String location;
+  @Nullable
+  private final FileIO io;
+  private final WriteBehindBufferPool bufferPool;
+  private final Semaphore pendingPermits;
+  // guarded by this
+  private final Deque<Chunk> pendingChunks = new ArrayDeque<>();
+  // guarded by this
+  private boolean uploading = false;
+  private volatile Throwable failure;
+
+  private byte[] buffer;
+  private int bufferPos = 0;
+  private long pos = 0L;
+  private boolean closed = false;
+
+  WriteBehindOutputStream(
+      PositionOutputStream delegate, String location, WriteBehindBufferPool bufferPool, int maxPendingBuffers) {
+    this(delegate, location, null, bufferPool, maxPendingBuffers);
+  }
+
+  /**
+   * @param io file io to delete the partial file if uploading fails, null to leave the file
+   */
+  WriteBehindOutputStream(
+      PositionOutputStream delegate, String location, @Nullable FileIO io, WriteBehindBufferPool bufferPool,
+      int maxPendingBuffers) {
+    this.delegate = delegate;
+    this.location = location;
+    this.io = io;
+    this.bufferPool = bufferPool;
+    this.pendingPermits = new Semaphore(Math.max(1, maxPendingBuffers));
+  }
+
+  @Override
+  public long getPos() {
+    return pos;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureBuffer();
+    buffer[bufferPos++] = (byte) b;
+    pos += 1;
+    if (bufferPos == buffer.length) {
+      growOrHandOff();
+    }
+  }
+
+  @Override
+  public void write(byte[] bytes, int off, int len) throws IOException {
+    while (len > 0) {
+      ensureBuffer();
+      int length = Math.min(len, buffer.length - bufferPos);
+      System.arraycopy(bytes, off, buffer, bufferPos, length);
+      bufferPos += length;
+      pos += length;
+      off += length;
+      len -= length;
+      if (bufferPos == buffer.length) {
+        growOrHandOff();
+      }
+    }
+  }
+
+  /**
+   * Bytes are handed to the underlying stream by chunks, flush only checks the failure of previous uploads.
+   */
+  @Override
+  public void flush() throws IOException {
+    checkFailure();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (buffer != null) {
+      handOff();
+    }
+    awaitUploads();
+    if (failure != null) {
+      LOG.warn("Abort the stream of {} since previous writes failed", location);
+      abortOrClose();
+      deletePartialFile();
+      checkFailure();
+    }
+    delegate.close();
+  }
+
+  /**
+   * Abort the underlying stream if it or a stream it delegates to supports abort, so no file is committed. Otherwise
+   * close it, which may commit a truncated file.
+   */
+  private void abortOrClose() {
+    OutputStream stream = delegate;
+    while (stream != null) {
+      DynMethods.UnboundMethod abort = DynMethods.builder("abort")
+          .hiddenImpl(stream.getClass())
+          .orNoop()
+          .build();
+      if (!abort.isNoop()) {
+        try {
+          abort.invoke(stream);
+          return;
+        } catch (RuntimeException e) {
+          LOG.warn("Failed to abort the stream of {}, close it instead", location, e);
+          break;
+        }
+      }
+      stream = stream instanceof DelegatingOutputStream ? ((DelegatingOutputStream) stream).getDelegate() : null;
+    }
+    try {
+      delegate.close();
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to close the stream of {}", location, e);
+    }
+  }
+
+  private void deletePartialFile() {
+    if (io == null) {
+      return;
+    }
+    try {
+      io.deleteFile(location);
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to delete the partial file {}", location, e);
+    }
+  }
+
+  private void ensureBuffer() throws IOException {
+    if (closed) {
+      throw new IOException("Stream is closed: " + location);
+    }
+    checkFailure();
+    if (buffer == null) {
+      try {
+        pendingPermits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for uploads of " + location);
+      }
+      buffer = bufferPool.acquireInitial();
+      bufferPos = 0;
+    }
+  }
+
+  private void growOrHandOff() {
+    if (buffer.length < bufferPool.bufferSize()) {
+      byte[] grown = bufferPool.tryAcquire((int) Math.min((long) buffer.length * 2, bufferPool.bufferSize()));
+      if (grown != null) {
+        System.arraycopy(buffer, 0, grown, 0, bufferPos);
+        bufferPool.release(buffer);
+        buffer = grown;
+        return;
+      }
+    }
+    handOff();
+  }
+
+  private void handOff() {
+    Chunk chunk = new Chunk(buffer, bufferPos);
+    buffer = null;
+    bufferPos = 0;
+    synchronized (this) {
+      pendingChunks.add(chunk);
+      if (!uploading) {
+        uploading = true;
+        UPLOAD_POOL.submit(this::upload);
+      }
+    }
+  }
+
+  private void upload() {
+    while (true) {
+      Chunk chunk;
+      synchronized (this) {
+        chunk = pendingChunks.poll();
+        if (chunk == null) {
+          uploading = false;
+          notifyAll();
+          return;
+        }
+      }
+      try {
+        if (failure == null) {
+          delegate.write(chunk.bytes, 0, chunk.length);
+        }
+      } catch (Throwable t) {
+        failure = t;
+      } finally {
+        bufferPool.release(chunk.bytes);
+        pendingPermits.release();
+      }
+    }
+  }
+
+  private synchronized void awaitUploads() throws IOException {
+    while (uploading) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for uploads of " + location);
+      }
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    if (failure != null) {
+      throw new IOException("Failed to write to " + location, failure);
+    }
+  }
+
+  private static class Chunk {
+    private final byte[] bytes;
+    private final int length;
+
+    Chunk(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+  }
+}
@@ -26,13 +26,18 @@ import com.netease.arctic.iceberg.StructProjection;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.io.CloseableIterableWrapper;
 import com.netease.arctic.io.CloseablePredicate;
+import com.netease.arctic.io.ParallelCloseableIterable;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.table.MetadataColumns;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.utils.ContentFiles;
 import com.netease.arctic.utils.NodeFilter;
-import com.netease.arctic.utils.map.StructLikeBaseMap;
+import com.netease.arctic.utils.map.DeleteFileCache;
+import com.netease.arctic.utils.map.PosDeleteIndex;
+import com.netease.arctic.utils.map.SimpleMap;
 import com.netease.arctic.utils.map.StructLikeCollections;
+import com.netease.arctic.utils.map.StructLikeWrapperSchemaSizeEstimator;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.iceberg.Accessor;
 import org.apache.iceberg.DeleteFile;
@@ -42,8 +47,10 @@ import org.apache.iceberg.avro.Avro;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.data.avro.DataReader;
 import org.apache.iceberg.data.parquet.GenericParquetReaders;
+import org.apache.iceberg.deletes.PositionDelete;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.io.CloseableIterable;
-import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.parquet.Parquet;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
@@ -57,14 +64,15 @@ import org.apache.iceberg.util.Filter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -83,6 +91,9 @@ public abstract class ArcticDeleteFilter<T> {
   private static final Accessor<StructLike> POSITION_ACCESSOR = POS_DELETE_SCHEMA
       .accessorForField(org.apache.iceberg.MetadataColumns.DELETE_FILE_POS.fieldId());
 
+  // projection of position delete files in the delete file cache
+  private static final String POSITIONS = "positions";
+
   private final Set<PrimaryKeyedFile> eqDeletes;
   private final List<DeleteFile> posDeletes;
   private final Schema requiredSchema;
@@ -94,13 +105,15 @@ public abstract class ArcticDeleteFilter<T> {
   private final Schema deleteSchema;
   private final Filter<Record> deleteNodeFilter;
   private CloseablePredicate<T> eqPredicate;
-  private Map<String, Set<Long>> positionMap;
+  private PosDeleteIndex positionIndex;
+  // position delete files read for each data file, and read once for all data files
+  private List<DeleteFile> dataFilePosDeletes;
+  private List<DeleteFile> sharedPosDeletes;
   private final Accessor<StructLike> posAccessor;
   private final Accessor<StructLike> filePathAccessor;
   private final Set<String> pathSets;
 
   private String currentDataPath;
-  private Set<Long> currentPosSet;
 
   private StructLikeCollections structLikeCollections = StructLikeCollections.DEFAULT;
 
@@ -200,7 +213,6 @@ public abstract class ArcticDeleteFilter<T> {
 
   public void setCurrentDataPath(String currentDataPath) {
     this.currentDataPath = currentDataPath;
-    this.currentPosSet = null;
   }
 
   private ChangedLsn deleteLSN(StructLike structLike) {
@@ -229,13 +241,15 @@ public abstract class ArcticDeleteFilter<T> {
     StructProjection deletePKProjectRow = StructProjection.create(deleteSchema, pkSchema);
     StructProjection dataPKProjectRow = StructProjection.create(requiredSchema, pkSchema);
 
+    // copy the delete records because they will be held in a map, files may be read in parallel so records are
+    // copied while each file is read
+    DeleteFileCache deleteFileCache = structLikeCollections.getDeleteFileCache();
     Iterable<CloseableIterable<Record>> deleteRecords = Iterables.transform(
         eqDeletes,
-        this::openDeletes);
+        deleteFile -> eqDeleteRecords(deleteFile, deleteFileCache));
 
-    // copy the delete records because they will be held in a map
-    CloseableIterable<Record> records = CloseableIterable.transform(
-        CloseableIterable.concat(deleteRecords), Record::copy);
+    CloseableIterable<Record> records = ParallelCloseableIterable.concat(
+        deleteRecords, structLikeCollections.getDeleteLoadParallelism(), getArcticFileIo());
     if (deleteNodeFilter != null) {
       records = deleteNodeFilter.filter(records);
     }
@@ -244,7 +258,8 @@ public abstract class ArcticDeleteFilter<T> {
     CloseableIterable<StructLike> structLikeIterable = CloseableIterable.transform(
         records, record -> internalRecordWrapper.copyFor(record));
 
-    StructLikeBaseMap<ChangedLsn> structLikeMap = structLikeCollections.createStructLikeMap(pkSchema.asStruct());
+    SimpleMap<StructLike, ChangedLsn> structLikeMap =
+        structLikeCollections.createStructLikeMap(pkSchema.asStruct(), ChangedLsn.class);
     //init map
     try (CloseableIterable<StructLike> deletes = structLikeIterable) {
       Iterator<StructLike> it = getArcticFileIo() == null ? deletes.iterator()
@@ -295,6 +310,21 @@ public abstract class ArcticDeleteFilter<T> {
     return remainingRowsFilter.filter(records);
   }
 
+  private CloseableIterable<Record> eqDeleteRecords(PrimaryKeyedFile deleteFile, DeleteFileCache deleteFileCache) {
+    Supplier<CloseableIterable<Record>> reader = () -> CloseableIterable.transform(
+        openDeletes(deleteFile), Record::copy);
+    if (deleteFileCache == null) {
+      return reader.get();
+    }
+    StructLikeWrapperSchemaSizeEstimator sizeEstimator =
+        new StructLikeWrapperSchemaSizeEstimator(deleteSchema.asStruct());
+    return deleteFileCache.read(
+        DeleteFileCache.Key.of(deleteFile.path().toString(), deleteFile.transactionId(),
+            deleteSchema.asStruct().toString()),
+        reader,
+        sizeEstimator::structSizeEstimate);
+  }
+
   private CloseableIterable<Record> openDeletes(PrimaryKeyedFile deleteFile) {
     InputFile input = getInputFile(deleteFile.path().toString());
     Map<Integer, Object> idToConstant = new HashMap<>();
@@ -334,45 +364,15 @@ public abstract class ArcticDeleteFilter<T> {
       return record -> false;
     }
 
-    // if there are fewer deletes than a reasonable number to keep in memory, use a set
-    if (positionMap == null) {
-      positionMap = new HashMap<>();
-      List<CloseableIterable<Record>> deletes = Lists.transform(posDeletes, this::openPosDeletes);
-      CloseableIterator<Record> iterator = CloseableIterable.concat(deletes).iterator();
-      while (iterator.hasNext()) {
-        Record deleteRecord = iterator.next();
-        String path = FILENAME_ACCESSOR.get(deleteRecord).toString();
-        if (!pathSets.contains(path)) {
-          continue;
-        }
-        Set<Long> posSet = positionMap.get(path);
-        if (posSet == null) {
-          posSet = new HashSet<>();
-          positionMap.put(path, posSet);
-        }
-        posSet.add((Long) POSITION_ACCESSOR.get(deleteRecord));
-      }
+    // positions are loaded lazily for the data file being read
+    if (positionIndex == null) {
+      splitPosDeletes();
+      positionIndex = structLikeCollections.createPosDeleteIndex(this::openPosDeletes, this::openSharedPosDeletes);
     }
 
     return item -> {
-
-      Set<Long> posSet;
-      if (currentDataPath != null) {
-        if (currentPosSet == null) {
-          currentPosSet = positionMap.get(currentDataPath);
-        }
-        posSet = currentPosSet;
-      } else {
-        posSet = positionMap.get(filePath(item));
-      }
-
-      if (posSet == null) {
-        return false;
-      }
-      if (!posSet.contains(pos(item))) {
-        return false;
-      }
-      return true;
+      String dataPath = currentDataPath != null ? currentDataPath : filePath(item);
+      return positionIndex.isDeleted(dataPath, pos(item));
     };
   }
 
@@ -387,11 +387,68 @@ public abstract class ArcticDeleteFilter<T> {
     return filter.filter(records);
   }
 
-  private CloseableIterable<Record> openPosDeletes(DeleteFile file) {
-    return openPositionDeletes(file, POS_DELETE_SCHEMA);
+  /**
+   * Position delete files are read for each data file in their file_path bounds only if the bounds prune them to a
+   * single data file, other files are read once for all data files. All files are read for each data file if the
+   * delete file cache is enabled, since the cache parses each file once.
+   */
+  private void splitPosDeletes() {
+    if (structLikeCollections.getDeleteFileCache() != null) {
+      dataFilePosDeletes = posDeletes;
+      sharedPosDeletes = Collections.emptyList();
+    } else {
+      Map<Boolean, List<DeleteFile>> split = posDeletes.stream().collect(Collectors.partitioningBy(
+          deleteFile -> ContentFiles.mayContainPosDeletesOfSingleFile(deleteFile, pathSets)));
+      dataFilePosDeletes = split.get(true);
+      sharedPosDeletes = split.get(false);
+    }
+  }
+
+  private CloseableIterable<PositionDelete<?>> openSharedPosDeletes() {
+    CloseableIterable<Record> records = CloseableIterable.filter(
+        CloseableIterable.concat(Lists.transform(
+            sharedPosDeletes,
+            deleteFile -> openPositionDeletes(deleteFile, POS_DELETE_SCHEMA, Expressions.alwaysTrue()))),
+        record -> pathSets.contains(FILENAME_ACCESSOR.get(record).toString()));
+    PositionDelete<Void> positionDelete = PositionDelete.create();
+    return CloseableIterable.transform(records, record -> positionDelete.set(
+        (CharSequence) FILENAME_ACCESSOR.get(record), (Long) POSITION_ACCESSOR.get(record), null));
+  }
+
+  private CloseableIterable<Long> openPosDeletes(String dataFilePath) {
+    if (!pathSets.contains(dataFilePath)) {
+      return CloseableIterable.empty();
+    }
+
+    DeleteFileCache deleteFileCache = structLikeCollections.getDeleteFileCache();
+    if (deleteFileCache != null) {
+      // whole files are parsed into the cache, since other tasks read positions of other data files
+      return CloseableIterable.concat(dataFilePosDeletes.stream()
+          .filter(deleteFile -> ContentFiles.mayContainPosDeletes(deleteFile, dataFilePath))
+          .map(deleteFile -> deleteFileCache.readPositions(
+              DeleteFileCache.Key.of(deleteFile.path().toString(), deleteFile.dataSequenceNumber(), POSITIONS),
+              dataFilePath,
+              () -> openPositionDeletes(deleteFile, POS_DELETE_SCHEMA, Expressions.alwaysTrue()),
+              record -> (CharSequence) FILENAME_ACCESSOR.get(record),
+              record -> (Long) POSITION_ACCESSOR.get(record)))
+          .collect(Collectors.toList()));
+    }
+
+    List<CloseableIterable<Record>> deletes = dataFilePosDeletes.stream()
+        .filter(deleteFile -> ContentFiles.mayContainPosDeletes(deleteFile, dataFilePath))
+        .map(deleteFile -> openPositionDeletes(
+            deleteFile, POS_DELETE_SCHEMA,
+            Expressions.equal(org.apache.iceberg.MetadataColumns.DELETE_FILE_PATH.name(), dataFilePath)))
+        .collect(Collectors.toList());
+    CloseableIterable<Record> records = CloseableIterable.filter(
+        CloseableIterable.concat(deletes),
+        record -> dataFilePath.equals(FILENAME_ACCESSOR.get(record).toString()));
+    return CloseableIterable.transform(records, record -> (Long) POSITION_ACCESSOR.get(record));
   }
 
-  private CloseableIterable<Record> openPositionDeletes(DeleteFile deleteFile, Schema deleteSchema) {
+  private CloseableIterable<Record> openPositionDeletes(
+      DeleteFile deleteFile, Schema deleteSchema,
+      Expression filter) {
     InputFile input = getInputFile(deleteFile.path().toString());
     switch (deleteFile.format()) {
       case AVRO:
@@ -402,8 +459,10 @@ public abstract class ArcticDeleteFilter<T> {
             .build();
 
       case PARQUET:
+        // the filter only skips row groups, rows still need to be checked by the caller
         Parquet.ReadBuilder builder = Parquet.read(input)
             .project(deleteSchema)
+            .filter(filter)
             .reuseContainers()
             .createReaderFunc(fileSchema -> GenericParquetReaders.buildReader(deleteSchema, fileSchema));
 
@@ -24,6 +24,7 @@ import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.optimizing.OptimizingDataReader;
 import com.netease.arctic.optimizing.RewriteFilesInput;
 import com.netease.arctic.scan.CombinedIcebergScanTask;
+import com.netease.arctic.utils.SerializationUtil;
 import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFile;
@@ -88,13 +89,17 @@ public class GenericCombinedIcebergDataReader implements OptimizingDataReader {
     this.deleteFiles = rewriteFilesInput.deleteFiles();
     Set<String> positionPathSet = Arrays.stream(rewriteFilesInput.dataFiles())
         .map(s -> s.path().toString()).collect(Collectors.toSet());
-    this.deleteFilter = new GenericDeleteFilter(deleteFiles, positionPathSet, tableSchema, structLikeCollections);
+    this.deleteFilter = new GenericDeleteFilter(deleteFiles, positionPathSet, tableSchema, structLikeCollections,
+        rewriteFilesInput.dataFiles());
   }
 
   public CloseableIterable<Record> readData() {
     if (input.rewrittenDataFiles() == null) {
       return CloseableIterable.empty();
     }
+    if (!deleteFilter.hasDeletes()) {
+      return readDataWithoutDeletes();
+    }
     Schema requireSchema = fileProjection(tableSchema, tableSchema,
         deleteFilter.hasPosition(), deleteFilter.deleteIds());
 
@@ -111,6 +116,17 @@ public class GenericCombinedIcebergDataReader implements OptimizingDataReader {
     return iterable;
   }
 
+  /**
+   * Read rows of data files without deletes to apply, like bin-packing small files. Rows are read with the table
+   * schema only and are not wrapped for the delete filter. If reuseContainer is set, the returned record is reused by
+   * the next row and must be consumed before moving to it.
+   */
+  private CloseableIterable<Record> readDataWithoutDeletes() {
+    return CloseableIterable.concat(CloseableIterable.transform(
+        CloseableIterable.withNoopClose(Arrays.stream(input.rewrittenDataFiles()).collect(Collectors.toList())),
+        s -> openFile(s, spec, tableSchema)));
+  }
+
   public CloseableIterable<Record> readDeletedData() {
     if (input.rePosDeletedDataFiles() == null) {
       return CloseableIterable.empty();
@@ -265,6 +281,15 @@ public class GenericCombinedIcebergDataReader implements OptimizingDataReader {
       super(deleteFiles, positionPathSets, tableSchema, structLikeCollections);
     }
 
+    public GenericDeleteFilter(
+        ContentFile[] deleteFiles,
+        Set<String> positionPathSets,
+        Schema tableSchema,
+        StructLikeCollections structLikeCollections,
+        DataFile[] dataFiles) {
+      super(deleteFiles, positionPathSets, tableSchema, structLikeCollections, dataFiles);
+    }
+
     @Override
     protected InputFile getInputFile(String location) {
       return fileIO.newInputFile(location);
@@ -274,5 +299,10 @@ public class GenericCombinedIcebergDataReader implements OptimizingDataReader {
     protected ArcticFileIO getArcticFileIo() {
       return fileIO;
     }
+
+    @Override
+    protected SerializationUtil.SimpleSerializer<Record> rowSerializer() {
+      return SerializationUtil.createRecordSerializer();
+    }
   }
 }
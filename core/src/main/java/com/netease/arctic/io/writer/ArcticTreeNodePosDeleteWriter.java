@@ -61,6 +61,9 @@ public class ArcticTreeNodePosDeleteWriter<T> implements FileWriter<PositionDele
 
   private PartitionSpec spec;
 
+  private final long recordsNumThreshold;
+
+  private long bufferedRecords = 0L;
 
   public ArcticTreeNodePosDeleteWriter(
       FileAppenderFactory<T> appenderFactory,
@@ -71,6 +74,24 @@ public class ArcticTreeNodePosDeleteWriter<T> implements FileWriter<PositionDele
       Long transactionId,
       String location,
       PartitionSpec spec) {
+    this(appenderFactory, format, partition, fileIO, encryptionManager, transactionId, location, spec,
+        Long.MAX_VALUE);
+  }
+
+  /**
+   * @param recordsNumThreshold max number of positions buffered by writers of all tree nodes, the writer buffering
+   *                            the most positions is flushed to a new delete file once it is reached
+   */
+  public ArcticTreeNodePosDeleteWriter(
+      FileAppenderFactory<T> appenderFactory,
+      FileFormat format,
+      StructLike partition,
+      ArcticFileIO fileIO,
+      EncryptionManager encryptionManager,
+      Long transactionId,
+      String location,
+      PartitionSpec spec,
+      long recordsNumThreshold) {
     this.appenderFactory = appenderFactory;
     this.format = format;
     this.partition = partition;
@@ -79,6 +100,7 @@ public class ArcticTreeNodePosDeleteWriter<T> implements FileWriter<PositionDele
     this.transactionId = transactionId;
     this.location = location;
     this.spec = spec;
+    this.recordsNumThreshold = recordsNumThreshold;
   }
 
   @Override
@@ -97,6 +119,25 @@ public class ArcticTreeNodePosDeleteWriter<T> implements FileWriter<PositionDele
       throw new IllegalStateException("Please set tree node first");
     }
     currentDeleteWriter.delete(path, pos);
+    bufferedRecords += 1;
+    if (bufferedRecords >= recordsNumThreshold) {
+      flushLargestWriter();
+    }
+  }
+
+  private void flushLargestWriter() {
+    SortedPosDeleteWriter<T> largestWriter = null;
+    bufferedRecords = 0L;
+    for (SortedPosDeleteWriter<T> writer : posDeletes.values()) {
+      bufferedRecords += writer.bufferedRecords();
+      if (largestWriter == null || writer.bufferedRecords() > largestWriter.bufferedRecords()) {
+        largestWriter = writer;
+      }
+    }
+    if (largestWriter != null) {
+      bufferedRecords -= largestWriter.bufferedRecords();
+      largestWriter.flush();
+    }
   }
 
   private SortedPosDeleteWriter<T> generatePosDelete(DataTreeNode treeNode) {
@@ -23,23 +23,34 @@ import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.data.PrimaryKeyData;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.table.TableProperties;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.PartitionKey;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.encryption.EncryptedFiles;
+import org.apache.iceberg.encryption.EncryptedOutputFile;
 import org.apache.iceberg.io.DataWriter;
 import org.apache.iceberg.io.FileAppenderFactory;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.PositionOutputStream;
 import org.apache.iceberg.io.TaskWriter;
 import org.apache.iceberg.io.WriteResult;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.StructLikeMap;
 import org.apache.iceberg.util.Tasks;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -56,15 +67,40 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
   private final PrimaryKeyData primaryKey;
   private final ArcticFileIO io;
   private final WriterHolder<T> writerHolder;
+  private final WriterKeys writerKeys;
 
   protected BaseTaskWriter(
       FileFormat format, FileAppenderFactory<T> appenderFactory,
       OutputFileFactory outputFileFactory, ArcticFileIO io, long targetFileSize, long mask,
       Schema schema, PartitionSpec spec, PrimaryKeySpec primaryKeySpec, boolean orderedWriter
   ) {
+    this(format, appenderFactory, outputFileFactory, io, targetFileSize, mask, schema, spec, primaryKeySpec,
+        orderedWriter, Collections.emptyMap());
+  }
+
+  /**
+   * @param properties table properties, a fan-out writer bounding its open files is used if
+   *                   {@link TableProperties#WRITE_FANOUT_MAX_OPEN_FILES} or
+   *                   {@link TableProperties#WRITE_FANOUT_MEMORY_LIMIT_BYTES} is set
+   */
+  protected BaseTaskWriter(
+      FileFormat format, FileAppenderFactory<T> appenderFactory,
+      OutputFileFactory outputFileFactory, ArcticFileIO io, long targetFileSize, long mask,
+      Schema schema, PartitionSpec spec, PrimaryKeySpec primaryKeySpec, boolean orderedWriter,
+      Map<String, String> properties
+  ) {
+    int maxOpenFiles = PropertyUtil.propertyAsInt(properties, TableProperties.WRITE_FANOUT_MAX_OPEN_FILES,
+        TableProperties.WRITE_FANOUT_MAX_OPEN_FILES_DEFAULT);
+    long memoryLimitBytes = PropertyUtil.propertyAsLong(properties, TableProperties.WRITE_FANOUT_MEMORY_LIMIT_BYTES,
+        TableProperties.WRITE_FANOUT_MEMORY_LIMIT_BYTES_DEFAULT);
     if (orderedWriter) {
       this.writerHolder = new OrderedWriterHolder<>(
           format, appenderFactory, outputFileFactory, io, targetFileSize);
+    } else if (maxOpenFiles > 0 || memoryLimitBytes > 0) {
+      this.writerHolder = new MemoryBoundedFanoutWriterHolder<>(
+          format, appenderFactory, outputFileFactory, io, targetFileSize,
+          maxOpenFiles > 0 ? maxOpenFiles : Integer.MAX_VALUE,
+          memoryLimitBytes > 0 ? memoryLimitBytes : Long.MAX_VALUE);
     } else {
       this.writerHolder = new FanoutWriterHolder<>(
           format, appenderFactory, outputFileFactory, io, targetFileSize);
@@ -73,6 +109,7 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     this.mask = mask;
     this.partitionKey = new PartitionKey(spec, schema);
     this.primaryKey = primaryKeySpec == null ? null : new PrimaryKeyData(primaryKeySpec, schema);
+    this.writerKeys = new WriterKeys(spec, primaryKey == null ? 0 : mask);
   }
 
   @Override
@@ -87,16 +124,18 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
   }
 
   protected DataWriterKey buildWriterKey(T row) {
+    return buildWriterKey(row, DataFileType.BASE_FILE);
+  }
+
+  /**
+   * Build the key of the writer for a row. Keys are interned, the same key instance is returned for rows of the same
+   * partition, tree node and file type, and should not be modified.
+   */
+  protected DataWriterKey buildWriterKey(T row, DataFileType fileType) {
     StructLike structLike = asStructLike(row);
     partitionKey.partition(structLike);
-    DataTreeNode node;
-    if (primaryKey != null) {
-      primaryKey.primaryKey(structLike);
-      node = primaryKey.treeNode(mask);
-    } else {
-      node = DataTreeNode.ROOT;
-    }
-    return new DataWriterKey(partitionKey, node, DataFileType.BASE_FILE);
+    long nodeIndex = primaryKey == null ? 0 : primaryKey.treeNodeIndex(structLike, mask);
+    return writerKeys.get(partitionKey, nodeIndex, fileType);
   }
 
   @Override
@@ -159,6 +198,50 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
   }
 
 
+  /**
+   * Interned writer keys by partition, tree node and file type, so that no writer key is allocated for a row.
+   */
+  private static class WriterKeys {
+    // keys of tree nodes are held in arrays, the mask of tables is usually much smaller
+    private static final long MAX_INTERNED_MASK = 255;
+    private static final int FILE_TYPES = DataFileType.values().length;
+
+    private final long mask;
+    private final StructLikeMap<DataWriterKey[][]> partitionKeys;
+    private final DataWriterKey[][] unpartitionedKeys;
+
+    WriterKeys(PartitionSpec spec, long mask) {
+      this.mask = mask;
+      this.partitionKeys = spec.isUnpartitioned() ? null : StructLikeMap.create(spec.partitionType());
+      this.unpartitionedKeys = spec.isUnpartitioned() ? new DataWriterKey[FILE_TYPES][] : null;
+    }
+
+    DataWriterKey get(PartitionKey partition, long nodeIndex, DataFileType fileType) {
+      if (mask > MAX_INTERNED_MASK) {
+        return new DataWriterKey(partition, DataTreeNode.of(mask, nodeIndex), fileType);
+      }
+      DataWriterKey[][] keysByType = unpartitionedKeys;
+      if (keysByType == null) {
+        keysByType = partitionKeys.get(partition);
+        if (keysByType == null) {
+          keysByType = new DataWriterKey[FILE_TYPES][];
+          partitionKeys.put(partition.copy(), keysByType);
+        }
+      }
+      DataWriterKey[] keys = keysByType[fileType.ordinal()];
+      if (keys == null) {
+        keys = new DataWriterKey[(int) mask + 1];
+        keysByType[fileType.ordinal()] = keys;
+      }
+      DataWriterKey key = keys[(int) nodeIndex];
+      if (key == null) {
+        key = new DataWriterKey(partition.copy(), DataTreeNode.of(mask, nodeIndex), fileType);
+        keys[(int) nodeIndex] = key;
+      }
+      return key;
+    }
+  }
+
   protected abstract static class WriterHolder<T> {
 
     protected final FileFormat format;
@@ -210,9 +293,12 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
 
 
     protected TaskDataWriter<T> newWriter(TaskWriterKey writerKey) {
+      EncryptedOutputFile outputFile = outputFileFactory.newOutputFile(writerKey);
+      FlushTrackingOutputFile trackingFile = new FlushTrackingOutputFile(outputFile.encryptingOutputFile());
       DataWriter<T> dataWriter = io.doAs(() -> appenderFactory.newDataWriter(
-          outputFileFactory.newOutputFile(writerKey), format, writerKey.getPartitionKey()));
-      return new TaskDataWriter<>(dataWriter, io);
+          EncryptedFiles.encryptedOutput(trackingFile, outputFile.keyMetadata()), format,
+          writerKey.getPartitionKey()));
+      return new TaskDataWriter<>(dataWriter, io, trackingFile);
     }
   }
 
@@ -263,6 +349,114 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
 
   }
 
+  /**
+   * a fan-out writer holder which bounds the number of open writers and the bytes buffered by them.
+   * <p>
+   * Once a new writer would exceed maxOpenWriters, the least recently used writer is completed. Once the open writers
+   * exceed maxBufferedBytes, the writers buffering the most bytes are completed. Bytes of a writer not flushed to its
+   * file yet, like the current parquet row group, are counted as buffered. Rows of a completed write key go to a new
+   * file, so the holder produces more small files than {@link FanoutWriterHolder} under memory pressure.
+   */
+  protected static class MemoryBoundedFanoutWriterHolder<T> extends WriterHolder<T> {
+    // access ordered, the eldest writer is the least recently used one
+    private final LinkedHashMap<DataWriterKey, TaskDataWriter<T>> dataWriterMap =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxOpenWriters;
+    private final long maxBufferedBytes;
+    private long bufferedBytes = 0L;
+    // rows are written to the writer returned last time after it is returned
+    private TaskDataWriter<T> lastWriter;
+
+    public MemoryBoundedFanoutWriterHolder(
+        FileFormat format, FileAppenderFactory<T> appenderFactory,
+        OutputFileFactory outputFileFactory, ArcticFileIO io, long targetFileSize,
+        int maxOpenWriters, long maxBufferedBytes) {
+      super(format, appenderFactory, outputFileFactory, io, targetFileSize);
+      Preconditions.checkArgument(maxOpenWriters > 0, "maxOpenWriters should be positive");
+      Preconditions.checkArgument(maxBufferedBytes > 0, "maxBufferedBytes should be positive");
+      this.maxOpenWriters = maxOpenWriters;
+      this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    @Override
+    public TaskDataWriter<T> getDataWriter(DataWriterKey writerKey) throws IOException {
+      if (lastWriter != null) {
+        // count the rows written since the writer was returned last time, flushed rows are not buffered any more
+        long length = lastWriter.unflushedLength();
+        bufferedBytes += length - lastWriter.trackedLength;
+        lastWriter.trackedLength = length;
+        lastWriter = null;
+      }
+      TaskDataWriter<T> writer = dataWriterMap.get(writerKey);
+      if (writer != null && shouldRollToNewFile(writer)) {
+        completeWriter(writerKey);
+        writer = null;
+      }
+
+      if (writer == null) {
+        while (dataWriterMap.size() >= maxOpenWriters) {
+          completeWriter(dataWriterMap.keySet().iterator().next());
+        }
+        DataWriterKey copiedWriterKey = writerKey.copy();
+        writer = newWriter(copiedWriterKey);
+        dataWriterMap.put(copiedWriterKey, writer);
+      }
+
+      while (bufferedBytes > maxBufferedBytes) {
+        DataWriterKey largestKey = largestWriterKey(writerKey);
+        if (largestKey == null) {
+          break;
+        }
+        completeWriter(largestKey);
+      }
+      lastWriter = writer;
+      return writer;
+    }
+
+    /**
+     * Number of writers currently open.
+     */
+    public int openWriterCount() {
+      return dataWriterMap.size();
+    }
+
+    private DataWriterKey largestWriterKey(DataWriterKey excludedKey) {
+      DataWriterKey largestKey = null;
+      long largestLength = 0L;
+      for (Map.Entry<DataWriterKey, TaskDataWriter<T>> entry : dataWriterMap.entrySet()) {
+        if (entry.getValue().trackedLength > largestLength && !entry.getKey().equals(excludedKey)) {
+          largestKey = entry.getKey();
+          largestLength = entry.getValue().trackedLength;
+        }
+      }
+      return largestKey;
+    }
+
+    private void completeWriter(DataWriterKey writerKey) {
+      TaskDataWriter<T> writer = dataWriterMap.remove(writerKey);
+      bufferedBytes -= writer.trackedLength;
+      writer.close();
+      DataFile dataFile = writer.toDataFile();
+      if (dataFile != null) {
+        completedFiles.add(dataFile);
+      }
+    }
+
+    @Override
+    public void doClose() throws IOException {
+      for (TaskDataWriter<T> dataWriter : dataWriterMap.values()) {
+        dataWriter.close();
+        DataFile dataFile = dataWriter.toDataFile();
+        if (dataFile != null) {
+          completedFiles.add(dataFile);
+        }
+      }
+      dataWriterMap.clear();
+      bufferedBytes = 0L;
+      lastWriter = null;
+    }
+  }
+
   /**
    * a writer holder which require records had been sorted before write.
    * The holder will hold only one writer in open, and will throw an IllegalStateException exception
@@ -325,13 +519,17 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
 
   protected static class TaskDataWriter<T> {
     private final DataWriter<T> dataWriter;
+    private final FlushTrackingOutputFile outputFile;
     private long currentRows = 0;
+    // unflushed length counted by the holder as buffered bytes
+    private long trackedLength = 0L;
 
     private final ArcticFileIO io;
 
-    protected TaskDataWriter(DataWriter<T> dataWriter, ArcticFileIO io) {
+    protected TaskDataWriter(DataWriter<T> dataWriter, ArcticFileIO io, FlushTrackingOutputFile outputFile) {
       this.dataWriter = dataWriter;
       this.io = io;
+      this.outputFile = outputFile;
     }
 
     protected void write(T record) {
@@ -364,5 +562,57 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     protected long length() {
       return dataWriter.length();
     }
+
+    /**
+     * Length of the rows buffered by the writer, the length of the file minus the bytes already written to the file.
+     */
+    protected long unflushedLength() {
+      return Math.max(0L, dataWriter.length() - outputFile.flushedBytes());
+    }
+  }
+
+  /**
+   * An output file remembering its stream, to tell how many bytes are written to the file.
+   */
+  protected static class FlushTrackingOutputFile implements OutputFile {
+    private final OutputFile delegate;
+    private PositionOutputStream stream;
+
+    FlushTrackingOutputFile(OutputFile delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public PositionOutputStream create() {
+      stream = delegate.create();
+      return stream;
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite() {
+      stream = delegate.createOrOverwrite();
+      return stream;
+    }
+
+    @Override
+    public String location() {
+      return delegate.location();
+    }
+
+    @Override
+    public InputFile toInputFile() {
+      return delegate.toInputFile();
+    }
+
+    long flushedBytes() {
+      if (stream == null) {
+        return 0L;
+      }
+      try {
+        return stream.getPos();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
   }
 }
@@ -28,6 +28,7 @@ import org.apache.iceberg.Schema;
 import org.apache.iceberg.io.FileAppenderFactory;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * Abstract implementation of writer for {@link com.netease.arctic.table.ChangeTable}.
@@ -54,17 +55,34 @@ public abstract class ChangeTaskWriter<T> extends BaseTaskWriter<T> {
     );
   }
 
+  protected ChangeTaskWriter(
+      FileFormat format,
+      FileAppenderFactory<T> appenderFactory,
+      OutputFileFactory outputFileFactory,
+      ArcticFileIO io,
+      long targetFileSize,
+      long mask,
+      Schema schema,
+      PartitionSpec spec,
+      PrimaryKeySpec primaryKeySpec,
+      boolean orderedWriter,
+      Map<String, String> properties) {
+    super(
+        format, appenderFactory, outputFileFactory, io, targetFileSize,
+        mask, schema, spec, primaryKeySpec, orderedWriter, properties
+    );
+  }
+
   @Override
   protected DataWriterKey buildWriterKey(T row) {
-    DataWriterKey key = super.buildWriterKey(row);
     ChangeAction action = action(row);
     switch (action) {
       case INSERT:
       case UPDATE_AFTER:
-        return new DataWriterKey(key.getPartitionKey(), key.getTreeNode(), DataFileType.INSERT_FILE);
+        return buildWriterKey(row, DataFileType.INSERT_FILE);
       case DELETE:
       case UPDATE_BEFORE:
-        return new DataWriterKey(key.getPartitionKey(), key.getTreeNode(), DataFileType.EQ_DELETE_FILE);
+        return buildWriterKey(row, DataFileType.EQ_DELETE_FILE);
       default:
         throw new IllegalArgumentException("Unknown action:" + action.name());
     }
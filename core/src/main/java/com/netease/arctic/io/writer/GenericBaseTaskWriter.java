@@ -28,6 +28,9 @@ import org.apache.iceberg.StructLike;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.io.FileAppenderFactory;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Implementation of {@link BaseTaskWriter} to write {@link Record}.
  */
@@ -46,8 +49,24 @@ public class GenericBaseTaskWriter extends BaseTaskWriter<Record> {
       PartitionSpec spec,
       PrimaryKeySpec primaryKeySpec,
       boolean orderedWriter) {
+    this(format, appenderFactory, outputFileFactory, io, targetFileSize,
+        mask, schema, spec, primaryKeySpec, orderedWriter, Collections.emptyMap());
+  }
+
+  public GenericBaseTaskWriter(
+      FileFormat format,
+      FileAppenderFactory<Record> appenderFactory,
+      OutputFileFactory outputFileFactory,
+      ArcticFileIO io,
+      long targetFileSize,
+      long mask,
+      Schema schema,
+      PartitionSpec spec,
+      PrimaryKeySpec primaryKeySpec,
+      boolean orderedWriter,
+      Map<String, String> properties) {
     super(format, appenderFactory, outputFileFactory, io, targetFileSize,
-        mask, schema, spec, primaryKeySpec, orderedWriter);
+        mask, schema, spec, primaryKeySpec, orderedWriter, properties);
     this.wrapper = new InternalRecordWrapper(schema.asStruct());
   }
 
@@ -31,6 +31,9 @@ import org.apache.iceberg.data.GenericRecord;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.io.FileAppenderFactory;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Implementation of {@link ChangeTaskWriter} to write {@link Record}.
  */
@@ -52,9 +55,26 @@ public class GenericChangeTaskWriter extends ChangeTaskWriter<Record> {
       PrimaryKeySpec primaryKeySpec,
       ChangeAction writeAction,
       boolean orderedWriter) {
+    this(format, appenderFactory, outputFileFactory, io, targetFileSize, mask, schema, spec, primaryKeySpec,
+        writeAction, orderedWriter, Collections.emptyMap());
+  }
+
+  public GenericChangeTaskWriter(
+      FileFormat format,
+      FileAppenderFactory<Record> appenderFactory,
+      OutputFileFactory outputFileFactory,
+      ArcticFileIO io,
+      long targetFileSize,
+      long mask,
+      Schema schema,
+      PartitionSpec spec,
+      PrimaryKeySpec primaryKeySpec,
+      ChangeAction writeAction,
+      boolean orderedWriter,
+      Map<String, String> properties) {
     super(
         format, appenderFactory, outputFileFactory, io,
-        targetFileSize, mask, schema, spec, primaryKeySpec,orderedWriter
+        targetFileSize, mask, schema, spec, primaryKeySpec, orderedWriter, properties
     );
     this.joinSchema = SchemaUtil.changeWriteSchema(schema);
     this.wrapper = new InternalRecordWrapper(schema.asStruct());
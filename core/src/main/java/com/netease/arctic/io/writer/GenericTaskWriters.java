@@ -114,7 +114,7 @@ public class GenericTaskWriters {
           new CommonOutputFileFactory(base.location(), table.spec(), fileFormat, table.io(),
               base.encryption(), partitionId, taskId, transactionId),
           table.io(), fileSizeBytes, mask, base.schema(),
-          table.spec(), primaryKeySpec, orderedWriter);
+          table.spec(), primaryKeySpec, orderedWriter, table.properties());
     }
 
     public SortedPosDeleteWriter<Record> buildBasePosDeleteWriter(long mask, long index, StructLike partitionKey) {
@@ -151,7 +151,7 @@ public class GenericTaskWriters {
           new CommonOutputFileFactory(change.location(), table.spec(), fileFormat, table.io(),
               change.encryption(), partitionId, taskId, transactionId),
           table.io(), fileSizeBytes, mask, change.schema(), table.spec(), primaryKeySpec,
-          changeAction, orderedWriter);
+          changeAction, orderedWriter, table.properties());
     }
 
     private void writeBasePreconditions() {
@@ -32,28 +32,26 @@ import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.FileWriter;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
-import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.util.CharSequenceSet;
-import org.apache.iceberg.util.CharSequenceWrapper;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Positional delete file writer for iceberg tables. Write to different delete file for every data file.
  * The output delete files are named with pattern: {data_file_name}-delete-{delete_file_suffix}.
+ * Once the buffered positions reach recordsNumThreshold, they are flushed as sorted runs, the delete files of
+ * later runs are named with pattern: {data_file_name}-delete-{delete_file_suffix}-{run}. Rows buffered with their
+ * positions count as many positions as their estimated size takes.
  * 
  * @param <T> to indicate the record data type.
  */
 public class IcebergFanoutPosDeleteWriter<T> implements FileWriter<PositionDelete<T>, DeleteWriteResult> {
 
   private final List<DeleteFile> completedFiles = Lists.newArrayList();
-  private final Map<CharSequenceWrapper, List<PosRow<T>>> posDeletes = Maps.newHashMap();
+  private final PositionDeleteBuffer<T> posDeletes = new PositionDeleteBuffer<>();
   private final CharSequenceSet referencedDataFiles = CharSequenceSet.empty();
-  private final CharSequenceWrapper wrapper = CharSequenceWrapper.wrap(null);
 
   private final FileAppenderFactory<T> appenderFactory;
   private final FileFormat format;
@@ -61,7 +59,10 @@ public class IcebergFanoutPosDeleteWriter<T> implements FileWriter<PositionDelet
   private final FileIO fileIO;
   private final EncryptionManager encryptionManager;
   private final String fileNameSuffix;
+  // positions and rows buffered before they are flushed
+  private final long bufferSizeInBytes;
 
+  private int flushedRuns = 0;
   private boolean closed = false;
   private Throwable failure;
 
@@ -72,12 +73,24 @@ public class IcebergFanoutPosDeleteWriter<T> implements FileWriter<PositionDelet
       FileIO fileIO,
       EncryptionManager encryptionManager,
       String fileNameSuffix) {
+    this(appenderFactory, format, partition, fileIO, encryptionManager, fileNameSuffix, Long.MAX_VALUE);
+  }
+
+  public IcebergFanoutPosDeleteWriter(
+      FileAppenderFactory<T> appenderFactory,
+      FileFormat format,
+      StructLike partition,
+      FileIO fileIO,
+      EncryptionManager encryptionManager,
+      String fileNameSuffix,
+      long recordsNumThreshold) {
     this.appenderFactory = appenderFactory;
     this.format = format;
     this.partition = partition;
     this.fileIO = fileIO;
     this.encryptionManager = encryptionManager;
     this.fileNameSuffix = fileNameSuffix;
+    this.bufferSizeInBytes = PositionDeleteBuffer.sizeInBytesOfPositions(recordsNumThreshold);
   }
 
   protected void setFailure(Throwable throwable) {
@@ -102,11 +115,9 @@ public class IcebergFanoutPosDeleteWriter<T> implements FileWriter<PositionDelet
   }
 
   public void delete(CharSequence path, long pos, T row) {
-    List<PosRow<T>> posRows = posDeletes.get(wrapper.set(path));
-    if (posRows != null) {
-      posRows.add(PosRow.of(pos, row));
-    } else {
-      posDeletes.put(CharSequenceWrapper.wrap(path), Lists.newArrayList(PosRow.of(pos, row)));
+    posDeletes.add(path, pos, row);
+    if (posDeletes.sizeInBytes() >= bufferSizeInBytes) {
+      flushDeletes();
     }
   }
 
@@ -141,27 +152,24 @@ public class IcebergFanoutPosDeleteWriter<T> implements FileWriter<PositionDelet
       return;
     }
 
-    posDeletes.forEach((filePath, posDeletes) -> {
-      if (posDeletes.size() <= 0) {
-        return;
-      }
-      posDeletes.sort(Comparator.comparingLong(PosRow::pos));
-      String fileName = TableFileUtil.getFileName(filePath.get().toString());
+    String runSuffix = flushedRuns == 0 ? fileNameSuffix : fileNameSuffix + "-" + flushedRuns;
+    for (CharSequence filePath : posDeletes.sortedPaths()) {
+      String fileName = TableFileUtil.getFileName(filePath.toString());
       FileFormat fileFormat = FileFormat.fromFileName(fileName);
       if (fileFormat != null) {
         fileName = fileName.substring(0, fileName.length() - fileFormat.name().length() - 1);
       }
-      String fileDir = TableFileUtil.getFileDir(filePath.get().toString());
+      String fileDir = TableFileUtil.getFileDir(filePath.toString());
       String deleteFilePath = format.addExtension(String.format("%s/%s-delete-%s", fileDir, fileName,
-          fileNameSuffix));
+          runSuffix));
       EncryptedOutputFile outputFile = encryptionManager.encrypt(fileIO.newOutputFile(deleteFilePath));
 
       PositionDeleteWriter<T> writer =
           appenderFactory.newPosDeleteWriter(outputFile, format, partition);
       PositionDelete<T> posDelete = PositionDelete.create();
       try (PositionDeleteWriter<T> closeableWriter = writer) {
-        posDeletes.forEach(
-            posRow -> closeableWriter.write(posDelete.set(filePath.get(), posRow.pos(), posRow.row())));
+        posDeletes.forEachSorted(
+            filePath, (pos, row) -> closeableWriter.write(posDelete.set(filePath, pos, row)));
       } catch (IOException e) {
         setFailure(e);
         throw new UncheckedIOException(
@@ -174,31 +182,10 @@ public class IcebergFanoutPosDeleteWriter<T> implements FileWriter<PositionDelet
 
       // Add the completed delete files.
       completedFiles.add(writer.toDeleteFile());
-    });
+    }
 
     // Clear the buffered pos-deletions.
     posDeletes.clear();
-  }
-
-  private static class PosRow<R> {
-    private final long pos;
-    private final R row;
-
-    static <R> PosRow<R> of(long pos, R row) {
-      return new PosRow<>(pos, row);
-    }
-
-    private PosRow(long pos, R row) {
-      this.pos = pos;
-      this.row = row;
-    }
-
-    long pos() {
-      return pos;
-    }
-
-    R row() {
-      return row;
-    }
+    flushedRuns += 1;
   }
 }
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.writer;
+
+import com.netease.arctic.utils.ObjectSizeCalculator;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.util.CharSequenceWrapper;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffer of deleted positions grouped by the data file path. Positions are held in primitive long arrays, rows are
+ * only held for a data file once a position of it is deleted with its row.
+ *
+ * @param <T> to indicate the record data type.
+ */
+public class PositionDeleteBuffer<T> {
+
+  /**
+   * Estimated bytes of a buffered position without row, the long value and the unused capacity of the growing array.
+   */
+  public static final long BYTES_PER_POSITION = 16L;
+
+  // reference to a buffered row in the growing list of rows
+  private static final long BYTES_PER_ROW_REFERENCE = 8L;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Map<CharSequenceWrapper, FilePositions<T>> positions = Maps.newHashMap();
+  private final CharSequenceWrapper wrapper = CharSequenceWrapper.wrap(null);
+  private long size = 0L;
+  private long rowCount = 0L;
+  // estimated from the first buffered row, rows of a writer have the same schema
+  private long bytesPerRow = -1L;
+
+  void add(CharSequence path, long pos, T row) {
+    FilePositions<T> filePositions = positions.get(wrapper.set(path));
+    if (filePositions == null) {
+      filePositions = new FilePositions<>();
+      positions.put(CharSequenceWrapper.wrap(path), filePositions);
+    }
+    filePositions.add(pos, row);
+    size += 1;
+    if (row != null) {
+      if (bytesPerRow < 0) {
+        bytesPerRow = BYTES_PER_ROW_REFERENCE + ObjectSizeCalculator.getObjectSize(row);
+      }
+      rowCount += 1;
+    }
+  }
+
+  /**
+   * Number of buffered positions.
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * Estimated bytes of the buffered positions and rows.
+   */
+  long sizeInBytes() {
+    return size * BYTES_PER_POSITION + (rowCount == 0 ? 0L : rowCount * bytesPerRow);
+  }
+
+  /**
+   * Estimated bytes of the given number of positions buffered without rows, Long.MAX_VALUE if it overflows.
+   */
+  static long sizeInBytesOfPositions(long positions) {
+    return positions > Long.MAX_VALUE / BYTES_PER_POSITION ? Long.MAX_VALUE : positions * BYTES_PER_POSITION;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Paths of the data files with buffered positions, in the order of position delete files.
+   */
+  List<CharSequence> sortedPaths() {
+    List<CharSequence> paths = Lists.newArrayListWithCapacity(positions.size());
+    for (CharSequenceWrapper path : positions.keySet()) {
+      paths.add(path.get());
+    }
+    paths.sort(Comparators.charSequences());
+    return paths;
+  }
+
+  /**
+   * Visit the buffered positions of a data file in ascending order.
+   */
+  void forEachSorted(CharSequence path, PositionConsumer<T> consumer) {
+    FilePositions<T> filePositions = positions.get(wrapper.set(path));
+    if (filePositions != null) {
+      filePositions.forEachSorted(consumer);
+    }
+  }
+
+  void clear() {
+    positions.clear();
+    size = 0L;
+    rowCount = 0L;
+  }
+
+  interface PositionConsumer<T> {
+    void accept(long pos, T row);
+  }
+
+  private static class FilePositions<T> {
+    private long[] positions = new long[INITIAL_CAPACITY];
+    // null until a position is deleted with its row
+    private List<T> rows;
+    private int size = 0;
+
+    void add(long pos, T row) {
+      if (size == positions.length) {
+        positions = Arrays.copyOf(positions, size * 2);
+      }
+      if (row != null && rows == null) {
+        rows = Lists.newArrayListWithCapacity(positions.length);
+        for (int i = 0; i < size; i++) {
+          rows.add(null);
+        }
+      }
+      positions[size] = pos;
+      if (rows != null) {
+        rows.add(row);
+      }
+      size += 1;
+    }
+
+    void forEachSorted(PositionConsumer<T> consumer) {
+      if (rows == null) {
+        Arrays.sort(positions, 0, size);
+        for (int i = 0; i < size; i++) {
+          consumer.accept(positions[i], null);
+        }
+      } else {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+          order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> positions[i]));
+        for (Integer i : order) {
+          consumer.accept(positions[i], rows.get(i));
+        }
+      }
+    }
+  }
+}
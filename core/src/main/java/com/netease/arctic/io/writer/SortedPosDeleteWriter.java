@@ -29,17 +29,12 @@ import org.apache.iceberg.deletes.PositionDeleteWriter;
 import org.apache.iceberg.encryption.EncryptedOutputFile;
 import org.apache.iceberg.io.FileAppenderFactory;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
-import org.apache.iceberg.relocated.com.google.common.collect.Maps;
-import org.apache.iceberg.types.Comparators;
 import org.apache.iceberg.util.CharSequenceSet;
-import org.apache.iceberg.util.CharSequenceWrapper;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Abstract implementation of positional delete writer for {@link com.netease.arctic.table.BaseTable}.
@@ -48,19 +43,17 @@ import java.util.Map;
 public class SortedPosDeleteWriter<T> implements Closeable {
   private static final long DEFAULT_RECORDS_NUM_THRESHOLD = Long.MAX_VALUE;
 
-  private final Map<CharSequenceWrapper, List<PosRow<T>>> posDeletes = Maps.newHashMap();
+  private final PositionDeleteBuffer<T> posDeletes = new PositionDeleteBuffer<>();
   private final List<DeleteFile> completedFiles = Lists.newArrayList();
   private final CharSequenceSet referencedDataFiles = CharSequenceSet.empty();
-  private final CharSequenceWrapper wrapper = CharSequenceWrapper.wrap(null);
 
   private final FileAppenderFactory<T> appenderFactory;
   private final OutputFileFactory fileFactory;
   private final ArcticFileIO io;
   private final FileFormat format;
   private final TaskWriterKey writerKey;
-  private final long recordsNumThreshold;
-
-  private int records = 0;
+  // positions and rows buffered before they are flushed
+  private final long bufferSizeInBytes;
 
   public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
                                OutputFileFactory fileFactory,
@@ -74,7 +67,7 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     this.io = io;
     this.format = format;
     this.writerKey = new TaskWriterKey(partitionKey, DataTreeNode.of(mask, index), DataFileType.POS_DELETE_FILE);
-    this.recordsNumThreshold = recordsNumThreshold;
+    this.bufferSizeInBytes = PositionDeleteBuffer.sizeInBytesOfPositions(recordsNumThreshold);
   }
 
   public SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
@@ -99,19 +92,29 @@ public class SortedPosDeleteWriter<T> implements Closeable {
   }
 
   public void delete(CharSequence path, long pos, T row) {
-    List<PosRow<T>> posRows = posDeletes.get(wrapper.set(path));
-    if (posRows != null) {
-      posRows.add(PosRow.of(pos, row));
-    } else {
-      posDeletes.put(CharSequenceWrapper.wrap(path), Lists.newArrayList(PosRow.of(pos, row)));
+    posDeletes.add(path, pos, row);
+
+    // Every flush writes a sorted run of the buffered positions to a new delete file.
+    if (posDeletes.sizeInBytes() >= bufferSizeInBytes) {
+      flushDeletes();
     }
+  }
 
-    records += 1;
+  /**
+   * Number of positions buffered in memory.
+   */
+  public long bufferedRecords() {
+    return posDeletes.size();
+  }
 
-    // TODO Flush buffer based on the policy that checking whether whole heap memory size exceed the threshold.
-    if (records >= recordsNumThreshold) {
+  /**
+   * Write the buffered positions to a new delete file.
+   */
+  public void flush() {
+    io.doAs(() -> {
       flushDeletes();
-    }
+      return null;
+    });
   }
 
   public List<DeleteFile> complete() throws IOException {
@@ -145,20 +148,10 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     PositionDeleteWriter<T> writer = io.doAs(() -> appenderFactory
          .newPosDeleteWriter(outputFile, format, writerKey.getPartitionKey()));
     try (PositionDeleteWriter<T> closeableWriter = writer) {
-      // Sort all the paths.
-      List<CharSequence> paths = Lists.newArrayListWithCapacity(posDeletes.keySet().size());
-      for (CharSequenceWrapper charSequenceWrapper : posDeletes.keySet()) {
-        paths.add(charSequenceWrapper.get());
-      }
-      paths.sort(Comparators.charSequences());
-
       // Write all the sorted <path, pos, row> triples.
       PositionDelete<T> positionDelete = PositionDelete.create();
-      for (CharSequence path : paths) {
-        List<PosRow<T>> positions = posDeletes.get(wrapper.set(path));
-        positions.sort(Comparator.comparingLong(PosRow::pos));
-
-        positions.forEach(posRow -> closeableWriter.write(positionDelete.set(path, posRow.pos(), posRow.row())));
+      for (CharSequence path : posDeletes.sortedPaths()) {
+        posDeletes.forEachSorted(path, (pos, row) -> closeableWriter.write(positionDelete.set(path, pos, row)));
       }
     } catch (IOException e) {
       throw new UncheckedIOException("Failed to write the sorted path/pos pairs to pos-delete file: " +
@@ -167,7 +160,6 @@ public class SortedPosDeleteWriter<T> implements Closeable {
 
     // Clear the buffered pos-deletions.
     posDeletes.clear();
-    records = 0;
 
     // Add the referenced data files.
     referencedDataFiles.addAll(writer.referencedDataFiles());
@@ -175,26 +167,4 @@ public class SortedPosDeleteWriter<T> implements Closeable {
     // Add the completed delete files.
     completedFiles.add(writer.toDeleteFile());
   }
-
-  private static class PosRow<R> {
-    private final long pos;
-    private final R row;
-
-    static <R> PosRow<R> of(long pos, R row) {
-      return new PosRow<>(pos, row);
-    }
-
-    private PosRow(long pos, R row) {
-      this.pos = pos;
-      this.row = row;
-    }
-
-    long pos() {
-      return pos;
-    }
-
-    R row() {
-      return row;
-    }
-  }
 }
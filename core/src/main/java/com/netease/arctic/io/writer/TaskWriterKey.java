@@ -62,7 +62,10 @@ public class TaskWriterKey {
 
   @Override
   public int hashCode() {
-    return Objects.hash(partitionKey, treeNode, fileType);
+    // the same as Objects.hash, without allocating the array of fields for every lookup of writers
+    int hash = 31 + Objects.hashCode(partitionKey);
+    hash = 31 * hash + Objects.hashCode(treeNode);
+    return 31 * hash + Objects.hashCode(fileType);
   }
 
 }
@@ -28,7 +28,14 @@ import static com.netease.arctic.log.LogData.MAGIC_NUMBER;
  * Log format version.
  */
 public enum FormatVersion {
-  FORMAT_VERSION_V1(new MessageBytes().append(MAGIC_NUMBER).append((byte) 1).toBytes());
+  /**
+   * Rows are encoded in json by {@link LogDataJsonSerialization}.
+   */
+  FORMAT_VERSION_V1(new MessageBytes().append(MAGIC_NUMBER).append((byte) 1).toBytes()),
+  /**
+   * Rows are encoded in a compact binary form by {@link LogDataBinarySerialization}.
+   */
+  FORMAT_VERSION_V2(new MessageBytes().append(MAGIC_NUMBER).append((byte) 2).toBytes());
 
   /**
    * the version of log format, contains a fixed magic number and actual version number,
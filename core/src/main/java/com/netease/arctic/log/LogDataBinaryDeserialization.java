@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.log;
+
+import com.netease.arctic.log.data.LogArrayData;
+import com.netease.arctic.log.data.LogMapData;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.relocated.com.google.common.primitives.Longs;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.netease.arctic.utils.FlipUtil.convertToBoolean;
+import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Deserialization that deserializes bytes of {@link FormatVersion#FORMAT_VERSION_V2} written by
+ * {@link LogDataBinarySerialization} into an instance of {@link LogData}
+ * through {@link LogData.Factory#create(Object, Object...)}, values are built the same way as
+ * {@link LogDataJsonDeserialization}.
+ */
+public class LogDataBinaryDeserialization<T> implements Serializable {
+  private static final long serialVersionUID = 4470734906214395178L;
+  private static final int ROW_BEGINNING_POS = 18;
+
+  private final Schema schema;
+  private final LogData.Factory<T> factory;
+  private final LogArrayData.Factory arrayFactory;
+  private final LogMapData.Factory mapFactory;
+
+  private transient ValueReader rowReader;
+
+  public LogDataBinaryDeserialization(
+      Schema schema,
+      LogData.Factory<T> factory,
+      LogArrayData.Factory arrayFactory,
+      LogMapData.Factory mapFactory) {
+    this.schema = schema;
+    this.factory = factory;
+    this.arrayFactory = arrayFactory;
+    this.mapFactory = mapFactory;
+  }
+
+  @SuppressWarnings("unchecked")
+  public LogData<T> deserialize(byte[] message) {
+    checkArgument(message != null, "message is null.");
+    checkArgument(message.length >= ROW_BEGINNING_POS, "message is illegal.");
+    byte[] versionBytes = Bytes.subByte(message, 0, 4);
+    byte[] upstreamIdBytes = Bytes.subByte(message, 4, 4);
+    long epicNo = Longs.fromBytes(
+        message[8], message[9], message[10], message[11], message[12], message[13], message[14], message[15]);
+    byte flip = message[16];
+    byte changeActionByte = message[17];
+
+    if (convertToBoolean(flip)) {
+      // we can ignore actual value which should be empty, when flip is true.
+      return factory.create(null, versionBytes, upstreamIdBytes, epicNo, true, changeActionByte);
+    }
+
+    if (rowReader == null) {
+      rowReader = createReader(schema.asStruct());
+    }
+    T actualValue = (T) rowReader.read(new BinaryInput(message, ROW_BEGINNING_POS));
+    return factory.create(actualValue, versionBytes, upstreamIdBytes, epicNo, false, changeActionByte);
+  }
+
+  /**
+   * Reader of a non-null value.
+   */
+  private interface ValueReader {
+    Object read(BinaryInput input);
+  }
+
+  private ValueReader createReader(Type type) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return input -> input.readByte() != 0;
+      case INTEGER:
+      case DATE:
+        return BinaryInput::readInt;
+      case LONG:
+      case TIME:
+        return BinaryInput::readLong;
+      case FLOAT:
+        return input -> Float.intBitsToFloat(input.readInt());
+      case DOUBLE:
+        return input -> Double.longBitsToDouble(input.readLong());
+      case TIMESTAMP:
+        Types.TimestampType timestamp = (Types.TimestampType) type;
+        if (timestamp.shouldAdjustToUTC()) {
+          return input -> Instant.ofEpochSecond(input.readLong(), input.readInt());
+        } else {
+          return input -> LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+        }
+      case STRING:
+        return BinaryInput::readString;
+      case UUID:
+      case FIXED:
+      case BINARY:
+        return BinaryInput::readLengthPrefixed;
+      case DECIMAL:
+        return input -> {
+          int zigZagScale = input.readVarInt();
+          int scale = (zigZagScale >>> 1) ^ -(zigZagScale & 1);
+          return new BigDecimal(new BigInteger(input.readLengthPrefixed()), scale);
+        };
+      case LIST:
+        return createListReader(type.asListType());
+      case MAP:
+        return createMapReader(type.asMapType());
+      case STRUCT:
+        return createStructReader(type.asStructType());
+      default:
+        throw new UnsupportedOperationException("Not Support to parse type: " + type);
+    }
+  }
+
+  private ValueReader createStructReader(Types.StructType struct) {
+    List<Types.NestedField> fields = struct.fields();
+    int fieldCount = fields.size();
+    Type[] fieldTypes = new Type[fieldCount];
+    ValueReader[] fieldReaders = new ValueReader[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      fieldTypes[i] = fields.get(i).type();
+      fieldReaders[i] = createReader(fieldTypes[i]);
+    }
+    return input -> {
+      int bitmapPos = input.skipBitmap(fieldCount);
+      Object[] values = new Object[fieldCount];
+      for (int i = 0; i < fieldCount; i++) {
+        if (!input.isNull(bitmapPos, i)) {
+          values[i] = fieldReaders[i].read(input);
+        }
+      }
+      return factory.createActualValue(values, fieldTypes);
+    };
+  }
+
+  private ValueReader createListReader(Types.ListType list) {
+    Type elementType = list.elementType();
+    ValueReader elementReader = createReader(elementType);
+    return input -> {
+      int size = input.readVarInt();
+      Object[] array = readElements(input, size, elementType, elementReader);
+      return arrayFactory.create(array == null ? new Object[size] : array);
+    };
+  }
+
+  private ValueReader createMapReader(Types.MapType map) {
+    Type keyType = map.keyType();
+    Type valueType = map.valueType();
+    ValueReader keyReader = createReader(keyType);
+    ValueReader valueReader = createReader(valueType);
+    return input -> {
+      int size = input.readVarInt();
+      Object[] keys = readElements(input, size, keyType, keyReader);
+      Object[] values = readElements(input, size, valueType, valueReader);
+      Map<Object, Object> result = new HashMap<>();
+      for (int i = 0; i < size; i++) {
+        result.put(keys == null ? null : keys[i], values == null ? null : values[i]);
+      }
+      return mapFactory.create(result);
+    };
+  }
+
+  /**
+   * Read elements into an array of the class of the first non-null element like {@link JsonToLogDataConverters}.
+   *
+   * @return null if all elements are null
+   */
+  private Object[] readElements(BinaryInput input, int size, Type elementType, ValueReader elementReader) {
+    int bitmapPos = input.skipBitmap(size);
+    Object[] array = null;
+    for (int i = 0; i < size; i++) {
+      if (input.isNull(bitmapPos, i)) {
+        continue;
+      }
+      Object value = factory.convertIfNecessary(elementType, elementReader.read(input));
+      if (array == null) {
+        array = (Object[]) Array.newInstance(value.getClass(), size);
+      }
+      array[i] = value;
+    }
+    return array;
+  }
+
+  /**
+   * Cursor over the bytes of a message.
+   */
+  private static class BinaryInput {
+    private final byte[] bytes;
+    private int pos;
+
+    BinaryInput(byte[] bytes, int pos) {
+      this.bytes = bytes;
+      this.pos = pos;
+    }
+
+    byte readByte() {
+      return bytes[pos++];
+    }
+
+    int readInt() {
+      int value = ((bytes[pos] & 0xFF) << 24) | ((bytes[pos + 1] & 0xFF) << 16) |
+          ((bytes[pos + 2] & 0xFF) << 8) | (bytes[pos + 3] & 0xFF);
+      pos += 4;
+      return value;
+    }
+
+    long readLong() {
+      return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    int readVarInt() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[pos++];
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    byte[] readLengthPrefixed() {
+      int length = readVarInt();
+      byte[] value = new byte[length];
+      System.arraycopy(bytes, pos, value, 0, length);
+      pos += length;
+      return value;
+    }
+
+    String readString() {
+      int length = readVarInt();
+      String value = new String(bytes, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return value;
+    }
+
+    /**
+     * Skip a bitmap of bits.
+     *
+     * @return position of the bitmap
+     */
+    int skipBitmap(int bits) {
+      int bitmapPos = pos;
+      pos += (bits + 7) >>> 3;
+      return bitmapPos;
+    }
+
+    boolean isNull(int bitmapPos, int index) {
+      return (bytes[bitmapPos + (index >>> 3)] & (1 << (index & 7))) != 0;
+    }
+  }
+}
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.log;
+
+import com.netease.arctic.log.data.LogArrayData;
+import com.netease.arctic.log.data.LogMapData;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serialization that serializes an instance of {@link LogData} into bytes of {@link FormatVersion#FORMAT_VERSION_V2},
+ * the header is the same as {@link LogDataJsonSerialization}, and the row is encoded in a compact binary form driven by
+ * the iceberg schema.
+ * <p>
+ * A struct is encoded as a null bitmap of its fields followed by the non-null fields in order. Fixed width values like
+ * numbers and timestamps are written in big-endian, variable width values like strings, binaries and decimals are
+ * prefixed by their lengths. A list is encoded as its size, a null bitmap of its elements and the non-null elements,
+ * a map is encoded as its size, and its keys and values in the form of lists.
+ */
+public class LogDataBinarySerialization<T> implements Serializable {
+  private static final long serialVersionUID = -3148830374566453231L;
+
+  private final Schema schema;
+  private final LogData.FieldGetterFactory<T> fieldGetterFactory;
+
+  private transient ValueWriter rowWriter;
+  private transient BinaryOutput output;
+
+  public LogDataBinarySerialization(Schema schema, LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    this.schema = schema;
+    this.fieldGetterFactory = fieldGetterFactory;
+  }
+
+  public void init() {
+    if (this.rowWriter == null) {
+      this.rowWriter = createWriter(schema.asStruct(), fieldGetterFactory);
+      this.output = new BinaryOutput();
+    }
+  }
+
+  public byte[] serialize(LogData<T> element) {
+    init();
+    // 4 bytes version + 4 bytes upstreamId + 8 bytes EpicNo + 1 byte flip + 1 byte rowKind + n bytes row
+    output.reset();
+    output.writeBytes(FormatVersion.FORMAT_VERSION_V2.asBytes());
+    output.writeBytes(element.getUpstreamIdBytes());
+    output.writeLong(element.getEpicNo());
+    output.writeByte(element.getFlipByte());
+    output.writeByte(element.getChangeActionByte());
+
+    if (element.getFlip()) {
+      // would ignore serializing actual value if flip is true.
+      return output.toBytes();
+    }
+
+    try {
+      rowWriter.write(element.getActualValue(), output);
+    } catch (Throwable t) {
+      throw new RuntimeException("Could not serialize row '" + element + "'. ", t);
+    }
+    return output.toBytes();
+  }
+
+  /**
+   * Writer of a non-null value.
+   */
+  private interface ValueWriter {
+    void write(Object value, BinaryOutput output);
+  }
+
+  private static <T> ValueWriter createWriter(Type type, LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return (value, output) -> output.writeByte((byte) ((Boolean) value ? 1 : 0));
+      case INTEGER:
+      case DATE:
+        return (value, output) -> output.writeInt((int) value);
+      case LONG:
+      case TIME:
+        return (value, output) -> output.writeLong((long) value);
+      case FLOAT:
+        return (value, output) -> output.writeInt(Float.floatToIntBits((float) value));
+      case DOUBLE:
+        return (value, output) -> output.writeLong(Double.doubleToLongBits((double) value));
+      case TIMESTAMP:
+        Types.TimestampType timestamp = (Types.TimestampType) type;
+        if (timestamp.shouldAdjustToUTC()) {
+          return (value, output) -> {
+            Instant instant = (Instant) value;
+            output.writeLong(instant.getEpochSecond());
+            output.writeInt(instant.getNano());
+          };
+        } else {
+          return (value, output) -> {
+            LocalDateTime localDateTime = (LocalDateTime) value;
+            output.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC));
+            output.writeInt(localDateTime.getNano());
+          };
+        }
+      case STRING:
+        return (value, output) -> output.writeLengthPrefixed(value.toString().getBytes(StandardCharsets.UTF_8));
+      case UUID:
+      case FIXED:
+      case BINARY:
+        return (value, output) -> output.writeLengthPrefixed((byte[]) value);
+      case DECIMAL:
+        return (value, output) -> {
+          BigDecimal decimal = (BigDecimal) value;
+          // keep the scale of the value as the json format does
+          output.writeVarInt((decimal.scale() << 1) ^ (decimal.scale() >> 31));
+          output.writeLengthPrefixed(decimal.unscaledValue().toByteArray());
+        };
+      case LIST:
+        return createListWriter(type.asListType(), fieldGetterFactory);
+      case MAP:
+        return createMapWriter(type.asMapType(), fieldGetterFactory);
+      case STRUCT:
+        return createStructWriter(type.asStructType(), fieldGetterFactory);
+      default:
+        throw new UnsupportedOperationException("Not Support to parse type: " + type);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> ValueWriter createStructWriter(
+      Types.StructType struct,
+      LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    List<Types.NestedField> fields = struct.fields();
+    int fieldCount = fields.size();
+    LogData.FieldGetter<T>[] fieldGetters = new LogData.FieldGetter[fieldCount];
+    ValueWriter[] fieldWriters = new ValueWriter[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      Type fieldType = fields.get(i).type();
+      fieldGetters[i] = fieldGetterFactory.createFieldGetter(fieldType, i);
+      fieldWriters[i] = createWriter(fieldType, fieldGetterFactory);
+    }
+    return (value, output) -> {
+      T row = (T) value;
+      int bitmapPos = output.reserveBitmap(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        Object field;
+        try {
+          field = fieldGetters[i].getFieldOrNull(row, i);
+          if (field == null) {
+            output.setBit(bitmapPos, i);
+          } else {
+            fieldWriters[i].write(field, output);
+          }
+        } catch (Throwable t) {
+          throw new RuntimeException(String.format("Fail to serialize at field: %s.", fields.get(i).name()), t);
+        }
+      }
+    };
+  }
+
+  private static <T> ValueWriter createListWriter(
+      Types.ListType list,
+      LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    Types.NestedField elementField = list.field(list.elementId());
+    ElementsWriter elementsWriter = new ElementsWriter(elementField, fieldGetterFactory);
+    return (value, output) -> {
+      LogArrayData array = (LogArrayData) value;
+      output.writeVarInt(array.size());
+      elementsWriter.write(array, output);
+    };
+  }
+
+  private static <T> ValueWriter createMapWriter(
+      Types.MapType map,
+      LogData.FieldGetterFactory<T> fieldGetterFactory) {
+    ElementsWriter keysWriter = new ElementsWriter(map.field(map.keyId()), fieldGetterFactory);
+    ElementsWriter valuesWriter = new ElementsWriter(map.field(map.valueId()), fieldGetterFactory);
+    return (value, output) -> {
+      LogMapData mapData = (LogMapData) value;
+      output.writeVarInt(mapData.size());
+      keysWriter.write(mapData.keyArray(), output);
+      valuesWriter.write(mapData.valueArray(), output);
+    };
+  }
+
+  /**
+   * Writer of the null bitmap and the non-null elements of an array.
+   */
+  private static class ElementsWriter {
+    private final LogArrayData.ElementGetter elementGetter;
+    private final ValueWriter elementWriter;
+
+    <T> ElementsWriter(Types.NestedField elementField, LogData.FieldGetterFactory<T> fieldGetterFactory) {
+      this.elementGetter = LogArrayData.createElementGetter(elementField);
+      this.elementWriter = createWriter(elementField.type(), fieldGetterFactory);
+    }
+
+    void write(LogArrayData array, BinaryOutput output) {
+      int size = array.size();
+      int bitmapPos = output.reserveBitmap(size);
+      for (int i = 0; i < size; i++) {
+        Object element = elementGetter.getElementOrNull(array, i);
+        if (element == null) {
+          output.setBit(bitmapPos, i);
+        } else {
+          elementWriter.write(element, output);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reusable growing buffer of the output bytes.
+   */
+  private static class BinaryOutput {
+    private byte[] buffer = new byte[256];
+    private int length = 0;
+
+    void reset() {
+      length = 0;
+    }
+
+    byte[] toBytes() {
+      return Arrays.copyOf(buffer, length);
+    }
+
+    void writeByte(byte value) {
+      ensureCapacity(1);
+      buffer[length++] = value;
+    }
+
+    void writeBytes(byte[] bytes) {
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, length, bytes.length);
+      length += bytes.length;
+    }
+
+    void writeLengthPrefixed(byte[] bytes) {
+      writeVarInt(bytes.length);
+      writeBytes(bytes);
+    }
+
+    void writeInt(int value) {
+      ensureCapacity(4);
+      buffer[length++] = (byte) (value >>> 24);
+      buffer[length++] = (byte) (value >>> 16);
+      buffer[length++] = (byte) (value >>> 8);
+      buffer[length++] = (byte) value;
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    void writeVarInt(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7F) != 0) {
+        buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[length++] = (byte) value;
+    }
+
+    /**
+     * Reserve a cleared bitmap of bits.
+     *
+     * @return position of the bitmap
+     */
+    int reserveBitmap(int bits) {
+      int bytes = (bits + 7) >>> 3;
+      ensureCapacity(bytes);
+      int pos = length;
+      Arrays.fill(buffer, pos, pos + bytes, (byte) 0);
+      length += bytes;
+      return pos;
+    }
+
+    void setBit(int bitmapPos, int index) {
+      buffer[bitmapPos + (index >>> 3)] |= (byte) (1 << (index & 7));
+    }
+
+    private void ensureCapacity(int bytes) {
+      if (length + bytes > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+      }
+    }
+  }
+}
@@ -39,7 +39,8 @@ import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.
 
 /**
  * Deserialization that deserializes a JSON bytes array into an instance of {@link LogData}
- * through {@link LogData.Factory#create(Object, Object...)}
+ * through {@link LogData.Factory#create(Object, Object...)}, messages of {@link FormatVersion#FORMAT_VERSION_V2}
+ * are deserialized by {@link LogDataBinaryDeserialization}.
  */
 public class LogDataJsonDeserialization<T> implements Serializable {
   private static final long serialVersionUID = -5741370033707067127L;
@@ -48,6 +49,7 @@ public class LogDataJsonDeserialization<T> implements Serializable {
 
   private final JsonToLogDataConverters.JsonToLogDataConverter<T> jsonToLogDataConverter;
   private final LogData.Factory<T> factory;
+  private final LogDataBinaryDeserialization<T> binaryDeserialization;
 
   /**
    * Object mapper for parsing the JSON.
@@ -60,6 +62,7 @@ public class LogDataJsonDeserialization<T> implements Serializable {
       LogArrayData.Factory arrayFactory,
       LogMapData.Factory mapFactory) {
     this.factory = factory;
+    this.binaryDeserialization = new LogDataBinaryDeserialization<>(schema, factory, arrayFactory, mapFactory);
     this.jsonToLogDataConverter =
         new JsonToLogDataConverters<>(factory, arrayFactory, mapFactory)
             .createConverter(schema.asStruct());
@@ -89,6 +92,10 @@ public class LogDataJsonDeserialization<T> implements Serializable {
     try {
       checkArgument(message != null, "message is null.");
       checkArgument(message.length >= ROW_BEGINNING_POS, "message is illegal.");
+      if (FormatVersion.FORMAT_VERSION_V2.getVersionNum() == message[3]) {
+        // negotiate the format by the version byte
+        return binaryDeserialization.deserialize(message);
+      }
       byte[] versionBytes = Bytes.subByte(message, 0, 4);
       byte[] upstreamIdBytes = Bytes.subByte(message, 4, 4);
       long epicNo = Longs.fromByteArray(Bytes.subByte(message, 8, 8));
@@ -20,8 +20,14 @@ package com.netease.arctic.optimizing;
 
 import com.netease.arctic.data.DataTreeNode;
 import com.netease.arctic.io.ArcticFileIO;
+import com.netease.arctic.io.ParallelCloseableIterable;
+import com.netease.arctic.io.WriteBehindOutputFile;
+import com.netease.arctic.io.writer.PositionDeleteBuffer;
 import com.netease.arctic.io.writer.SetTreeNode;
 import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.utils.GrowingWorkerPool;
+import com.netease.arctic.utils.map.SpillMemoryArbiter;
+import com.netease.arctic.utils.map.SpillMetrics;
 import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.iceberg.ContentFile;
@@ -35,20 +41,32 @@ import org.apache.iceberg.StructLike;
 import org.apache.iceberg.data.GenericAppenderFactory;
 import org.apache.iceberg.data.Record;
 import org.apache.iceberg.deletes.PositionDelete;
+import org.apache.iceberg.encryption.EncryptedFiles;
+import org.apache.iceberg.encryption.EncryptedOutputFile;
 import org.apache.iceberg.encryption.EncryptionManager;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.DataWriteResult;
 import org.apache.iceberg.io.DeleteWriteResult;
 import org.apache.iceberg.io.FileAppenderFactory;
 import org.apache.iceberg.io.FileWriter;
+import org.apache.iceberg.io.OutputFile;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.util.PropertyUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static org.apache.iceberg.TableProperties.DEFAULT_FILE_FORMAT;
 import static org.apache.iceberg.TableProperties.DEFAULT_FILE_FORMAT_DEFAULT;
@@ -62,6 +80,16 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
 
   private static final Logger LOG = LoggerFactory.getLogger(AbstractRewriteFilesExecutor.class);
 
+  private static final int MAX_PHASE_THREADS = 256;
+
+  // fraction of the memory share of a task for positions buffered by the position delete writer
+  private static final int POS_DELETE_BUFFER_SHARE_DIVISOR = 4;
+  // positions buffered without memory from the task, like the working buffer of ExternalSorter
+  private static final long MIN_POS_DELETE_BUFFER_SIZE = 4L * 1024 * 1024;
+
+  // shared by the tasks of the process, each of them runs at most one phase in it at a time
+  private static final GrowingWorkerPool PHASE_POOL = new GrowingWorkerPool("rewrite-phase", MAX_PHASE_THREADS);
+
   protected final RewriteFilesInput input;
 
   protected ArcticTable table;
@@ -72,6 +100,9 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
 
   protected StructLikeCollections structLikeCollections;
 
+  // set in the thread converting equality deletes before it creates the position delete writer
+  private long posDeleteBufferSizeInBytes = Long.MAX_VALUE;
+
   public AbstractRewriteFilesExecutor(
       RewriteFilesInput input, ArcticTable table,
       StructLikeCollections structLikeCollections) {
@@ -84,6 +115,23 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
 
   protected abstract OptimizingDataReader dataReader();
 
+  /**
+   * Whether the data reader could reuse the record container between rows. Rows are written one by one in
+   * rewriterDataFiles, so the container is reused if no delete files are applied, where nothing else holds the rows.
+   * Rows are not reused if they are handed over from the reading thread to the writing thread.
+   */
+  protected boolean reuseContainer() {
+    return ArrayUtils.isEmpty(input.deleteFiles()) && !pipelinedRewrite();
+  }
+
+  /**
+   * Whether rows are read and filtered in a background thread while they are written, see
+   * {@link StructLikeCollections#isEnablePipelinedRewrite()}.
+   */
+  protected boolean pipelinedRewrite() {
+    return structLikeCollections != null && structLikeCollections.isEnablePipelinedRewrite();
+  }
+
   protected abstract FileWriter<PositionDelete<Record>, DeleteWriteResult> posWriter();
 
   protected abstract FileWriter<Record, DataWriteResult> dataWriter();
@@ -97,12 +145,25 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
 
     long startTime = System.currentTimeMillis();
     try {
-      if (!ArrayUtils.isEmpty(input.rePosDeletedDataFiles())) {
-        deleteFiles = io.doAs(this::equalityToPosition);
-      }
+      if (pipelinedRewrite() && disjointPhases()) {
+        BackgroundPhase<List<DeleteFile>> deletePhase = new BackgroundPhase<>(
+            PHASE_POOL.withSize(structLikeCollections.getPipelinedRewriteParallelism()),
+            SpillMemoryArbiter.withCurrentTask(this::equalityToPositionWithNewReader));
+        try {
+          dataFiles = io.doAs(() -> rewriterDataFiles(dataReader));
+          deleteFiles = deletePhase.get();
+        } catch (Throwable t) {
+          deleteFilesQuietly(deletePhase.cancel());
+          throw t;
+        }
+      } else {
+        if (!ArrayUtils.isEmpty(input.rePosDeletedDataFiles())) {
+          deleteFiles = io.doAs(() -> equalityToPosition(dataReader));
+        }
 
-      if (!ArrayUtils.isEmpty(input.rewrittenDataFiles())) {
-        dataFiles = io.doAs(this::rewriterDataFiles);
+        if (!ArrayUtils.isEmpty(input.rewrittenDataFiles())) {
+          dataFiles = io.doAs(() -> rewriterDataFiles(dataReader));
+        }
       }
     } finally {
       dataReader.close();
@@ -116,11 +177,176 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
         summary);
   }
 
-  private List<DeleteFile> equalityToPosition() throws Exception {
+  /**
+   * Both phases have files to process and no data file is processed by both of them, so they could run at the same
+   * time. The phases run at the same time only if the task acquires the memory of its maps from a
+   * {@link SpillMemoryArbiter}, so the maps of both readers are charged to the budget of the task.
+   */
+  private boolean disjointPhases() {
+    if (SpillMemoryArbiter.currentTask() == null) {
+      return false;
+    }
+    if (ArrayUtils.isEmpty(input.rePosDeletedDataFiles()) || ArrayUtils.isEmpty(input.rewrittenDataFiles())) {
+      return false;
+    }
+    Set<String> rewrittenPaths = Sets.newHashSet();
+    Arrays.stream(input.rewrittenDataFiles()).forEach(file -> rewrittenPaths.add(file.path().toString()));
+    return Arrays.stream(input.rePosDeletedDataFiles())
+        .noneMatch(file -> rewrittenPaths.contains(file.path().toString()));
+  }
+
+  /**
+   * The delete filter of a data reader is not thread safe, so deleted rows read in another thread are read by a new
+   * reader, which loads the equality deletes again. Maps of the reader acquire memory from the task of the executing
+   * thread, the same task as the maps of the data reader.
+   */
+  private List<DeleteFile> equalityToPositionWithNewReader() {
+    OptimizingDataReader reader = dataReader();
+    try {
+      return io.doAs(() -> equalityToPosition(reader));
+    } finally {
+      reader.close();
+    }
+  }
+
+  private void deleteFilesQuietly(@Nullable List<DeleteFile> files) {
+    if (files == null) {
+      return;
+    }
+    for (DeleteFile file : files) {
+      try {
+        io.deleteFile(file.path().toString());
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to delete {} of the failed task", file.path(), e);
+      }
+    }
+  }
+
+  /**
+   * A phase of a task running in the phase pool. Unlike {@link Future#cancel(boolean)}, cancelling the phase waits
+   * until it stops, so the files written by a phase completed in the meantime are known.
+   */
+  private static class BackgroundPhase<T> {
+    private final Future<T> future;
+    // guarded by this
+    private boolean started = false;
+    private boolean cancelled = false;
+    private Thread runner;
+
+    BackgroundPhase(ExecutorService pool, Callable<T> action) {
+      this.future = pool.submit(() -> {
+        synchronized (this) {
+          if (cancelled) {
+            return null;
+          }
+          started = true;
+          runner = Thread.currentThread();
+        }
+        try {
+          return action.call();
+        } finally {
+          synchronized (this) {
+            runner = null;
+          }
+        }
+      });
+    }
+
+    T get() {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while converting equality deletes to position deletes", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException("Failed to convert equality deletes to position deletes", e.getCause());
+      }
+    }
+
+    /**
+     * Interrupt the phase and wait until it stops, an interrupt of the calling thread is kept until then.
+     *
+     * @return result of the phase if it completed before it was interrupted, null otherwise
+     */
+    @Nullable
+    T cancel() {
+      synchronized (this) {
+        cancelled = true;
+        if (!started) {
+          future.cancel(false);
+          return null;
+        }
+        if (runner != null) {
+          runner.interrupt();
+        }
+      }
+      boolean interrupted = Thread.interrupted();
+      try {
+        while (true) {
+          try {
+            return future.get();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      } catch (ExecutionException e) {
+        LOG.debug("Cancelled phase failed", e.getCause());
+        return null;
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  private CloseableIterable<Record> pipelined(CloseableIterable<Record> records) {
+    return pipelinedRewrite() ? ParallelCloseableIterable.prefetch(records, io) : records;
+  }
+
+  private List<DeleteFile> equalityToPosition(OptimizingDataReader reader) throws Exception {
+    SpillMemoryArbiter.TaskMemory taskMemory = SpillMemoryArbiter.currentTask();
+    long reservedBytes = reservePosDeleteBuffer(taskMemory);
+    try {
+      return writePositions(reader);
+    } finally {
+      if (reservedBytes > 0) {
+        taskMemory.release(reservedBytes);
+      }
+    }
+  }
+
+  /**
+   * Size the position buffer of the delete writer. With a memory arbiter, the buffer is a fraction of the memory
+   * share of the task and is acquired from the task, so it is not counted twice with the maps of the task. If the maps
+   * have taken the memory, a small buffer is used. Without an arbiter, the buffer is sized by the in-memory size of
+   * the task.
+   *
+   * @return bytes acquired from the task, which should be released once the positions are written
+   */
+  private long reservePosDeleteBuffer(@Nullable SpillMemoryArbiter.TaskMemory taskMemory) {
+    if (taskMemory == null) {
+      posDeleteBufferSizeInBytes = structLikeCollections == null ?
+          Long.MAX_VALUE : structLikeCollections.getPosDeleteBufferSizeInBytes();
+      return 0L;
+    }
+    long bufferSize = taskMemory.fairShareBytes() / POS_DELETE_BUFFER_SHARE_DIVISOR;
+    if (bufferSize > MIN_POS_DELETE_BUFFER_SIZE && taskMemory.tryAcquire(bufferSize)) {
+      posDeleteBufferSizeInBytes = bufferSize;
+      return bufferSize;
+    }
+    posDeleteBufferSizeInBytes = MIN_POS_DELETE_BUFFER_SIZE;
+    return 0L;
+  }
+
+  private List<DeleteFile> writePositions(OptimizingDataReader reader) throws Exception {
     FileWriter<PositionDelete<Record>, DeleteWriteResult> posDeleteWriter = posWriter();
 
     try (CloseableIterator<Record> iterator =
-        dataReader.readDeletedData().iterator()) {
+        pipelined(reader.readDeletedData()).iterator()) {
       PositionDelete<Record> positionDelete = PositionDelete.create();
       while (iterator.hasNext()) {
         Record record = iterator.next();
@@ -141,11 +367,11 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
     return posDeleteWriter.result().deleteFiles();
   }
 
-  private List<DataFile> rewriterDataFiles() throws Exception {
+  private List<DataFile> rewriterDataFiles(OptimizingDataReader reader) throws Exception {
     List<DataFile> result = Lists.newArrayList();
     FileWriter<Record, DataWriteResult> writer = dataWriter();
 
-    try (CloseableIterator<Record> records = dataReader.readData().iterator()) {
+    try (CloseableIterator<Record> records = pipelined(reader.readData()).iterator()) {
       while (records.hasNext()) {
         Record record = records.next();
         writer.write(record);
@@ -190,6 +416,26 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
         com.netease.arctic.table.TableProperties.SELF_OPTIMIZING_TARGET_SIZE_DEFAULT);
   }
 
+  /**
+   * Max number of positions buffered by the position delete writer, see {@link #reservePosDeleteBuffer}. Rows
+   * buffered with positions are counted by the writer by their estimated size.
+   */
+  protected long posDeleteRecordsNumThreshold() {
+    return posDeleteBufferSizeInBytes == Long.MAX_VALUE ? Long.MAX_VALUE :
+        Math.max(1L, posDeleteBufferSizeInBytes / PositionDeleteBuffer.BYTES_PER_POSITION);
+  }
+
+  /**
+   * Upload the output file in background threads if it is enabled by the table properties.
+   */
+  protected EncryptedOutputFile writeBehind(EncryptedOutputFile file) {
+    OutputFile outputFile = WriteBehindOutputFile.wrap(file.encryptingOutputFile(), table.properties(), io);
+    if (outputFile == file.encryptingOutputFile()) {
+      return file;
+    }
+    return EncryptedFiles.encryptedOutput(outputFile, file.keyMetadata());
+  }
+
   protected StructLike partition() {
     ContentFile<?>[] dataFiles = input.allFiles();
     return dataFiles[0].partition();
@@ -203,7 +449,7 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
     }
   }
 
-  private Map<String, String> resolverSummary(List<DataFile> dataFiles, List<DeleteFile> deleteFiles, long duration) {
+  protected Map<String, String> resolverSummary(List<DataFile> dataFiles, List<DeleteFile> deleteFiles, long duration) {
     int dataFileCnt = 0;
     long dataFileTotalSize = 0;
     int eqDeleteFileCnt = 0;
@@ -236,6 +482,17 @@ public abstract class AbstractRewriteFilesExecutor implements OptimizingExecutor
     summary.setPosDeleteFileCnt(posDeleteFileCnt);
     summary.setPosDeleteFileTotalSize(posDeleteFileTotalSize);
     summary.setExecuteDuration(duration);
+    if (structLikeCollections != null && structLikeCollections.getMetrics().hasBloomFilter()) {
+      SpillMetrics spillMetrics = structLikeCollections.getMetrics();
+      summary.setBloomFilterSize(spillMetrics.bloomFilterSizeInBytes());
+      summary.setBloomFilterFalsePositiveRate(spillMetrics.bloomFilterFalsePositiveRate());
+    }
+    if (structLikeCollections != null && structLikeCollections.getMetrics().hasSpillableMap()) {
+      SpillMetrics spillMetrics = structLikeCollections.getMetrics();
+      summary.setSpillMapPeakMemorySize(spillMetrics.peakMemorySizeInBytes());
+      summary.setSpillMapInMemoryRecordCnt(spillMetrics.inMemoryRecordCount());
+      summary.setSpillMapSpilledRecordCnt(spillMetrics.spilledRecordCount());
+    }
 
     return summary.getSummary();
   }
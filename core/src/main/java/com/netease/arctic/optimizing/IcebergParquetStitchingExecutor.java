@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.optimizing;
+
+import com.netease.arctic.table.ArcticTable;
+import com.netease.arctic.utils.map.StructLikeCollections;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.MetricsConfig;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.encryption.EncryptedOutputFile;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.OutputFileFactory;
+import org.apache.iceberg.parquet.ParquetUtil;
+import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.DelegatingPositionOutputStream;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * OptimizingExecutor for iceberg format, which concatenates row groups of small parquet files into files of the
+ * target size without decoding and encoding rows. Only the footer of output files is written, the column statistics
+ * of output files are merged from row groups.
+ * <p>
+ * Row groups are stitched only if the task has no delete files and all data files are parquet files of the same
+ * parquet schema, otherwise rows are rewritten by {@link IcebergRewriteExecutor}. Row groups are copied as they are,
+ * so output files contain as many row groups as the input files. Parquet statistics do not count NaN values, so NaN
+ * counts and bounds of floating point columns are merged from the metrics of the input files.
+ */
+public class IcebergParquetStitchingExecutor extends IcebergRewriteExecutor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(IcebergParquetStitchingExecutor.class);
+
+  public IcebergParquetStitchingExecutor(
+      RewriteFilesInput input,
+      ArcticTable table,
+      StructLikeCollections structLikeCollections) {
+    super(input, table, structLikeCollections);
+  }
+
+  /**
+   * Check whether row groups of the input could be stitched without reading footers of data files.
+   */
+  public static boolean canStitch(RewriteFilesInput input, ArcticTable table) {
+    if (!ArrayUtils.isEmpty(input.deleteFiles()) || !ArrayUtils.isEmpty(input.rePosDeletedDataFiles()) ||
+        ArrayUtils.isEmpty(input.rewrittenDataFiles())) {
+      return false;
+    }
+    return Arrays.stream(input.rewrittenDataFiles())
+        .allMatch(file -> file.format() == FileFormat.PARQUET && file.specId() == table.spec().specId());
+  }
+
+  @Override
+  public RewriteFilesOutput execute() {
+    if (!canStitch(input, table) || dataFileFormat() != FileFormat.PARQUET) {
+      return super.execute();
+    }
+    List<ParquetMetadata> footers = io.doAs(this::readFooters);
+    if (!sameSchema(footers)) {
+      LOG.info("Data files of task have different parquet schemas, rewrite rows instead: {}", input);
+      return super.execute();
+    }
+    LOG.info("Start stitching row groups for table optimize task: {}", input);
+
+    long startTime = System.currentTimeMillis();
+    List<DataFile> dataFiles;
+    try {
+      dataFiles = io.doAs(() -> stitch(footers));
+    } finally {
+      dataReader.close();
+    }
+    long duration = System.currentTimeMillis() - startTime;
+
+    Map<String, String> summary = resolverSummary(dataFiles, Collections.emptyList(), duration);
+    return new RewriteFilesOutput(dataFiles.toArray(new DataFile[0]), new DeleteFile[0], summary);
+  }
+
+  private List<ParquetMetadata> readFooters() throws IOException {
+    List<ParquetMetadata> footers = Lists.newArrayList();
+    for (DataFile dataFile : input.rewrittenDataFiles()) {
+      InputFile inputFile = io.newInputFile(dataFile.path().toString());
+      try (ParquetFileReader reader = ParquetFileReader.open(parquetInput(inputFile))) {
+        footers.add(reader.getFooter());
+      }
+    }
+    return footers;
+  }
+
+  private static boolean sameSchema(List<ParquetMetadata> footers) {
+    MessageType schema = footers.get(0).getFileMetaData().getSchema();
+    for (org.apache.parquet.schema.Type field : schema.getFields()) {
+      if (field.getId() == null) {
+        // files without field ids are read by the name mapping
+        return false;
+      }
+    }
+    return footers.stream().allMatch(footer -> schema.equals(footer.getFileMetaData().getSchema()));
+  }
+
+  private List<DataFile> stitch(List<ParquetMetadata> footers) throws IOException {
+    List<DataFile> result = Lists.newArrayList();
+    DataFile[] inputFiles = input.rewrittenDataFiles();
+    ParquetMetadata firstFooter = footers.get(0);
+    MessageType schema = firstFooter.getFileMetaData().getSchema();
+    OutputFileFactory outputFileFactory = OutputFileFactory
+        .builderFor(table.asUnkeyedTable(), table.spec().specId(), 0)
+        .format(FileFormat.PARQUET)
+        .build();
+
+    ParquetOutputFile currentFile = null;
+    ParquetFileWriter currentWriter = null;
+    List<DataFile> currentInputFiles = Lists.newArrayList();
+    boolean completed = false;
+    try {
+      for (DataFile inputFile : inputFiles) {
+        if (currentWriter != null && currentWriter.getPos() + inputFile.fileSizeInBytes() > targetSize()) {
+          result.add(complete(currentFile, currentWriter, firstFooter, currentInputFiles));
+          currentFile = null;
+          currentWriter = null;
+          currentInputFiles.clear();
+        }
+        if (currentWriter == null) {
+          EncryptedOutputFile outputFile = outputFileFactory.newOutputFile(table.spec(), partition());
+          currentFile = new ParquetOutputFile(outputFile.encryptingOutputFile());
+          currentWriter = new ParquetFileWriter(currentFile, schema, ParquetFileWriter.Mode.CREATE, targetSize(), 0);
+          currentWriter.start();
+        }
+        InputFile file = io.newInputFile(inputFile.path().toString());
+        try (ParquetFileReader reader = ParquetFileReader.open(parquetInput(file))) {
+          reader.appendTo(currentWriter);
+        }
+        currentInputFiles.add(inputFile);
+      }
+      if (currentWriter != null) {
+        result.add(complete(currentFile, currentWriter, firstFooter, currentInputFiles));
+        currentFile = null;
+      }
+      completed = true;
+      return result;
+    } finally {
+      if (!completed) {
+        abort(currentFile, result);
+      }
+    }
+  }
+
+  private DataFile complete(
+      ParquetOutputFile outputFile, ParquetFileWriter writer, ParquetMetadata firstFooter,
+      List<DataFile> inputFiles) throws IOException {
+    // keep key-value metadata of input files, like the iceberg schema
+    writer.end(firstFooter.getFileMetaData().getKeyValueMetaData());
+    ParquetMetadata footer = writer.getFooter();
+    Metrics metrics = ParquetUtil.footerMetrics(
+        footer, Stream.empty(), MetricsConfig.forTable(table.asUnkeyedTable()));
+    return DataFiles.builder(table.spec())
+        .withPath(outputFile.location())
+        .withFormat(FileFormat.PARQUET)
+        .withPartition(partition())
+        .withFileSizeInBytes(writer.getPos())
+        .withMetrics(mergeFloatingPointMetrics(metrics, table.schema(), inputFiles))
+        .withSplitOffsets(ParquetUtil.getSplitOffsets(footer))
+        .build();
+  }
+
+  /**
+   * Delete output files of a failed task, which are never committed.
+   */
+  private void abort(ParquetOutputFile currentFile, List<DataFile> completedFiles) {
+    List<String> paths = Lists.newArrayList();
+    completedFiles.forEach(file -> paths.add(file.path().toString()));
+    if (currentFile != null) {
+      currentFile.closeQuietly();
+      if (currentFile.created()) {
+        paths.add(currentFile.location());
+      }
+    }
+    for (String path : paths) {
+      try {
+        io.deleteFile(path);
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to delete output file {} of failed task", path, e);
+      }
+    }
+  }
+
+  /**
+   * Replace NaN counts and bounds of floating point columns in the metrics from the footer by the merged metrics of
+   * the input files. A bound is dropped if an input file has no bound for the column but has non-null, non-NaN values.
+   */
+  @VisibleForTesting
+  static Metrics mergeFloatingPointMetrics(Metrics metrics, Schema schema, List<DataFile> inputFiles) {
+    Map<Integer, Long> nanValueCounts = Maps.newHashMap();
+    Map<Integer, ByteBuffer> lowerBounds = metrics.lowerBounds() == null ?
+        Maps.newHashMap() : Maps.newHashMap(metrics.lowerBounds());
+    Map<Integer, ByteBuffer> upperBounds = metrics.upperBounds() == null ?
+        Maps.newHashMap() : Maps.newHashMap(metrics.upperBounds());
+    for (Types.NestedField field : TypeUtil.indexById(schema.asStruct()).values()) {
+      Type type = field.type();
+      int id = field.fieldId();
+      if ((type.typeId() != Type.TypeID.FLOAT && type.typeId() != Type.TypeID.DOUBLE) ||
+          metrics.valueCounts() == null || !metrics.valueCounts().containsKey(id)) {
+        // not a floating point column, or metrics of the column are not collected
+        continue;
+      }
+      Long nanValueCount = 0L;
+      boolean hasBounds = lowerBounds.containsKey(id) || upperBounds.containsKey(id);
+      Object lower = null;
+      Object upper = null;
+      Comparator<Object> comparator = Comparators.forType(type.asPrimitiveType());
+      for (DataFile file : inputFiles) {
+        Long fileNanValueCount = file.nanValueCounts() == null ? null : file.nanValueCounts().get(id);
+        nanValueCount = nanValueCount == null || fileNanValueCount == null ? null : nanValueCount + fileNanValueCount;
+        ByteBuffer fileLower = file.lowerBounds() == null ? null : file.lowerBounds().get(id);
+        ByteBuffer fileUpper = file.upperBounds() == null ? null : file.upperBounds().get(id);
+        if (fileLower == null || fileUpper == null) {
+          hasBounds = hasBounds && onlyNullOrNaN(file, id, fileNanValueCount);
+          continue;
+        }
+        Object fileLowerValue = Conversions.fromByteBuffer(type, fileLower);
+        Object fileUpperValue = Conversions.fromByteBuffer(type, fileUpper);
+        lower = lower == null || comparator.compare(fileLowerValue, lower) < 0 ? fileLowerValue : lower;
+        upper = upper == null || comparator.compare(fileUpperValue, upper) > 0 ? fileUpperValue : upper;
+      }
+      if (nanValueCount != null) {
+        nanValueCounts.put(id, nanValueCount);
+      }
+      lowerBounds.remove(id);
+      upperBounds.remove(id);
+      if (hasBounds && lower != null) {
+        lowerBounds.put(id, Conversions.toByteBuffer(type, lower));
+        upperBounds.put(id, Conversions.toByteBuffer(type, upper));
+      }
+    }
+    return new Metrics(metrics.recordCount(), metrics.columnSizes(), metrics.valueCounts(),
+        metrics.nullValueCounts(), nanValueCounts, lowerBounds, upperBounds);
+  }
+
+  private static boolean onlyNullOrNaN(DataFile file, int fieldId, Long nanValueCount) {
+    Long valueCount = file.valueCounts() == null ? null : file.valueCounts().get(fieldId);
+    Long nullValueCount = file.nullValueCounts() == null ? null : file.nullValueCounts().get(fieldId);
+    return valueCount != null && nullValueCount != null && nanValueCount != null &&
+        valueCount == nullValueCount + nanValueCount;
+  }
+
+  private static org.apache.parquet.io.InputFile parquetInput(InputFile file) {
+    return new org.apache.parquet.io.InputFile() {
+      @Override
+      public long getLength() {
+        return file.getLength();
+      }
+
+      @Override
+      public SeekableInputStream newStream() {
+        org.apache.iceberg.io.SeekableInputStream stream = file.newStream();
+        return new DelegatingSeekableInputStream(stream) {
+          @Override
+          public long getPos() throws IOException {
+            return stream.getPos();
+          }
+
+          @Override
+          public void seek(long newPos) throws IOException {
+            stream.seek(newPos);
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * A parquet output file over an iceberg output file, keeping the stream to close it if the writer fails.
+   */
+  private static class ParquetOutputFile implements org.apache.parquet.io.OutputFile {
+    private final OutputFile file;
+    private org.apache.iceberg.io.PositionOutputStream stream;
+
+    ParquetOutputFile(OutputFile file) {
+      this.file = file;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) {
+      stream = file.create();
+      return wrap(stream);
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+      stream = file.createOrOverwrite();
+      return wrap(stream);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+      return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+      return 0;
+    }
+
+    String location() {
+      return file.location();
+    }
+
+    boolean created() {
+      return stream != null;
+    }
+
+    void closeQuietly() {
+      if (stream != null) {
+        try {
+          stream.close();
+        } catch (IOException | RuntimeException e) {
+          LOG.warn("Failed to close output file {}", file.location(), e);
+        }
+      }
+    }
+
+    private static PositionOutputStream wrap(org.apache.iceberg.io.PositionOutputStream stream) {
+      return new DelegatingPositionOutputStream(stream) {
+        @Override
+        public long getPos() throws IOException {
+          return stream.getPos();
+        }
+      };
+    }
+  }
+}
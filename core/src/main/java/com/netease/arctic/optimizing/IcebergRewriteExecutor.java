@@ -63,7 +63,7 @@ public class IcebergRewriteExecutor extends AbstractRewriteFilesExecutor {
         table.properties().get(TableProperties.DEFAULT_NAME_MAPPING),
         false,
         IdentityPartitionConverters::convertConstant,
-        false,
+        reuseContainer(),
         structLikeCollections,
         input
     );
@@ -73,7 +73,7 @@ public class IcebergRewriteExecutor extends AbstractRewriteFilesExecutor {
   protected FileWriter<PositionDelete<Record>, DeleteWriteResult> posWriter() {
     return new IcebergFanoutPosDeleteWriter<>(
         fullMetricAppenderFactory(), deleteFileFormat(), partition(), table.io(), table.asUnkeyedTable().encryption(),
-        UUID.randomUUID().toString());
+        UUID.randomUUID().toString(), posDeleteRecordsNumThreshold());
   }
 
   @Override
@@ -88,7 +88,7 @@ public class IcebergRewriteExecutor extends AbstractRewriteFilesExecutor {
 
           @Override
           public DataWriter newDataWriter(EncryptedOutputFile file, PartitionSpec spec, StructLike partition) {
-            return appenderFactory.newDataWriter(file, dataFileFormat(), partition);
+            return appenderFactory.newDataWriter(writeBehind(file), dataFileFormat(), partition);
           }
 
           @Override
@@ -33,6 +33,16 @@ public class OptimizingInputProperties {
 
   public static final String SPILL_MAP_PATH = "sill_map_path";
 
+  public static final String ENABLE_OFF_HEAP_MAP = "enable_off_heap_map";
+
+  public static final String DELETE_LOAD_PARALLELISM = "delete_load_parallelism";
+
+  public static final String ENABLE_DELETE_FILE_CACHE = "enable_delete_file_cache";
+
+  public static final String ENABLE_PIPELINED_REWRITE = "enable_pipelined_rewrite";
+
+  public static final String PIPELINED_REWRITE_PARALLELISM = "pipelined_rewrite_parallelism";
+
   public static final String OUTPUT_DIR = "output_location";
 
   public static final String MOVE_FILE_TO_HIVE_LOCATION = "move-files-to-hive-location";
@@ -58,11 +68,35 @@ public class OptimizingInputProperties {
     return this;
   }
 
+  public OptimizingInputProperties enableOffHeapMap() {
+    properties.put(ENABLE_OFF_HEAP_MAP, "true");
+    return this;
+  }
+
+  public OptimizingInputProperties enableDeleteFileCache() {
+    properties.put(ENABLE_DELETE_FILE_CACHE, "true");
+    return this;
+  }
+
+  /**
+   * @param parallelism max number of tasks executed by the optimizer at the same time
+   */
+  public OptimizingInputProperties enablePipelinedRewrite(int parallelism) {
+    properties.put(ENABLE_PIPELINED_REWRITE, "true");
+    properties.put(PIPELINED_REWRITE_PARALLELISM, String.valueOf(parallelism));
+    return this;
+  }
+
   public OptimizingInputProperties setMaxSizeInMemory(long maxSizeInMemory) {
     properties.put(MAX_IN_MEMORY_SIZE_IN_BYTES, String.valueOf(maxSizeInMemory));
     return this;
   }
 
+  public OptimizingInputProperties setDeleteLoadParallelism(int deleteLoadParallelism) {
+    properties.put(DELETE_LOAD_PARALLELISM, String.valueOf(deleteLoadParallelism));
+    return this;
+  }
+
   public OptimizingInputProperties setSpillMapPath(String path) {
     properties.put(SPILL_MAP_PATH, path);
     return this;
@@ -92,7 +126,25 @@ public class OptimizingInputProperties {
 
     String spillMapPath = properties.get(SPILL_MAP_PATH);
 
-    return new StructLikeCollections(enableSpillMap, maxInMemory, spillMapPath);
+    boolean enableOffHeapMap = Boolean.parseBoolean(properties.get(ENABLE_OFF_HEAP_MAP));
+
+    String deleteLoadParallelismStr = properties.get(DELETE_LOAD_PARALLELISM);
+    int deleteLoadParallelism = deleteLoadParallelismStr == null ? 1 : Integer.parseInt(deleteLoadParallelismStr);
+
+    boolean enableDeleteFileCache = Boolean.parseBoolean(properties.get(ENABLE_DELETE_FILE_CACHE));
+
+    boolean enablePipelinedRewrite = Boolean.parseBoolean(properties.get(ENABLE_PIPELINED_REWRITE));
+    String pipelinedRewriteParallelismStr = properties.get(PIPELINED_REWRITE_PARALLELISM);
+    int pipelinedRewriteParallelism = !enablePipelinedRewrite ? 0 :
+        pipelinedRewriteParallelismStr == null ? 1 : Integer.parseInt(pipelinedRewriteParallelismStr);
+
+    // without a memory arbiter, positions converted from equality deletes are buffered within the same in-memory
+    // size as delete maps
+    long posDeleteBufferSize = maxInMemory == null ? Long.MAX_VALUE : maxInMemory;
+
+    return new StructLikeCollections(
+        enableSpillMap, maxInMemory, spillMapPath, enableOffHeapMap, deleteLoadParallelism, enableDeleteFileCache,
+        posDeleteBufferSize, pipelinedRewriteParallelism);
   }
 
   public String getOutputDir() {
@@ -37,6 +37,16 @@ public class OptimizingTaskSummary {
 
   public static final String EXECUTE_DURATION = "executor_duration";
 
+  public static final String BLOOM_FILTER_SIZE = "bloom_filter_size";
+
+  public static final String BLOOM_FILTER_FALSE_POSITIVE_RATE = "bloom_filter_false_positive_rate";
+
+  public static final String SPILL_MAP_PEAK_MEMORY_SIZE = "spill_map_peak_memory_size";
+
+  public static final String SPILL_MAP_IN_MEMORY_RECORD_CNT = "spill_map_in_memory_record_cnt";
+
+  public static final String SPILL_MAP_SPILLED_RECORD_CNT = "spill_map_spilled_record_cnt";
+
   private Map<String, String> summary = new HashMap<>();
 
   public void setDataFileCnt(int dataFileCnt) {
@@ -67,6 +77,26 @@ public class OptimizingTaskSummary {
     summary.put(EXECUTE_DURATION, String.valueOf(executeDuration));
   }
 
+  public void setBloomFilterSize(long bloomFilterSize) {
+    summary.put(BLOOM_FILTER_SIZE, String.valueOf(bloomFilterSize));
+  }
+
+  public void setBloomFilterFalsePositiveRate(double bloomFilterFalsePositiveRate) {
+    summary.put(BLOOM_FILTER_FALSE_POSITIVE_RATE, String.valueOf(bloomFilterFalsePositiveRate));
+  }
+
+  public void setSpillMapPeakMemorySize(long spillMapPeakMemorySize) {
+    summary.put(SPILL_MAP_PEAK_MEMORY_SIZE, String.valueOf(spillMapPeakMemorySize));
+  }
+
+  public void setSpillMapInMemoryRecordCnt(long spillMapInMemoryRecordCnt) {
+    summary.put(SPILL_MAP_IN_MEMORY_RECORD_CNT, String.valueOf(spillMapInMemoryRecordCnt));
+  }
+
+  public void setSpillMapSpilledRecordCnt(long spillMapSpilledRecordCnt) {
+    summary.put(SPILL_MAP_SPILLED_RECORD_CNT, String.valueOf(spillMapSpilledRecordCnt));
+  }
+
   public Map<String, String> getSummary() {
     return summary;
   }
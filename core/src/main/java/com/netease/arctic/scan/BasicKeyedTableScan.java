@@ -23,18 +23,26 @@ import com.netease.arctic.data.DefaultKeyedFile;
 import com.netease.arctic.scan.expressions.BasicPartitionEvaluator;
 import com.netease.arctic.table.BasicKeyedTable;
 import com.netease.arctic.table.TableProperties;
+import com.netease.arctic.utils.GrowingWorkerPool;
 import com.netease.arctic.utils.TablePropertyUtil;
 import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFilteredDataTableScan;
 import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.Table;
 import org.apache.iceberg.TableScan;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.util.BinPacking;
 import org.apache.iceberg.util.PropertyUtil;
 import org.apache.iceberg.util.StructLikeMap;
+import org.apache.iceberg.util.Tasks;
+import org.apache.iceberg.util.ThreadPools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,7 +54,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,14 +69,32 @@ import java.util.stream.Stream;
 public class BasicKeyedTableScan implements KeyedTableScan {
   private static final Logger LOG = LoggerFactory.getLogger(BasicKeyedTableScan.class);
 
+  // max number of threads reading manifests for all keyed table scans of the process
+  private static final int MAX_PLANNING_THREADS = 64;
+
+  /**
+   * Pool to read manifests shared by keyed table scans, it grows to the largest pool size configured by tables.
+   */
+  private static final GrowingWorkerPool PLANNING_POOL =
+      new GrowingWorkerPool("keyed-table-planning", MAX_PLANNING_THREADS);
+
+  /**
+   * Pool to plan change files while base files are planned by the caller thread, manifests are not read by this pool
+   * to avoid waiting on the pool itself. Planning is queued when all threads are busy.
+   */
+  private static final ExecutorService CHANGE_PLANNING_POOL =
+      ThreadPools.newWorkerPool("change-planning", ThreadPools.WORKER_THREAD_POOL_SIZE);
+
   private final BasicKeyedTable table;
-  List<NodeFileScanTask> splitTasks = new ArrayList<>();
-  private final StructLikeMap<List<NodeFileScanTask>> fileScanTasks;
   private final int lookBack;
   private final long openFileCost;
   private final long splitSize;
   private Double splitTaskByDeleteRatio;
+  private boolean streamingPlan = false;
   private Expression expression;
+  private ExecutorService planExecutor;
+  private LocalPlanCache planCache;
+  private KeyedTableScanMetrics metrics = new KeyedTableScanMetrics();
 
   public BasicKeyedTableScan(BasicKeyedTable table) {
     this.table = table;
@@ -73,7 +104,23 @@ public class BasicKeyedTableScan implements KeyedTableScan {
         TableProperties.SPLIT_SIZE, TableProperties.SPLIT_SIZE_DEFAULT);
     this.lookBack = PropertyUtil.propertyAsInt(table.properties(),
         TableProperties.SPLIT_LOOKBACK, TableProperties.SPLIT_LOOKBACK_DEFAULT);
-    this.fileScanTasks = StructLikeMap.create(table.spec().partitionType());
+    int poolSize = PropertyUtil.propertyAsInt(table.properties(),
+        TableProperties.READ_PLANNING_WORKER_POOL_SIZE, TableProperties.READ_PLANNING_WORKER_POOL_SIZE_DEFAULT);
+    if (poolSize > 0) {
+      this.planExecutor = PLANNING_POOL.withSize(poolSize);
+    }
+    if (PropertyUtil.propertyAsBoolean(table.properties(),
+        TableProperties.READ_PLAN_CACHE_ENABLED, TableProperties.READ_PLAN_CACHE_ENABLED_DEFAULT)) {
+      String planCacheDir = LocalPlanCache.sharedDirectory();
+      try {
+        this.planCache = LocalPlanCache.getOrCreateSharedInstance(planCacheDir, PropertyUtil.propertyAsLong(
+            table.properties(),
+            TableProperties.READ_PLAN_CACHE_CAPACITY_BYTES,
+            TableProperties.READ_PLAN_CACHE_CAPACITY_BYTES_DEFAULT));
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to create plan cache in {}, plan table {} without it", planCacheDir, table.id(), e);
+      }
+    }
   }
 
   /**
@@ -93,16 +140,102 @@ public class BasicKeyedTableScan implements KeyedTableScan {
     return this;
   }
 
+  @Override
+  public KeyedTableScan planWith(ExecutorService executorService) {
+    this.planExecutor = executorService;
+    return this;
+  }
+
+  @Override
+  public KeyedTableScan usePlanCache(LocalPlanCache planCache) {
+    this.planCache = planCache;
+    return this;
+  }
+
+  @Override
+  public KeyedTableScanMetrics metrics() {
+    return metrics;
+  }
+
   @Override
   public CloseableIterable<CombinedScanTask> planTasks() {
+    long startTime = System.currentTimeMillis();
+    metrics = new KeyedTableScanMetrics();
+
+    String planCacheKey = null;
+    if (planCache != null) {
+      planCacheKey = planCacheKey();
+      List<CombinedScanTask> cachedTasks = planCache.get(planCacheKey);
+      if (cachedTasks != null) {
+        metrics.planCacheHit(true);
+        metrics.planningDurationMs(System.currentTimeMillis() - startTime);
+        LOG.info("planning table {} from plan cache, {}", table.id(), metrics);
+        return CloseableIterable.withNoopClose(cachedTasks);
+      }
+    }
+
+    if (streamingPlan) {
+      CloseableIterable<CombinedScanTask> streamingTasks = planTasksInClusters(startTime);
+      if (streamingTasks != null) {
+        return streamingTasks;
+      }
+    }
+
+    ChangeTableIncrementalScan changeScan = null;
+    if (table.primaryKeySpec().primaryKeyExisted()) {
+      changeScan = table.changeTable().newScan();
+    }
+    List<NodeFileScanTask> splitTasks = planSplitTasks(table.baseTable().newScan(), changeScan);
+    // 3.combine node task (FileScanTask List -> CombinedScanTask)
+    CloseableIterable<CombinedScanTask> combinedTasks = combineNode(CloseableIterable.withNoopClose(splitTasks),
+        splitSize, lookBack, openFileCost);
+    if (planCacheKey != null) {
+      List<CombinedScanTask> tasks = Lists.newArrayList(combinedTasks);
+      planCache.put(planCacheKey, tasks);
+      combinedTasks = CloseableIterable.withNoopClose(tasks);
+    }
+    metrics.planningDurationMs(System.currentTimeMillis() - startTime);
+    LOG.info("planning table {} end, {}", table.id(), metrics);
+    return combinedTasks;
+  }
+
+  @Override
+  public KeyedTableScan enableSplitTaskByDeleteRatio(double splitTaskByDeleteRatio) {
+    this.splitTaskByDeleteRatio = splitTaskByDeleteRatio;
+    return this;
+  }
+
+  @Override
+  public KeyedTableScan enableStreamingPlan() {
+    this.streamingPlan = true;
+    return this;
+  }
+
+  /**
+   * Plan files of the base store and the change store, group them by partition, plan and split node tasks of
+   * partitions.
+   *
+   * @param baseScan scan of the base store
+   * @param changeScan scan of the change store, null if the table has no primary key
+   * @return split node tasks
+   */
+  private List<NodeFileScanTask> planSplitTasks(TableScan baseScan, ChangeTableIncrementalScan changeScan) {
+    // change file, planned concurrently with base files
+    Future<List<ArcticFileScanTask>> changeFileFuture = null;
+    if (changeScan != null) {
+      changeFileFuture = CHANGE_PLANNING_POOL.submit(() -> {
+        try (CloseableIterable<ArcticFileScanTask> changeFiles = planChangeFiles(changeScan)) {
+          return Lists.newArrayList(changeFiles);
+        }
+      });
+    }
+
     // base file
-    CloseableIterable<ArcticFileScanTask> baseFileList;
-    baseFileList = planBaseFiles();
+    CloseableIterable<ArcticFileScanTask> baseFileList = planBaseFiles(baseScan);
 
-    // change file
     CloseableIterable<ArcticFileScanTask> changeFileList;
-    if (table.primaryKeySpec().primaryKeyExisted()) {
-      changeFileList = planChangeFiles();
+    if (changeFileFuture != null) {
+      changeFileList = CloseableIterable.withNoopClose(waitChangeFiles(changeFileFuture, baseFileList));
     } else {
       changeFileList = CloseableIterable.empty();
     }
@@ -111,27 +244,107 @@ public class BasicKeyedTableScan implements KeyedTableScan {
     StructLikeMap<Collection<ArcticFileScanTask>> partitionedFiles =
         groupFilesByPartition(table.spec(), changeFileList, baseFileList);
     LOG.info("planning table {} need plan partition size {}", table.id(), partitionedFiles.size());
-    partitionedFiles.forEach(this::partitionPlan);
+    StructLikeMap<List<NodeFileScanTask>> fileScanTasks = planPartitions(partitionedFiles);
     LOG.info("planning table {} partitionPlan end", table.id());
     // 2.split node task (FileScanTask -> FileScanTask List)
-    split();
+    List<NodeFileScanTask> splitTasks = split(fileScanTasks);
     LOG.info("planning table {} split end", table.id());
-    // 3.combine node task (FileScanTask List -> CombinedScanTask)
-    return combineNode(CloseableIterable.withNoopClose(splitTasks),
-        splitSize, lookBack, openFileCost);
+    return splitTasks;
   }
 
-  @Override
-  public KeyedTableScan enableSplitTaskByDeleteRatio(double splitTaskByDeleteRatio) {
-    this.splitTaskByDeleteRatio = splitTaskByDeleteRatio;
-    return this;
+  /**
+   * Plan tasks cluster by cluster of manifests whose partition ranges don't overlap with other clusters, tasks of a
+   * cluster are returned before manifests of the next cluster are read.
+   *
+   * @return lazily planned tasks, or null if manifests can't be clustered and the table should be planned at once
+   */
+  private CloseableIterable<CombinedScanTask> planTasksInClusters(long startTime) {
+    Snapshot baseSnapshot = table.baseTable().currentSnapshot();
+    Snapshot changeSnapshot = null;
+    if (table.primaryKeySpec().primaryKeyExisted()) {
+      changeSnapshot = table.changeTable().currentSnapshot();
+    }
+    ChangeTableIncrementalScan changeScan = null;
+    if (changeSnapshot != null) {
+      changeScan = table.changeTable().newScan().useSnapshot(changeSnapshot.snapshotId());
+      if (!(changeScan instanceof ManifestFilteredDataTableScan)) {
+        return null;
+      }
+    }
+    List<ManifestFile> manifests = Lists.newArrayList();
+    if (!addManifests(manifests, table.baseTable(), baseSnapshot) ||
+        !addManifests(manifests, table.changeTable(), changeSnapshot) ||
+        !table.baseTable().spec().partitionType().equals(table.changeTable().spec().partitionType())) {
+      return null;
+    }
+    List<List<ManifestFile>> clusters = ManifestClusters.cluster(table.spec().partitionType(), manifests);
+    LOG.info("planning table {} in {} clusters of {} manifests", table.id(), clusters.size(), manifests.size());
+
+    ManifestFilteredDataTableScan baseScan = new ManifestFilteredDataTableScan(
+        table.baseTable(), table.baseTable().schema());
+    if (baseSnapshot != null) {
+      baseScan = (ManifestFilteredDataTableScan) baseScan.useSnapshot(baseSnapshot.snapshotId());
+    }
+    ManifestFilteredDataTableScan clusterBaseScan = baseScan;
+    ManifestFilteredDataTableScan clusterChangeScan = (ManifestFilteredDataTableScan) changeScan;
+    return CloseableIterable.concat(Iterables.transform(clusters, cluster -> {
+      Set<String> paths = cluster.stream().map(ManifestFile::path).collect(Collectors.toSet());
+      Predicate<ManifestFile> manifestFilter = manifest -> paths.contains(manifest.path());
+      List<NodeFileScanTask> splitTasks = planSplitTasks(
+          clusterBaseScan.filterManifests(manifestFilter),
+          clusterChangeScan == null ? null :
+              (ChangeTableIncrementalScan) clusterChangeScan.filterManifests(manifestFilter));
+      metrics.planningDurationMs(System.currentTimeMillis() - startTime);
+      return combineNode(CloseableIterable.withNoopClose(splitTasks), splitSize, lookBack, openFileCost);
+    }));
+  }
+
+  /**
+   * Add manifests of the snapshot if they are all written with the current spec of the table.
+   */
+  private static boolean addManifests(List<ManifestFile> manifests, Table table, Snapshot snapshot) {
+    if (snapshot == null) {
+      return true;
+    }
+    List<ManifestFile> snapshotManifests = snapshot.allManifests(table.io());
+    if (snapshotManifests.stream().anyMatch(manifest -> manifest.partitionSpecId() != table.spec().specId())) {
+      return false;
+    }
+    manifests.addAll(snapshotManifests);
+    return true;
+  }
+
+  /**
+   * Key of the plan in the plan cache, built from everything the plan depends on. Partition properties like optimized
+   * sequences are updated without new snapshots, so properties of the base store are part of the key.
+   */
+  private String planCacheKey() {
+    return LocalPlanCache.key(
+        table.id(),
+        table.location(),
+        currentSnapshotId(table.baseTable()),
+        currentSnapshotId(table.changeTable()),
+        table.schema().schemaId(),
+        table.spec().specId(),
+        new TreeMap<>(table.properties()),
+        new TreeMap<>(table.baseTable().properties()),
+        expression,
+        splitTaskByDeleteRatio);
+  }
+
+  private static long currentSnapshotId(Table table) {
+    Snapshot snapshot = table.currentSnapshot();
+    return snapshot == null ? -1L : snapshot.snapshotId();
   }
 
-  private CloseableIterable<ArcticFileScanTask> planBaseFiles() {
-    TableScan scan = table.baseTable().newScan();
+  private CloseableIterable<ArcticFileScanTask> planBaseFiles(TableScan baseScan) {
+    TableScan scan = baseScan.metricsReporter(metrics.baseReporter());
     if (this.expression != null) {
       scan = scan.filter(this.expression);
     }
+    if (planExecutor != null) {
+      scan = scan.planWith(planExecutor);
+    }
     CloseableIterable<FileScanTask> fileScanTasks = scan.planFiles();
     return CloseableIterable.transform(
         fileScanTasks,
@@ -139,7 +352,7 @@ public class BasicKeyedTableScan implements KeyedTableScan {
             fileScanTask.deletes(), fileScanTask.spec(), expression));
   }
 
-  private CloseableIterable<ArcticFileScanTask> planChangeFiles() {
+  private CloseableIterable<ArcticFileScanTask> planChangeFiles(ChangeTableIncrementalScan changeScan) {
     StructLikeMap<Long> partitionOptimizedSequence = TablePropertyUtil.getPartitionOptimizedSequence(table);
     StructLikeMap<Long> legacyPartitionMaxTransactionId = TablePropertyUtil.getLegacyPartitionMaxTransactionId(table);
     Expression partitionExpressions = Expressions.alwaysTrue();
@@ -148,50 +361,111 @@ public class BasicKeyedTableScan implements KeyedTableScan {
       partitionExpressions = new BasicPartitionEvaluator(table.spec()).project(expression);
     }
 
-    ChangeTableIncrementalScan changeTableScan = table.changeTable().newScan()
+    ChangeTableIncrementalScan changeTableScan = changeScan
         .fromSequence(partitionOptimizedSequence)
         .fromLegacyTransaction(legacyPartitionMaxTransactionId);
 
-    changeTableScan = (ChangeTableIncrementalScan) changeTableScan.filter(partitionExpressions);
+    TableScan scan = changeTableScan.filter(partitionExpressions).metricsReporter(metrics.changeReporter());
+    if (planExecutor != null) {
+      scan = scan.planWith(planExecutor);
+    }
+
+    return CloseableIterable.transform(scan.planFiles(), s -> (ArcticFileScanTask) s);
+  }
+
+  private List<ArcticFileScanTask> waitChangeFiles(
+      Future<List<ArcticFileScanTask>> changeFileFuture,
+      CloseableIterable<ArcticFileScanTask> baseFileList) {
+    try {
+      return changeFileFuture.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      closeQuietly(baseFileList);
+      throw new RuntimeException("Interrupted while planning change files of " + table.id(), e);
+    } catch (ExecutionException e) {
+      closeQuietly(baseFileList);
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Failed to plan change files of " + table.id(), e.getCause());
+    }
+  }
+
+  private void closeQuietly(CloseableIterable<ArcticFileScanTask> files) {
+    try {
+      files.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close table scan of {} ", table.id(), e);
+    }
+  }
+
+  /**
+   * Plan partitions in parallel, tasks of partitions are put into the returned map by this thread as the map is not
+   * thread safe.
+   */
+  private StructLikeMap<List<NodeFileScanTask>> planPartitions(
+      StructLikeMap<Collection<ArcticFileScanTask>> partitionedFiles) {
+    List<Map.Entry<StructLike, Collection<ArcticFileScanTask>>> partitions =
+        Lists.newArrayList(partitionedFiles.entrySet());
+    List<List<NodeFileScanTask>> partitionTasks = Lists.newArrayList();
+    partitions.forEach(partition -> partitionTasks.add(null));
+    Tasks.range(partitions.size())
+        .stopOnFailure()
+        .throwFailureWhenFinished()
+        .executeWith(partitions.size() > 1 ? workerPool() : null)
+        .run(i -> partitionTasks.set(i, partitionPlan(partitions.get(i).getValue())));
+    StructLikeMap<List<NodeFileScanTask>> fileScanTasks = StructLikeMap.create(table.spec().partitionType());
+    for (int i = 0; i < partitions.size(); i++) {
+      fileScanTasks.put(partitions.get(i).getKey(), partitionTasks.get(i));
+    }
+    return fileScanTasks;
+  }
 
-    return CloseableIterable.transform(changeTableScan.planFiles(), s -> (ArcticFileScanTask) s);
+  private ExecutorService workerPool() {
+    return planExecutor != null ? planExecutor : ThreadPools.getWorkerPool();
   }
 
-  private void split() {
+  private List<NodeFileScanTask> split(StructLikeMap<List<NodeFileScanTask>> fileScanTasks) {
+    List<NodeFileScanTask> splitTasks = new ArrayList<>();
     fileScanTasks.forEach((structLike, fileScanTasks1) -> {
       for (NodeFileScanTask task : fileScanTasks1) {
-        if (task.dataTasks().size() < 2) {
-          splitTasks.add(task);
-          continue;
-        }
+        split(task, splitTasks);
+      }
+    });
+    return splitTasks;
+  }
 
-        if (splitTaskByDeleteRatio != null) {
-          long deleteWeight = task.arcticEquityDeletes().stream().mapToLong(s -> s.file().fileSizeInBytes())
-              .map(s -> s + openFileCost)
-              .sum();
-
-          long dataWeight = task.dataTasks().stream().mapToLong(s -> s.file().fileSizeInBytes())
-              .map(s -> s + openFileCost)
-              .sum();
-          double deleteRatio = deleteWeight * 1.0 / dataWeight;
-
-          if (deleteRatio < splitTaskByDeleteRatio) {
-            long targetSize = Math.min(new Double(deleteWeight / splitTaskByDeleteRatio).longValue(), splitSize);
-            split(task, targetSize);
-            continue;
-          }
-        }
+  private void split(NodeFileScanTask task, List<NodeFileScanTask> splitTasks) {
+    if (task.dataTasks().size() < 2) {
+      splitTasks.add(task);
+      return;
+    }
 
-        if (task.cost() <= splitSize) {
-          splitTasks.add(task);
-          continue;
-        }
-        split(task, splitSize);
+    if (splitTaskByDeleteRatio != null) {
+      long deleteWeight = task.arcticEquityDeletes().stream().mapToLong(s -> s.file().fileSizeInBytes())
+          .map(s -> s + openFileCost)
+          .sum();
+
+      long dataWeight = task.dataTasks().stream().mapToLong(s -> s.file().fileSizeInBytes())
+          .map(s -> s + openFileCost)
+          .sum();
+      double deleteRatio = deleteWeight * 1.0 / dataWeight;
+
+      if (deleteRatio < splitTaskByDeleteRatio) {
+        long targetSize = Math.min(new Double(deleteWeight / splitTaskByDeleteRatio).longValue(), splitSize);
+        split(task, targetSize, splitTasks);
+        return;
       }
-    });
+    }
+
+    if (task.cost() <= splitSize) {
+      splitTasks.add(task);
+      return;
+    }
+    split(task, splitSize, splitTasks);
   }
 
-  private void split(NodeFileScanTask task, long targetSize) {
+  private void split(NodeFileScanTask task, long targetSize, List<NodeFileScanTask> splitTasks) {
     CloseableIterable<NodeFileScanTask> tasksIterable =
         splitNode(CloseableIterable.withNoopClose(task.dataTasks()),
             task.arcticEquityDeletes(), targetSize, lookBack, openFileCost);
@@ -231,7 +505,7 @@ public class BasicKeyedTableScan implements KeyedTableScan {
    * 1. Put all files into the node they originally belonged to
    * 2. Find all data nodes, traverse, and find the delete that intersects them
    */
-  private void partitionPlan(StructLike partition, Collection<ArcticFileScanTask> keyedTableTasks) {
+  private List<NodeFileScanTask> partitionPlan(Collection<ArcticFileScanTask> keyedTableTasks) {
     Map<DataTreeNode, NodeFileScanTask> nodeFileScanTaskMap = new HashMap<>();
     // planfiles() cannot guarantee the uniqueness of the file,
     // so Set<path> here is used to remove duplicate files
@@ -270,7 +544,7 @@ public class BasicKeyedTableScan implements KeyedTableScan {
       fileScanTaskList.add(nodeFileScanTask);
     });
 
-    fileScanTasks.put(partition, fileScanTaskList);
+    return fileScanTaskList;
   }
 
   public StructLikeMap<Collection<ArcticFileScanTask>> groupFilesByPartition(
@@ -21,6 +21,8 @@ package com.netease.arctic.scan;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.io.CloseableIterable;
 
+import java.util.concurrent.ExecutorService;
+
 /**
  * API for configuring a {@link com.netease.arctic.table.KeyedTable} scan.
  */
@@ -48,4 +50,37 @@ public interface KeyedTableScan {
    */
   KeyedTableScan enableSplitTaskByDeleteRatio(double splitTaskByDeleteRatio);
 
+  /**
+   * Config this scan to plan tasks lazily while they are consumed. Manifests of both stores are grouped into clusters
+   * whose partition ranges don't overlap, tasks of a cluster are returned before manifests of the next cluster are
+   * read, so the first tasks arrive before the whole table is planned and only files of one cluster are held at once.
+   * Tasks planned in this way are not put into the plan cache.
+   *
+   * @return scan based on this with streaming planning
+   */
+  KeyedTableScan enableStreamingPlan();
+
+  /**
+   * Config this scan to read manifests with the executor service, instead of the pool configured by
+   * {@link com.netease.arctic.table.TableProperties#READ_PLANNING_WORKER_POOL_SIZE}.
+   *
+   * @param executorService executor service to read manifests
+   * @return scan based on this with the executor service
+   */
+  KeyedTableScan planWith(ExecutorService executorService);
+
+  /**
+   * Config this scan to look up and store the plan in the plan cache, instead of the cache configured by
+   * {@link com.netease.arctic.table.TableProperties#READ_PLAN_CACHE_ENABLED}.
+   *
+   * @param planCache plan cache, null to disable the plan cache
+   * @return scan based on this with the plan cache
+   */
+  KeyedTableScan usePlanCache(LocalPlanCache planCache);
+
+  /**
+   * Metrics of the last {@link #planTasks()} of this scan.
+   */
+  KeyedTableScanMetrics metrics();
+
 }
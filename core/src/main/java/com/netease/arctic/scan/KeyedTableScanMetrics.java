@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.scan;
+
+import org.apache.iceberg.metrics.CounterResult;
+import org.apache.iceberg.metrics.MetricsReporter;
+import org.apache.iceberg.metrics.ScanMetricsResult;
+import org.apache.iceberg.metrics.ScanReport;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of planning a {@link KeyedTableScan}, including the planning duration and the manifests read by the scans
+ * of the base store and the change store. A streaming plan scans each store once for every cluster of manifests, the
+ * numbers of manifests add up all these scans.
+ */
+public class KeyedTableScanMetrics {
+
+  private volatile ScanReport baseScanReport;
+  private volatile ScanReport changeScanReport;
+  private final AtomicLong baseScannedManifests = new AtomicLong();
+  private final AtomicLong baseSkippedManifests = new AtomicLong();
+  private final AtomicLong changeScannedManifests = new AtomicLong();
+  private final AtomicLong changeSkippedManifests = new AtomicLong();
+  private long planningDurationMs;
+  private boolean planCacheHit = false;
+
+  MetricsReporter baseReporter() {
+    return report -> {
+      if (report instanceof ScanReport) {
+        baseScanReport = (ScanReport) report;
+        baseScannedManifests.addAndGet(scannedManifests(baseScanReport));
+        baseSkippedManifests.addAndGet(skippedManifests(baseScanReport));
+      }
+    };
+  }
+
+  MetricsReporter changeReporter() {
+    return report -> {
+      if (report instanceof ScanReport) {
+        changeScanReport = (ScanReport) report;
+        changeScannedManifests.addAndGet(scannedManifests(changeScanReport));
+        changeSkippedManifests.addAndGet(skippedManifests(changeScanReport));
+      }
+    };
+  }
+
+  void planningDurationMs(long planningDurationMs) {
+    this.planningDurationMs = planningDurationMs;
+  }
+
+  /**
+   * Duration of the whole planning, including planning files, grouping, splitting and combining tasks.
+   */
+  public long planningDurationMs() {
+    return planningDurationMs;
+  }
+
+  void planCacheHit(boolean planCacheHit) {
+    this.planCacheHit = planCacheHit;
+  }
+
+  /**
+   * Whether tasks are loaded from the {@link LocalPlanCache} without planning files.
+   */
+  public boolean planCacheHit() {
+    return planCacheHit;
+  }
+
+  /**
+   * Report of the last base store scan, null if the base store has no snapshot.
+   */
+  @Nullable
+  public ScanReport baseScanReport() {
+    return baseScanReport;
+  }
+
+  /**
+   * Report of the last change store scan, null if the table has no primary key or the change store has no snapshot.
+   */
+  @Nullable
+  public ScanReport changeScanReport() {
+    return changeScanReport;
+  }
+
+  /**
+   * Number of data and delete manifests read by both scans.
+   */
+  public long scannedManifests() {
+    return baseScannedManifests.get() + changeScannedManifests.get();
+  }
+
+  /**
+   * Number of data and delete manifests skipped by partition filters of both scans.
+   */
+  public long skippedManifests() {
+    return baseSkippedManifests.get() + changeSkippedManifests.get();
+  }
+
+  private static long scannedManifests(ScanReport report) {
+    if (report == null) {
+      return 0L;
+    }
+    ScanMetricsResult metrics = report.scanMetrics();
+    return count(metrics.scannedDataManifests()) + count(metrics.scannedDeleteManifests());
+  }
+
+  private static long skippedManifests(ScanReport report) {
+    if (report == null) {
+      return 0L;
+    }
+    ScanMetricsResult metrics = report.scanMetrics();
+    return count(metrics.skippedDataManifests()) + count(metrics.skippedDeleteManifests());
+  }
+
+  private static long count(CounterResult counter) {
+    return counter == null ? 0L : counter.value();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("planningDurationMs", planningDurationMs)
+        .add("planCacheHit", planCacheHit)
+        .add("baseScannedManifests", baseScannedManifests.get())
+        .add("baseSkippedManifests", baseSkippedManifests.get())
+        .add("changeScannedManifests", changeScannedManifests.get())
+        .add("changeSkippedManifests", changeSkippedManifests.get())
+        .toString();
+  }
+}
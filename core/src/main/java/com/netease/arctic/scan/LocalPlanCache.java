@@ -0,0 +1,481 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netease.arctic.scan;
+
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.hash.Hasher;
+import org.apache.iceberg.relocated.com.google.common.hash.Hashing;
+import org.apache.iceberg.util.SerializationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of planned {@link CombinedScanTask tasks} on local disks.
+ * <p>
+ * Plans are keyed by a fingerprint of everything the plan depends on, like snapshots of the table, the filter and the
+ * properties of the table, so cached plans never go stale. Each plan is stored as a file of the serialized tasks named
+ * by its key, plans stored by previous processes are loaded when the cache is created. Once the cached plans exceed
+ * the capacity, the least recently used plans are deleted.
+ * <p>
+ * Since plans are deserialized java objects, the directory must be private to the user of the process. It is created
+ * with owner only permissions, and directories owned by other users are refused. Each plan file starts with a header
+ * of the format version, the key and a HMAC of the plan signed by a secret kept in the directory. Plan files failing
+ * the checks are deleted without being deserialized, and all plan files are deleted if there is no valid secret.
+ */
+public class LocalPlanCache {
+
+  /**
+   * JVM system property of the directory of the shared cache. The directory must be private to the user of the
+   * process, so it is under the home directory of the user by default instead of the shared temporary directory.
+   */
+  public static final String DIRECTORY_PROPERTY = "arctic.plan-cache.dir";
+
+  private static final Logger LOG = LoggerFactory.getLogger(LocalPlanCache.class);
+
+  private static final Map<String, LocalPlanCache> SHARED_INSTANCES = Maps.newHashMap();
+
+  private static final String PLAN_FILE_SUFFIX = ".plan";
+
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private static final String SECRET_FILE_NAME = "plan-cache.secret";
+
+  private static final int MAGIC = 0x41504c43;
+
+  private static final byte FORMAT_VERSION = 1;
+
+  private static final int SECRET_LENGTH = 32;
+
+  private static final int MAC_LENGTH = 32;
+
+  private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+  private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+  private final Path directory;
+  private final long capacityInBytes;
+  private final boolean posix;
+  private final byte[] secret;
+  // access ordered, the eldest plan is the least recently used one
+  private final LinkedHashMap<String, Long> plans = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeInBytes = 0L;
+  private long hitCount = 0L;
+  private long missCount = 0L;
+  private long evictionCount = 0L;
+
+  public LocalPlanCache(String directory, long capacityInBytes) {
+    Preconditions.checkArgument(capacityInBytes > 0, "capacityInBytes should be positive");
+    this.capacityInBytes = capacityInBytes;
+    this.directory = Paths.get(directory);
+    this.posix = this.directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+    byte[] existingSecret;
+    try {
+      createPrivateDirectory();
+      existingSecret = readSecret();
+      this.secret = existingSecret != null ? existingSecret : createSecret();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create plan cache in " + directory, e);
+    }
+    // plans of previous processes can only be trusted if they are signed by a valid secret
+    loadPlanFiles(existingSecret != null);
+  }
+
+  /**
+   * Return the cache of the directory shared by all threads of the process, creating it if it is not created.
+   */
+  public static synchronized LocalPlanCache getOrCreateSharedInstance(String directory, long capacityInBytes) {
+    return SHARED_INSTANCES.computeIfAbsent(directory, dir -> {
+      LocalPlanCache cache = new LocalPlanCache(dir, capacityInBytes);
+      LOG.info("Created shared plan cache in {} with capacity {} bytes, loaded {} plans",
+          dir, capacityInBytes, cache.size());
+      return cache;
+    });
+  }
+
+  /**
+   * Directory of the shared cache of the process, read when it is asked for, so the property and the home directory
+   * of the current user are not fixed when the class is loaded.
+   */
+  public static String sharedDirectory() {
+    String directory = System.getProperty(DIRECTORY_PROPERTY);
+    if (directory != null && !directory.isEmpty()) {
+      return directory;
+    }
+    return Paths.get(System.getProperty("user.home"), ".arctic", "plan-cache").toString();
+  }
+
+  /**
+   * Build the key of a plan from the string forms of everything the plan depends on.
+   */
+  public static String key(Object... parts) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (Object part : parts) {
+      hasher.putString(String.valueOf(part), StandardCharsets.UTF_8);
+      // separate parts, so different parts with the same concatenation are different keys
+      hasher.putByte((byte) 0);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Get the cached plan of the key.
+   *
+   * @return null if the plan is not cached
+   */
+  @Nullable
+  public List<CombinedScanTask> get(String key) {
+    synchronized (this) {
+      if (plans.get(key) == null) {
+        missCount++;
+        return null;
+      }
+    }
+    Path file = planFile(key);
+    try {
+      List<CombinedScanTask> tasks = SerializationUtil.deserializeFromBytes(verify(key, Files.readAllBytes(file)));
+      synchronized (this) {
+        hitCount++;
+      }
+      return tasks;
+    } catch (NoSuchFileException e) {
+      // evicted after it was looked up, or deleted by another process
+      remove(key, false);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to read cached plan {}, drop it", file, e);
+      remove(key, true);
+    }
+    synchronized (this) {
+      missCount++;
+    }
+    return null;
+  }
+
+  /**
+   * Cache the plan of the key, the plan is not cached if it is larger than the capacity.
+   */
+  public void put(String key, List<CombinedScanTask> tasks) {
+    byte[] bytes = sign(key, SerializationUtil.serializeToBytes(Lists.newArrayList(tasks)));
+    if (bytes.length > capacityInBytes) {
+      LOG.info("Plan of {} bytes is larger than the capacity of plan cache, skip caching it", bytes.length);
+      return;
+    }
+    Path file = planFile(key);
+    Path tempFile = null;
+    try {
+      // write to a temporary file first, so readers never see a partial plan
+      tempFile = createPrivateTempFile(key);
+      Files.write(tempFile, bytes);
+      Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      LOG.warn("Failed to cache plan to {}", file, e);
+      if (tempFile != null) {
+        deleteFile(tempFile);
+      }
+      return;
+    }
+    List<Path> toDelete = Lists.newArrayList();
+    synchronized (this) {
+      Long previous = plans.put(key, (long) bytes.length);
+      if (previous != null) {
+        // planned by another thread at the same time, the file is replaced
+        sizeInBytes -= previous;
+      }
+      sizeInBytes += bytes.length;
+      evict(toDelete);
+    }
+    toDelete.forEach(LocalPlanCache::deleteFile);
+  }
+
+  private void createPrivateDirectory() throws IOException {
+    if (!Files.exists(directory)) {
+      Path parent = directory.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      try {
+        if (posix) {
+          Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+        } else {
+          Files.createDirectory(directory);
+        }
+      } catch (FileAlreadyExistsException e) {
+        // created by another process at the same time, checked below
+      }
+    }
+    if (!Files.isDirectory(directory)) {
+      throw new IOException(directory + " is not a directory");
+    }
+    if (!isOwnedByCurrentUser(directory)) {
+      throw new IOException(String.format("Refuse to use %s owned by %s rather than the current user %s",
+          directory, Files.getOwner(directory).getName(), System.getProperty("user.name")));
+    }
+    if (posix) {
+      Files.setPosixFilePermissions(directory, OWNER_ONLY_DIRECTORY);
+    }
+  }
+
+  private boolean isOwnedByCurrentUser(Path path) throws IOException {
+    UserPrincipal currentUser = path.getFileSystem().getUserPrincipalLookupService()
+        .lookupPrincipalByName(System.getProperty("user.name"));
+    return currentUser.equals(Files.getOwner(path));
+  }
+
+  @Nullable
+  private byte[] readSecret() throws IOException {
+    Path secretFile = directory.resolve(SECRET_FILE_NAME);
+    if (!Files.exists(secretFile)) {
+      return null;
+    }
+    if (!isOwnedByCurrentUser(secretFile) ||
+        (posix && !OWNER_ONLY_FILE.containsAll(Files.getPosixFilePermissions(secretFile)))) {
+      LOG.warn("Secret of plan cache {} is not private to the current user, drop all cached plans", directory);
+      return null;
+    }
+    byte[] secret = Files.readAllBytes(secretFile);
+    if (secret.length != SECRET_LENGTH) {
+      LOG.warn("Secret of plan cache {} is corrupted, drop all cached plans", directory);
+      return null;
+    }
+    return secret;
+  }
+
+  private byte[] createSecret() throws IOException {
+    byte[] secret = new byte[SECRET_LENGTH];
+    new SecureRandom().nextBytes(secret);
+    Path tempFile = createPrivateTempFile(SECRET_FILE_NAME);
+    try {
+      Files.write(tempFile, secret);
+      Files.move(
+          tempFile, directory.resolve(SECRET_FILE_NAME),
+          StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      deleteFile(tempFile);
+      throw e;
+    }
+    return secret;
+  }
+
+  private Path createPrivateTempFile(String prefix) throws IOException {
+    if (posix) {
+      return Files.createTempFile(
+          directory, prefix, TEMP_FILE_SUFFIX, PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+    } else {
+      return Files.createTempFile(directory, prefix, TEMP_FILE_SUFFIX);
+    }
+  }
+
+  /**
+   * Add the header of the plan file to the serialized plan.
+   */
+  private byte[] sign(String key, byte[] plan) {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    Preconditions.checkArgument(keyBytes.length <= Short.MAX_VALUE, "Key of plan is too long: %s", key);
+    ByteBuffer buffer = ByteBuffer.allocate(headerLength(keyBytes.length) + plan.length);
+    buffer.putInt(MAGIC)
+        .put(FORMAT_VERSION)
+        .putShort((short) keyBytes.length)
+        .put(keyBytes)
+        .put(mac(keyBytes, plan))
+        .put(plan);
+    return buffer.array();
+  }
+
+  /**
+   * Check the header of the plan file and return the serialized plan.
+   */
+  private byte[] verify(String key, byte[] bytes) throws IOException {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    int headerLength = headerLength(keyBytes.length);
+    if (bytes.length < headerLength || !hasHeader(ByteBuffer.wrap(bytes), keyBytes)) {
+      throw new IOException("Invalid header of plan file for key " + key);
+    }
+    byte[] plan = Arrays.copyOfRange(bytes, headerLength, bytes.length);
+    byte[] mac = Arrays.copyOfRange(bytes, headerLength - MAC_LENGTH, headerLength);
+    if (!MessageDigest.isEqual(mac, mac(keyBytes, plan))) {
+      throw new IOException("Invalid signature of plan file for key " + key);
+    }
+    return plan;
+  }
+
+  private static boolean hasHeader(ByteBuffer buffer, byte[] keyBytes) {
+    if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION || buffer.getShort() != keyBytes.length) {
+      return false;
+    }
+    byte[] fileKey = new byte[keyBytes.length];
+    buffer.get(fileKey);
+    return Arrays.equals(fileKey, keyBytes);
+  }
+
+  private static int headerLength(int keyLength) {
+    return 4 + 1 + 2 + keyLength + MAC_LENGTH;
+  }
+
+  private byte[] mac(byte[] keyBytes, byte[] plan) {
+    return Hashing.hmacSha256(secret).newHasher()
+        .putByte(FORMAT_VERSION)
+        .putBytes(keyBytes)
+        .putBytes(plan)
+        .hash()
+        .asBytes();
+  }
+
+  private void loadPlanFiles(boolean trusted) {
+    File[] files = directory.toFile().listFiles((dir, name) -> !SECRET_FILE_NAME.equals(name));
+    if (files == null) {
+      return;
+    }
+    // the least recently written plans are the eldest
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+    List<File> planFiles = Lists.newArrayList();
+    for (File file : files) {
+      String name = file.getName();
+      if (name.endsWith(TEMP_FILE_SUFFIX)) {
+        // left by a failed process
+        deleteFile(file.toPath());
+      } else if (name.endsWith(PLAN_FILE_SUFFIX)) {
+        if (trusted && hasValidHeader(file, name.substring(0, name.length() - PLAN_FILE_SUFFIX.length()))) {
+          planFiles.add(file);
+        } else {
+          deleteFile(file.toPath());
+        }
+      }
+    }
+    List<Path> toDelete = Lists.newArrayList();
+    synchronized (this) {
+      for (File file : planFiles) {
+        String name = file.getName();
+        plans.put(name.substring(0, name.length() - PLAN_FILE_SUFFIX.length()), file.length());
+        sizeInBytes += file.length();
+      }
+      evict(toDelete);
+    }
+    toDelete.forEach(LocalPlanCache::deleteFile);
+  }
+
+  /**
+   * Check the header of a plan file without reading the plan, the signature is checked when the plan is read.
+   */
+  private boolean hasValidHeader(File file, String key) {
+    byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    byte[] header = new byte[headerLength(keyBytes.length) - MAC_LENGTH];
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      new DataInputStream(in).readFully(header);
+      return isOwnedByCurrentUser(file.toPath()) && hasHeader(ByteBuffer.wrap(header), keyBytes);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private void evict(List<Path> toDelete) {
+    Iterator<Map.Entry<String, Long>> iterator = plans.entrySet().iterator();
+    while (sizeInBytes > capacityInBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> eldest = iterator.next();
+      iterator.remove();
+      sizeInBytes -= eldest.getValue();
+      evictionCount++;
+      toDelete.add(planFile(eldest.getKey()));
+    }
+  }
+
+  private void remove(String key, boolean deleteFile) {
+    synchronized (this) {
+      Long length = plans.remove(key);
+      if (length != null) {
+        sizeInBytes -= length;
+      }
+    }
+    if (deleteFile) {
+      deleteFile(planFile(key));
+    }
+  }
+
+  private Path planFile(String key) {
+    return directory.resolve(key + PLAN_FILE_SUFFIX);
+  }
+
+  private static void deleteFile(Path file) {
+    File toDeleteFile = file.toFile();
+    if (!toDeleteFile.delete() && toDeleteFile.exists()) {
+      LOG.warn("Failed to delete plan file {}", file);
+    }
+  }
+
+  public synchronized long sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  public long capacityInBytes() {
+    return capacityInBytes;
+  }
+
+  /**
+   * Number of cached plans.
+   */
+  public synchronized int size() {
+    return plans.size();
+  }
+
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  public synchronized long evictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Fraction of plan lookups served by the cache.
+   */
+  public synchronized double hitRate() {
+    long requestCount = hitCount + missCount;
+    return requestCount == 0 ? 0D : (double) hitCount / requestCount;
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.scan;
+
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups manifests into clusters by the partition ranges in their summaries. Ranges of manifests in different
+ * clusters never overlap, so all files of a partition, including delete files, are in manifests of one cluster and
+ * each cluster can be planned on its own.
+ */
+class ManifestClusters {
+
+  private ManifestClusters() {
+  }
+
+  /**
+   * Group manifests into clusters, all manifests are put into one cluster if they can't be told apart by their
+   * partition summaries.
+   *
+   * @param partitionType partition type of all manifests
+   * @param manifests manifests to group
+   * @return clusters ordered by their lowest partition range
+   */
+  static List<List<ManifestFile>> cluster(Types.StructType partitionType, List<ManifestFile> manifests) {
+    List<Types.NestedField> fields = partitionType.fields();
+    if (fields.isEmpty() || manifests.size() <= 1) {
+      return singleCluster(manifests);
+    }
+    List<Comparator<Object>> comparators = Lists.newArrayList();
+    for (Types.NestedField field : fields) {
+      comparators.add(Comparators.forType(field.type().asPrimitiveType()));
+    }
+    List<FieldRange[]> ranges = Lists.newArrayList();
+    for (ManifestFile manifest : manifests) {
+      List<ManifestFile.PartitionFieldSummary> summaries = manifest.partitions();
+      if (summaries == null || summaries.size() != fields.size()) {
+        return singleCluster(manifests);
+      }
+      FieldRange[] range = new FieldRange[fields.size()];
+      for (int i = 0; i < fields.size(); i++) {
+        range[i] = new FieldRange(fields.get(i).type(), summaries.get(i));
+      }
+      ranges.add(range);
+    }
+
+    // sweep manifests with plain ranges of the first field in the order of lower bounds, compare the others with all
+    List<Integer> sorted = Lists.newArrayList();
+    List<Integer> others = Lists.newArrayList();
+    for (int i = 0; i < manifests.size(); i++) {
+      if (ranges.get(i)[0].isPlain()) {
+        sorted.add(i);
+      } else {
+        others.add(i);
+      }
+    }
+    Comparator<Object> firstComparator = comparators.get(0);
+    sorted.sort((i, j) -> firstComparator.compare(ranges.get(i)[0].lower, ranges.get(j)[0].lower));
+
+    int[] parents = new int[manifests.size()];
+    for (int i = 0; i < parents.length; i++) {
+      parents[i] = i;
+    }
+    for (int i = 0; i < sorted.size(); i++) {
+      FieldRange[] range = ranges.get(sorted.get(i));
+      for (int j = i + 1; j < sorted.size(); j++) {
+        FieldRange[] next = ranges.get(sorted.get(j));
+        if (firstComparator.compare(next[0].lower, range[0].upper) > 0) {
+          break;
+        }
+        if (overlaps(range, next, comparators)) {
+          union(parents, sorted.get(i), sorted.get(j));
+        }
+      }
+    }
+    for (int other : others) {
+      for (int i = 0; i < manifests.size(); i++) {
+        if (i != other && overlaps(ranges.get(other), ranges.get(i), comparators)) {
+          union(parents, other, i);
+        }
+      }
+    }
+
+    Map<Integer, List<ManifestFile>> clusters = new LinkedHashMap<>();
+    sorted.addAll(others);
+    for (int i : sorted) {
+      clusters.computeIfAbsent(find(parents, i), root -> Lists.newArrayList()).add(manifests.get(i));
+    }
+    return Lists.newArrayList(clusters.values());
+  }
+
+  private static List<List<ManifestFile>> singleCluster(List<ManifestFile> manifests) {
+    List<List<ManifestFile>> clusters = Lists.newArrayList();
+    if (!manifests.isEmpty()) {
+      clusters.add(manifests);
+    }
+    return clusters;
+  }
+
+  private static boolean overlaps(FieldRange[] left, FieldRange[] right, List<Comparator<Object>> comparators) {
+    for (int i = 0; i < left.length; i++) {
+      if (!left[i].overlaps(right[i], comparators.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int find(int[] parents, int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  private static void union(int[] parents, int i, int j) {
+    int rootI = find(parents, i);
+    int rootJ = find(parents, j);
+    if (rootI != rootJ) {
+      parents[Math.max(rootI, rootJ)] = Math.min(rootI, rootJ);
+    }
+  }
+
+  /**
+   * Range of a partition field in a manifest, values out of the bounds may be null or NaN. A range without bounds
+   * while it contains values other than null and NaN is unbounded.
+   */
+  private static class FieldRange {
+    private final boolean containsNull;
+    private final boolean containsNaN;
+    private final boolean unbounded;
+    private final Object lower;
+    private final Object upper;
+
+    FieldRange(Type type, ManifestFile.PartitionFieldSummary summary) {
+      this.containsNull = summary.containsNull();
+      boolean floatingPoint = type.typeId() == Type.TypeID.FLOAT || type.typeId() == Type.TypeID.DOUBLE;
+      this.containsNaN = summary.containsNaN() != null ? summary.containsNaN() : floatingPoint;
+      this.lower = summary.lowerBound() == null ? null : Conversions.fromByteBuffer(type, summary.lowerBound());
+      this.upper = summary.upperBound() == null ? null : Conversions.fromByteBuffer(type, summary.upperBound());
+      if (lower == null && upper == null) {
+        this.unbounded = !containsNull && !containsNaN;
+      } else {
+        this.unbounded = lower == null || upper == null;
+      }
+    }
+
+    boolean isPlain() {
+      return !unbounded && !containsNull && !containsNaN && lower != null;
+    }
+
+    boolean overlaps(FieldRange other, Comparator<Object> comparator) {
+      if (unbounded || other.unbounded) {
+        return true;
+      }
+      if ((containsNull && other.containsNull) || (containsNaN && other.containsNaN)) {
+        return true;
+      }
+      return lower != null && other.lower != null &&
+          comparator.compare(lower, other.upper) <= 0 && comparator.compare(other.lower, upper) <= 0;
+    }
+  }
+}
@@ -68,6 +68,9 @@ public class TableMetaStore implements Serializable {
   private static final ConcurrentHashMap<TableMetaStore, RuntimeContext>
       RUNTIME_CONTEXT_CACHE = new ConcurrentHashMap<>();
 
+  // The meta store whose doAs the current thread is running in, nested doAs of it run the action directly
+  private static final ThreadLocal<TableMetaStore> DO_AS_CONTEXT = new ThreadLocal<>();
+
   public static final TableMetaStore EMPTY = TableMetaStore.builder()
       .withConfiguration(new Configuration()).buildForTest();
 
@@ -192,12 +195,20 @@ public class TableMetaStore implements Serializable {
     return getRuntimeContext().getUGI();
   }
 
+  /**
+   * Run the callable within the doAs method of the ugi. Nested calls in the callable run directly in the same
+   * security context, so the operations in a batch only enter the doAs once.
+   */
   public <T> T doAs(Callable<T> callable) {
     // if disableAuth, use process ugi to execute
-    if (disableAuth) {
+    if (disableAuth || inDoAs()) {
       return call(callable);
     }
-    return Objects.requireNonNull(getUGI()).doAs((PrivilegedAction<T>) () -> call(callable));
+    return Objects.requireNonNull(getUGI()).doAs((PrivilegedAction<T>) () -> callInContext(this, callable));
+  }
+
+  private boolean inDoAs() {
+    return this.equals(DO_AS_CONTEXT.get());
   }
 
   /**
@@ -212,7 +223,22 @@ public class TableMetaStore implements Serializable {
     // create proxy user ugi and execute
     UserGroupInformation proxyUgi = UserGroupInformation.createProxyUser(proxyUser, Objects.requireNonNull(getUGI()));
     LOG.debug("Access through the proxy account {}, proxy ugi {}, original ugi {}.", proxyUser, proxyUgi, getUGI());
-    return proxyUgi.doAs((PrivilegedAction<T>) () -> call(callable));
+    // operations of the proxy user should not be treated as running in the doAs of this meta store
+    return proxyUgi.doAs((PrivilegedAction<T>) () -> callInContext(null, callable));
+  }
+
+  private <T> T callInContext(TableMetaStore context, Callable<T> callable) {
+    TableMetaStore previous = DO_AS_CONTEXT.get();
+    DO_AS_CONTEXT.set(context);
+    try {
+      return call(callable);
+    } finally {
+      if (previous == null) {
+        DO_AS_CONTEXT.remove();
+      } else {
+        DO_AS_CONTEXT.set(previous);
+      }
+    }
   }
 
   private <T> T call(Callable<T> callable) {
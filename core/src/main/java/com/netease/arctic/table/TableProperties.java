@@ -109,6 +109,12 @@ public class TableProperties {
   public static final String SELF_OPTIMIZING_FULL_REWRITE_ALL_FILES = "self-optimizing.full.rewrite-all-files";
   public static final boolean SELF_OPTIMIZING_FULL_REWRITE_ALL_FILES_DEFAULT = true;
 
+  /**
+   * class name of the {@link com.netease.arctic.optimizing.OptimizingExecutorFactory} executing optimizing tasks of
+   * iceberg format tables, the default one is used if not set
+   */
+  public static final String SELF_OPTIMIZING_EXECUTOR_FACTORY_IMPL = "self-optimizing.executor-factory-impl";
+
   /**
    * deprecated table optimize related properties
    */
@@ -199,6 +205,21 @@ public class TableProperties {
       org.apache.iceberg.TableProperties.WRITE_TARGET_FILE_SIZE_BYTES;
   public static final long WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT = 134217728; // 128 MB
 
+  public static final String WRITE_FANOUT_MAX_OPEN_FILES = "write.fanout.max-open-files";
+  public static final int WRITE_FANOUT_MAX_OPEN_FILES_DEFAULT = 0; // unlimited
+
+  public static final String WRITE_FANOUT_MEMORY_LIMIT_BYTES = "write.fanout.memory-limit-bytes";
+  public static final long WRITE_FANOUT_MEMORY_LIMIT_BYTES_DEFAULT = 0; // unlimited
+
+  public static final String WRITE_BEHIND_ENABLED = "write.write-behind.enabled";
+  public static final boolean WRITE_BEHIND_ENABLED_DEFAULT = false;
+
+  public static final String WRITE_BEHIND_BUFFER_SIZE_BYTES = "write.write-behind.buffer-size-bytes";
+  public static final int WRITE_BEHIND_BUFFER_SIZE_BYTES_DEFAULT = 4 * 1024 * 1024; // 4 MB
+
+  public static final String WRITE_BEHIND_MAX_PENDING_BUFFERS = "write.write-behind.max-pending-buffers";
+  public static final int WRITE_BEHIND_MAX_PENDING_BUFFERS_DEFAULT = 4;
+
   public static final String UPSERT_ENABLED = "write.upsert.enabled";
   public static final boolean UPSERT_ENABLED_DEFAULT = false;
 
@@ -229,6 +250,26 @@ public class TableProperties {
 
   public static final String SPLIT_OPEN_FILE_COST = org.apache.iceberg.TableProperties.SPLIT_OPEN_FILE_COST;
   public static final long SPLIT_OPEN_FILE_COST_DEFAULT = 4 * 1024 * 1024; // 4MB
+
+  /**
+   * Number of threads to read manifests when planning scans of keyed tables, the shared worker pool of iceberg is
+   * used if it is not positive. Keyed table scans of the process share one pool, which grows to the largest size
+   * configured by tables, up to 64 threads.
+   */
+  public static final String READ_PLANNING_WORKER_POOL_SIZE = "read.planning.worker-pool-size";
+  public static final int READ_PLANNING_WORKER_POOL_SIZE_DEFAULT = 0;
+
+  /**
+   * Cache plans of keyed table scans on local disks, plans are keyed by snapshots of the base store and the change
+   * store, the filter and properties of the table. The cache directory is configured by the client process, see
+   * {@link com.netease.arctic.scan.LocalPlanCache#DIRECTORY_PROPERTY}.
+   */
+  public static final String READ_PLAN_CACHE_ENABLED = "read.plan-cache.enabled";
+  public static final boolean READ_PLAN_CACHE_ENABLED_DEFAULT = false;
+
+  public static final String READ_PLAN_CACHE_CAPACITY_BYTES = "read.plan-cache.capacity-bytes";
+  public static final long READ_PLAN_CACHE_CAPACITY_BYTES_DEFAULT = 256 * 1024 * 1024; // 256 MB
+
   /**
    * log store related properties
    */
@@ -251,6 +292,7 @@ public class TableProperties {
 
   public static final String LOG_STORE_DATA_VERSION = "log-store.data-version";
   public static final String LOG_STORE_DATA_VERSION_DEFAULT = "v1";
+  public static final String LOG_STORE_DATA_VERSION_V2 = "v2";
 
   public static final String LOG_STORE_PROPERTIES_PREFIX = "properties.";
 
@@ -0,0 +1,578 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils;
+
+import com.netease.arctic.iceberg.StructLikeWrapper;
+import com.netease.arctic.iceberg.StructLikeWrapperFactory;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.apache.iceberg.relocated.com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A compact binary serializer for {@link StructLikeWrapper}, with field codecs built from the struct type.
+ * <p>
+ * Values are expected in Iceberg internal representation, and the encoding is order-preserving: comparing the
+ * serialized bytes as unsigned bytes gives the same order as comparing the structs field by field, so spilled keys
+ * are stored sorted by primary key. Equal structs are always serialized to the same bytes, and different structs to
+ * different bytes.
+ * <p>
+ * Strings are encoded as UTF-8, except that unpaired surrogates are encoded as 3-byte sequences of their own code
+ * units instead of being replaced, so strings with malformed surrogates are kept as they are.
+ */
+public class BinaryStructLikeSerializer implements SerializationUtil.SimpleSerializer<StructLikeWrapper> {
+
+  private static final byte NULL = 0x00;
+  private static final byte NOT_NULL = 0x01;
+  private static final byte ESCAPE = (byte) 0xFF;
+  private static final byte TERMINATOR = 0x01;
+  private static final int LONG_DECIMAL_MAX_PRECISION = 18;
+
+  private final StructLikeWrapperFactory structLikeWrapperFactory;
+  private final StructCodec codec;
+  // serializer is shared by the threads accessing the same map, so the output buffer is per thread
+  private final ThreadLocal<Output> outputs = ThreadLocal.withInitial(Output::new);
+
+  public BinaryStructLikeSerializer(Types.StructType type, StructLikeWrapperFactory structLikeWrapperFactory) {
+    this.structLikeWrapperFactory = structLikeWrapperFactory;
+    this.codec = new StructCodec(type);
+  }
+
+  /**
+   * Check whether all fields of the struct type could be serialized by this serializer, list and map are not
+   * supported.
+   */
+  public static boolean isSupported(Types.StructType type) {
+    for (Types.NestedField field : type.fields()) {
+      Type fieldType = field.type();
+      if (fieldType.isStructType()) {
+        if (!isSupported(fieldType.asStructType())) {
+          return false;
+        }
+      } else if (!fieldType.isPrimitiveType()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public byte[] serialize(StructLikeWrapper structLikeWrapper) {
+    checkNotNull(structLikeWrapper);
+    Output output = outputs.get();
+    output.reset();
+    codec.write(output, structLikeWrapper.get());
+    return output.toByteArray();
+  }
+
+  @Override
+  public StructLikeWrapper deserialize(byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+    Input input = new Input(bytes);
+    return structLikeWrapperFactory.create().set((StructLike) codec.read(input));
+  }
+
+  private static ValueCodec codecFor(Type type) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return BOOLEAN_CODEC;
+      case INTEGER:
+      case DATE:
+        return INT_CODEC;
+      case LONG:
+      case TIME:
+      case TIMESTAMP:
+        return LONG_CODEC;
+      case FLOAT:
+        return FLOAT_CODEC;
+      case DOUBLE:
+        return DOUBLE_CODEC;
+      case STRING:
+        return STRING_CODEC;
+      case UUID:
+        return UUID_CODEC;
+      case FIXED:
+        return new FixedCodec(((Types.FixedType) type).length());
+      case BINARY:
+        return BINARY_CODEC;
+      case DECIMAL:
+        return new DecimalCodec((Types.DecimalType) type);
+      case STRUCT:
+        return new StructCodec(type.asStructType());
+      default:
+        throw new UnsupportedOperationException("Unsupported type for binary serialization: " + type);
+    }
+  }
+
+  private interface ValueCodec {
+
+    void write(Output output, Object value);
+
+    Object read(Input input);
+  }
+
+  private static class StructCodec implements ValueCodec {
+
+    private final ValueCodec[] fieldCodecs;
+
+    StructCodec(Types.StructType type) {
+      List<Types.NestedField> fields = type.fields();
+      this.fieldCodecs = new ValueCodec[fields.size()];
+      for (int i = 0; i < fieldCodecs.length; i++) {
+        fieldCodecs[i] = codecFor(fields.get(i).type());
+      }
+    }
+
+    @Override
+    public void write(Output output, Object value) {
+      StructLike struct = (StructLike) value;
+      for (int i = 0; i < fieldCodecs.length; i++) {
+        Object fieldValue = struct.get(i, Object.class);
+        if (fieldValue == null) {
+          output.writeByte(NULL);
+        } else {
+          output.writeByte(NOT_NULL);
+          fieldCodecs[i].write(output, fieldValue);
+        }
+      }
+    }
+
+    @Override
+    public Object read(Input input) {
+      Object[] values = new Object[fieldCodecs.length];
+      for (int i = 0; i < fieldCodecs.length; i++) {
+        if (input.readByte() != NULL) {
+          values[i] = fieldCodecs[i].read(input);
+        }
+      }
+      return new ArrayStruct(values);
+    }
+  }
+
+  private static final ValueCodec BOOLEAN_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      output.writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public Object read(Input input) {
+      return input.readByte() != 0;
+    }
+  };
+
+  private static final ValueCodec INT_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      output.writeInt((Integer) value ^ Integer.MIN_VALUE);
+    }
+
+    @Override
+    public Object read(Input input) {
+      return input.readInt() ^ Integer.MIN_VALUE;
+    }
+  };
+
+  private static final ValueCodec LONG_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      output.writeLong((Long) value ^ Long.MIN_VALUE);
+    }
+
+    @Override
+    public Object read(Input input) {
+      return input.readLong() ^ Long.MIN_VALUE;
+    }
+  };
+
+  private static final ValueCodec FLOAT_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      int bits = Float.floatToIntBits((Float) value);
+      // flip all bits of negative values and only the sign bit of positive values
+      output.writeInt(bits ^ ((bits >> 31) | Integer.MIN_VALUE));
+    }
+
+    @Override
+    public Object read(Input input) {
+      int bits = input.readInt();
+      return Float.intBitsToFloat(bits ^ ((~bits >> 31) | Integer.MIN_VALUE));
+    }
+  };
+
+  private static final ValueCodec DOUBLE_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      long bits = Double.doubleToLongBits((Double) value);
+      output.writeLong(bits ^ ((bits >> 63) | Long.MIN_VALUE));
+    }
+
+    @Override
+    public Object read(Input input) {
+      long bits = input.readLong();
+      return Double.longBitsToDouble(bits ^ ((~bits >> 63) | Long.MIN_VALUE));
+    }
+  };
+
+  private static final ValueCodec STRING_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      output.writeUtf8(value.toString());
+      output.writeTerminator();
+    }
+
+    @Override
+    public Object read(Input input) {
+      return input.readUtf8();
+    }
+  };
+
+  private static final ValueCodec BINARY_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      if (value instanceof byte[]) {
+        byte[] bytes = (byte[]) value;
+        output.writeEscaped(bytes, 0, bytes.length);
+      } else {
+        ByteBuffer buffer = (ByteBuffer) value;
+        if (buffer.hasArray()) {
+          output.writeEscaped(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+          for (int i = buffer.position(); i < buffer.limit(); i++) {
+            output.writeEscaped(buffer.get(i));
+          }
+        }
+      }
+      output.writeTerminator();
+    }
+
+    @Override
+    public Object read(Input input) {
+      return ByteBuffer.wrap(input.readEscaped());
+    }
+  };
+
+  private static final ValueCodec UUID_CODEC = new ValueCodec() {
+    @Override
+    public void write(Output output, Object value) {
+      UUID uuid = (UUID) value;
+      output.writeLong(uuid.getMostSignificantBits() ^ Long.MIN_VALUE);
+      output.writeLong(uuid.getLeastSignificantBits() ^ Long.MIN_VALUE);
+    }
+
+    @Override
+    public Object read(Input input) {
+      long mostSigBits = input.readLong() ^ Long.MIN_VALUE;
+      long leastSigBits = input.readLong() ^ Long.MIN_VALUE;
+      return new UUID(mostSigBits, leastSigBits);
+    }
+  };
+
+  private static class FixedCodec implements ValueCodec {
+
+    private final int length;
+
+    FixedCodec(int length) {
+      this.length = length;
+    }
+
+    @Override
+    public void write(Output output, Object value) {
+      if (value instanceof byte[]) {
+        output.writeBytes((byte[]) value, 0, length);
+      } else {
+        ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+        output.ensureCapacity(length);
+        buffer.get(output.buffer, output.size, length);
+        output.size += length;
+      }
+    }
+
+    @Override
+    public Object read(Input input) {
+      return ByteBuffer.wrap(input.readBytes(length));
+    }
+  }
+
+  /**
+   * Decimals of a type share the same scale, so only the unscaled value is written as a fixed width two's
+   * complement number with the sign bit flipped.
+   */
+  private static class DecimalCodec implements ValueCodec {
+
+    private final int scale;
+    private final int precision;
+    private final int length;
+
+    DecimalCodec(Types.DecimalType type) {
+      this.scale = type.scale();
+      this.precision = type.precision();
+      this.length = TypeUtil.decimalRequiredBytes(precision);
+    }
+
+    @Override
+    public void write(Output output, Object value) {
+      BigDecimal decimal = ((BigDecimal) value).setScale(scale);
+      if (precision <= LONG_DECIMAL_MAX_PRECISION) {
+        output.writeLong(decimal.unscaledValue().longValue() ^ Long.MIN_VALUE);
+        return;
+      }
+      byte[] unscaled = decimal.unscaledValue().toByteArray();
+      byte padding = unscaled[0] < 0 ? (byte) 0xFF : 0x00;
+      output.ensureCapacity(length);
+      int offset = output.size;
+      for (int i = 0; i < length - unscaled.length; i++) {
+        output.buffer[offset + i] = padding;
+      }
+      System.arraycopy(unscaled, 0, output.buffer, offset + length - unscaled.length, unscaled.length);
+      output.buffer[offset] ^= (byte) 0x80;
+      output.size += length;
+    }
+
+    @Override
+    public Object read(Input input) {
+      if (precision <= LONG_DECIMAL_MAX_PRECISION) {
+        return BigDecimal.valueOf(input.readLong() ^ Long.MIN_VALUE, scale);
+      }
+      byte[] unscaled = input.readBytes(length);
+      unscaled[0] ^= (byte) 0x80;
+      return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+  }
+
+  private static class Output {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    void reset() {
+      size = 0;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+
+    void ensureCapacity(int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + length));
+      }
+    }
+
+    void writeByte(byte value) {
+      ensureCapacity(1);
+      buffer[size++] = value;
+    }
+
+    void writeInt(int value) {
+      ensureCapacity(4);
+      buffer[size++] = (byte) (value >>> 24);
+      buffer[size++] = (byte) (value >>> 16);
+      buffer[size++] = (byte) (value >>> 8);
+      buffer[size++] = (byte) value;
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    void writeBytes(byte[] bytes, int offset, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, offset, buffer, size, length);
+      size += length;
+    }
+
+    /**
+     * Write a byte, escaping 0x00 as 0x00 0xFF so that 0x00 0x01 could terminate variable length values.
+     */
+    void writeEscaped(byte value) {
+      if (value == 0) {
+        ensureCapacity(2);
+        buffer[size++] = 0;
+        buffer[size++] = ESCAPE;
+      } else {
+        writeByte(value);
+      }
+    }
+
+    void writeEscaped(byte[] bytes, int offset, int length) {
+      ensureCapacity(length);
+      for (int i = offset; i < offset + length; i++) {
+        writeEscaped(bytes[i]);
+      }
+    }
+
+    void writeTerminator() {
+      ensureCapacity(2);
+      buffer[size++] = 0;
+      buffer[size++] = TERMINATOR;
+    }
+
+    /**
+     * Encode the string as escaped UTF-8 without allocating an intermediate byte array.
+     */
+    void writeUtf8(String value) {
+      int length = value.length();
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) {
+        char c = value.charAt(i);
+        if (c < 0x80) {
+          writeEscaped((byte) c);
+        } else if (c < 0x800) {
+          writeByte((byte) (0xC0 | (c >> 6)));
+          writeByte((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, value.charAt(++i));
+          writeByte((byte) (0xF0 | (codePoint >> 18)));
+          writeByte((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+          writeByte((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+          writeByte((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+          // unpaired surrogates are encoded as other chars, which is not valid UTF-8 but lossless
+          writeByte((byte) (0xE0 | (c >> 12)));
+          writeByte((byte) (0x80 | ((c >> 6) & 0x3F)));
+          writeByte((byte) (0x80 | (c & 0x3F)));
+        }
+      }
+    }
+  }
+
+  private static class Input {
+
+    private final byte[] bytes;
+    private int position = 0;
+
+    Input(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    byte readByte() {
+      return bytes[position++];
+    }
+
+    int readInt() {
+      int value = (bytes[position] & 0xFF) << 24 |
+          (bytes[position + 1] & 0xFF) << 16 |
+          (bytes[position + 2] & 0xFF) << 8 |
+          (bytes[position + 3] & 0xFF);
+      position += 4;
+      return value;
+    }
+
+    long readLong() {
+      long high = readInt() & 0xFFFFFFFFL;
+      long low = readInt() & 0xFFFFFFFFL;
+      return high << 32 | low;
+    }
+
+    byte[] readBytes(int length) {
+      byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+      position += length;
+      return value;
+    }
+
+    /**
+     * Decode a string written by {@link Output#writeUtf8(String)}, which may contain encoded unpaired surrogates.
+     */
+    String readUtf8() {
+      byte[] utf8 = readEscaped();
+      char[] chars = new char[utf8.length];
+      int length = 0;
+      int i = 0;
+      while (i < utf8.length) {
+        int b = utf8[i++] & 0xFF;
+        if (b < 0x80) {
+          chars[length++] = (char) b;
+        } else if (b < 0xE0) {
+          chars[length++] = (char) ((b & 0x1F) << 6 | (utf8[i++] & 0x3F));
+        } else if (b < 0xF0) {
+          chars[length++] = (char) ((b & 0x0F) << 12 | (utf8[i++] & 0x3F) << 6 | (utf8[i++] & 0x3F));
+        } else {
+          int codePoint = (b & 0x07) << 18 | (utf8[i++] & 0x3F) << 12 | (utf8[i++] & 0x3F) << 6 | (utf8[i++] & 0x3F);
+          length += Character.toChars(codePoint, chars, length);
+        }
+      }
+      return new String(chars, 0, length);
+    }
+
+    /**
+     * Read a variable length value and move to the end of its terminator, the input bytes are not modified.
+     */
+    byte[] readEscaped() {
+      int end = position;
+      int length = 0;
+      while (true) {
+        byte b = bytes[end++];
+        if (b == 0 && bytes[end++] == TERMINATOR) {
+          break;
+        }
+        length++;
+      }
+      byte[] value = new byte[length];
+      for (int i = 0; i < length; i++) {
+        byte b = bytes[position++];
+        if (b == 0) {
+          // skip the escape
+          position++;
+        }
+        value[i] = b;
+      }
+      position = end;
+      return value;
+    }
+  }
+
+  private static class ArrayStruct implements StructLike {
+
+    private final Object[] values;
+
+    private ArrayStruct(Object[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public <T> T get(int pos, Class<T> javaClass) {
+      return javaClass.cast(values[pos]);
+    }
+
+    @Override
+    public <T> void set(int pos, T value) {
+      values[pos] = value;
+    }
+  }
+}
@@ -22,7 +22,16 @@ import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
 import org.apache.iceberg.FileContent;
+import org.apache.iceberg.MetadataColumns;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
 
 public class ContentFiles {
 
@@ -48,4 +57,52 @@ public class ContentFiles {
     return (DeleteFile) contentFile;
   }
 
+  /**
+   * Check whether a position delete file may contain deletes of the data file, according to the bounds of the
+   * file_path column. Truncated bounds still cover the actual values, so they are safe to compare with.
+   */
+  public static boolean mayContainPosDeletes(DeleteFile posDeleteFile, CharSequence dataFilePath) {
+    int pathFieldId = MetadataColumns.DELETE_FILE_PATH.fieldId();
+    Map<Integer, ByteBuffer> lowerBounds = posDeleteFile.lowerBounds();
+    if (lowerBounds != null && lowerBounds.get(pathFieldId) != null) {
+      CharSequence lower = Conversions.fromByteBuffer(Types.StringType.get(), lowerBounds.get(pathFieldId));
+      if (Comparators.charSequences().compare(dataFilePath, lower) < 0) {
+        return false;
+      }
+    }
+    Map<Integer, ByteBuffer> upperBounds = posDeleteFile.upperBounds();
+    if (upperBounds != null && upperBounds.get(pathFieldId) != null) {
+      CharSequence upper = Conversions.fromByteBuffer(Types.StringType.get(), upperBounds.get(pathFieldId));
+      return Comparators.charSequences().compare(dataFilePath, upper) <= 0;
+    }
+    return true;
+  }
+  /**
+   * Check whether the position delete file may only contain positions of one of the data files, by the bounds of
+   * file_path. Such files are cheap to read for each data file, other files are better read once for all data files.
+   *
+   * @param dataFilePaths paths of the data files deletes are applied to, null if unknown
+   */
+  public static boolean mayContainPosDeletesOfSingleFile(
+      DeleteFile posDeleteFile, @Nullable Collection<String> dataFilePaths) {
+    int pathFieldId = MetadataColumns.DELETE_FILE_PATH.fieldId();
+    Map<Integer, ByteBuffer> lowerBounds = posDeleteFile.lowerBounds();
+    Map<Integer, ByteBuffer> upperBounds = posDeleteFile.upperBounds();
+    if (lowerBounds != null && lowerBounds.get(pathFieldId) != null &&
+        upperBounds != null && upperBounds.get(pathFieldId) != null &&
+        lowerBounds.get(pathFieldId).equals(upperBounds.get(pathFieldId))) {
+      return true;
+    }
+    if (dataFilePaths == null) {
+      return false;
+    }
+    int count = 0;
+    for (String dataFilePath : dataFilePaths) {
+      if (mayContainPosDeletes(posDeleteFile, dataFilePath) && ++count > 1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
 }
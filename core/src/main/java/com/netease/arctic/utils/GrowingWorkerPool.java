@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.utils;
+
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A worker pool shared in the process, sized by the sizes its users ask for. The pool grows to the largest size
+ * asked for so far, up to a max size, instead of being sized by its first user or creating a pool for each size.
+ * Idle threads exit after a while, so a pool grown by a past user does not keep its threads.
+ */
+public class GrowingWorkerPool {
+
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  private final int maxSize;
+  private final ThreadPoolExecutor executor;
+  private final ExecutorService unconfigurableExecutor;
+
+  public GrowingWorkerPool(String namePrefix, int maxSize) {
+    Preconditions.checkArgument(maxSize > 0, "maxSize should be positive");
+    this.maxSize = maxSize;
+    this.executor = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat(namePrefix + "-%d")
+            .build());
+    this.executor.allowCoreThreadTimeOut(true);
+    this.unconfigurableExecutor = Executors.unconfigurableExecutorService(executor);
+  }
+
+  /**
+   * Return the pool, grown to the size first if it is smaller.
+   *
+   * @param size number of threads the caller asks for, bounded by the max size of the pool
+   * @return the shared pool, it should not be shut down by the caller
+   */
+  public synchronized ExecutorService withSize(int size) {
+    int targetSize = Math.min(Math.max(size, 1), maxSize);
+    if (targetSize > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(targetSize);
+      executor.setCorePoolSize(targetSize);
+    }
+    return unconfigurableExecutor;
+  }
+
+  /**
+   * Current max number of threads of the pool.
+   */
+  public synchronized int size() {
+    return executor.getMaximumPoolSize();
+  }
+}
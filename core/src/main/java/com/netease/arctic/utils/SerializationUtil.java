@@ -26,6 +26,8 @@ import com.netease.arctic.iceberg.StructLikeWrapper;
 import com.netease.arctic.iceberg.StructLikeWrapperFactory;
 import org.apache.avro.util.Utf8;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
 import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.ByteBuffers;
 import org.objenesis.strategy.StdInstantiatorStrategy;
@@ -97,6 +99,26 @@ public class SerializationUtil {
     return new StructLikeWrapperSerializer(structLikeWrapperFactory);
   }
 
+  /**
+   * Create a serializer for records of the same struct type, the type is taken from the first serialized record, so
+   * a serializer should not be shared by records of different types.
+   */
+  public static SimpleSerializer<Record> createRecordSerializer() {
+    return new RecordSerializer();
+  }
+
+  /**
+   * Create a serializer for struct of the given type, use the binary serializer if the type is supported and fall
+   * back to kryo otherwise.
+   */
+  public static SimpleSerializer<StructLikeWrapper> createStructLikeWrapperSerializer(
+      Types.StructType type, StructLikeWrapperFactory structLikeWrapperFactory) {
+    if (BinaryStructLikeSerializer.isSupported(type)) {
+      return new BinaryStructLikeSerializer(type, structLikeWrapperFactory);
+    }
+    return new StructLikeWrapperSerializer(structLikeWrapperFactory);
+  }
+
   private static class KryoSerializerInstance implements Serializable {
     public static final int KRYO_SERIALIZER_INITIAL_BUFFER_SIZE = 1048576;
     private final Kryo kryo;
@@ -204,6 +226,44 @@ public class SerializationUtil {
     }
   }
 
+  /**
+   * Serialize values of a record only, a record is deserialized with the struct type of the first serialized record.
+   */
+  public static class RecordSerializer implements SimpleSerializer<Record> {
+    private Types.StructType struct;
+
+    @Override
+    public byte[] serialize(Record record) {
+      checkNotNull(record);
+      if (struct == null) {
+        struct = record.struct();
+      }
+      Object[] values = new Object[record.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = record.get(i);
+      }
+      try {
+        return SerializationUtil.kryoSerialize(values);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public Record deserialize(byte[] bytes) {
+      if (bytes == null) {
+        return null;
+      }
+      checkNotNull(struct, "Cannot deserialize records before serializing any");
+      Object[] values = SerializationUtil.kryoDeserialize(bytes);
+      Record record = GenericRecord.create(struct);
+      for (int i = 0; i < values.length; i++) {
+        record.set(i, values[i]);
+      }
+      return record;
+    }
+  }
+
   public static class JavaSerializer<T extends Serializable> implements SimpleSerializer<T> {
 
     public static final JavaSerializer INSTANT = new JavaSerializer<>();
@@ -18,6 +18,7 @@
 
 package com.netease.arctic.utils;
 
+import com.netease.arctic.utils.map.SpillMetrics;
 import com.netease.arctic.utils.map.StructLikeBaseMap;
 import com.netease.arctic.utils.map.StructLikeMemoryMap;
 import com.netease.arctic.utils.map.StructLikeSpillableMap;
@@ -37,7 +38,14 @@ public class StructLikeSet implements Closeable {
   public static StructLikeSet createSpillableSet(Types.StructType type,
                                                  Long maxInMemorySizeInBytes,
                                                  @Nullable String backendBaseDir) {
-    return new StructLikeSet(type, maxInMemorySizeInBytes, backendBaseDir);
+    return new StructLikeSet(type, maxInMemorySizeInBytes, backendBaseDir, null);
+  }
+
+  public static StructLikeSet createSpillableSet(Types.StructType type,
+                                                 Long maxInMemorySizeInBytes,
+                                                 @Nullable String backendBaseDir,
+                                                 @Nullable SpillMetrics metrics) {
+    return new StructLikeSet(type, maxInMemorySizeInBytes, backendBaseDir, metrics);
   }
 
   private static final Integer _V = 0;
@@ -47,8 +55,9 @@ public class StructLikeSet implements Closeable {
     this.structLikeMap =  StructLikeMemoryMap.create(type);
   }
 
-  private StructLikeSet(Types.StructType type, Long maxInMemorySizeInBytes, @Nullable String backendBaseDir) {
-    this.structLikeMap =  StructLikeSpillableMap.create(type, maxInMemorySizeInBytes, backendBaseDir);
+  private StructLikeSet(Types.StructType type, Long maxInMemorySizeInBytes, @Nullable String backendBaseDir,
+                        @Nullable SpillMetrics metrics) {
+    this.structLikeMap =  StructLikeSpillableMap.create(type, maxInMemorySizeInBytes, backendBaseDir, metrics);
   }
 
   public boolean contains(StructLike key) {
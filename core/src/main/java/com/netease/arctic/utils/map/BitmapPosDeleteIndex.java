@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import org.apache.iceberg.deletes.PositionDelete;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link PosDeleteIndex} keeping one roaring bitmap per data file.
+ * <p>
+ * Positions loaded by the position loader are loaded lazily, only for the data files being read. Once the bitmaps
+ * exceed maxInMemorySizeInBytes, the least recently used ones are dropped and will be reloaded if read again.
+ * Positions loaded by the shared position loader are loaded once for all data files, and kept until the index is
+ * closed.
+ */
+public class BitmapPosDeleteIndex implements PosDeleteIndex {
+
+  private final Function<String, CloseableIterable<Long>> positionLoader;
+  private final Supplier<CloseableIterable<PositionDelete<?>>> sharedPositionLoader;
+  private final long maxInMemorySizeInBytes;
+  // access ordered, the eldest entry is the least recently used one
+  private final LinkedHashMap<String, Roaring64Bitmap> bitmaps = new LinkedHashMap<>(16, 0.75f, true);
+  private Map<String, Roaring64Bitmap> sharedBitmaps;
+  private long memorySizeInBytes = 0L;
+
+  private String currentPath;
+  private Roaring64Bitmap currentBitmap;
+  private Roaring64Bitmap currentSharedBitmap;
+
+  /**
+   * @param positionLoader load the deleted positions of a data file, keyed by the data file path
+   */
+  public BitmapPosDeleteIndex(Function<String, CloseableIterable<Long>> positionLoader) {
+    this(positionLoader, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param positionLoader         load the deleted positions of a data file, keyed by the data file path
+   * @param maxInMemorySizeInBytes max memory size of bitmaps held by this index
+   */
+  public BitmapPosDeleteIndex(
+      Function<String, CloseableIterable<Long>> positionLoader,
+      long maxInMemorySizeInBytes) {
+    this(positionLoader, null, maxInMemorySizeInBytes);
+  }
+
+  /**
+   * @param positionLoader         load the deleted positions of a data file, keyed by the data file path
+   * @param sharedPositionLoader   load the deleted positions of all data files at once, called when the first
+   *                               position is checked
+   * @param maxInMemorySizeInBytes max memory size of bitmaps held by this index, shared positions are never dropped
+   */
+  public BitmapPosDeleteIndex(
+      Function<String, CloseableIterable<Long>> positionLoader,
+      @Nullable Supplier<CloseableIterable<PositionDelete<?>>> sharedPositionLoader,
+      long maxInMemorySizeInBytes) {
+    this.positionLoader = positionLoader;
+    this.sharedPositionLoader = sharedPositionLoader;
+    this.maxInMemorySizeInBytes = maxInMemorySizeInBytes;
+  }
+
+  @Override
+  public boolean isDeleted(String dataFilePath, long position) {
+    if (!dataFilePath.equals(currentPath)) {
+      currentSharedBitmap = sharedBitmaps().get(dataFilePath);
+      currentBitmap = bitmap(dataFilePath);
+      currentPath = dataFilePath;
+    }
+    return currentBitmap.contains(position) ||
+        (currentSharedBitmap != null && currentSharedBitmap.contains(position));
+  }
+
+  @Override
+  public long memorySizeInBytes() {
+    return memorySizeInBytes;
+  }
+
+  /**
+   * Number of data files whose positions are currently held in memory.
+   */
+  public int loadedFileCount() {
+    return bitmaps.size();
+  }
+
+  @Override
+  public void close() {
+    bitmaps.clear();
+    sharedBitmaps = null;
+    memorySizeInBytes = 0L;
+    currentPath = null;
+    currentBitmap = null;
+    currentSharedBitmap = null;
+  }
+
+  private Map<String, Roaring64Bitmap> sharedBitmaps() {
+    if (sharedBitmaps == null) {
+      sharedBitmaps = sharedPositionLoader == null ? Maps.newHashMap() : loadShared();
+      for (Roaring64Bitmap bitmap : sharedBitmaps.values()) {
+        memorySizeInBytes += bitmap.getLongSizeInBytes();
+      }
+    }
+    return sharedBitmaps;
+  }
+
+  private Map<String, Roaring64Bitmap> loadShared() {
+    Map<String, Roaring64Bitmap> loaded = Maps.newHashMap();
+    try (CloseableIterable<PositionDelete<?>> deletes = sharedPositionLoader.get()) {
+      String lastPath = null;
+      Roaring64Bitmap lastBitmap = null;
+      for (PositionDelete<?> delete : deletes) {
+        // positions of a data file are usually adjacent in delete files
+        if (lastPath == null || !lastPath.contentEquals(delete.path())) {
+          lastPath = delete.path().toString();
+          lastBitmap = loaded.computeIfAbsent(lastPath, path -> new Roaring64Bitmap());
+        }
+        lastBitmap.addLong(delete.pos());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to load shared deleted positions", e);
+    }
+    loaded.values().forEach(Roaring64Bitmap::runOptimize);
+    return loaded;
+  }
+
+  private Roaring64Bitmap bitmap(String dataFilePath) {
+    Roaring64Bitmap bitmap = bitmaps.get(dataFilePath);
+    if (bitmap == null) {
+      bitmap = load(dataFilePath);
+      bitmaps.put(dataFilePath, bitmap);
+      memorySizeInBytes += bitmap.getLongSizeInBytes();
+      evict(dataFilePath);
+    }
+    return bitmap;
+  }
+
+  private Roaring64Bitmap load(String dataFilePath) {
+    Roaring64Bitmap bitmap = new Roaring64Bitmap();
+    try (CloseableIterable<Long> positions = positionLoader.apply(dataFilePath)) {
+      for (Long position : positions) {
+        bitmap.addLong(position);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to load deleted positions of " + dataFilePath, e);
+    }
+    bitmap.runOptimize();
+    return bitmap;
+  }
+
+  private void evict(String keepPath) {
+    Iterator<Map.Entry<String, Roaring64Bitmap>> iterator = bitmaps.entrySet().iterator();
+    while (memorySizeInBytes > maxInMemorySizeInBytes && iterator.hasNext()) {
+      Map.Entry<String, Roaring64Bitmap> eldest = iterator.next();
+      if (eldest.getKey().equals(keepPath)) {
+        continue;
+      }
+      memorySizeInBytes -= eldest.getValue().getLongSizeInBytes();
+      iterator.remove();
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+
+/**
+ * A Bloom filter whose bits of a key are all set in one 512-bit block, so a probe touches a single cache line.
+ * <p>
+ * Keys are given as 64-bit hashes: the high 32 bits choose the block, and the bits inside the block are derived from
+ * a re-mixed hash by double hashing.
+ */
+public class BlockedBloomFilter {
+
+  private static final int LONGS_PER_BLOCK = 8;
+  private static final int BITS_PER_BLOCK = LONGS_PER_BLOCK * Long.SIZE;
+  private static final int BLOCK_BIT_MASK = BITS_PER_BLOCK - 1;
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+
+  private final long[] bits;
+  private final int numBlocks;
+  private final int numHashes;
+  private final long expectedInsertions;
+  private long insertions = 0L;
+
+  /**
+   * @param expectedInsertions number of keys this filter is sized for
+   * @param fpp                expected false positive probability when expectedInsertions keys are inserted
+   */
+  public BlockedBloomFilter(long expectedInsertions, double fpp) {
+    Preconditions.checkArgument(expectedInsertions > 0, "expectedInsertions should be positive");
+    Preconditions.checkArgument(fpp > 0 && fpp < 1, "fpp should be in (0, 1)");
+    double ln2 = Math.log(2);
+    long numBits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (ln2 * ln2));
+    long blocks = Math.max(1L, (numBits + BITS_PER_BLOCK - 1) / BITS_PER_BLOCK);
+    Preconditions.checkArgument(blocks <= Integer.MAX_VALUE / LONGS_PER_BLOCK,
+        "Too many expected insertions: %s", expectedInsertions);
+    this.numBlocks = (int) blocks;
+    this.numHashes = Math.max(1, (int) Math.round(-Math.log(fpp) / ln2));
+    this.bits = new long[numBlocks * LONGS_PER_BLOCK];
+    this.expectedInsertions = expectedInsertions;
+  }
+
+  public void put(long hash) {
+    int blockOffset = blockOffset(hash);
+    long mixed = mix64(hash ^ SEED);
+    int h1 = (int) mixed;
+    int h2 = (int) (mixed >>> 32) | 1;
+    for (int i = 0; i < numHashes; i++) {
+      int bit = (h1 + i * h2) & BLOCK_BIT_MASK;
+      bits[blockOffset + (bit >>> 6)] |= 1L << bit;
+    }
+    insertions++;
+  }
+
+  public boolean mightContain(long hash) {
+    int blockOffset = blockOffset(hash);
+    long mixed = mix64(hash ^ SEED);
+    int h1 = (int) mixed;
+    int h2 = (int) (mixed >>> 32) | 1;
+    for (int i = 0; i < numHashes; i++) {
+      int bit = (h1 + i * h2) & BLOCK_BIT_MASK;
+      if ((bits[blockOffset + (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Whether more keys than the filter is sized for have been inserted.
+   */
+  public boolean isFull() {
+    return insertions >= expectedInsertions;
+  }
+
+  public long insertions() {
+    return insertions;
+  }
+
+  public long expectedInsertions() {
+    return expectedInsertions;
+  }
+
+  public long memorySizeInBytes() {
+    return (long) bits.length * Long.BYTES;
+  }
+
+  /**
+   * Theoretical false positive probability with the keys inserted so far.
+   */
+  public double expectedFpp() {
+    long numBits = (long) numBlocks * BITS_PER_BLOCK;
+    return Math.pow(1 - Math.exp(-(double) numHashes * insertions / numBits), numHashes);
+  }
+
+  /**
+   * Spread a hash code to 64 bits, the finalization mix of murmur3.
+   */
+  public static long mix64(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private int blockOffset(long hash) {
+    int block = (int) (((hash >>> 32) * numBlocks) >>> 32);
+    return block * LONGS_PER_BLOCK;
+  }
+}
@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.base.Objects;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache of parsed delete files shared by the tasks running in the process.
+ * <p>
+ * Tasks of the same partition usually reference the same delete files, with the cache each file is read and parsed
+ * once instead of once per task. Entries are keyed by the delete file path, its sequence number and the projection
+ * it was read with.
+ * <p>
+ * Entries are reference counted, an entry acquired by a task is never evicted. Once the entries exceed
+ * maxSizeInBytes, the least recently used entries not acquired by any task are evicted. Concurrent tasks acquiring
+ * the same entry wait for the one loading it instead of reading the file again.
+ */
+public class DeleteFileCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DeleteFileCache.class);
+
+  private static final long PATH_ENTRY_OVERHEAD = 96L;
+
+  private static volatile DeleteFileCache sharedInstance;
+
+  private final long maxSizeInBytes;
+  // access ordered, the eldest entry is the least recently used one
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeInBytes = 0L;
+  private long hitCount = 0L;
+  private long loadCount = 0L;
+
+  public DeleteFileCache(long maxSizeInBytes) {
+    Preconditions.checkArgument(maxSizeInBytes > 0, "maxSizeInBytes should be positive");
+    this.maxSizeInBytes = maxSizeInBytes;
+  }
+
+  /**
+   * Create the cache shared by all threads of the process, or return it if it is already created.
+   */
+  public static synchronized DeleteFileCache initSharedInstance(long maxSizeInBytes) {
+    if (sharedInstance == null) {
+      sharedInstance = new DeleteFileCache(maxSizeInBytes);
+      LOG.info("Created shared delete file cache with max size {} bytes", maxSizeInBytes);
+    }
+    return sharedInstance;
+  }
+
+  /**
+   * The cache shared by all threads of the process, null if it is not created.
+   */
+  @Nullable
+  public static DeleteFileCache sharedInstance() {
+    return sharedInstance;
+  }
+
+  /**
+   * Acquire the parsed content of a delete file, loading it if it is not cached. The entry is not evicted until the
+   * returned handle is closed.
+   *
+   * @param key    key of the delete file
+   * @param loader load the parsed content, the content is shared by tasks and must not be modified
+   * @param sizeOf estimate the memory size of the content
+   */
+  public <V> Handle<V> acquire(Key key, Supplier<V> loader, ToLongFunction<V> sizeOf) {
+    Entry entry;
+    synchronized (this) {
+      entry = entries.computeIfAbsent(key, Entry::new);
+      entry.refCount++;
+    }
+    boolean loaded;
+    try {
+      loaded = entry.load(loader, sizeOf);
+    } catch (RuntimeException e) {
+      release(entry);
+      throw e;
+    }
+    synchronized (this) {
+      if (loaded) {
+        loadCount++;
+        sizeInBytes += entry.sizeInBytes;
+        evict();
+      } else {
+        hitCount++;
+      }
+    }
+    return new Handle<>(entry);
+  }
+
+  /**
+   * Read the records of a delete file through the cache. The file is read by the reader the first time it is
+   * iterated, the records must be copies since they are held by the cache.
+   *
+   * @param key    key of the delete file
+   * @param reader read the records of the delete file
+   * @param sizeOf estimate the memory size of a record
+   */
+  public <E> CloseableIterable<E> read(Key key, Supplier<CloseableIterable<E>> reader, ToLongFunction<E> sizeOf) {
+    return new CachedIterable<>(key, reader, sizeOf);
+  }
+
+  /**
+   * Read the deleted positions of a data file through the cache. The first time the position delete file is read,
+   * positions of all data files in it are loaded into bitmaps.
+   *
+   * @param key          key of the position delete file
+   * @param dataFilePath path of the data file
+   * @param reader       read all records of the position delete file
+   * @param pathOf       get the data file path of a record
+   * @param positionOf   get the deleted position of a record
+   */
+  public <R> CloseableIterable<Long> readPositions(
+      Key key, String dataFilePath, Supplier<CloseableIterable<R>> reader,
+      Function<R, CharSequence> pathOf, ToLongFunction<R> positionOf) {
+    Handle<Map<String, Roaring64Bitmap>> handle = acquire(
+        key, () -> loadPositions(key, reader, pathOf, positionOf), DeleteFileCache::sizeOfPositions);
+    Roaring64Bitmap bitmap = handle.get().get(dataFilePath);
+    if (bitmap == null) {
+      handle.close();
+      return CloseableIterable.empty();
+    }
+    return CloseableIterable.combine(bitmap::iterator, handle);
+  }
+
+  private static <R> Map<String, Roaring64Bitmap> loadPositions(
+      Key key, Supplier<CloseableIterable<R>> reader,
+      Function<R, CharSequence> pathOf, ToLongFunction<R> positionOf) {
+    Map<String, Roaring64Bitmap> bitmaps = Maps.newHashMap();
+    try (CloseableIterable<R> records = reader.get()) {
+      for (R record : records) {
+        bitmaps.computeIfAbsent(pathOf.apply(record).toString(), path -> new Roaring64Bitmap())
+            .addLong(positionOf.applyAsLong(record));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read position delete file " + key, e);
+    }
+    bitmaps.values().forEach(Roaring64Bitmap::runOptimize);
+    return bitmaps;
+  }
+
+  private static long sizeOfPositions(Map<String, Roaring64Bitmap> bitmaps) {
+    long size = 0L;
+    for (Map.Entry<String, Roaring64Bitmap> entry : bitmaps.entrySet()) {
+      // hash map node and the path string
+      size += PATH_ENTRY_OVERHEAD + 2L * entry.getKey().length() + entry.getValue().getLongSizeInBytes();
+    }
+    return size;
+  }
+
+  public synchronized long sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  public long maxSizeInBytes() {
+    return maxSizeInBytes;
+  }
+
+  /**
+   * Number of cached delete files.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Number of times a delete file was acquired without loading it.
+   */
+  public synchronized long hitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Number of times a delete file was loaded.
+   */
+  public synchronized long loadCount() {
+    return loadCount;
+  }
+
+  private synchronized void release(Entry entry) {
+    entry.refCount--;
+    if (entry.refCount > 0) {
+      return;
+    }
+    if (entry.value == null) {
+      // failed to load, the next task acquiring it will load it again
+      entries.remove(entry.key, entry);
+    } else {
+      evict();
+    }
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+    while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+      Entry eldest = iterator.next().getValue();
+      if (eldest.refCount > 0 || eldest.value == null) {
+        continue;
+      }
+      sizeInBytes -= eldest.sizeInBytes;
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Key of a cached delete file.
+   */
+  public static class Key {
+    private final String path;
+    private final Long sequenceNumber;
+    private final String projection;
+
+    private Key(String path, Long sequenceNumber, String projection) {
+      this.path = path;
+      this.sequenceNumber = sequenceNumber;
+      this.projection = projection;
+    }
+
+    /**
+     * @param path           path of the delete file
+     * @param sequenceNumber sequence number or transaction id of the delete file
+     * @param projection     identify how the file is read and parsed, like the projected field ids
+     */
+    public static Key of(String path, @Nullable Long sequenceNumber, String projection) {
+      return new Key(path, sequenceNumber, projection);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equal(path, key.path) &&
+          Objects.equal(sequenceNumber, key.sequenceNumber) &&
+          Objects.equal(projection, key.projection);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(path, sequenceNumber, projection);
+    }
+
+    @Override
+    public String toString() {
+      return path + "@" + sequenceNumber + "[" + projection + "]";
+    }
+  }
+
+  private static class Entry {
+    private final Key key;
+    // guarded by the cache
+    private int refCount = 0;
+    // written once while holding the entry
+    private volatile Object value;
+    private long sizeInBytes;
+
+    Entry(Key key) {
+      this.key = key;
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <V> boolean load(Supplier<V> loader, ToLongFunction<V> sizeOf) {
+      if (value != null) {
+        return false;
+      }
+      V loaded = loader.get();
+      Preconditions.checkNotNull(loaded, "Loaded null content of delete file %s", key);
+      sizeInBytes = sizeOf.applyAsLong(loaded);
+      value = loaded;
+      return true;
+    }
+  }
+
+  /**
+   * The parsed content of a delete file acquired from the cache.
+   */
+  public class Handle<V> implements Closeable {
+    private final Entry entry;
+    private boolean closed = false;
+
+    private Handle(Entry entry) {
+      this.entry = entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get() {
+      Preconditions.checkState(!closed, "Handle of %s is closed", entry.key);
+      return (V) entry.value;
+    }
+
+    /**
+     * Release the entry, it could be evicted once it is released by all tasks.
+     */
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        release(entry);
+      }
+    }
+  }
+
+  private class CachedIterable<E> implements CloseableIterable<E> {
+    private final Key key;
+    private final Supplier<CloseableIterable<E>> reader;
+    private final ToLongFunction<E> sizeOf;
+    private final List<Handle<List<E>>> handles = Lists.newArrayList();
+
+    CachedIterable(Key key, Supplier<CloseableIterable<E>> reader, ToLongFunction<E> sizeOf) {
+      this.key = key;
+      this.reader = reader;
+      this.sizeOf = sizeOf;
+    }
+
+    @Override
+    public CloseableIterator<E> iterator() {
+      Handle<List<E>> handle = acquire(key, this::readAll, this::sizeOfAll);
+      synchronized (handles) {
+        handles.add(handle);
+      }
+      return CloseableIterator.withClose(handle.get().iterator());
+    }
+
+    private List<E> readAll() {
+      try (CloseableIterable<E> records = reader.get()) {
+        return Lists.newArrayList(records);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read delete file " + key, e);
+      }
+    }
+
+    private long sizeOfAll(List<E> records) {
+      long size = 0L;
+      for (E record : records) {
+        size += sizeOf.applyAsLong(record);
+      }
+      return size;
+    }
+
+    @Override
+    public void close() {
+      synchronized (handles) {
+        handles.forEach(Handle::close);
+        handles.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import com.netease.arctic.utils.LocalFileUtil;
+import com.netease.arctic.utils.SerializationUtil;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Sort elements with bounded memory.
+ * <p>
+ * Elements are buffered in memory until their estimated size exceeds maxInMemorySizeInBytes, then the buffer is
+ * sorted and spilled to a local file as a sorted run. The sorted result is a k-way merge of all runs and the
+ * remaining in-memory buffer, so spilled runs are only read sequentially. At most {@link #MAX_MERGE_FAN_IN} runs are
+ * open at the same time, more runs are merged into bigger runs in multiple passes first.
+ * <p>
+ * If a task of {@link SpillMemoryArbiter} is registered in the thread creating the sorter, the buffer is also
+ * bounded by the memory the task could acquire, beyond a small working buffer every sorter keeps so that it still
+ * spills runs of many elements when the task could acquire nothing.
+ */
+public class ExternalSorter<T> implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ExternalSorter.class);
+
+  private static final String SPILL_BASE_DIR = System.getProperty("java.io.tmpdir");
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+  // memory is acquired from the task in chunks to avoid contention on the arbiter
+  private static final long MEMORY_CHUNK_SIZE = 1L << 20;
+  // memory a sorter buffers without acquiring it from the task
+  private static final long MIN_WORKING_BUFFER_SIZE = 4L << 20;
+  // max number of runs merged at the same time, each open run holds an IO buffer
+  static final int MAX_MERGE_FAN_IN = 64;
+
+  private final Comparator<? super T> comparator;
+  private final SerializationUtil.SimpleSerializer<T> serializer;
+  private final SizeEstimator<T> sizeEstimator;
+  private final long maxInMemorySizeInBytes;
+  private final String spillBaseDir;
+  private final SpillMemoryArbiter.TaskMemory taskMemory;
+  private final long workingBufferSize;
+  private long acquiredMemory = 0L;
+
+  private final List<T> buffer = Lists.newArrayList();
+  private long bufferSizeInBytes = 0L;
+  private final List<Run> runs = Lists.newArrayList();
+  private int nextRunId = 0;
+  private File spillDir;
+  private boolean sorted = false;
+
+  public ExternalSorter(
+      Comparator<? super T> comparator,
+      SerializationUtil.SimpleSerializer<T> serializer,
+      SizeEstimator<T> sizeEstimator,
+      long maxInMemorySizeInBytes,
+      @Nullable String spillBaseDir) {
+    this.comparator = comparator;
+    this.serializer = serializer;
+    this.sizeEstimator = sizeEstimator;
+    this.maxInMemorySizeInBytes = maxInMemorySizeInBytes;
+    this.spillBaseDir = spillBaseDir == null ? SPILL_BASE_DIR : spillBaseDir;
+    this.taskMemory = SpillMemoryArbiter.currentTask();
+    this.workingBufferSize = Math.min(MIN_WORKING_BUFFER_SIZE, maxInMemorySizeInBytes);
+  }
+
+  public void add(T element) {
+    Preconditions.checkState(!sorted, "Cannot add elements after sorting");
+    long size = sizeEstimator.sizeEstimate(element);
+    if (!buffer.isEmpty() && !hasMemory(size)) {
+      spill();
+    }
+    buffer.add(element);
+    bufferSizeInBytes += size;
+    if (bufferSizeInBytes > maxInMemorySizeInBytes) {
+      spill();
+    }
+  }
+
+  private boolean hasMemory(long size) {
+    if (taskMemory == null || bufferSizeInBytes + size <= acquiredMemory + workingBufferSize) {
+      return true;
+    }
+    long required = bufferSizeInBytes + size - acquiredMemory - workingBufferSize;
+    long chunk = Math.max(required, MEMORY_CHUNK_SIZE);
+    if (taskMemory.tryAcquire(chunk)) {
+      acquiredMemory += chunk;
+      return true;
+    } else if (chunk > required && taskMemory.tryAcquire(required)) {
+      acquiredMemory += required;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Number of sorted runs spilled to local files.
+   */
+  public int spilledRunCount() {
+    return runs.size();
+  }
+
+  /**
+   * Return all added elements in order, this method could only be called once.
+   */
+  public CloseableIterator<T> sortedIterator() {
+    Preconditions.checkState(!sorted, "Elements have already been sorted");
+    sorted = true;
+    buffer.sort(comparator);
+    if (runs.isEmpty()) {
+      return CloseableIterator.withClose(buffer.iterator());
+    }
+
+    List<Iterator<T>> iterators = Lists.newArrayList();
+    try {
+      // the in-memory buffer takes the place of one run in the final merge
+      while (runs.size() >= MAX_MERGE_FAN_IN) {
+        mergeRuns(MAX_MERGE_FAN_IN);
+      }
+      for (Run run : runs) {
+        iterators.add(run.open());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to merge sorted runs in " + spillDir, e);
+    }
+    iterators.add(buffer.iterator());
+    return new MergeIterator(iterators);
+  }
+
+  /**
+   * Merge the oldest runs into a new run, runs are merged in the order they are spilled so that every element is
+   * merged about the same number of times.
+   */
+  private void mergeRuns(int fanIn) throws IOException {
+    List<Run> merged = Lists.newArrayList(runs.subList(0, fanIn));
+    runs.subList(0, fanIn).clear();
+    List<Iterator<T>> iterators = Lists.newArrayList();
+    for (Run run : merged) {
+      iterators.add(run.open());
+    }
+    try {
+      runs.add(writeRun(new MergeIterator(iterators)));
+    } finally {
+      for (Run run : merged) {
+        run.close();
+        run.delete();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    for (Run run : runs) {
+      run.close();
+    }
+    runs.clear();
+    buffer.clear();
+    bufferSizeInBytes = 0L;
+    if (taskMemory != null) {
+      taskMemory.release(acquiredMemory);
+      acquiredMemory = 0L;
+    }
+    if (spillDir != null) {
+      try {
+        LocalFileUtil.deleteDirectory(spillDir);
+      } catch (IOException e) {
+        LOG.warn("Failed to delete sorted runs in {}", spillDir, e);
+      }
+      spillDir = null;
+    }
+  }
+
+  private void spill() {
+    buffer.sort(comparator);
+    try {
+      Run run = writeRun(buffer.iterator());
+      runs.add(run);
+      LOG.debug("Spilled {} sorted elements to {}", run.count, run.file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill sorted run to " + spillDir, e);
+    }
+    buffer.clear();
+    bufferSizeInBytes = 0L;
+  }
+
+  private Run writeRun(Iterator<T> elements) throws IOException {
+    if (spillDir == null) {
+      spillDir = new File(spillBaseDir, "sort-" + UUID.randomUUID());
+      LocalFileUtil.mkdir(spillDir);
+    }
+    File file = new File(spillDir, "run-" + nextRunId++);
+    int count = 0;
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(file), IO_BUFFER_SIZE))) {
+      while (elements.hasNext()) {
+        byte[] bytes = serializer.serialize(elements.next());
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        count++;
+      }
+    }
+    return new Run(file, count);
+  }
+
+  private class Run implements Closeable {
+    private final File file;
+    private final int count;
+    private DataInputStream input;
+
+    Run(File file, int count) {
+      this.file = file;
+      this.count = count;
+    }
+
+    Iterator<T> open() throws IOException {
+      input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), IO_BUFFER_SIZE));
+      return new Iterator<T>() {
+        private int read = 0;
+
+        @Override
+        public boolean hasNext() {
+          return read < count;
+        }
+
+        @Override
+        public T next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          try {
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            read++;
+            return serializer.deserialize(bytes);
+          } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read sorted run " + file, e);
+          }
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      if (input != null) {
+        try {
+          input.close();
+        } catch (IOException e) {
+          LOG.warn("Failed to close sorted run {}", file, e);
+        }
+        input = null;
+      }
+    }
+
+    void delete() {
+      if (!file.delete()) {
+        LOG.warn("Failed to delete merged run {}", file);
+      }
+    }
+  }
+
+  private class MergeIterator implements CloseableIterator<T> {
+    private final PriorityQueue<Head> heads;
+
+    MergeIterator(List<Iterator<T>> iterators) {
+      this.heads = new PriorityQueue<>(iterators.size(), (h1, h2) -> comparator.compare(h1.element, h2.element));
+      for (Iterator<T> iterator : iterators) {
+        if (iterator.hasNext()) {
+          heads.add(new Head(iterator));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+      Head head = heads.poll();
+      if (head == null) {
+        throw new NoSuchElementException();
+      }
+      T element = head.element;
+      if (head.advance()) {
+        heads.add(head);
+      }
+      return element;
+    }
+
+    @Override
+    public void close() {
+      ExternalSorter.this.close();
+    }
+
+    private class Head {
+      private final Iterator<T> iterator;
+      private T element;
+
+      Head(Iterator<T> iterator) {
+        this.iterator = iterator;
+        this.element = iterator.next();
+      }
+
+      boolean advance() {
+        if (iterator.hasNext()) {
+          element = iterator.next();
+          return true;
+        }
+        return false;
+      }
+    }
+  }
+}
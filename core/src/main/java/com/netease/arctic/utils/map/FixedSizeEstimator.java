@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import com.netease.arctic.utils.ObjectSizeCalculator;
+
+import java.io.Serializable;
+
+/**
+ * Size Estimator for payloads whose size only depends on their class, like boxed numbers and
+ * {@link com.netease.arctic.data.ChangedLsn}. The size is computed for the first payload and reused for the others.
+ */
+public class FixedSizeEstimator<T> implements SizeEstimator<T>, Serializable {
+
+  private Class<?> payloadClass;
+  private long payloadSize;
+
+  @Override
+  public long sizeEstimate(T t) {
+    if (t == null) {
+      return 0;
+    }
+    if (t.getClass() != payloadClass) {
+      payloadSize = ObjectSizeCalculator.getObjectSize(t);
+      payloadClass = t.getClass();
+    }
+    return payloadSize;
+  }
+}
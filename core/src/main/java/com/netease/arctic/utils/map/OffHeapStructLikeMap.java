@@ -0,0 +1,550 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import com.netease.arctic.data.ChangedLsn;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongFunction;
+
+/**
+ * An open-addressing hash map keeping fixed width struct keys and primitive values in direct byte buffers, so the
+ * keys cost neither heap nor per entry objects.
+ * <p>
+ * Keys are encoded to fixed width bytes with a null bitmap ahead, values in Iceberg internal representation are
+ * expected. Slots are spread over segments of at most 1GB to address more than 2GB. Only struct types with fixed
+ * width fields and values supported by {@link ValueCodec#forClass(Class)} could be kept, check {@link #isSupported}
+ * before creating.
+ * <p>
+ * A bounded map only grows while its slots fit in maxOffHeapBytes, or in the memory acquired from the
+ * {@link SpillMemoryArbiter} task registered in the creating thread. Once it can not grow, new keys are put to an
+ * overflow map, like a spillable map, while keys kept off heap are still updated in place.
+ */
+public class OffHeapStructLikeMap<T> implements SimpleMap<StructLike, T> {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int MAX_SEGMENT_SLOTS = 1 << 16;
+  private static final long MAX_SEGMENT_BYTES = 1L << 30;
+  private static final double LOAD_FACTOR = 0.6;
+  private static final int DECIMAL_MAX_PRECISION = 18;
+
+  private static final byte EMPTY = 0;
+  private static final byte FULL = 1;
+  private static final byte DELETED = 2;
+
+  private final Type.TypeID[] fieldTypes;
+  private final int[] fieldScales;
+  private final int[] fieldWidths;
+  private final int nullBitmapWidth;
+  private final int keyWidth;
+  private final ValueCodec<T> valueCodec;
+  private final int slotSize;
+  private final int maxSegmentSlots;
+  private final ThreadLocal<ByteBuffer> keyBuffers;
+  private final long maxOffHeapBytes;
+  // null if the map is not bounded
+  private final LongFunction<SimpleMap<StructLike, T>> overflowFactory;
+  private final SpillMemoryArbiter.TaskMemory taskMemory;
+  private long acquiredBytes = 0L;
+
+  private ByteBuffer[] segments;
+  private int segmentSlots;
+  private long segmentBytes;
+  private long capacity;
+  private long size;
+  // full and deleted slots, both of them lengthen the probe sequence
+  private long usedSlots;
+  // set once the slots can not grow, new keys are put to the overflow map then
+  private boolean full = false;
+  private SimpleMap<StructLike, T> overflow;
+
+  private OffHeapStructLikeMap(
+      Types.StructType type, ValueCodec<T> valueCodec,
+      long maxOffHeapBytes, @Nullable LongFunction<SimpleMap<StructLike, T>> overflowFactory) {
+    List<Types.NestedField> fields = type.fields();
+    this.fieldTypes = new Type.TypeID[fields.size()];
+    this.fieldScales = new int[fields.size()];
+    this.fieldWidths = new int[fields.size()];
+    int width = 0;
+    for (int i = 0; i < fields.size(); i++) {
+      Type fieldType = fields.get(i).type();
+      fieldTypes[i] = fieldType.typeId();
+      fieldWidths[i] = fixedWidth(fieldType);
+      if (fieldType.typeId() == Type.TypeID.DECIMAL) {
+        fieldScales[i] = ((Types.DecimalType) fieldType).scale();
+      }
+      width += fieldWidths[i];
+    }
+    this.nullBitmapWidth = (fields.size() + 7) / 8;
+    this.keyWidth = nullBitmapWidth + width;
+    this.valueCodec = valueCodec;
+    this.slotSize = 1 + keyWidth + valueCodec.width();
+    this.maxSegmentSlots = Integer.highestOneBit((int) Math.min(MAX_SEGMENT_SLOTS, MAX_SEGMENT_BYTES / slotSize));
+    this.keyBuffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(keyWidth));
+    this.maxOffHeapBytes = maxOffHeapBytes;
+    this.overflowFactory = overflowFactory;
+    this.taskMemory = overflowFactory == null ? null : SpillMemoryArbiter.currentTask();
+    if (taskMemory != null && taskMemory.tryAcquire((long) INITIAL_CAPACITY * slotSize)) {
+      acquiredBytes = (long) INITIAL_CAPACITY * slotSize;
+    }
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Create a map not bounded in size.
+   */
+  public static <T> OffHeapStructLikeMap<T> create(Types.StructType type, Class<T> valueClass) {
+    return create(type, valueClass, Long.MAX_VALUE, null);
+  }
+
+  /**
+   * Create a map bounded in size.
+   *
+   * @param maxOffHeapBytes max bytes of slots, not used if a {@link SpillMemoryArbiter} task is registered in the
+   *                        current thread, which the memory is acquired from
+   * @param overflowFactory create the map of new keys once the slots can not grow, with the bytes left in
+   *                        maxOffHeapBytes
+   */
+  public static <T> OffHeapStructLikeMap<T> create(
+      Types.StructType type, Class<T> valueClass,
+      long maxOffHeapBytes, @Nullable LongFunction<SimpleMap<StructLike, T>> overflowFactory) {
+    Preconditions.checkArgument(isSupported(type, valueClass),
+        "Unsupported key type %s or value class %s for off-heap map", type, valueClass);
+    return new OffHeapStructLikeMap<>(type, ValueCodec.forClass(valueClass), maxOffHeapBytes, overflowFactory);
+  }
+
+  /**
+   * Check whether all fields of the key type are fixed width and the value class has a fixed width codec.
+   */
+  public static boolean isSupported(Types.StructType type, Class<?> valueClass) {
+    if (valueClass == null || ValueCodec.forClass(valueClass) == null) {
+      return false;
+    }
+    long slotSize = 1 + (type.fields().size() + 7) / 8 + ValueCodec.forClass(valueClass).width();
+    for (Types.NestedField field : type.fields()) {
+      int width = fixedWidth(field.type());
+      if (width <= 0) {
+        return false;
+      }
+      slotSize += width;
+    }
+    return slotSize <= MAX_SEGMENT_BYTES;
+  }
+
+  private static int fixedWidth(Type type) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return 1;
+      case INTEGER:
+      case DATE:
+      case FLOAT:
+        return 4;
+      case LONG:
+      case TIME:
+      case TIMESTAMP:
+      case DOUBLE:
+        return 8;
+      case DECIMAL:
+        return ((Types.DecimalType) type).precision() <= DECIMAL_MAX_PRECISION ? 8 : -1;
+      case UUID:
+        return 16;
+      case FIXED:
+        return ((Types.FixedType) type).length();
+      default:
+        return -1;
+    }
+  }
+
+  @Override
+  public void put(StructLike key, T value) {
+    Preconditions.checkNotNull(value, "Off-heap map does not support null value");
+    if (!full && usedSlots + 1 > capacity * LOAD_FACTOR) {
+      full = !tryResize(size + 1 > capacity * LOAD_FACTOR / 2 ? capacity << 1 : capacity);
+    }
+    ByteBuffer keyBuffer = encode(key);
+    long hash = hash(keyBuffer, 0);
+    long firstDeleted = -1;
+    for (long slot = hash & (capacity - 1); ; slot = (slot + 1) & (capacity - 1)) {
+      ByteBuffer segment = segment(slot);
+      int offset = offset(slot);
+      byte status = segment.get(offset);
+      if (status == EMPTY) {
+        if (full) {
+          overflow().put(key, value);
+          return;
+        }
+        long target = firstDeleted >= 0 ? firstDeleted : slot;
+        if (firstDeleted < 0) {
+          usedSlots++;
+        }
+        ByteBuffer targetSegment = segment(target);
+        int targetOffset = offset(target);
+        targetSegment.put(targetOffset, FULL);
+        for (int i = 0; i < keyWidth; i++) {
+          targetSegment.put(targetOffset + 1 + i, keyBuffer.get(i));
+        }
+        valueCodec.write(targetSegment, targetOffset + 1 + keyWidth, value);
+        size++;
+        return;
+      } else if (status == DELETED) {
+        if (firstDeleted < 0) {
+          firstDeleted = slot;
+        }
+      } else if (keyEquals(segment, offset + 1, keyBuffer)) {
+        valueCodec.write(segment, offset + 1 + keyWidth, value);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public T get(StructLike key) {
+    long slot = find(encode(key));
+    if (slot < 0) {
+      return overflow == null ? null : overflow.get(key);
+    }
+    return valueCodec.read(segment(slot), offset(slot) + 1 + keyWidth);
+  }
+
+  @Override
+  public void delete(StructLike key) {
+    long slot = find(encode(key));
+    if (slot >= 0) {
+      segment(slot).put(offset(slot), DELETED);
+      size--;
+    } else if (overflow != null) {
+      overflow.delete(key);
+    }
+  }
+
+  /**
+   * Number of keys kept off heap, keys in the overflow map are not counted.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Whether new keys are put to the overflow map since the slots can not grow.
+   */
+  public boolean isFull() {
+    return full;
+  }
+
+  /**
+   * Number of off-heap bytes allocated by this map.
+   */
+  public long offHeapSizeInBytes() {
+    return capacity * slotSize;
+  }
+
+  @Override
+  public void close() {
+    // direct buffers are released once they are unreachable
+    segments = new ByteBuffer[0];
+    capacity = 0;
+    size = 0;
+    usedSlots = 0;
+    if (taskMemory != null) {
+      taskMemory.release(acquiredBytes);
+      acquiredBytes = 0L;
+    }
+    if (overflow != null) {
+      try {
+        overflow.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      overflow = null;
+    }
+  }
+
+  private SimpleMap<StructLike, T> overflow() {
+    if (overflow == null) {
+      overflow = overflowFactory.apply(Math.max(0L, maxOffHeapBytes - offHeapSizeInBytes()));
+    }
+    return overflow;
+  }
+
+  /**
+   * Resize the slots if the memory of the new slots could be acquired, the memory of current slots is released after
+   * entries are moved to the new slots.
+   */
+  private boolean tryResize(long newCapacity) {
+    long newBytes = newCapacity * slotSize;
+    if (overflowFactory == null) {
+      resize(newCapacity);
+      return true;
+    } else if (taskMemory == null) {
+      if (newBytes > maxOffHeapBytes) {
+        return false;
+      }
+      resize(newCapacity);
+      return true;
+    } else if (taskMemory.tryAcquire(newBytes)) {
+      resize(newCapacity);
+      taskMemory.release(acquiredBytes);
+      acquiredBytes = newBytes;
+      return true;
+    }
+    return false;
+  }
+
+  private long find(ByteBuffer keyBuffer) {
+    if (size == 0) {
+      return -1;
+    }
+    long hash = hash(keyBuffer, 0);
+    for (long slot = hash & (capacity - 1); ; slot = (slot + 1) & (capacity - 1)) {
+      ByteBuffer segment = segment(slot);
+      int offset = offset(slot);
+      byte status = segment.get(offset);
+      if (status == EMPTY) {
+        return -1;
+      } else if (status == FULL && keyEquals(segment, offset + 1, keyBuffer)) {
+        return slot;
+      }
+    }
+  }
+
+  private ByteBuffer encode(StructLike key) {
+    ByteBuffer buffer = keyBuffers.get();
+    for (int i = 0; i < nullBitmapWidth; i++) {
+      buffer.put(i, (byte) 0);
+    }
+    int offset = nullBitmapWidth;
+    for (int i = 0; i < fieldTypes.length; i++) {
+      Object value = key.get(i, Object.class);
+      if (value == null) {
+        buffer.put(i >> 3, (byte) (buffer.get(i >> 3) | (1 << (i & 7))));
+        for (int j = 0; j < fieldWidths[i]; j++) {
+          buffer.put(offset + j, (byte) 0);
+        }
+      } else {
+        encodeField(buffer, offset, i, value);
+      }
+      offset += fieldWidths[i];
+    }
+    return buffer;
+  }
+
+  private void encodeField(ByteBuffer buffer, int offset, int field, Object value) {
+    switch (fieldTypes[field]) {
+      case BOOLEAN:
+        buffer.put(offset, (Boolean) value ? (byte) 1 : (byte) 0);
+        break;
+      case INTEGER:
+      case DATE:
+        buffer.putInt(offset, (Integer) value);
+        break;
+      case FLOAT:
+        buffer.putInt(offset, Float.floatToIntBits((Float) value));
+        break;
+      case LONG:
+      case TIME:
+      case TIMESTAMP:
+        buffer.putLong(offset, (Long) value);
+        break;
+      case DOUBLE:
+        buffer.putLong(offset, Double.doubleToLongBits((Double) value));
+        break;
+      case DECIMAL:
+        buffer.putLong(offset, ((BigDecimal) value).setScale(fieldScales[field]).unscaledValue().longValue());
+        break;
+      case UUID:
+        buffer.putLong(offset, ((UUID) value).getMostSignificantBits());
+        buffer.putLong(offset + 8, ((UUID) value).getLeastSignificantBits());
+        break;
+      case FIXED:
+        ByteBuffer bytes = value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : (ByteBuffer) value;
+        for (int j = 0; j < fieldWidths[field]; j++) {
+          buffer.put(offset + j, bytes.get(bytes.position() + j));
+        }
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported type for off-heap map: " + fieldTypes[field]);
+    }
+  }
+
+  private boolean keyEquals(ByteBuffer segment, int offset, ByteBuffer keyBuffer) {
+    int i = 0;
+    for (; i + 8 <= keyWidth; i += 8) {
+      if (segment.getLong(offset + i) != keyBuffer.getLong(i)) {
+        return false;
+      }
+    }
+    for (; i < keyWidth; i++) {
+      if (segment.get(offset + i) != keyBuffer.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long hash(ByteBuffer buffer, int offset) {
+    long hash = keyWidth;
+    int i = 0;
+    for (; i + 8 <= keyWidth; i += 8) {
+      hash = Long.rotateLeft(hash ^ buffer.getLong(offset + i) * 0x87c37b91114253d5L, 31) * 0x4cf5ad432745937fL;
+    }
+    for (; i < keyWidth; i++) {
+      hash = (hash ^ buffer.get(offset + i)) * 0x100000001b3L;
+    }
+    // finalization mix of murmur3, so that the low bits used as slot index are well distributed
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private ByteBuffer segment(long slot) {
+    return segments[(int) (slot / segmentSlots)];
+  }
+
+  private int offset(long slot) {
+    long offset = (slot % segmentSlots) * (long) slotSize;
+    if (offset + slotSize > segmentBytes) {
+      throw new IllegalStateException("Offset " + offset + " of slot " + slot + " is out of the segment");
+    }
+    return (int) offset;
+  }
+
+  private void allocate(long newCapacity) {
+    this.capacity = newCapacity;
+    this.segmentSlots = (int) Math.min(newCapacity, maxSegmentSlots);
+    this.segmentBytes = (long) segmentSlots * slotSize;
+    this.segments = new ByteBuffer[(int) (newCapacity / segmentSlots)];
+    for (int i = 0; i < segments.length; i++) {
+      // direct buffers are zeroed, so all slots start as EMPTY
+      segments[i] = ByteBuffer.allocateDirect((int) segmentBytes);
+    }
+    this.size = 0;
+    this.usedSlots = 0;
+  }
+
+  private void resize(long newCapacity) {
+    ByteBuffer[] oldSegments = segments;
+    int oldSegmentSlots = segmentSlots;
+    allocate(newCapacity);
+    for (ByteBuffer oldSegment : oldSegments) {
+      for (int oldSlot = 0; oldSlot < oldSegmentSlots; oldSlot++) {
+        int oldOffset = oldSlot * slotSize;
+        if (oldSegment.get(oldOffset) != FULL) {
+          continue;
+        }
+        long hash = hash(oldSegment, oldOffset + 1);
+        long slot = hash & (capacity - 1);
+        while (segment(slot).get(offset(slot)) != EMPTY) {
+          slot = (slot + 1) & (capacity - 1);
+        }
+        ByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        for (int i = 0; i < slotSize; i++) {
+          segment.put(offset + i, oldSegment.get(oldOffset + i));
+        }
+        size++;
+        usedSlots++;
+      }
+    }
+  }
+
+  /**
+   * Codec of fixed width values kept in off-heap slots.
+   */
+  private abstract static class ValueCodec<T> {
+
+    static final ValueCodec<Long> LONG = new ValueCodec<Long>(8) {
+      @Override
+      void write(ByteBuffer buffer, int offset, Long value) {
+        buffer.putLong(offset, value);
+      }
+
+      @Override
+      Long read(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+      }
+    };
+
+    static final ValueCodec<Integer> INTEGER = new ValueCodec<Integer>(4) {
+      @Override
+      void write(ByteBuffer buffer, int offset, Integer value) {
+        buffer.putInt(offset, value);
+      }
+
+      @Override
+      Integer read(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset);
+      }
+    };
+
+    static final ValueCodec<ChangedLsn> CHANGED_LSN = new ValueCodec<ChangedLsn>(16) {
+      @Override
+      void write(ByteBuffer buffer, int offset, ChangedLsn value) {
+        buffer.putLong(offset, value.transactionId());
+        buffer.putLong(offset + 8, value.fileOffset());
+      }
+
+      @Override
+      ChangedLsn read(ByteBuffer buffer, int offset) {
+        return ChangedLsn.of(buffer.getLong(offset), buffer.getLong(offset + 8));
+      }
+    };
+
+    private final int width;
+
+    private ValueCodec(int width) {
+      this.width = width;
+    }
+
+    int width() {
+      return width;
+    }
+
+    abstract void write(ByteBuffer buffer, int offset, T value);
+
+    abstract T read(ByteBuffer buffer, int offset);
+
+    /**
+     * @return the codec of the value class, or null if the class is not supported
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ValueCodec<T> forClass(Class<T> valueClass) {
+      if (valueClass == Long.class) {
+        return (ValueCodec<T>) LONG;
+      } else if (valueClass == Integer.class) {
+        return (ValueCodec<T>) INTEGER;
+      } else if (valueClass == ChangedLsn.class) {
+        return (ValueCodec<T>) CHANGED_LSN;
+      }
+      return null;
+    }
+  }
+}
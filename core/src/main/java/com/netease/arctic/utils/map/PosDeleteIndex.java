@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import java.io.Closeable;
+
+/**
+ * Index of deleted row positions of data files, built from position delete files.
+ */
+public interface PosDeleteIndex extends Closeable {
+
+  /**
+   * Check whether the row at the given position of a data file is deleted.
+   *
+   * @param dataFilePath path of the data file
+   * @param position     row position in the data file
+   * @return true if the row is deleted
+   */
+  boolean isDeleted(String dataFilePath, long position);
+
+  /**
+   * Approximate memory footprint of the positions held by this index.
+   */
+  long memorySizeInBytes();
+
+  @Override
+  void close();
+}
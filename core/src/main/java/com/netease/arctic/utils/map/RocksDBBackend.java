@@ -24,11 +24,14 @@ import com.netease.arctic.utils.SerializationUtil;
 import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.rocksdb.AbstractImmutableNativeReference;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
 import org.rocksdb.InfoLogLevel;
+import org.rocksdb.LRUCache;
 import org.rocksdb.MutableColumnFamilyOptions;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
@@ -36,6 +39,7 @@ import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.Statistics;
 import org.rocksdb.TtlDB;
+import org.rocksdb.WriteBufferManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,11 +48,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class RocksDBBackend {
@@ -56,6 +61,38 @@ public class RocksDBBackend {
   private static final String BACKEND_BASE_DIR = System.getProperty("java.io.tmpdir");
   private static final ThreadLocal<RocksDBBackend> instance =
       new ThreadLocal<>();
+  // once initialized, used by all threads instead of the thread local instances
+  private static volatile RocksDBBackend sharedInstance;
+
+  /**
+   * Open a RocksDB shared by all threads of the process. Its column families share one block cache, and the
+   * memtables of all column families are limited by one write buffer manager.
+   *
+   * @param backendBaseDir         base dir of the RocksDB
+   * @param blockCacheSizeInBytes  size of the shared block cache
+   * @param writeBufferSizeInBytes total size of memtables
+   */
+  public static synchronized RocksDBBackend initSharedInstance(
+      @Nullable String backendBaseDir,
+      long blockCacheSizeInBytes,
+      long writeBufferSizeInBytes) {
+    if (sharedInstance == null || sharedInstance.closed) {
+      String baseDir = backendBaseDir == null ? BACKEND_BASE_DIR : backendBaseDir;
+      Preconditions.checkNotNull(baseDir, "The default rocksdb path is null.");
+      Cache blockCache = new LRUCache(blockCacheSizeInBytes);
+      sharedInstance = new RocksDBBackend(
+          baseDir, null, blockCache, new WriteBufferManager(writeBufferSizeInBytes, blockCache));
+      LOG.info("Opened shared RocksDB at {}", sharedInstance.rocksDBBasePath);
+    }
+    return sharedInstance;
+  }
+
+  public static synchronized void closeSharedInstance() {
+    if (sharedInstance != null) {
+      sharedInstance.close();
+      sharedInstance = null;
+    }
+  }
 
   public static RocksDBBackend getOrCreateInstance() {
     Preconditions.checkNotNull(BACKEND_BASE_DIR, "The default rocksdb path is null.");
@@ -78,14 +115,21 @@ public class RocksDBBackend {
     return createIfAbsent(backendBaseDir, ttlSeconds);
   }
 
-  private final Map<String, ColumnFamilyHandle> handleMap = new HashMap<>();
-  private final Map<String, ColumnFamilyDescriptor> descriptorMap = new HashMap<>();
+  // column families are added and dropped by different threads when the instance is shared
+  private final Map<String, ColumnFamilyHandle> handleMap = new ConcurrentHashMap<>();
+  private final Map<String, ColumnFamilyDescriptor> descriptorMap = new ConcurrentHashMap<>();
   private RocksDB rocksDB;
-  private boolean closed = false;
+  private volatile boolean closed = false;
   private final String rocksDBBasePath;
-  private long totalBytesWritten;
+  private final AtomicLong totalBytesWritten = new AtomicLong();
+  private final Cache blockCache;
+  private final WriteBufferManager writeBufferManager;
 
   private static RocksDBBackend createIfAbsent(@Nullable String backendBaseDir, @Nullable Integer ttlSeconds) {
+    RocksDBBackend shared = sharedInstance;
+    if (shared != null && !shared.closed && ttlSeconds == null) {
+      return shared;
+    }
     RocksDBBackend backend = instance.get();
     if (backend == null) {
       backend = new RocksDBBackend(backendBaseDir, ttlSeconds);
@@ -99,9 +143,16 @@ public class RocksDBBackend {
   }
 
   private RocksDBBackend(@Nullable String backendBaseDir, @Nullable Integer ttlSeconds) {
+    this(backendBaseDir, ttlSeconds, null, null);
+  }
+
+  private RocksDBBackend(
+      @Nullable String backendBaseDir, @Nullable Integer ttlSeconds,
+      @Nullable Cache blockCache, @Nullable WriteBufferManager writeBufferManager) {
     this.rocksDBBasePath = backendBaseDir == null ? UUID.randomUUID().toString() :
         String.format("%s/%s", backendBaseDir, UUID.randomUUID());
-    totalBytesWritten = 0L;
+    this.blockCache = blockCache;
+    this.writeBufferManager = writeBufferManager;
     setup(ttlSeconds);
   }
 
@@ -115,6 +166,9 @@ public class RocksDBBackend {
 
       final DBOptions dbOptions = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true)
           .setWalDir(rocksDBBasePath).setStatsDumpPeriodSec(300).setStatistics(new Statistics());
+      if (writeBufferManager != null) {
+        dbOptions.setWriteBufferManager(writeBufferManager);
+      }
       dbOptions.setLogger(new org.rocksdb.Logger(dbOptions) {
         @Override
         protected void log(InfoLogLevel infoLogLevel, String logMsg) {
@@ -181,7 +235,15 @@ public class RocksDBBackend {
   }
 
   private ColumnFamilyDescriptor getColumnFamilyDescriptor(byte[] columnFamilyName) {
-    return new ColumnFamilyDescriptor(columnFamilyName, new ColumnFamilyOptions());
+    return new ColumnFamilyDescriptor(columnFamilyName, newColumnFamilyOptions());
+  }
+
+  private ColumnFamilyOptions newColumnFamilyOptions() {
+    ColumnFamilyOptions options = new ColumnFamilyOptions();
+    if (blockCache != null) {
+      options.setTableFormatConfig(new BlockBasedTableConfig().setBlockCache(blockCache));
+    }
+    return options;
   }
 
   private ColumnFamilyDescriptor getColumnFamilyDescriptor(
@@ -356,7 +418,7 @@ public class RocksDBBackend {
    * @param columnFamilyName Column family name
    */
   public void addColumnFamily(String columnFamilyName) {
-    addColumnFamily(columnFamilyName, new ColumnFamilyOptions());
+    addColumnFamily(columnFamilyName, newColumnFamilyOptions());
   }
 
   public void addColumnFamily(String columnFamilyName, ColumnFamilyOptions columnFamilyOptions) {
@@ -413,6 +475,12 @@ public class RocksDBBackend {
       handleMap.clear();
       descriptorMap.clear();
       rocksDB.close();
+      if (writeBufferManager != null) {
+        writeBufferManager.close();
+      }
+      if (blockCache != null) {
+        blockCache.close();
+      }
       try {
         LocalFileUtil.deleteDirectory(new File(rocksDBBasePath));
       } catch (IOException e) {
@@ -426,17 +494,17 @@ public class RocksDBBackend {
   }
 
   public long getTotalBytesWritten() {
-    return totalBytesWritten;
+    return totalBytesWritten.get();
   }
 
   private byte[] serializePayload(Object value) throws IOException {
     byte[] payload = SerializationUtil.kryoSerialize(value);
-    totalBytesWritten += payload.length;
+    totalBytesWritten.addAndGet(payload.length);
     return payload;
   }
 
   private byte[] payload(byte[] value) {
-    totalBytesWritten += value.length;
+    totalBytesWritten.addAndGet(value.length);
     return value;
   }
 
@@ -19,16 +19,24 @@
 package com.netease.arctic.utils.map;
 
 import com.netease.arctic.utils.SerializationUtil;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.hash.HashFunction;
+import org.apache.iceberg.relocated.com.google.common.hash.Hashing;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 public class SimpleSpillableMap<K, T> implements SimpleMap<K, T> {
 
-  private static final int RECORDS_TO_SKIP_FOR_ESTIMATING = 200;
+  private static final int MIN_BLOOM_FILTER_INSERTIONS = 1 << 14;
+  private static final double BLOOM_FILTER_FPP = 0.01;
+  private static final HashFunction SPILLED_KEY_HASH = Hashing.murmur3_128();
+  // memory is acquired from the task in chunks to avoid contention on the arbiter
+  private static final long MEMORY_CHUNK_SIZE = 1L << 20;
   private final long maxInMemorySizeInBytes;
   private final String backendBaseDir;
   // Size Estimator for key type
@@ -37,14 +45,24 @@ public class SimpleSpillableMap<K, T> implements SimpleMap<K, T> {
   private final SizeEstimator<T> valueSizeEstimator;
   private Map<K, T> memoryMap;
   private Optional<SimpleSpilledMap<K, T>> diskBasedMap = Optional.empty();
+  // running total of the estimated sizes of entries in memoryMap
   private long currentInMemoryMapSize;
-  private long estimatedPayloadSize = 0;
-  private int putCount = 0;
+  private long peakInMemoryMapSize = 0L;
+  private long spilledCount = 0L;
 
   private final SerializationUtil.SimpleSerializer<K> keySerializer;
 
   private final SerializationUtil.SimpleSerializer<T> valueSerializer;
 
+  // filters over spilled keys, a new filter of double size is added once the last one is full
+  private final List<BlockedBloomFilter> bloomFilters = Lists.newArrayList();
+  private long bloomFilterNegatives = 0L;
+  private long bloomFilterFalsePositives = 0L;
+  private SpillMetrics metrics;
+  // set if the map is created by a task registered to a SpillMemoryArbiter, replacing maxInMemorySizeInBytes
+  private final SpillMemoryArbiter.TaskMemory taskMemory;
+  private long acquiredMemory = 0L;
+
   protected SimpleSpillableMap(Long maxInMemorySizeInBytes,
                                @Nullable String backendBaseDir,
                                SizeEstimator<K> keySizeEstimator,
@@ -69,6 +87,14 @@ public class SimpleSpillableMap<K, T> implements SimpleMap<K, T> {
     this.valueSerializer = valueSerializer;
     this.keySizeEstimator = keySizeEstimator;
     this.valueSizeEstimator = valueSizeEstimator;
+    this.taskMemory = SpillMemoryArbiter.currentTask();
+  }
+
+  /**
+   * Report metrics of this map to the given metrics when closed.
+   */
+  public void setMetrics(@Nullable SpillMetrics metrics) {
+    this.metrics = metrics;
   }
 
   /**
@@ -92,53 +118,154 @@ public class SimpleSpillableMap<K, T> implements SimpleMap<K, T> {
     return currentInMemoryMapSize;
   }
 
+  /**
+   * Memory of the Bloom filters over spilled keys.
+   */
+  public long getBloomFilterSizeInBytes() {
+    return bloomFilters.stream().mapToLong(BlockedBloomFilter::memorySizeInBytes).sum();
+  }
+
   public boolean containsKey(K key) {
-    return memoryMap.containsKey(key) ||
-        diskBasedMap.map(diskMap -> diskMap.containsKey(key)).orElse(false);
+    if (memoryMap.containsKey(key)) {
+      return true;
+    }
+    if (!mightBeSpilled(key)) {
+      return false;
+    }
+    boolean contains = diskBasedMap.get().containsKey(key);
+    if (!contains) {
+      bloomFilterFalsePositives++;
+    }
+    return contains;
   }
 
   public T get(K key) {
-    return Optional.ofNullable(memoryMap.get(key))
-        .orElse(diskBasedMap.map(diskMap -> diskMap.get(key)).orElse(null));
+    T value = memoryMap.get(key);
+    if (value != null || !mightBeSpilled(key)) {
+      return value;
+    }
+    value = diskBasedMap.get().get(key);
+    if (value == null) {
+      bloomFilterFalsePositives++;
+    }
+    return value;
   }
 
-  public void put(K key, T value) {
-    if (estimatedPayloadSize == 0) {
-      this.estimatedPayloadSize = keySizeEstimator.sizeEstimate(key) + valueSizeEstimator.sizeEstimate(value);
-    } else if (++putCount % RECORDS_TO_SKIP_FOR_ESTIMATING == 0) {
-      this.estimatedPayloadSize = (long) (this.estimatedPayloadSize * 0.9 +
-          (keySizeEstimator.sizeEstimate(key) + valueSizeEstimator.sizeEstimate(value)) * 0.1);
-      this.currentInMemoryMapSize = this.memoryMap.size() * this.estimatedPayloadSize;
+  /**
+   * Max estimated memory of the in-memory map since it is created.
+   */
+  public long getPeakMemoryMapSpaceSize() {
+    return peakInMemoryMapSize;
+  }
+
+  /**
+   * Number of entries put to disk.
+   */
+  public long getSpilledCount() {
+    return spilledCount;
+  }
+
+  private boolean hasMemory(long payloadSize) {
+    if (taskMemory == null) {
+      return currentInMemoryMapSize + payloadSize <= maxInMemorySizeInBytes;
+    }
+    if (currentInMemoryMapSize + payloadSize <= acquiredMemory) {
+      return true;
     }
+    long required = currentInMemoryMapSize + payloadSize - acquiredMemory;
+    long chunk = Math.max(required, MEMORY_CHUNK_SIZE);
+    if (taskMemory.tryAcquire(chunk)) {
+      acquiredMemory += chunk;
+      return true;
+    } else if (chunk > required && taskMemory.tryAcquire(required)) {
+      acquiredMemory += required;
+      return true;
+    }
+    return false;
+  }
 
-    if (memoryMap.containsKey(key)) {
+  private boolean mightBeSpilled(K key) {
+    if (!diskBasedMap.isPresent()) {
+      return false;
+    }
+    long hash = spilledKeyHash(key);
+    for (BlockedBloomFilter bloomFilter : bloomFilters) {
+      if (bloomFilter.mightContain(hash)) {
+        return true;
+      }
+    }
+    bloomFilterNegatives++;
+    return false;
+  }
+
+  private void addSpilledKey(K key) {
+    BlockedBloomFilter last = bloomFilters.isEmpty() ? null : bloomFilters.get(bloomFilters.size() - 1);
+    if (last == null || last.isFull()) {
+      long expectedInsertions = last == null ?
+          Math.max(memoryMap.size(), MIN_BLOOM_FILTER_INSERTIONS) : last.expectedInsertions() * 2;
+      last = new BlockedBloomFilter(expectedInsertions, BLOOM_FILTER_FPP);
+      bloomFilters.add(last);
+    }
+    last.put(spilledKeyHash(key));
+  }
+
+  /**
+   * Spilled keys are looked up by their serialized bytes, which are also hashed to a full 64-bit hash for the Bloom
+   * filters, a 32-bit hashCode would make keys with the same hashCode always collide.
+   */
+  private long spilledKeyHash(K key) {
+    return SPILLED_KEY_HASH.hashBytes(keySerializer.serialize(key)).asLong();
+  }
+
+  public void put(K key, T value) {
+    T oldValue = memoryMap.get(key);
+    if (oldValue != null) {
       memoryMap.put(key, value);
+      updateInMemoryMapSize(valueSizeEstimator.sizeEstimate(value) - valueSizeEstimator.sizeEstimate(oldValue));
       return;
     }
 
-    if (this.currentInMemoryMapSize < maxInMemorySizeInBytes) {
-      if (memoryMap.put(key, value) == null) {
-        currentInMemoryMapSize += this.estimatedPayloadSize;
-      }
+    long payloadSize = keySizeEstimator.sizeEstimate(key) + valueSizeEstimator.sizeEstimate(value);
+    if (hasMemory(payloadSize)) {
+      memoryMap.put(key, value);
+      updateInMemoryMapSize(payloadSize);
     } else {
       if (!diskBasedMap.isPresent()) {
         diskBasedMap = Optional.of(new SimpleSpilledMap<>(keySerializer, valueSerializer, backendBaseDir));
       }
       diskBasedMap.get().put(key, value);
+      addSpilledKey(key);
+      spilledCount++;
     }
   }
 
   public void delete(K key) {
-    if (memoryMap.containsKey(key)) {
-      currentInMemoryMapSize -= estimatedPayloadSize;
-      memoryMap.remove(key);
+    T oldValue = memoryMap.remove(key);
+    if (oldValue != null) {
+      updateInMemoryMapSize(-keySizeEstimator.sizeEstimate(key) - valueSizeEstimator.sizeEstimate(oldValue));
     }
     diskBasedMap.ifPresent(map -> map.delete(key));
   }
 
+  private void updateInMemoryMapSize(long delta) {
+    currentInMemoryMapSize += delta;
+    peakInMemoryMapSize = Math.max(peakInMemoryMapSize, currentInMemoryMapSize);
+  }
+
   public void close() {
+    if (metrics != null && !bloomFilters.isEmpty()) {
+      metrics.reportBloomFilter(getBloomFilterSizeInBytes(), bloomFilterNegatives, bloomFilterFalsePositives);
+    }
+    if (metrics != null && memoryMap != null) {
+      metrics.reportMap(peakInMemoryMapSize, memoryMap.size(), spilledCount);
+    }
     memoryMap = null;
     diskBasedMap.ifPresent(SimpleSpilledMap::close);
+    if (taskMemory != null) {
+      taskMemory.release(acquiredMemory);
+      acquiredMemory = 0L;
+    }
+    bloomFilters.clear();
     currentInMemoryMapSize = 0L;
   }
 
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Divide one memory budget for spillable maps among the tasks running in the process.
+ * <p>
+ * Every running task is guaranteed its fair share, totalBytes / parallelism. A task could use more than its share
+ * while the memory is not needed by other running tasks, so tasks spill when the process as a whole runs out of
+ * budget instead of at a fixed per-task threshold.
+ * <p>
+ * A task registers itself in the thread running it, and spillable maps created in that thread acquire memory from
+ * the task before keeping entries in memory. Work handed over to other threads is wrapped by
+ * {@link #withCurrentTask(Callable)} to acquire memory from the same task.
+ */
+public class SpillMemoryArbiter {
+
+  private static final ThreadLocal<TaskMemory> CURRENT_TASK = new ThreadLocal<>();
+
+  private final long totalBytes;
+  private final long fairShareBytes;
+  private final Set<TaskMemory> tasks = Sets.newHashSet();
+  private long usedBytes = 0L;
+
+  /**
+   * @param totalBytes  memory budget of all tasks
+   * @param parallelism max number of tasks running at the same time
+   */
+  public SpillMemoryArbiter(long totalBytes, int parallelism) {
+    Preconditions.checkArgument(totalBytes > 0, "totalBytes should be positive");
+    Preconditions.checkArgument(parallelism > 0, "parallelism should be positive");
+    this.totalBytes = totalBytes;
+    this.fairShareBytes = totalBytes / parallelism;
+  }
+
+  /**
+   * The task registered in the current thread, null if there is none.
+   */
+  @Nullable
+  public static TaskMemory currentTask() {
+    return CURRENT_TASK.get();
+  }
+
+  /**
+   * Wrap an action to run in another thread with the task registered in the current thread, so maps created by the
+   * action acquire memory from the same task.
+   */
+  public static <T> Callable<T> withCurrentTask(Callable<T> action) {
+    TaskMemory task = currentTask();
+    if (task == null) {
+      return action;
+    }
+    return () -> {
+      TaskMemory previous = CURRENT_TASK.get();
+      CURRENT_TASK.set(task);
+      try {
+        return action.call();
+      } finally {
+        if (previous == null) {
+          CURRENT_TASK.remove();
+        } else {
+          CURRENT_TASK.set(previous);
+        }
+      }
+    };
+  }
+
+  /**
+   * Register a task running in the current thread, the task should be closed when it is done.
+   */
+  public synchronized TaskMemory registerTask() {
+    TaskMemory task = new TaskMemory();
+    tasks.add(task);
+    CURRENT_TASK.set(task);
+    return task;
+  }
+
+  public synchronized long usedBytes() {
+    return usedBytes;
+  }
+
+  public long totalBytes() {
+    return totalBytes;
+  }
+
+  private synchronized boolean tryAcquire(TaskMemory task, long bytes) {
+    // keep the unused fair share of other running tasks
+    long reservedBytes = 0L;
+    for (TaskMemory other : tasks) {
+      if (other != task) {
+        reservedBytes += Math.max(0L, fairShareBytes - other.usedBytes);
+      }
+    }
+    if (usedBytes + reservedBytes + bytes > totalBytes) {
+      return false;
+    }
+    task.usedBytes += bytes;
+    usedBytes += bytes;
+    return true;
+  }
+
+  private synchronized void release(TaskMemory task, long bytes) {
+    long released = Math.min(bytes, task.usedBytes);
+    task.usedBytes -= released;
+    usedBytes -= released;
+  }
+
+  private synchronized void unregister(TaskMemory task) {
+    if (tasks.remove(task)) {
+      usedBytes -= task.usedBytes;
+      task.usedBytes = 0L;
+    }
+  }
+
+  /**
+   * Memory acquired by one task.
+   */
+  public class TaskMemory implements Closeable {
+    // guarded by the arbiter
+    private long usedBytes = 0L;
+
+    /**
+     * Acquire memory for the task.
+     *
+     * @return false if the process has no memory left for the task, the caller should spill instead
+     */
+    public boolean tryAcquire(long bytes) {
+      return SpillMemoryArbiter.this.tryAcquire(this, bytes);
+    }
+
+    public void release(long bytes) {
+      SpillMemoryArbiter.this.release(this, bytes);
+    }
+
+    public long usedBytes() {
+      synchronized (SpillMemoryArbiter.this) {
+        return usedBytes;
+      }
+    }
+
+    /**
+     * Memory guaranteed to the task, totalBytes / parallelism.
+     */
+    public long fairShareBytes() {
+      return fairShareBytes;
+    }
+
+    /**
+     * Release all memory of the task and unregister it.
+     */
+    @Override
+    public void close() {
+      SpillMemoryArbiter.this.unregister(this);
+      if (CURRENT_TASK.get() == this) {
+        CURRENT_TASK.remove();
+      }
+    }
+  }
+}
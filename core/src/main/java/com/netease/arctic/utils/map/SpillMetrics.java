@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics of the spillable maps created by one {@link StructLikeCollections}, maps report to it when closed.
+ */
+public class SpillMetrics implements Serializable {
+
+  private final AtomicLong bloomFilterSizeInBytes = new AtomicLong();
+  private final AtomicLong bloomFilterNegatives = new AtomicLong();
+  private final AtomicLong bloomFilterFalsePositives = new AtomicLong();
+  private final AtomicLong mapCount = new AtomicLong();
+  private final AtomicLong peakMemorySizeInBytes = new AtomicLong();
+  private final AtomicLong inMemoryRecordCount = new AtomicLong();
+  private final AtomicLong spilledRecordCount = new AtomicLong();
+
+  public void reportMap(long peakMemorySizeInBytes, long inMemoryRecordCount, long spilledRecordCount) {
+    this.mapCount.incrementAndGet();
+    this.peakMemorySizeInBytes.addAndGet(peakMemorySizeInBytes);
+    this.inMemoryRecordCount.addAndGet(inMemoryRecordCount);
+    this.spilledRecordCount.addAndGet(spilledRecordCount);
+  }
+
+  public void reportBloomFilter(long sizeInBytes, long negatives, long falsePositives) {
+    bloomFilterSizeInBytes.addAndGet(sizeInBytes);
+    bloomFilterNegatives.addAndGet(negatives);
+    bloomFilterFalsePositives.addAndGet(falsePositives);
+  }
+
+  /**
+   * Total memory of Bloom filters over spilled keys.
+   */
+  public long bloomFilterSizeInBytes() {
+    return bloomFilterSizeInBytes.get();
+  }
+
+  /**
+   * Fraction of lookups of absent keys that passed the Bloom filter and still went to disk.
+   */
+  public double bloomFilterFalsePositiveRate() {
+    long falsePositives = bloomFilterFalsePositives.get();
+    long absentLookups = falsePositives + bloomFilterNegatives.get();
+    return absentLookups == 0 ? 0D : (double) falsePositives / absentLookups;
+  }
+
+  /**
+   * Sum of the max estimated memory of each spillable map.
+   */
+  public long peakMemorySizeInBytes() {
+    return peakMemorySizeInBytes.get();
+  }
+
+  /**
+   * Number of records kept in memory when maps are closed.
+   */
+  public long inMemoryRecordCount() {
+    return inMemoryRecordCount.get();
+  }
+
+  /**
+   * Number of records put to disk.
+   */
+  public long spilledRecordCount() {
+    return spilledRecordCount.get();
+  }
+
+  public boolean hasSpillableMap() {
+    return mapCount.get() > 0;
+  }
+
+  public boolean hasBloomFilter() {
+    return bloomFilterSizeInBytes.get() > 0;
+  }
+}
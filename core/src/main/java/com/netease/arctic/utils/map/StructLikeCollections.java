@@ -19,9 +19,15 @@
 package com.netease.arctic.utils.map;
 
 import com.netease.arctic.utils.StructLikeSet;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.deletes.PositionDelete;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.types.Types;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class StructLikeCollections implements Serializable {
 
@@ -30,6 +36,12 @@ public class StructLikeCollections implements Serializable {
   private final boolean enableSpillableMap;
   private Long maxInMemorySizeInBytes;
   private String backendBaseDir;
+  private boolean enableOffHeapMap = false;
+  private int deleteLoadParallelism = 1;
+  private boolean enableDeleteFileCache = false;
+  private long posDeleteBufferSizeInBytes = Long.MAX_VALUE;
+  private int pipelinedRewriteParallelism = 0;
+  private final SpillMetrics metrics = new SpillMetrics();
 
   public StructLikeCollections(boolean enableSpillableMap, Long maxInMemorySizeInBytes) {
     if (maxInMemorySizeInBytes == null || maxInMemorySizeInBytes == 0) {
@@ -48,19 +60,157 @@ public class StructLikeCollections implements Serializable {
     this.backendBaseDir = backendBaseDir;
   }
 
+  public StructLikeCollections(
+      boolean enableSpillableMap, Long maxInMemorySizeInBytes, String backendBaseDir,
+      boolean enableOffHeapMap) {
+    this(enableSpillableMap, maxInMemorySizeInBytes);
+    this.backendBaseDir = backendBaseDir;
+    this.enableOffHeapMap = enableOffHeapMap;
+  }
+
+  public StructLikeCollections(
+      boolean enableSpillableMap, Long maxInMemorySizeInBytes, String backendBaseDir,
+      boolean enableOffHeapMap, int deleteLoadParallelism) {
+    this(enableSpillableMap, maxInMemorySizeInBytes, backendBaseDir, enableOffHeapMap);
+    this.deleteLoadParallelism = Math.max(1, deleteLoadParallelism);
+  }
+
+  public StructLikeCollections(
+      boolean enableSpillableMap, Long maxInMemorySizeInBytes, String backendBaseDir,
+      boolean enableOffHeapMap, int deleteLoadParallelism, boolean enableDeleteFileCache) {
+    this(enableSpillableMap, maxInMemorySizeInBytes, backendBaseDir, enableOffHeapMap, deleteLoadParallelism);
+    this.enableDeleteFileCache = enableDeleteFileCache;
+  }
+
+  public StructLikeCollections(
+      boolean enableSpillableMap, Long maxInMemorySizeInBytes, String backendBaseDir,
+      boolean enableOffHeapMap, int deleteLoadParallelism, boolean enableDeleteFileCache,
+      long posDeleteBufferSizeInBytes) {
+    this(enableSpillableMap, maxInMemorySizeInBytes, backendBaseDir, enableOffHeapMap, deleteLoadParallelism,
+        enableDeleteFileCache);
+    this.posDeleteBufferSizeInBytes = posDeleteBufferSizeInBytes > 0 ? posDeleteBufferSizeInBytes : Long.MAX_VALUE;
+  }
+
+  public StructLikeCollections(
+      boolean enableSpillableMap, Long maxInMemorySizeInBytes, String backendBaseDir,
+      boolean enableOffHeapMap, int deleteLoadParallelism, boolean enableDeleteFileCache,
+      long posDeleteBufferSizeInBytes, int pipelinedRewriteParallelism) {
+    this(enableSpillableMap, maxInMemorySizeInBytes, backendBaseDir, enableOffHeapMap, deleteLoadParallelism,
+        enableDeleteFileCache, posDeleteBufferSizeInBytes);
+    this.pipelinedRewriteParallelism = Math.max(0, pipelinedRewriteParallelism);
+  }
+
+  /**
+   * Create collections with default settings, reading equality delete files with the given parallelism.
+   */
+  public static StructLikeCollections withDeleteLoadParallelism(int deleteLoadParallelism) {
+    return new StructLikeCollections(false, null, null, false, deleteLoadParallelism);
+  }
+
+  public boolean isEnableSpillableMap() {
+    return enableSpillableMap;
+  }
+
+  public Long getMaxInMemorySizeInBytes() {
+    return maxInMemorySizeInBytes;
+  }
+
+  public String getBackendBaseDir() {
+    return backendBaseDir;
+  }
+
+  /**
+   * Number of equality delete files read at the same time when loading them into a map.
+   */
+  public int getDeleteLoadParallelism() {
+    return deleteLoadParallelism;
+  }
+
+  /**
+   * The delete file cache shared by the tasks of the process, null if the cache is not enabled or not created.
+   */
+  @Nullable
+  public DeleteFileCache getDeleteFileCache() {
+    return enableDeleteFileCache ? DeleteFileCache.sharedInstance() : null;
+  }
+
+  /**
+   * Max bytes of positions buffered by a position delete writer before they are flushed to a delete file,
+   * Long.MAX_VALUE if not bounded.
+   */
+  public long getPosDeleteBufferSizeInBytes() {
+    return posDeleteBufferSizeInBytes;
+  }
+
+  /**
+   * Whether rows of a rewrite task are read and filtered in a background thread while they are written.
+   */
+  public boolean isEnablePipelinedRewrite() {
+    return pipelinedRewriteParallelism > 0;
+  }
+
+  /**
+   * Max number of rewrite tasks running in the process at the same time if pipelined rewrite is enabled, 0 otherwise.
+   */
+  public int getPipelinedRewriteParallelism() {
+    return pipelinedRewriteParallelism;
+  }
+
+  /**
+   * Metrics of the spillable maps and sets created by this instance.
+   */
+  public SpillMetrics getMetrics() {
+    return metrics;
+  }
+
   public <T> StructLikeBaseMap<T> createStructLikeMap(Types.StructType type) {
     if (!enableSpillableMap) {
       return StructLikeMemoryMap.create(type);
     } else {
-      return StructLikeSpillableMap.create(type, maxInMemorySizeInBytes, backendBaseDir);
+      return StructLikeSpillableMap.create(type, maxInMemorySizeInBytes, backendBaseDir, metrics);
     }
   }
 
+  /**
+   * Create a map with values of the given class. If the off-heap map is enabled, keys with only fixed width fields
+   * and values of Long, Integer or ChangedLsn are kept off heap, other maps fall back to memory or spillable map.
+   * If the spillable map is enabled, the off-heap map is bounded by the same memory limit and spills new keys once
+   * it is full.
+   */
+  public <T> SimpleMap<StructLike, T> createStructLikeMap(Types.StructType type, Class<T> valueClass) {
+    if (enableOffHeapMap && OffHeapStructLikeMap.isSupported(type, valueClass)) {
+      if (!enableSpillableMap) {
+        return OffHeapStructLikeMap.create(type, valueClass);
+      }
+      return OffHeapStructLikeMap.create(type, valueClass, maxInMemorySizeInBytes,
+          remainingBytes -> StructLikeSpillableMap.create(type, remainingBytes, backendBaseDir, metrics));
+    }
+    return createStructLikeMap(type);
+  }
+
   public StructLikeSet createStructLikeSet(Types.StructType type) {
     if (!enableSpillableMap) {
       return StructLikeSet.createMemorySet(type);
     } else {
-      return StructLikeSet.createSpillableSet(type, maxInMemorySizeInBytes, backendBaseDir);
+      return StructLikeSet.createSpillableSet(type, maxInMemorySizeInBytes, backendBaseDir, metrics);
+    }
+  }
+
+  public PosDeleteIndex createPosDeleteIndex(Function<String, CloseableIterable<Long>> positionLoader) {
+    return createPosDeleteIndex(positionLoader, null);
+  }
+
+  /**
+   * @param positionLoader       load the deleted positions of a data file
+   * @param sharedPositionLoader load the deleted positions of all data files at once
+   */
+  public PosDeleteIndex createPosDeleteIndex(
+      Function<String, CloseableIterable<Long>> positionLoader,
+      @Nullable Supplier<CloseableIterable<PositionDelete<?>>> sharedPositionLoader) {
+    if (!enableSpillableMap) {
+      return new BitmapPosDeleteIndex(positionLoader, sharedPositionLoader, Long.MAX_VALUE);
+    } else {
+      return new BitmapPosDeleteIndex(positionLoader, sharedPositionLoader, maxInMemorySizeInBytes);
     }
   }
 }
@@ -32,17 +32,26 @@ public class StructLikeSpillableMap<T> extends StructLikeBaseMap<T> {
   public static <T> StructLikeSpillableMap<T> create(Types.StructType type,
                                                      Long maxInMemorySizeInBytes,
                                                      @Nullable String backendBaseDir) {
-    return new StructLikeSpillableMap<>(type, maxInMemorySizeInBytes, backendBaseDir);
+    return new StructLikeSpillableMap<>(type, maxInMemorySizeInBytes, backendBaseDir, null);
   }
 
-  private final SimpleMap<StructLikeWrapper, T> wrapperMap;
+  public static <T> StructLikeSpillableMap<T> create(Types.StructType type,
+                                                     Long maxInMemorySizeInBytes,
+                                                     @Nullable String backendBaseDir,
+                                                     @Nullable SpillMetrics metrics) {
+    return new StructLikeSpillableMap<>(type, maxInMemorySizeInBytes, backendBaseDir, metrics);
+  }
+
+  private final SimpleSpillableMap<StructLikeWrapper, T> wrapperMap;
 
-  private StructLikeSpillableMap(Types.StructType type, Long maxInMemorySizeInBytes, @Nullable String backendBaseDir) {
+  private StructLikeSpillableMap(Types.StructType type, Long maxInMemorySizeInBytes, @Nullable String backendBaseDir,
+                                 @Nullable SpillMetrics metrics) {
     super(type);
     this.wrapperMap = new SimpleSpillableMap<>(maxInMemorySizeInBytes, backendBaseDir,
-        SerializationUtil.createStructLikeWrapperSerializer(structLikeWrapperFactory),
+        SerializationUtil.createStructLikeWrapperSerializer(type, structLikeWrapperFactory),
         SerializationUtil.createJavaSimpleSerializer(),
-        new StructLikeWrapperSizeEstimator(), new DefaultSizeEstimator<>());
+        new StructLikeWrapperSchemaSizeEstimator(type), new FixedSizeEstimator<>());
+    this.wrapperMap.setMetrics(metrics);
   }
 
   @Override
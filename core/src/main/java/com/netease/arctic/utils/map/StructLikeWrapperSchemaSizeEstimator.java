@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import com.netease.arctic.iceberg.InternalRecordWrapper;
+import com.netease.arctic.iceberg.StructLikeWrapper;
+import com.netease.arctic.utils.ObjectSizeCalculator;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size Estimator for StructLikeWrapper keys, computing the retained bytes of a key from the struct type instead of
+ * walking the object graph by reflection like {@link StructLikeWrapperSizeEstimator}.
+ * <p>
+ * Sizes follow the layout of a 64-bit HotSpot JVM with compressed oops: 12 bytes object header, 4 bytes references
+ * and 8 bytes alignment. Objects shared by all keys, like comparators and the struct type, are not counted.
+ */
+public class StructLikeWrapperSchemaSizeEstimator implements SizeEstimator<StructLikeWrapper>, Serializable {
+
+  private static final int OBJECT_HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  // StructLikeWrapper with 4 references and its cached Integer hash code
+  private static final long WRAPPER_SIZE = align(OBJECT_HEADER + 4 * REFERENCE) + align(OBJECT_HEADER + 4);
+  // InternalRecordWrapper with references to the shared transforms and the wrapped record
+  private static final long INTERNAL_WRAPPER_SIZE = align(OBJECT_HEADER + 2 * REFERENCE);
+  // GenericRecord with references to the struct type, values and positions, and an int size
+  private static final long RECORD_SIZE = align(OBJECT_HEADER + 3 * REFERENCE + 4);
+
+  private static final long INTEGER_SIZE = align(OBJECT_HEADER + 4);
+  private static final long LONG_SIZE = align(OBJECT_HEADER + 8);
+  private static final long STRING_SIZE = align(OBJECT_HEADER + REFERENCE + 4 + 4);
+  private static final long UUID_SIZE = align(OBJECT_HEADER + 16);
+  private static final long BYTE_BUFFER_SIZE = 48;
+  private static final long LOCAL_DATE_SIZE = align(OBJECT_HEADER + 4 + 2 + 2);
+  private static final long LOCAL_TIME_SIZE = align(OBJECT_HEADER + 3 + 4);
+  private static final long LOCAL_DATE_TIME_SIZE = align(OBJECT_HEADER + 2 * REFERENCE) +
+      LOCAL_DATE_SIZE + LOCAL_TIME_SIZE;
+  // the ZoneOffset is shared
+  private static final long OFFSET_DATE_TIME_SIZE = align(OBJECT_HEADER + 2 * REFERENCE) + LOCAL_DATE_TIME_SIZE;
+  private static final long BIG_DECIMAL_SIZE = align(OBJECT_HEADER + 8 + 2 * 4 + 2 * REFERENCE);
+  private static final long BIG_INTEGER_SIZE = align(OBJECT_HEADER + 5 * 4 + REFERENCE);
+  // a decimal with no more than 18 digits keeps its unscaled value in a long
+  private static final int MAX_COMPACT_DECIMAL_PRECISION = 18;
+  private static final double BITS_PER_DIGIT = Math.log(10) / Math.log(2);
+  // average length of variable-length values without metrics
+  private static final long DEFAULT_VALUE_LENGTH = 16;
+
+  // strings are backed by a byte array using 1 byte per latin1 char since Java 9, and by a char array before
+  private static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version").startsWith("1.");
+
+  private final Types.StructType type;
+
+  public StructLikeWrapperSchemaSizeEstimator(Types.StructType type) {
+    this.type = type;
+  }
+
+  @Override
+  public long sizeEstimate(StructLikeWrapper structLikeWrapper) {
+    if (structLikeWrapper == null) {
+      return 0;
+    }
+    return WRAPPER_SIZE + structSize(type, structLikeWrapper.get());
+  }
+
+  /**
+   * Estimate the retained bytes of a struct of the type, without the wrapper.
+   */
+  public long structSizeEstimate(StructLike struct) {
+    return structSize(type, struct);
+  }
+
+  /**
+   * Estimate the retained bytes of a key read from files before reading it, from the struct type and the average
+   * lengths of variable-length values, like the column sizes in file metrics divided by the record counts. The key is
+   * a wrapped copy of a generic record like keys put into a {@link StructLikeSpillableMap}.
+   *
+   * @param averageLengths average lengths in bytes of variable-length values by field id, a default length is used
+   *                       for fields missing from the map
+   */
+  public long keySizeEstimate(Map<Integer, Long> averageLengths) {
+    return WRAPPER_SIZE + INTERNAL_WRAPPER_SIZE + structSize(type, averageLengths);
+  }
+
+  private static long structSize(Types.StructType type, Map<Integer, Long> averageLengths) {
+    List<Types.NestedField> fields = type.fields();
+    long size = RECORD_SIZE + align(ARRAY_HEADER + (long) REFERENCE * fields.size());
+    for (Types.NestedField field : fields) {
+      long length = averageLengths.getOrDefault(field.fieldId(), DEFAULT_VALUE_LENGTH);
+      switch (field.type().typeId()) {
+        case BOOLEAN:
+          break;
+        case INTEGER:
+        case FLOAT:
+          size += INTEGER_SIZE;
+          break;
+        case LONG:
+        case DOUBLE:
+          size += LONG_SIZE;
+          break;
+        case DATE:
+          size += LOCAL_DATE_SIZE;
+          break;
+        case TIME:
+          size += LOCAL_TIME_SIZE;
+          break;
+        case TIMESTAMP:
+          size += ((Types.TimestampType) field.type()).shouldAdjustToUTC() ?
+              OFFSET_DATE_TIME_SIZE : LOCAL_DATE_TIME_SIZE;
+          break;
+        case STRING:
+          size += STRING_SIZE + align(ARRAY_HEADER + (COMPACT_STRINGS ? 1 : 2) * length);
+          break;
+        case UUID:
+          size += UUID_SIZE;
+          break;
+        case FIXED:
+          size += BYTE_BUFFER_SIZE + align(ARRAY_HEADER + (long) ((Types.FixedType) field.type()).length());
+          break;
+        case BINARY:
+          size += BYTE_BUFFER_SIZE + align(ARRAY_HEADER + length);
+          break;
+        case DECIMAL:
+          size += decimalSize((Types.DecimalType) field.type());
+          break;
+        case STRUCT:
+          size += structSize(field.type().asStructType(), averageLengths);
+          break;
+        default:
+          size += length;
+      }
+    }
+    return size;
+  }
+
+  private static long structSize(Types.StructType type, StructLike struct) {
+    if (struct == null) {
+      return 0;
+    }
+    long size = 0;
+    if (struct instanceof InternalRecordWrapper) {
+      // the wrapper converts values when they are read, the wrapped record retains the original values
+      size += INTERNAL_WRAPPER_SIZE;
+      struct = ((InternalRecordWrapper) struct).get();
+    }
+    size += RECORD_SIZE + align(ARRAY_HEADER + (long) REFERENCE * struct.size());
+    List<Types.NestedField> fields = type.fields();
+    for (int i = 0; i < fields.size(); i++) {
+      size += valueSize(fields.get(i).type(), struct.get(i, Object.class));
+    }
+    return size;
+  }
+
+  private static long valueSize(Type type, Object value) {
+    if (value == null) {
+      return 0;
+    }
+    switch (type.typeId()) {
+      case BOOLEAN:
+        // boxed booleans are shared
+        return 0;
+      case INTEGER:
+      case FLOAT:
+        return INTEGER_SIZE;
+      case LONG:
+      case DOUBLE:
+        return LONG_SIZE;
+      case DATE:
+        return value instanceof Integer ? INTEGER_SIZE : LOCAL_DATE_SIZE;
+      case TIME:
+        return value instanceof Long ? LONG_SIZE : LOCAL_TIME_SIZE;
+      case TIMESTAMP:
+        if (value instanceof LocalDateTime) {
+          return LOCAL_DATE_TIME_SIZE;
+        } else if (value instanceof OffsetDateTime) {
+          return OFFSET_DATE_TIME_SIZE;
+        }
+        return LONG_SIZE;
+      case STRING:
+        return stringSize(value);
+      case UUID:
+        return value instanceof java.util.UUID ? UUID_SIZE : binarySize(value);
+      case FIXED:
+      case BINARY:
+        return binarySize(value);
+      case DECIMAL:
+        return decimalSize((Types.DecimalType) type);
+      case STRUCT:
+        return structSize(type.asStructType(), (StructLike) value);
+      default:
+        // nested collections are not expected in keys
+        return ObjectSizeCalculator.getObjectSize(value);
+    }
+  }
+
+  private static long stringSize(Object value) {
+    if (!(value instanceof String)) {
+      // other char sequences are converted to strings by the serializer, count them as strings
+      return STRING_SIZE + charArraySize(value.toString());
+    }
+    return STRING_SIZE + charArraySize((String) value);
+  }
+
+  private static long charArraySize(String value) {
+    int length = value.length();
+    if (!COMPACT_STRINGS) {
+      return align(ARRAY_HEADER + 2L * length);
+    }
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) > 0xFF) {
+        return align(ARRAY_HEADER + 2L * length);
+      }
+    }
+    return align(ARRAY_HEADER + (long) length);
+  }
+
+  private static long binarySize(Object value) {
+    if (value instanceof byte[]) {
+      return align(ARRAY_HEADER + (long) ((byte[]) value).length);
+    }
+    ByteBuffer buffer = (ByteBuffer) value;
+    int capacity = buffer.hasArray() ? buffer.array().length : buffer.capacity();
+    return BYTE_BUFFER_SIZE + align(ARRAY_HEADER + (long) capacity);
+  }
+
+  private static long decimalSize(Types.DecimalType type) {
+    if (type.precision() <= MAX_COMPACT_DECIMAL_PRECISION) {
+      return BIG_DECIMAL_SIZE;
+    }
+    long words = (long) Math.ceil(type.precision() * BITS_PER_DIGIT / Integer.SIZE);
+    return BIG_DECIMAL_SIZE + BIG_INTEGER_SIZE + align(ARRAY_HEADER + 4 * words);
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
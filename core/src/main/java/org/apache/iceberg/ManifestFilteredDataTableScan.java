@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.iceberg;
+
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileIO;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Data table scan reading only the data and delete manifests accepted by a manifest filter, used to plan a table
+ * part by part without reading all manifests at once.
+ */
+public class ManifestFilteredDataTableScan extends DataTableScan {
+  Predicate<ManifestFile> manifestFilter;
+
+  public ManifestFilteredDataTableScan(Table table, Schema schema) {
+    super(table, schema, ImmutableTableScanContext.builder().build());
+  }
+
+  protected ManifestFilteredDataTableScan(Table table, Schema schema, TableScanContext context) {
+    super(table, schema, context);
+  }
+
+  /**
+   * Create a new scan reading only the manifests accepted by the filter.
+   *
+   * @param filter a manifest filter
+   * @return a new scan based on this with the manifest filter
+   */
+  public ManifestFilteredDataTableScan filterManifests(Predicate<ManifestFile> filter) {
+    ManifestFilteredDataTableScan scan = (ManifestFilteredDataTableScan) newRefinedScan(table(), schema(), context());
+    scan.manifestFilter = filter;
+    return scan;
+  }
+
+  @Override
+  protected TableScan newRefinedScan(Table table, Schema schema, TableScanContext context) {
+    ManifestFilteredDataTableScan scan = new ManifestFilteredDataTableScan(table, schema, context);
+    scan.manifestFilter = this.manifestFilter;
+    return scan;
+  }
+
+  @Override
+  public CloseableIterable<FileScanTask> doPlanFiles() {
+    if (manifestFilter == null) {
+      return super.doPlanFiles();
+    }
+    Snapshot snapshot = snapshot();
+    FileIO io = table().io();
+    List<ManifestFile> dataManifests = filter(snapshot.dataManifests(io));
+    List<ManifestFile> deleteManifests = filter(snapshot.deleteManifests(io));
+    scanMetrics().totalDataManifests().increment(dataManifests.size());
+    scanMetrics().totalDeleteManifests().increment(deleteManifests.size());
+
+    ManifestGroup manifestGroup = new ManifestGroup(io, dataManifests, deleteManifests)
+        .caseSensitive(isCaseSensitive())
+        .select(scanColumns())
+        .filterData(filter())
+        .specsById(table().specs())
+        .scanMetrics(scanMetrics())
+        .ignoreDeleted();
+    if (shouldIgnoreResiduals()) {
+      manifestGroup = manifestGroup.ignoreResiduals();
+    }
+    if (dataManifests.size() > 1 && shouldPlanWithExecutor()) {
+      manifestGroup = manifestGroup.planWith(planExecutor());
+    }
+    return manifestGroup.planFiles();
+  }
+
+  private List<ManifestFile> filter(List<ManifestFile> manifests) {
+    return manifests.stream().filter(manifestFilter).collect(Collectors.toList());
+  }
+}
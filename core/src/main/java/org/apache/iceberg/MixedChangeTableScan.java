@@ -27,11 +27,13 @@ import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.util.StructLikeMap;
 
+import java.util.function.Predicate;
+
 /**
  * Table scan for {@link com.netease.arctic.table.ChangeTable}, support filter files with data sequence number
  * and return {@link BasicArcticFileScanTask}.
  */
-public class MixedChangeTableScan extends DataTableScan implements ChangeTableIncrementalScan {
+public class MixedChangeTableScan extends ManifestFilteredDataTableScan implements ChangeTableIncrementalScan {
   private StructLikeMap<Long> fromPartitionSequence;
   private StructLikeMap<Long> fromPartitionLegacyTransactionId;
   private Long toSequence;
@@ -63,9 +65,16 @@ public class MixedChangeTableScan extends DataTableScan implements ChangeTableIn
     scan.fromPartitionSequence = this.fromPartitionSequence;
     scan.fromPartitionLegacyTransactionId = this.fromPartitionLegacyTransactionId;
     scan.toSequence = this.toSequence;
+    scan.fromSequence = this.fromSequence;
+    scan.manifestFilter = this.manifestFilter;
     return scan;
   }
 
+  @Override
+  public MixedChangeTableScan filterManifests(Predicate<ManifestFile> filter) {
+    return (MixedChangeTableScan) super.filterManifests(filter);
+  }
+
   @Override
   public ChangeTableIncrementalScan fromSequence(StructLikeMap<Long> partitionSequence) {
     MixedChangeTableScan scan = newRefinedScan(table(), schema(), context());
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.catalog;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.netease.arctic.BasicTableTestHelper;
+import com.netease.arctic.TableTestHelper;
+import com.netease.arctic.ams.api.TableFormat;
+import com.netease.arctic.table.ArcticTable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestCachingArcticCatalog extends CatalogTestBase {
+
+  private long nanos = 0L;
+  private CachingArcticCatalog cachingCatalog;
+
+  public TestCachingArcticCatalog() {
+    super(new BasicCatalogTestHelper(TableFormat.MIXED_ICEBERG));
+  }
+
+  @Before
+  public void before() {
+    Ticker ticker = () -> nanos;
+    cachingCatalog = new CachingArcticCatalog(getCatalog(), 10, TimeUnit.MINUTES.toMillis(5), 1000L, ticker);
+    getCatalog().createDatabase(TableTestHelper.TEST_DB_NAME);
+    getCatalog().newTableBuilder(TableTestHelper.TEST_TABLE_ID, BasicTableTestHelper.TABLE_SCHEMA)
+        .withPrimaryKeySpec(BasicTableTestHelper.PRIMARY_KEY_SPEC)
+        .create();
+  }
+
+  @After
+  public void after() {
+    getCatalog().dropTable(TableTestHelper.TEST_TABLE_ID, true);
+    getCatalog().dropDatabase(TableTestHelper.TEST_DB_NAME);
+  }
+
+  @Test
+  public void testLoadCachedTable() {
+    ArcticTable table = cachingCatalog.loadTable(TableTestHelper.TEST_TABLE_ID);
+    Assert.assertTrue(table.isKeyedTable());
+    Assert.assertSame(table, cachingCatalog.loadTable(TableTestHelper.TEST_TABLE_ID));
+    Assert.assertEquals(1, cachingCatalog.cachedTables());
+
+    // commit through another instance of the table
+    getCatalog().loadTable(TableTestHelper.TEST_TABLE_ID).updateProperties().set("key", "value").commit();
+    Assert.assertNull(cachingCatalog.loadTable(TableTestHelper.TEST_TABLE_ID).properties().get("key"));
+
+    // refreshed after the revalidation interval
+    nanos += TimeUnit.SECONDS.toNanos(1);
+    ArcticTable revalidated = cachingCatalog.loadTable(TableTestHelper.TEST_TABLE_ID);
+    Assert.assertSame(table, revalidated);
+    Assert.assertEquals("value", revalidated.properties().get("key"));
+  }
+
+  @Test
+  public void testExpireCachedTable() {
+    ArcticTable table = cachingCatalog.loadTable(TableTestHelper.TEST_TABLE_ID);
+    nanos += TimeUnit.MINUTES.toNanos(6);
+    Assert.assertEquals(0, cachingCatalog.cachedTables());
+    Assert.assertNotSame(table, cachingCatalog.loadTable(TableTestHelper.TEST_TABLE_ID));
+  }
+
+  @Test
+  public void testDropCachedTable() {
+    cachingCatalog.loadTable(TableTestHelper.TEST_TABLE_ID);
+    Assert.assertTrue(cachingCatalog.dropTable(TableTestHelper.TEST_TABLE_ID, true));
+    Assert.assertEquals(0, cachingCatalog.cachedTables());
+    Assert.assertFalse(cachingCatalog.tableExists(TableTestHelper.TEST_TABLE_ID));
+  }
+
+  @Test
+  public void testWrap() {
+    Assert.assertSame(getCatalog(), CachingArcticCatalog.wrap(getCatalog()));
+    Assert.assertSame(getCatalog(), CachingArcticCatalog.unwrap(cachingCatalog));
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.data;
+
+import com.netease.arctic.table.PrimaryKeySpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestPrimaryKeyData {
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.required(1, "id", Types.LongType.get()),
+      Types.NestedField.optional(2, "name", Types.StringType.get()),
+      Types.NestedField.optional(3, "value", Types.IntegerType.get()));
+
+  @Test
+  public void testTreeNodeIndex() {
+    PrimaryKeySpec keySpec = PrimaryKeySpec.builderFor(SCHEMA).addColumn("id").addColumn("name").build();
+    PrimaryKeyData primaryKey = new PrimaryKeyData(keySpec, SCHEMA);
+    Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      Record record = GenericRecord.create(SCHEMA);
+      record.set(0, random.nextLong());
+      record.set(1, i % 10 == 0 ? null : "name-" + random.nextInt());
+      record.set(2, i);
+      for (long mask : new long[] {0, 1, 3, 255, 1023}) {
+        long index = primaryKey.treeNodeIndex(record, mask);
+        primaryKey.primaryKey(record);
+        Assert.assertEquals(primaryKey.treeNode(mask), DataTreeNode.of(mask, index));
+      }
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.iceberg;
+
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.DateTimeUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class TestDeleteKeyBounds {
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.required(1, "id", Types.LongType.get()),
+      Types.NestedField.required(2, "op_time", Types.TimestampType.withoutZone()),
+      Types.NestedField.optional(3, "name", Types.StringType.get()));
+
+  private static final Schema DELETE_SCHEMA = SCHEMA.select("id", "op_time");
+
+  private static final LocalDateTime TIME = LocalDateTime.of(2023, 6, 29, 13, 0);
+
+  @Test
+  public void testMayOverlap() {
+    DeleteKeyBounds bounds = DeleteKeyBounds.of(
+        new DataFile[] {dataFile(1, 100, 0, 10), dataFile(201, 300, 5, 20)}, DELETE_SCHEMA.asStruct());
+    Assert.assertNotNull(bounds);
+
+    Assert.assertTrue(bounds.mayOverlap(deleteFile(50, 150, 0, 5)));
+    // keys between data files are not pruned by the bounds of files
+    Assert.assertTrue(bounds.mayOverlap(deleteFile(101, 200, 0, 5)));
+    Assert.assertTrue(bounds.mayOverlap(deleteFile(300, 400, 20, 30)));
+    Assert.assertFalse(bounds.mayOverlap(deleteFile(301, 400, 0, 5)));
+    Assert.assertFalse(bounds.mayOverlap(deleteFile(-100, 0, 0, 5)));
+    Assert.assertFalse(bounds.mayOverlap(deleteFile(1, 100, 21, 30)));
+
+    DeleteFile withoutBounds = FileMetadata.deleteFileBuilder(PartitionSpec.unpartitioned())
+        .ofEqualityDeletes(1, 2)
+        .withPath("/delete-without-bounds.parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(10)
+        .withRecordCount(1)
+        .build();
+    Assert.assertTrue(bounds.mayOverlap(withoutBounds));
+  }
+
+  @Test
+  public void testContains() {
+    DeleteKeyBounds bounds = DeleteKeyBounds.of(
+        new DataFile[] {dataFile(1, 100, 0, 10), dataFile(201, 300, 5, 20)}, DELETE_SCHEMA.asStruct());
+    Assert.assertNotNull(bounds);
+    InternalRecordWrapper wrapper = new InternalRecordWrapper(DELETE_SCHEMA.asStruct());
+
+    Assert.assertTrue(bounds.contains(wrapper.wrap(deleteKey(1L, 0))));
+    Assert.assertTrue(bounds.contains(wrapper.wrap(deleteKey(300L, 20))));
+    Assert.assertTrue(bounds.contains(wrapper.wrap(deleteKey(150L, 10))));
+    Assert.assertTrue(bounds.contains(wrapper.wrap(deleteKey(null, 10))));
+    Assert.assertFalse(bounds.contains(wrapper.wrap(deleteKey(0L, 10))));
+    Assert.assertFalse(bounds.contains(wrapper.wrap(deleteKey(301L, 10))));
+    Assert.assertFalse(bounds.contains(wrapper.wrap(deleteKey(150L, 21))));
+  }
+
+  @Test
+  public void testWithoutBounds() {
+    DataFile withoutBounds = DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath("/data-without-bounds.parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(10)
+        .withRecordCount(1)
+        .build();
+    Assert.assertNull(DeleteKeyBounds.of(
+        new DataFile[] {dataFile(1, 100, 0, 10), withoutBounds}, DELETE_SCHEMA.asStruct()));
+    Assert.assertNull(DeleteKeyBounds.of(new DataFile[0], DELETE_SCHEMA.asStruct()));
+  }
+
+  private static Record deleteKey(Long id, int minutes) {
+    Record record = GenericRecord.create(DELETE_SCHEMA);
+    record.set(0, id);
+    record.set(1, TIME.plusMinutes(minutes));
+    return record;
+  }
+
+  private static DataFile dataFile(long lowerId, long upperId, int lowerMinutes, int upperMinutes) {
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath("/data-" + lowerId + ".parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(10)
+        .withMetrics(metrics(lowerId, upperId, lowerMinutes, upperMinutes))
+        .build();
+  }
+
+  private static DeleteFile deleteFile(long lowerId, long upperId, int lowerMinutes, int upperMinutes) {
+    return FileMetadata.deleteFileBuilder(PartitionSpec.unpartitioned())
+        .ofEqualityDeletes(1, 2)
+        .withPath("/delete-" + lowerId + ".parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(10)
+        .withMetrics(metrics(lowerId, upperId, lowerMinutes, upperMinutes))
+        .build();
+  }
+
+  private static Metrics metrics(long lowerId, long upperId, int lowerMinutes, int upperMinutes) {
+    Map<Integer, ByteBuffer> lowerBounds = ImmutableMap.of(
+        1, Conversions.toByteBuffer(Types.LongType.get(), lowerId),
+        2, Conversions.toByteBuffer(Types.TimestampType.withoutZone(), micros(lowerMinutes)));
+    Map<Integer, ByteBuffer> upperBounds = ImmutableMap.of(
+        1, Conversions.toByteBuffer(Types.LongType.get(), upperId),
+        2, Conversions.toByteBuffer(Types.TimestampType.withoutZone(), micros(upperMinutes)));
+    return new Metrics(10L, null, null, null, null, lowerBounds, upperBounds);
+  }
+
+  private static long micros(int minutes) {
+    return DateTimeUtil.microsFromTimestamp(TIME.plusMinutes(minutes));
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.iceberg;
+
+import com.netease.arctic.table.MetadataColumns;
+import com.netease.arctic.utils.SerializationUtil;
+import com.netease.arctic.utils.map.SpillMemoryArbiter;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class TestEqDeleteSortMerger {
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.required(1, "id", Types.IntegerType.get()),
+      MetadataColumns.TRANSACTION_ID_FILED);
+  private static final Schema DELETE_SCHEMA = SCHEMA.select("id");
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testMerge() throws IOException {
+    List<Integer> ids = Lists.newArrayList();
+    for (int i = 0; i < 1000; i++) {
+      ids.add(i);
+    }
+    Collections.shuffle(ids, new Random(7));
+    // rows with even ids are deleted by equality deletes, the row of id 5 is deleted by position deletes
+    Predicate<StructForDelete<Record>> posDeleted = row -> row.recover().get(0, Integer.class) == 5;
+
+    List<Integer> expected = ids.stream().filter(id -> id % 2 == 1 && id != 5).collect(Collectors.toList());
+    Assert.assertEquals(expected, merge(ids, posDeleted, false));
+    expected = ids.stream().filter(id -> id % 2 == 0 || id == 5).collect(Collectors.toList());
+    Assert.assertEquals(expected, merge(ids, posDeleted, true));
+  }
+
+  @Test
+  public void testMergeWithTaskMemory() throws IOException {
+    List<Integer> ids = Lists.newArrayList(3, 2, 1, 0);
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(1L << 20, 1);
+    try (SpillMemoryArbiter.TaskMemory task = arbiter.registerTask()) {
+      Assert.assertEquals(Lists.newArrayList(3, 1), merge(ids, row -> false, false));
+      Assert.assertEquals(0, task.usedBytes());
+    }
+  }
+
+  private List<Integer> merge(
+      List<Integer> ids, Predicate<StructForDelete<Record>> posDeleted, boolean negate) throws IOException {
+    File spillDir = temp.newFolder();
+    // a small memory limit to spill sorted runs
+    EqDeleteSortMerger<Record> merger = new EqDeleteSortMerger<>(
+        DELETE_SCHEMA.asStruct(), SerializationUtil.createRecordSerializer(), 2048, spillDir.getAbsolutePath());
+
+    StructForDelete<Record> structForDelete = new StructForDelete<>(SCHEMA, Sets.newHashSet(1));
+    AtomicInteger reads = new AtomicInteger();
+    CloseableIterable<StructForDelete<Record>> records = CloseableIterable.transform(
+        CloseableIterable.withNoopClose(ids), id -> {
+          reads.incrementAndGet();
+          return structForDelete.wrap(row(id, 1L));
+        });
+
+    List<Integer> result = Lists.newArrayList();
+    try (CloseableIterable<StructForDelete<Record>> merged =
+             merger.merge(() -> deletes(ids), records, posDeleted, negate)) {
+      try (CloseableIterator<StructForDelete<Record>> iterator = merged.iterator()) {
+        iterator.forEachRemaining(row -> result.add(row.recover().get(0, Integer.class)));
+        // sorted runs are deleted once the deleted rows are known, only the spilled rows are left
+        Assert.assertEquals(1, spillDir.list().length);
+      }
+      Assert.assertArrayEquals(new String[0], spillDir.list());
+    }
+    // data rows are read only once
+    Assert.assertEquals(ids.size(), reads.get());
+    return result;
+  }
+
+  private static CloseableIterable<CombinedDeleteFilter.RecordWithLsn> deletes(List<Integer> ids) {
+    List<CombinedDeleteFilter.RecordWithLsn> deletes = Lists.newArrayList();
+    for (int id : ids) {
+      Record key = GenericRecord.create(DELETE_SCHEMA);
+      key.set(0, id);
+      // deletes of odd ids are older than the data
+      deletes.add(new CombinedDeleteFilter.RecordWithLsn(id % 2 == 0 ? 2L : 0L, key));
+    }
+    return CloseableIterable.withNoopClose(deletes);
+  }
+
+  private static Record row(int id, long lsn) {
+    Record record = GenericRecord.create(SCHEMA);
+    record.set(0, id);
+    record.set(1, lsn);
+    return record;
+  }
+}
@@ -24,6 +24,7 @@ import com.netease.arctic.catalog.BasicCatalogTestHelper;
 import com.netease.arctic.catalog.TableTestBase;
 import com.netease.arctic.io.reader.GenericCombinedIcebergDataReader;
 import com.netease.arctic.optimizing.RewriteFilesInput;
+import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
 import org.apache.iceberg.FileFormat;
@@ -54,6 +55,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RunWith(Parameterized.class)
 public class TestIcebergCombinedReader extends TableTestBase {
@@ -163,6 +165,39 @@ public class TestIcebergCombinedReader extends TableTestBase {
     dataReader.close();
   }
 
+  @Test
+  public void readAllDataBySortMerge() throws IOException {
+    // a tiny memory limit makes equality deletes applied by sort-merge, with every row spilled
+    GenericCombinedIcebergDataReader dataReader = new GenericCombinedIcebergDataReader(getArcticTable().io(),
+        getArcticTable().schema(),
+        getArcticTable().spec(), null, false,
+        IdentityPartitionConverters::convertConstant, false,
+        new StructLikeCollections(true, 1L, temp.newFolder().getPath()), scanTask);
+    try (CloseableIterable<Record> records = dataReader.readData()) {
+      Assert.assertEquals(1, Iterables.size(records));
+      Record record = Iterables.getFirst(records, null);
+      Assert.assertEquals(record.get(0), 3);
+    }
+    dataReader.close();
+  }
+
+  @Test
+  public void readAllDataNegateBySortMerge() throws IOException {
+    GenericCombinedIcebergDataReader dataReader = new GenericCombinedIcebergDataReader(getArcticTable().io(),
+        getArcticTable().schema(),
+        getArcticTable().spec(), null, false,
+        IdentityPartitionConverters::convertConstant, false,
+        new StructLikeCollections(true, 1L, temp.newFolder().getPath()), scanTask);
+    try (CloseableIterable<Record> records = dataReader.readDeletedData()) {
+      Assert.assertEquals(2, Iterables.size(records));
+      Record first = Iterables.getFirst(records, null);
+      Assert.assertEquals(first.get(1), 0L);
+      Record last = Iterables.getLast(records);
+      Assert.assertEquals(last.get(1), 1L);
+    }
+    dataReader.close();
+  }
+
   @Test
   public void readOnlyData() throws IOException {
     GenericCombinedIcebergDataReader dataReader = new GenericCombinedIcebergDataReader(getArcticTable().io(),
@@ -175,6 +210,23 @@ public class TestIcebergCombinedReader extends TableTestBase {
     dataReader.close();
   }
 
+  @Test
+  public void readOnlyDataWithReusedContainer() throws IOException {
+    GenericCombinedIcebergDataReader dataReader = new GenericCombinedIcebergDataReader(getArcticTable().io(),
+        getArcticTable().schema(),
+        getArcticTable().spec(), null, false,
+        IdentityPartitionConverters::convertConstant, true, null, dataScanTask);
+    try (CloseableIterable<Record> records = dataReader.readData()) {
+      Set<Object> ids = Sets.newHashSet();
+      for (Record record : records) {
+        Assert.assertEquals(getArcticTable().schema().columns().size(), record.size());
+        ids.add(record.get(0));
+      }
+      Assert.assertEquals(3, ids.size());
+    }
+    dataReader.close();
+  }
+
   @Test
   public void readOnlyDataNegate() throws IOException {
     GenericCombinedIcebergDataReader dataReader = new GenericCombinedIcebergDataReader(getArcticTable().io(),
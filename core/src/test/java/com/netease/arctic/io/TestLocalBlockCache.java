@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.iceberg.Files;
+import org.apache.iceberg.io.IOUtil;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestLocalBlockCache {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testReadThroughCache() throws IOException {
+    LocalBlockCache cache = new LocalBlockCache(temp.newFolder().getPath(), 1024 * 1024);
+    byte[] bytes = randomBytes(10000);
+    InputFile inputFile = new CachedInputFile(localInput(bytes), cache, 1000, Long.MAX_VALUE);
+
+    Assert.assertArrayEquals(bytes, readAll(inputFile));
+    Assert.assertEquals(0, cache.hitCount());
+    Assert.assertEquals(10, cache.missCount());
+    Assert.assertEquals(10, cache.size());
+    Assert.assertEquals(bytes.length, cache.sizeInBytes());
+
+    Assert.assertArrayEquals(bytes, readAll(inputFile));
+    Assert.assertEquals(10, cache.hitCount());
+    Assert.assertEquals(0.5D, cache.hitRate(), 0.0001D);
+
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      stream.seek(5500);
+      byte[] read = new byte[1000];
+      IOUtil.readFully(stream, read, 0, read.length);
+      Assert.assertArrayEquals(Arrays.copyOfRange(bytes, 5500, 6500), read);
+    }
+    Assert.assertEquals(10, cache.missCount());
+  }
+
+  @Test
+  public void testSharedInstances() throws IOException {
+    String directory = temp.newFolder().getPath();
+    LocalBlockCache cache = LocalBlockCache.getOrCreateSharedInstance(directory, 5000);
+    Assert.assertSame(cache, LocalBlockCache.getOrCreateSharedInstance(directory, 5000));
+
+    // a different capacity under the same directory is not ignored
+    LocalBlockCache largerCache = LocalBlockCache.getOrCreateSharedInstance(directory, 10000);
+    Assert.assertNotSame(cache, largerCache);
+    Assert.assertEquals(5000, cache.capacityInBytes());
+    Assert.assertEquals(10000, largerCache.capacityInBytes());
+    cache.close();
+    largerCache.close();
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    LocalBlockCache cache = new LocalBlockCache(temp.newFolder().getPath(), 5000);
+    byte[] bytes = randomBytes(10000);
+    InputFile inputFile = new CachedInputFile(localInput(bytes), cache, 1000, Long.MAX_VALUE);
+
+    Assert.assertArrayEquals(bytes, readAll(inputFile));
+    Assert.assertEquals(5, cache.size());
+    Assert.assertEquals(5, cache.evictionCount());
+    Assert.assertTrue(cache.sizeInBytes() <= cache.capacityInBytes());
+
+    // the first blocks are evicted
+    Assert.assertArrayEquals(bytes, readAll(inputFile));
+    Assert.assertEquals(0, cache.hitCount());
+  }
+
+  @Test
+  public void testLargeFileNotCached() throws IOException {
+    LocalBlockCache cache = new LocalBlockCache(temp.newFolder().getPath(), 1024 * 1024);
+    byte[] bytes = randomBytes(10000);
+    InputFile inputFile = new CachedInputFile(localInput(bytes), cache, 1000, 5000);
+
+    Assert.assertArrayEquals(bytes, readAll(inputFile));
+    Assert.assertEquals(0, cache.size());
+    Assert.assertEquals(0, cache.missCount());
+  }
+
+  @Test
+  public void testClose() throws IOException {
+    File base = temp.newFolder();
+    LocalBlockCache cache = new LocalBlockCache(base.getPath(), 1024 * 1024);
+    byte[] bytes = randomBytes(10000);
+    InputFile inputFile = new CachedInputFile(localInput(bytes), cache, 1000, Long.MAX_VALUE);
+    Assert.assertArrayEquals(bytes, readAll(inputFile));
+    Assert.assertEquals(1, base.list().length);
+
+    cache.close();
+    Assert.assertEquals(0, base.list().length);
+    Assert.assertEquals(0, cache.size());
+
+    // blocks are not cached once the cache is closed
+    Assert.assertArrayEquals(bytes, readAll(inputFile));
+    Assert.assertEquals(0, base.list().length);
+  }
+
+  @Test
+  public void testDeleteStaleDirectories() throws IOException {
+    File base = temp.newFolder();
+    LocalBlockCache liveCache = new LocalBlockCache(base.getPath(), 1024 * 1024);
+
+    // left by a process killed before cleaning up, the lock file is not locked any more
+    File staleDirectory = new File(base, "block-cache-stale");
+    Assert.assertTrue(staleDirectory.mkdir());
+    Assert.assertTrue(new File(staleDirectory, ".lock").createNewFile());
+    java.nio.file.Files.write(new File(staleDirectory, "0").toPath(), randomBytes(100));
+
+    LocalBlockCache cache = new LocalBlockCache(base.getPath(), 1024 * 1024);
+    Assert.assertFalse(staleDirectory.exists());
+    // the directory of the live cache is kept
+    Assert.assertEquals(2, base.list().length);
+
+    liveCache.close();
+    cache.close();
+    Assert.assertEquals(0, base.list().length);
+  }
+
+  private static byte[] readAll(InputFile inputFile) throws IOException {
+    byte[] read = new byte[(int) inputFile.getLength()];
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      IOUtil.readFully(stream, read, 0, read.length);
+    }
+    return read;
+  }
+
+  private InputFile localInput(byte[] bytes) throws IOException {
+    File file = new File(temp.newFolder(), "data");
+    java.nio.file.Files.write(file.toPath(), bytes);
+    return Files.localInput(file);
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(1).nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.iceberg.util.ThreadPools;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestParallelCloseableIterable {
+
+  @Test
+  public void testReadAll() throws IOException {
+    AtomicInteger closed = new AtomicInteger();
+    List<CloseableIterable<Integer>> iterables = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      iterables.add(range(i * 10000, (i + 1) * 10000, closed));
+    }
+
+    Set<Integer> actual = Sets.newHashSet();
+    try (CloseableIterable<Integer> concat = ParallelCloseableIterable.concat(iterables, 4, null)) {
+      for (Integer value : concat) {
+        Assert.assertTrue(actual.add(value));
+      }
+    }
+    Assert.assertEquals(100000, actual.size());
+    Assert.assertEquals(IntStream.range(0, 100000).boxed().collect(Collectors.toSet()), actual);
+    Assert.assertTrue(closed.get() >= 10);
+  }
+
+  @Test
+  public void testCloseBeforeExhausted() throws IOException {
+    AtomicInteger closed = new AtomicInteger();
+    List<CloseableIterable<Integer>> iterables = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      iterables.add(range(0, 100000, closed));
+    }
+
+    CloseableIterable<Integer> concat = ParallelCloseableIterable.concat(iterables, 4, null);
+    try (CloseableIterator<Integer> iterator = concat.iterator()) {
+      for (int i = 0; i < 100; i++) {
+        Assert.assertTrue(iterator.hasNext());
+        iterator.next();
+      }
+    }
+    Assert.assertTrue(closed.get() >= 10);
+  }
+
+  @Test
+  public void testFailure() {
+    List<CloseableIterable<Integer>> iterables = Lists.newArrayList(
+        range(0, 1000, new AtomicInteger()),
+        CloseableIterable.transform(range(0, 1000, new AtomicInteger()), value -> {
+          if (value == 500) {
+            throw new IllegalStateException("failed to read");
+          }
+          return value;
+        }));
+
+    CloseableIterable<Integer> concat = ParallelCloseableIterable.concat(iterables, 2, null);
+    Assert.assertThrows(IllegalStateException.class, () -> {
+      try (CloseableIterator<Integer> iterator = concat.iterator()) {
+        while (iterator.hasNext()) {
+          iterator.next();
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testSequential() {
+    List<CloseableIterable<Integer>> iterables = Lists.newArrayList(
+        range(0, 10, new AtomicInteger()), range(10, 20, new AtomicInteger()));
+    CloseableIterable<Integer> concat = ParallelCloseableIterable.concat(iterables, 1, null);
+    Assert.assertFalse(concat instanceof ParallelCloseableIterable);
+    Assert.assertEquals(
+        IntStream.range(0, 20).boxed().collect(Collectors.toList()),
+        Lists.newArrayList(concat));
+  }
+
+  @Test
+  public void testPrefetch() throws IOException {
+    AtomicInteger closed = new AtomicInteger();
+    Set<String> readThreads = Sets.newConcurrentHashSet();
+    CloseableIterable<Integer> iterable = CloseableIterable.transform(range(0, 1000, closed), value -> {
+      readThreads.add(Thread.currentThread().getName());
+      return value;
+    });
+
+    try (CloseableIterable<Integer> prefetch = ParallelCloseableIterable.prefetch(iterable, null)) {
+      // elements keep the order of the iterable
+      Assert.assertEquals(
+          IntStream.range(0, 1000).boxed().collect(Collectors.toList()),
+          Lists.newArrayList(prefetch));
+    }
+    Assert.assertFalse(readThreads.contains(Thread.currentThread().getName()));
+    Assert.assertTrue(closed.get() >= 1);
+  }
+
+  @Test
+  public void testCloseWhileReading() throws IOException, InterruptedException {
+    AtomicBoolean reading = new AtomicBoolean();
+    AtomicBoolean closedWhileReading = new AtomicBoolean();
+    CountDownLatch started = new CountDownLatch(1);
+    CloseableIterable<Integer> iterable = CloseableIterable.combine(
+        () -> new Iterator<Integer>() {
+          @Override
+          public boolean hasNext() {
+            return true;
+          }
+
+          @Override
+          public Integer next() {
+            reading.set(true);
+            started.countDown();
+            // a read ignoring interrupts
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            while (System.nanoTime() < deadline) {
+              Thread.yield();
+            }
+            reading.set(false);
+            return 0;
+          }
+        },
+        () -> closedWhileReading.compareAndSet(false, reading.get()));
+
+    CloseableIterable<Integer> prefetch = ParallelCloseableIterable.prefetch(iterable, null);
+    CloseableIterator<Integer> iterator = prefetch.iterator();
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+    iterator.close();
+    Assert.assertFalse(closedWhileReading.get());
+  }
+
+  @Test
+  public void testReadWithoutFreeThreads() throws IOException, InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch blocked = new CountDownLatch(ThreadPools.WORKER_THREAD_POOL_SIZE);
+    List<CloseableIterator<Integer>> blockers = Lists.newArrayList();
+    try {
+      // occupy all threads of the pool
+      for (int i = 0; i < ThreadPools.WORKER_THREAD_POOL_SIZE; i++) {
+        CloseableIterable<Integer> blocker = CloseableIterable.transform(range(0, 1, new AtomicInteger()), value -> {
+          blocked.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return value;
+        });
+        blockers.add(ParallelCloseableIterable.prefetch(blocker, null).iterator());
+      }
+      Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+      Set<String> readThreads = Sets.newConcurrentHashSet();
+      AtomicInteger closed = new AtomicInteger();
+      List<CloseableIterable<Integer>> iterables = Lists.newArrayList();
+      for (int i = 0; i < 4; i++) {
+        iterables.add(CloseableIterable.transform(range(i * 100, (i + 1) * 100, closed), value -> {
+          readThreads.add(Thread.currentThread().getName());
+          return value;
+        }));
+      }
+      // iterables are read by the consuming thread
+      Assert.assertEquals(
+          IntStream.range(0, 400).boxed().collect(Collectors.toList()),
+          Lists.newArrayList(ParallelCloseableIterable.concat(iterables, 4, null)));
+      Assert.assertEquals(Sets.newHashSet(Thread.currentThread().getName()), readThreads);
+      Assert.assertEquals(4, closed.get());
+    } finally {
+      release.countDown();
+      for (CloseableIterator<Integer> blocker : blockers) {
+        blocker.close();
+      }
+    }
+  }
+
+  private static CloseableIterable<Integer> range(int from, int to, AtomicInteger closed) {
+    return CloseableIterable.combine(
+        IntStream.range(from, to).boxed().collect(Collectors.toList()),
+        closed::incrementAndGet);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import org.apache.iceberg.Files;
+import org.apache.iceberg.io.IOUtil;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.SeekableInputStream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestReadAheadInputFile {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testSequentialRead() throws IOException {
+    byte[] bytes = randomBytes(10000);
+    ReadAheadMetrics metrics = new ReadAheadMetrics();
+    InputFile inputFile = new ReadAheadInputFile(localInput(bytes), 1000, 4, metrics);
+
+    byte[] read = new byte[bytes.length];
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      read[0] = (byte) stream.read();
+      IOUtil.readFully(stream, read, 1, bytes.length - 1);
+      Assert.assertEquals(bytes.length, stream.getPos());
+      Assert.assertEquals(-1, stream.read());
+    }
+    Assert.assertArrayEquals(bytes, read);
+    Assert.assertEquals(bytes.length, metrics.bytesRead());
+    // the first block and the blocks ahead of it are read by one request
+    Assert.assertTrue(metrics.requests() < 10);
+  }
+
+  @Test
+  public void testSeek() throws IOException {
+    byte[] bytes = randomBytes(10000);
+    ReadAheadMetrics metrics = new ReadAheadMetrics();
+    InputFile inputFile = new ReadAheadInputFile(localInput(bytes), 1000, 2, metrics);
+
+    try (SeekableInputStream stream = inputFile.newStream()) {
+      // read the tail like the footer of a parquet file
+      stream.seek(9990);
+      byte[] tail = new byte[10];
+      IOUtil.readFully(stream, tail, 0, tail.length);
+      Assert.assertArrayEquals(Arrays.copyOfRange(bytes, 9990, 10000), tail);
+
+      stream.seek(2500);
+      byte[] middle = new byte[3000];
+      IOUtil.readFully(stream, middle, 0, middle.length);
+      Assert.assertArrayEquals(Arrays.copyOfRange(bytes, 2500, 5500), middle);
+
+      stream.seek(9995);
+      Assert.assertEquals(bytes[9995] & 0xFF, stream.read());
+    }
+    Assert.assertTrue(metrics.bytesRead() < bytes.length);
+    Assert.assertTrue(metrics.blockHits() > 0);
+  }
+
+  @Test
+  public void testBufferBudget() throws IOException {
+    byte[] bytes = randomBytes(10000);
+    ReadAheadMetrics metrics = new ReadAheadMetrics();
+    InputFile file = localInput(bytes);
+    BufferBudget budget = new BufferBudget(2500);
+
+    byte[] read = new byte[bytes.length];
+    try (SeekableInputStream stream = new ReadAheadInputStream(file, bytes.length, 1000, 4, metrics, budget)) {
+      IOUtil.readFully(stream, read, 0, bytes.length);
+      // the block being read and one block ahead fit in the budget
+      Assert.assertTrue(budget.usedBytes() <= 2000);
+    }
+    Assert.assertArrayEquals(bytes, read);
+    Assert.assertEquals(0, budget.usedBytes());
+    // blocks are read ahead one by one instead of by ranges of 4 blocks
+    Assert.assertTrue(metrics.requests() >= 5);
+
+    // the block being read is buffered even if the budget is used up by other streams
+    budget.acquire(2500);
+    try (SeekableInputStream stream = new ReadAheadInputStream(file, bytes.length, 1000, 4, metrics, budget)) {
+      stream.seek(5000);
+      Assert.assertEquals(bytes[5000] & 0xFF, stream.read());
+    }
+    Assert.assertEquals(2500, budget.usedBytes());
+  }
+
+  private InputFile localInput(byte[] bytes) throws IOException {
+    File file = new File(temp.newFolder(), "data");
+    java.nio.file.Files.write(file.toPath(), bytes);
+    return Files.localInput(file);
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(1).nextBytes(bytes);
+    return bytes;
+  }
+}
@@ -25,6 +25,8 @@ import com.netease.arctic.catalog.TableTestBase;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.table.TableProperties;
 import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.relocated.com.google.common.collect.Streams;
 import org.junit.Assert;
 import org.junit.Before;
@@ -135,6 +137,26 @@ public class TestRecoverableArcticFileIO extends TableTestBase {
     Assert.assertTrue(trashManager.fileExistInTrash(file1));
   }
 
+  @Test
+  public void deleteFiles() throws IOException {
+    createFile(file1);
+    createFile(file2);
+    createFile(file3);
+    recoverableArcticFileIO.deleteFiles(Lists.newArrayList(file1, file2, file3));
+    for (String file : Lists.newArrayList(file1, file2, file3)) {
+      Assert.assertFalse(arcticFileIO.exists(file));
+      Assert.assertTrue(trashManager.fileExistInTrash(file));
+    }
+  }
+
+  @Test
+  public void existingPaths() throws IOException {
+    createFile(file1);
+    createFile(file3);
+    Assert.assertEquals(Sets.newHashSet(file1, file3),
+        recoverableArcticFileIO.existingPaths(Lists.newArrayList(file1, file2, file3)));
+  }
+
   @Test
   public void trashFilePattern() {
     Assert.assertTrue(recoverableArcticFileIO.matchTrashFilePattern(file1));
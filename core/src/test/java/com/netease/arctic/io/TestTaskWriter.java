@@ -29,6 +29,7 @@ import com.netease.arctic.data.ChangeAction;
 import com.netease.arctic.io.writer.GenericTaskWriters;
 import com.netease.arctic.io.writer.SortedPosDeleteWriter;
 import com.netease.arctic.scan.TableEntriesScan;
+import com.netease.arctic.table.TableProperties;
 import com.netease.arctic.table.UnkeyedTable;
 import com.netease.arctic.utils.ArcticTableUtil;
 import org.apache.iceberg.AppendFiles;
@@ -109,6 +110,88 @@ public class TestTaskWriter extends TableTestBase {
     Assert.assertEquals(Sets.newHashSet(insertRecords), Sets.newHashSet(readRecords));
   }
 
+  @Test
+  public void testBaseWriterWithMaxOpenFiles() {
+    getArcticTable().updateProperties().set(TableProperties.WRITE_FANOUT_MAX_OPEN_FILES, "1").commit();
+    List<Record> insertRecords = Lists.newArrayList();
+    insertRecords.add(tableTestHelper().generateTestRecord(1, "john", 0, "2022-01-01T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(2, "lily", 0, "2022-01-02T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(3, "jake", 0, "2022-01-03T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(4, "sam", 0, "2022-01-04T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(5, "mary", 0, "2022-01-01T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(6, "mack", 0, "2022-01-01T12:00:00"));
+
+    List<DataFile> files = tableTestHelper().writeBaseStore(getArcticTable(),
+        1L, insertRecords, false);
+    if (isKeyedTable()) {
+      // ids 1 to 6 go to tree nodes 0, 1, 2, 3, 0, 1, so every record completes the writer of the previous one
+      Assert.assertEquals(6, files.size());
+    } else {
+      // the writer of 2022-01-01 is completed once records of another partition come
+      Assert.assertEquals(isPartitionedTable() ? 5 : 1, files.size());
+    }
+
+    UnkeyedTable baseStore = ArcticTableUtil.baseStore(getArcticTable());
+    AppendFiles appendFiles = baseStore.newAppend();
+    files.forEach(appendFiles::appendFile);
+    appendFiles.commit();
+
+    List<Record> readRecords = tableTestHelper().readBaseStore(getArcticTable(),
+        Expressions.alwaysTrue(), null, false);
+    Assert.assertEquals(Sets.newHashSet(insertRecords), Sets.newHashSet(readRecords));
+  }
+
+  @Test
+  public void testBaseWriterWithMemoryLimit() {
+    List<Record> insertRecords = Lists.newArrayList();
+    insertRecords.add(tableTestHelper().generateTestRecord(1, "john", 0, "2022-01-01T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(2, "lily", 0, "2022-01-02T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(3, "jake", 0, "2022-01-03T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(4, "sam", 0, "2022-01-04T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(5, "mary", 0, "2022-01-01T12:00:00"));
+    insertRecords.add(tableTestHelper().generateTestRecord(6, "mack", 0, "2022-01-01T12:00:00"));
+
+    // a limit far above the buffered rows keeps all writers open, like the fan-out writer
+    getArcticTable().updateProperties()
+        .set(TableProperties.WRITE_FANOUT_MEMORY_LIMIT_BYTES, String.valueOf(64 * 1024 * 1024)).commit();
+    List<DataFile> files = tableTestHelper().writeBaseStore(getArcticTable(), 1L, insertRecords, false);
+    if (isKeyedTable()) {
+      Assert.assertEquals(isPartitionedTable() ? 5 : 4, files.size());
+    } else {
+      Assert.assertEquals(isPartitionedTable() ? 4 : 1, files.size());
+    }
+    assertFiles(files, insertRecords.size());
+
+    // any buffered row exceeds the limit, so the writer of the previous record is completed once another one comes
+    getArcticTable().updateProperties().set(TableProperties.WRITE_FANOUT_MEMORY_LIMIT_BYTES, "1").commit();
+    files = tableTestHelper().writeBaseStore(getArcticTable(), 2L, insertRecords, false);
+    if (isKeyedTable()) {
+      Assert.assertEquals(6, files.size());
+    } else {
+      Assert.assertEquals(isPartitionedTable() ? 5 : 1, files.size());
+    }
+    assertFiles(files, insertRecords.size());
+
+    UnkeyedTable baseStore = ArcticTableUtil.baseStore(getArcticTable());
+    AppendFiles appendFiles = baseStore.newAppend();
+    files.forEach(appendFiles::appendFile);
+    appendFiles.commit();
+
+    List<Record> readRecords = tableTestHelper().readBaseStore(getArcticTable(),
+        Expressions.alwaysTrue(), null, false);
+    Assert.assertEquals(Sets.newHashSet(insertRecords), Sets.newHashSet(readRecords));
+  }
+
+  private static void assertFiles(List<DataFile> files, long expectedRecordCount) {
+    long recordCount = 0;
+    for (DataFile file : files) {
+      Assert.assertTrue(file.recordCount() > 0);
+      Assert.assertTrue(file.fileSizeInBytes() > 0);
+      recordCount += file.recordCount();
+    }
+    Assert.assertEquals(expectedRecordCount, recordCount);
+  }
+
   @Test
   public void testBasePosDeleteWriter() throws IOException {
     DataFile dataFile = DataFileTestHelpers.getFile("/data", 1, getArcticTable().spec(),
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io;
+
+import com.netease.arctic.table.TableProperties;
+import org.apache.iceberg.Files;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.io.PositionOutputStream;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+public class TestWriteBehindOutputFile {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testWrite() throws IOException {
+    File file = new File(temp.newFolder(), "data");
+    OutputFile outputFile = new WriteBehindOutputFile(Files.localOutput(file), 1024, 2);
+
+    byte[] bytes = new byte[10000];
+    new Random(1).nextBytes(bytes);
+    try (PositionOutputStream stream = outputFile.create()) {
+      stream.write(bytes[0]);
+      stream.write(bytes, 1, 5000);
+      Assert.assertEquals(5001, stream.getPos());
+      stream.write(bytes, 5001, bytes.length - 5001);
+      Assert.assertEquals(bytes.length, stream.getPos());
+    }
+    Assert.assertArrayEquals(bytes, java.nio.file.Files.readAllBytes(Paths.get(file.getPath())));
+  }
+
+  @Test
+  public void testGrowingBuffer() throws IOException {
+    File file = new File(temp.newFolder(), "data");
+    int bufferSize = 64 * 1024;
+    WriteBehindBufferPool bufferPool = new WriteBehindBufferPool(bufferSize, 32 * 1024);
+
+    byte[] bytes = new byte[300 * 1024];
+    new Random(1).nextBytes(bytes);
+    try (PositionOutputStream stream = new WriteBehindOutputStream(
+        Files.localOutput(file).create(), file.getPath(), bufferPool, 2)) {
+      stream.write(bytes, 0, 4);
+      // the initial buffer is not counted
+      Assert.assertEquals(0, bufferPool.bufferedBytes());
+      for (int off = 4; off < bytes.length; off += 1000) {
+        stream.write(bytes, off, Math.min(1000, bytes.length - off));
+        Assert.assertTrue(bufferPool.bufferedBytes() <= 32 * 1024);
+      }
+    }
+    Assert.assertEquals(0, bufferPool.bufferedBytes());
+    Assert.assertArrayEquals(bytes, java.nio.file.Files.readAllBytes(Paths.get(file.getPath())));
+  }
+
+  @Test
+  public void testFailure() throws IOException {
+    FailingOutputFile failingFile = new FailingOutputFile(false);
+    RecordingFileIO io = new RecordingFileIO();
+    OutputFile outputFile = new WriteBehindOutputFile(failingFile, 16, 1, io);
+    PositionOutputStream stream = outputFile.create();
+    Assert.assertThrows(IOException.class, () -> {
+      for (int i = 0; i < 1000; i++) {
+        stream.write(new byte[16]);
+      }
+    });
+    Assert.assertThrows(IOException.class, stream::close);
+    // the stream does not support abort, the truncated file committed by closing it is deleted
+    Assert.assertTrue(failingFile.closed);
+    Assert.assertEquals(Lists.newArrayList("failing"), io.deletedFiles);
+  }
+
+  @Test
+  public void testAbortAfterFailure() throws IOException {
+    FailingOutputFile failingFile = new FailingOutputFile(true);
+    OutputFile outputFile = new WriteBehindOutputFile(failingFile, 16, 1);
+    PositionOutputStream stream = outputFile.create();
+    Assert.assertThrows(IOException.class, () -> {
+      for (int i = 0; i < 1000; i++) {
+        stream.write(new byte[16]);
+      }
+    });
+    Assert.assertThrows(IOException.class, stream::close);
+    Assert.assertTrue(failingFile.aborted);
+    Assert.assertFalse(failingFile.closed);
+  }
+
+  @Test
+  public void testWrap() {
+    OutputFile outputFile = Files.localOutput(new File("/tmp/data"));
+    Assert.assertSame(outputFile, WriteBehindOutputFile.wrap(outputFile, ImmutableMap.of()));
+    OutputFile writeBehind = WriteBehindOutputFile.wrap(
+        outputFile, ImmutableMap.of(TableProperties.WRITE_BEHIND_ENABLED, "true"));
+    Assert.assertTrue(writeBehind instanceof WriteBehindOutputFile);
+    Assert.assertSame(writeBehind, WriteBehindOutputFile.wrap(
+        writeBehind, ImmutableMap.of(TableProperties.WRITE_BEHIND_ENABLED, "true")));
+  }
+
+  private static class FailingOutputFile implements OutputFile {
+    private final boolean abortable;
+    private boolean closed = false;
+    private boolean aborted = false;
+
+    FailingOutputFile(boolean abortable) {
+      this.abortable = abortable;
+    }
+
+    @Override
+    public PositionOutputStream create() {
+      return abortable ? new AbortableStream() : new FailingStream();
+    }
+
+    private class AbortableStream extends FailingStream {
+      public void abort() {
+        aborted = true;
+      }
+    }
+
+    private class FailingStream extends PositionOutputStream {
+      @Override
+      public long getPos() {
+        return 0;
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("failed to write");
+      }
+
+      @Override
+      public void close() {
+        closed = true;
+      }
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite() {
+      return create();
+    }
+
+    @Override
+    public String location() {
+      return "failing";
+    }
+
+    @Override
+    public InputFile toInputFile() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class RecordingFileIO implements FileIO {
+    private final List<String> deletedFiles = Lists.newArrayList();
+
+    @Override
+    public InputFile newInputFile(String path) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public OutputFile newOutputFile(String path) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteFile(String path) {
+      deletedFiles.add(path);
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.io.writer;
+
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TestPositionDeleteBuffer {
+
+  @Test
+  public void testSortedPositions() {
+    PositionDeleteBuffer<String> buffer = new PositionDeleteBuffer<>();
+    for (long pos = 99; pos >= 0; pos--) {
+      buffer.add("data-2", pos, null);
+      buffer.add(new StringBuilder("data-1"), pos * 2, null);
+    }
+    Assert.assertEquals(200, buffer.size());
+    Assert.assertEquals(Lists.newArrayList("data-1", "data-2"), toStrings(buffer.sortedPaths()));
+
+    List<Long> positions = Lists.newArrayList();
+    buffer.forEachSorted("data-1", (pos, row) -> {
+      Assert.assertNull(row);
+      positions.add(pos);
+    });
+    Assert.assertEquals(100, positions.size());
+    for (int i = 0; i < positions.size(); i++) {
+      Assert.assertEquals(i * 2L, (long) positions.get(i));
+    }
+
+    buffer.clear();
+    Assert.assertTrue(buffer.isEmpty());
+    Assert.assertTrue(buffer.sortedPaths().isEmpty());
+  }
+
+  @Test
+  public void testSortedPositionsWithRows() {
+    PositionDeleteBuffer<String> buffer = new PositionDeleteBuffer<>();
+    buffer.add("data-1", 5, null);
+    buffer.add("data-1", 3, "row-3");
+    buffer.add("data-1", 1, "row-1");
+    buffer.add("data-1", 4, null);
+
+    List<Long> positions = Lists.newArrayList();
+    List<String> rows = Lists.newArrayList();
+    buffer.forEachSorted("data-1", (pos, row) -> {
+      positions.add(pos);
+      rows.add(row);
+    });
+    Assert.assertEquals(Lists.newArrayList(1L, 3L, 4L, 5L), positions);
+    Assert.assertEquals(Lists.newArrayList("row-1", "row-3", null, null), rows);
+  }
+
+  @Test
+  public void testSizeInBytesWithRows() {
+    PositionDeleteBuffer<String> buffer = new PositionDeleteBuffer<>();
+    buffer.add("data-1", 1, null);
+    buffer.add("data-1", 2, null);
+    Assert.assertEquals(2 * PositionDeleteBuffer.BYTES_PER_POSITION, buffer.sizeInBytes());
+
+    buffer.add("data-1", 3, "row-3");
+    buffer.add("data-2", 4, "row-4");
+    long bytesPerRow = (buffer.sizeInBytes() - 4 * PositionDeleteBuffer.BYTES_PER_POSITION) / 2;
+    Assert.assertTrue(bytesPerRow > PositionDeleteBuffer.BYTES_PER_POSITION);
+
+    buffer.clear();
+    Assert.assertEquals(0, buffer.sizeInBytes());
+    Assert.assertEquals(Long.MAX_VALUE, PositionDeleteBuffer.sizeInBytesOfPositions(Long.MAX_VALUE));
+  }
+
+  private static List<String> toStrings(List<CharSequence> paths) {
+    List<String> strings = Lists.newArrayList();
+    paths.forEach(path -> strings.add(path.toString()));
+    return strings;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.log;
+
+import com.netease.arctic.data.ChangeAction;
+import com.netease.arctic.utils.IdGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestLogDataBinarySerialization extends FormatTestBase {
+
+  @Test
+  public void testLogDataSerialize() {
+    LogData<UserPojo> logData = logData(FormatVersion.FORMAT_VERSION_V2, false, userPojo());
+    byte[] bytes = new LogDataBinarySerialization<>(userSchema, fieldGetterFactory).serialize(logData);
+    assertArrayEquals(FormatVersion.FORMAT_VERSION_V2.asBytes(), Bytes.subByte(bytes, 0, 4));
+
+    LogData<UserPojo> result =
+        new LogDataBinaryDeserialization<>(userSchema, factory, arrayFactory, mapFactory).deserialize(bytes);
+    check(logData, result);
+  }
+
+  @Test
+  public void testNullFields() {
+    UserPojo userPojo = userPojo();
+    // struct, string, uuid, decimal and map
+    userPojo.objects[3] = null;
+    userPojo.objects[10] = null;
+    userPojo.objects[11] = null;
+    userPojo.objects[14] = null;
+    userPojo.objects[18] = null;
+    userPojo.objects[15] = new GenericArrayData(new Long[] {null, null}, 2, false);
+    LogData<UserPojo> logData = logData(FormatVersion.FORMAT_VERSION_V2, false, userPojo);
+    byte[] bytes = new LogDataBinarySerialization<>(userSchema, fieldGetterFactory).serialize(logData);
+
+    LogData<UserPojo> result =
+        new LogDataBinaryDeserialization<>(userSchema, factory, arrayFactory, mapFactory).deserialize(bytes);
+    check(logData, result);
+    Assert.assertEquals(2, result.getActualValue().getArray(15).size());
+    Assert.assertTrue(result.getActualValue().getArray(15).isNullAt(1));
+  }
+
+  @Test
+  public void testFlip() {
+    LogData<UserPojo> logData = logData(FormatVersion.FORMAT_VERSION_V2, true, null);
+    byte[] bytes = new LogDataBinarySerialization<>(userSchema, fieldGetterFactory).serialize(logData);
+    assertEquals(18, bytes.length);
+
+    LogData<UserPojo> result =
+        new LogDataBinaryDeserialization<>(userSchema, factory, arrayFactory, mapFactory).deserialize(bytes);
+    Assert.assertTrue(result.getFlip());
+    Assert.assertNull(result.getActualValue());
+  }
+
+  @Test
+  public void testNegotiateFormatByVersion() throws IOException {
+    LogDataJsonSerialization<UserPojo> serialization = new LogDataJsonSerialization<>(userSchema, fieldGetterFactory);
+    LogDataJsonDeserialization<UserPojo> deserialization =
+        new LogDataJsonDeserialization<>(userSchema, factory, arrayFactory, mapFactory);
+
+    LogData<UserPojo> jsonLogData = logData(FormatVersion.FORMAT_VERSION_V1, false, userPojo());
+    byte[] jsonBytes = serialization.serialize(jsonLogData);
+    check(jsonLogData, deserialization.deserialize(jsonBytes));
+
+    LogData<UserPojo> binaryLogData = logData(FormatVersion.FORMAT_VERSION_V2, false, userPojo());
+    byte[] binaryBytes = serialization.serialize(binaryLogData);
+    assertArrayEquals(FormatVersion.FORMAT_VERSION_V2.asBytes(), Bytes.subByte(binaryBytes, 0, 4));
+    check(binaryLogData, deserialization.deserialize(binaryBytes));
+
+    Assert.assertTrue(binaryBytes.length * 2 < jsonBytes.length);
+  }
+
+  private LogData<UserPojo> logData(FormatVersion version, boolean flip, UserPojo userPojo) {
+    return new LogDataUser(
+        version.asBytes(),
+        IdGenerator.generateUpstreamId(),
+        123455L,
+        flip,
+        ChangeAction.INSERT,
+        userPojo
+    );
+  }
+
+  private UserPojo userPojo() {
+    UserPojo subUserPojo = new UserPojo();
+    subUserPojo.objects = new Object[] {false, 2, 987654321L};
+    UserPojo userPojo = new UserPojo();
+    userPojo.objects = new Object[] {
+        true,
+        1,
+        123456789L,
+        subUserPojo,
+        123.45f, 123.456789d,
+        (int) LocalDate.of(2022, 11, 11).toEpochDay(),
+        LocalTime.of(13, 23, 23, 98766545).toNanoOfDay(),
+        LocalDateTime.of(2022, 12, 12, 13, 14, 14, 987654234),
+        Instant.parse("2022-12-13T13:33:44.98765432Z"),
+        "ssss_string",
+        new byte[] {1},
+        new byte[] {'1'},
+        new byte[] {2},
+        BigDecimal.valueOf(111.111),
+        new GenericArrayData(new Long[] {123L, 234L, null, 345L}, 4, false),
+        new GenericArrayData(new int[] {123, 234, 0, 345}, 4, true),
+        new GenericArrayData(new UserPojo[] {subUserPojo}, 1, false),
+        new GenericMapData(new HashMap<Long, String>() {
+          {
+            put(1123L, "Str_123");
+            put(1124L, "Str_123");
+            put(1125L, "Str_123");
+          }
+        })
+    };
+    return userPojo;
+  }
+
+  private void check(LogData<UserPojo> expected, LogData<UserPojo> actual) {
+    assertArrayEquals(expected.getVersionBytes(), actual.getVersionBytes());
+    assertArrayEquals(expected.getUpstreamIdBytes(), actual.getUpstreamIdBytes());
+    assertEquals(expected.getEpicNo(), actual.getEpicNo());
+    assertEquals(expected.getFlip(), actual.getFlip());
+    assertEquals(expected.getChangeActionByte(), actual.getChangeActionByte());
+    assertEquals(expected.getActualValue().toString(), actual.getActualValue().toString());
+    assertEquals(expected.getActualValue().getArray(15), actual.getActualValue().getArray(15));
+    assertEquals(expected.getActualValue().getMap(18), actual.getActualValue().getMap(18));
+  }
+}
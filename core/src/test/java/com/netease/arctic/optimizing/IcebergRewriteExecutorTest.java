@@ -25,9 +25,12 @@ import com.netease.arctic.catalog.TableTestBase;
 import com.netease.arctic.io.MixedDataTestHelpers;
 import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
 import org.apache.iceberg.DeleteFile;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.MetadataColumns;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
 import org.apache.iceberg.TableProperties;
@@ -43,11 +46,14 @@ import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.InputFile;
 import org.apache.iceberg.io.OutputFileFactory;
 import org.apache.iceberg.parquet.Parquet;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Conversions;
 import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.Pair;
 import org.junit.Assert;
 import org.junit.Before;
@@ -56,11 +62,14 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @RunWith(Parameterized.class)
 public class IcebergRewriteExecutorTest extends TableTestBase {
@@ -173,6 +182,31 @@ public class IcebergRewriteExecutorTest extends TableTestBase {
     }
   }
 
+  @Test
+  public void readAllDataPipelined() throws IOException {
+    StructLikeCollections pipelined = new StructLikeCollections(
+        false, null, null, false, 1, false, Long.MAX_VALUE, 2);
+    IcebergRewriteExecutor executor = new IcebergRewriteExecutor(
+        scanTask,
+        getArcticTable(),
+        pipelined
+    );
+
+    RewriteFilesOutput output = executor.execute();
+
+    try (CloseableIterable<Record> records = openFile(output.getDataFiles()[0].path().toString(),
+        output.getDataFiles()[0].format(), getArcticTable().schema(), new HashMap<>())) {
+      Assert.assertEquals(1, Iterables.size(records));
+      Record record = Iterables.getFirst(records, null);
+      Assert.assertEquals(record.get(0), 3);
+    }
+
+    try (CloseableIterable<Record> records = openFile(output.getDeleteFiles()[0].path().toString(),
+        output.getDataFiles()[0].format(), posSchema, new HashMap<>())) {
+      Assert.assertEquals(2, Iterables.size(records));
+    }
+  }
+
   @Test
   public void readOnlyData() throws IOException {
     IcebergRewriteExecutor executor = new IcebergRewriteExecutor(
@@ -191,6 +225,94 @@ public class IcebergRewriteExecutorTest extends TableTestBase {
     Assert.assertTrue(output.getDeleteFiles() == null || output.getDeleteFiles().length == 0);
   }
 
+  @Test
+  public void stitchParquetRowGroups() throws IOException {
+    StructLike partitionData = getPartitionData();
+    OutputFileFactory outputFileFactory = OutputFileFactory.builderFor(getArcticTable().asUnkeyedTable(), 0, 2)
+        .format(fileFormat).build();
+    DataFile otherDataFile = FileHelpers.writeDataFile(getArcticTable().asUnkeyedTable(),
+        outputFileFactory.newOutputFile(partitionData).encryptingOutputFile(), partitionData,
+        Arrays.asList(
+            MixedDataTestHelpers.createRecord(4, "mary", 3, "1970-01-01T08:00:00"),
+            MixedDataTestHelpers.createRecord(5, "mack", 4, "1970-01-01T08:00:00")));
+    RewriteFilesInput input = new RewriteFilesInput(
+        new DataFile[] {dataScanTask.rewrittenDataFiles()[0], MixedDataTestHelpers.wrapIcebergDataFile(
+            otherDataFile, 1L)},
+        new DataFile[] {},
+        new DeleteFile[] {},
+        new DeleteFile[] {},
+        getArcticTable());
+    Assert.assertEquals(fileFormat == FileFormat.PARQUET,
+        IcebergParquetStitchingExecutor.canStitch(input, getArcticTable()));
+
+    RewriteFilesOutput output = new IcebergParquetStitchingExecutor(
+        input, getArcticTable(), StructLikeCollections.DEFAULT).execute();
+
+    Assert.assertEquals(1, output.getDataFiles().length);
+    DataFile outputFile = output.getDataFiles()[0];
+    Assert.assertEquals(5, outputFile.recordCount());
+    Assert.assertEquals(partitionData.size(), outputFile.partition().size());
+    try (CloseableIterable<Record> records = openFile(outputFile.path().toString(),
+        outputFile.format(), getArcticTable().schema(), new HashMap<>())) {
+      Set<Object> ids = Sets.newHashSet();
+      records.forEach(record -> ids.add(record.get(0)));
+      Assert.assertEquals(Sets.newHashSet(1, 2, 3, 4, 5), ids);
+    }
+  }
+
+  @Test
+  public void mergeFloatingPointMetrics() {
+    Schema schema = new Schema(
+        Types.NestedField.required(1, "id", Types.IntegerType.get()),
+        Types.NestedField.optional(2, "score", Types.DoubleType.get()));
+    DataFile file1 = dataFileWithMetrics(schema, 10L, 1L, 2L, 0.5D, 3.5D);
+    DataFile file2 = dataFileWithMetrics(schema, 10L, 0L, 3L, -1.5D, 2.5D);
+    // parquet statistics of the stitched file do not count NaN values
+    Metrics footerMetrics = new Metrics(20L, null,
+        ImmutableMap.of(1, 20L, 2, 20L),
+        ImmutableMap.of(1, 0L, 2, 1L),
+        null,
+        ImmutableMap.of(1, Conversions.toByteBuffer(Types.IntegerType.get(), 1),
+            2, Conversions.toByteBuffer(Types.DoubleType.get(), Double.NaN)),
+        ImmutableMap.of(1, Conversions.toByteBuffer(Types.IntegerType.get(), 20),
+            2, Conversions.toByteBuffer(Types.DoubleType.get(), Double.NaN)));
+
+    Metrics metrics = IcebergParquetStitchingExecutor.mergeFloatingPointMetrics(
+        footerMetrics, schema, Arrays.asList(file1, file2));
+    Assert.assertEquals(ImmutableMap.of(2, 5L), metrics.nanValueCounts());
+    Assert.assertEquals(-1.5D, Conversions.fromByteBuffer(Types.DoubleType.get(), metrics.lowerBounds().get(2)));
+    Assert.assertEquals(3.5D, Conversions.fromByteBuffer(Types.DoubleType.get(), metrics.upperBounds().get(2)));
+    Assert.assertEquals(footerMetrics.lowerBounds().get(1), metrics.lowerBounds().get(1));
+
+    // bounds are unknown if an input file has values but no bounds
+    DataFile fileWithoutBounds = dataFileWithMetrics(schema, 10L, 0L, 0L, null, null);
+    metrics = IcebergParquetStitchingExecutor.mergeFloatingPointMetrics(
+        footerMetrics, schema, Arrays.asList(file1, fileWithoutBounds));
+    Assert.assertEquals(ImmutableMap.of(2, 2L), metrics.nanValueCounts());
+    Assert.assertFalse(metrics.lowerBounds().containsKey(2));
+    Assert.assertFalse(metrics.upperBounds().containsKey(2));
+  }
+
+  private static DataFile dataFileWithMetrics(
+      Schema schema, long valueCount, long nullValueCount, long nanValueCount, Double lower, Double upper) {
+    Map<Integer, ByteBuffer> lowerBounds = Maps.newHashMap();
+    Map<Integer, ByteBuffer> upperBounds = Maps.newHashMap();
+    if (lower != null) {
+      lowerBounds.put(2, Conversions.toByteBuffer(Types.DoubleType.get(), lower));
+      upperBounds.put(2, Conversions.toByteBuffer(Types.DoubleType.get(), upper));
+    }
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath("/data/" + UUID.randomUUID() + ".parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(1024L)
+        .withMetrics(new Metrics(valueCount, null,
+            ImmutableMap.of(1, valueCount, 2, valueCount),
+            ImmutableMap.of(1, 0L, 2, nullValueCount),
+            ImmutableMap.of(2, nanValueCount),
+            lowerBounds, upperBounds))
+        .build();
+  }
+
   private CloseableIterable<Record> openFile(
       String path, FileFormat fileFormat, Schema fileProjection,
       Map<Integer, ?> idToConstant) {
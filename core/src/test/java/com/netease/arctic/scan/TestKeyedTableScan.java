@@ -35,6 +35,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TestKeyedTableScan extends TableDataTestBase {
 
@@ -46,8 +48,69 @@ public class TestKeyedTableScan extends TableDataTestBase {
     assertFileCount(6, 2, 1);
   }
 
+  @Test
+  public void testScanWithPlanningPool() throws IOException {
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      KeyedTableScan scan = getArcticTable().asKeyedTable().newScan().planWith(executorService);
+      assertFileCount(scan, 4, 2, 1);
+
+      KeyedTableScanMetrics metrics = scan.metrics();
+      Assert.assertNotNull(metrics.baseScanReport());
+      Assert.assertNotNull(metrics.changeScanReport());
+      Assert.assertTrue(metrics.scannedManifests() > 0);
+      Assert.assertTrue(metrics.planningDurationMs() >= 0);
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  public void testScanWithPlanCache() throws IOException {
+    LocalPlanCache planCache = new LocalPlanCache(temp.newFolder().getPath(), 1024 * 1024);
+    KeyedTableScan scan = getArcticTable().asKeyedTable().newScan().usePlanCache(planCache);
+    assertFileCount(scan, 4, 2, 1);
+    Assert.assertFalse(scan.metrics().planCacheHit());
+    Assert.assertEquals(1, planCache.size());
+
+    assertFileCount(scan, 4, 2, 1);
+    Assert.assertTrue(scan.metrics().planCacheHit());
+
+    // new snapshots are planned again
+    writeInsertFileIntoBaseStore();
+    getArcticTable().refresh();
+    scan = getArcticTable().asKeyedTable().newScan().usePlanCache(planCache);
+    assertFileCount(scan, 6, 2, 1);
+    Assert.assertFalse(scan.metrics().planCacheHit());
+  }
+
+  @Test
+  public void testScanWithStreamingPlan() throws IOException {
+    assertFileCount(getArcticTable().asKeyedTable().newScan().enableStreamingPlan(), 4, 2, 1);
+
+    // a new partition out of all existing manifests is planned after tasks of other partitions are returned
+    writeInsertFileIntoBaseStore("2022-02-01T12:00:00");
+    getArcticTable().refresh();
+    KeyedTableScan scan = getArcticTable().asKeyedTable().newScan().enableStreamingPlan();
+    try (CloseableIterable<CombinedScanTask> tasks = scan.planTasks()) {
+      CloseableIterator<CombinedScanTask> iterator = tasks.iterator();
+      Assert.assertTrue(iterator.hasNext());
+      iterator.next();
+      long scannedManifests = scan.metrics().scannedManifests();
+      Assert.assertTrue(scannedManifests > 0);
+      iterator.forEachRemaining(task -> { });
+      Assert.assertTrue(scan.metrics().scannedManifests() > scannedManifests);
+    }
+    assertFileCount(getArcticTable().asKeyedTable().newScan().enableStreamingPlan(), 6, 2, 1);
+  }
+
   private void assertFileCount(int baseFileCnt, int insertFileCnt, int equDeleteFileCnt) throws IOException {
-    CloseableIterable<CombinedScanTask> combinedScanTasks = getArcticTable().asKeyedTable().newScan().planTasks();
+    assertFileCount(getArcticTable().asKeyedTable().newScan(), baseFileCnt, insertFileCnt, equDeleteFileCnt);
+  }
+
+  private void assertFileCount(
+      KeyedTableScan scan, int baseFileCnt, int insertFileCnt, int equDeleteFileCnt) throws IOException {
+    CloseableIterable<CombinedScanTask> combinedScanTasks = scan.planTasks();
     final List<ArcticFileScanTask> allBaseTasks = new ArrayList<>();
     final List<ArcticFileScanTask> allInsertTasks = new ArrayList<>();
     final List<ArcticFileScanTask> allEquDeleteTasks = new ArrayList<>();
@@ -67,9 +130,13 @@ public class TestKeyedTableScan extends TableDataTestBase {
   }
 
   private void writeInsertFileIntoBaseStore() throws IOException {
+    writeInsertFileIntoBaseStore("2022-01-01T12:00:00");
+  }
+
+  private void writeInsertFileIntoBaseStore(String opTime) throws IOException {
     ImmutableList.Builder<Record> builder = ImmutableList.builder();
-    builder.add(MixedDataTestHelpers.createRecord(7, "mary", 0, "2022-01-01T12:00:00"));
-    builder.add(MixedDataTestHelpers.createRecord(8, "mack", 0, "2022-01-01T12:00:00"));
+    builder.add(MixedDataTestHelpers.createRecord(7, "mary", 0, opTime));
+    builder.add(MixedDataTestHelpers.createRecord(8, "mack", 0, opTime));
     ImmutableList<Record> records = builder.build();
 
     GenericChangeTaskWriter writer = GenericTaskWriters.builderFor(getArcticTable().asKeyedTable())
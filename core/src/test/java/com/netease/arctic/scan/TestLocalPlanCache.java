@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.scan;
+
+import com.netease.arctic.data.DataTreeNode;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.util.SerializationUtil;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+public class TestLocalPlanCache {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void testGetAndPut() throws IOException {
+    LocalPlanCache cache = new LocalPlanCache(temp.newFolder().getPath(), 1024 * 1024);
+    String key = LocalPlanCache.key("table", 1L, 2L, null);
+    Assert.assertNull(cache.get(key));
+    Assert.assertEquals(1, cache.missCount());
+
+    cache.put(key, plan(4));
+    List<CombinedScanTask> tasks = cache.get(key);
+    Assert.assertNotNull(tasks);
+    Assert.assertEquals(4, tasks.size());
+    Assert.assertEquals(DataTreeNode.of(3, 2), ((NodeFileScanTask) tasks.get(2).tasks().iterator().next()).treeNode());
+    Assert.assertEquals(1, cache.hitCount());
+    Assert.assertEquals(0.5D, cache.hitRate(), 0.0001D);
+
+    Assert.assertNull(cache.get(LocalPlanCache.key("table", 1L, 3L, null)));
+  }
+
+  @Test
+  public void testKey() {
+    Assert.assertEquals(LocalPlanCache.key("a", 1L), LocalPlanCache.key("a", 1L));
+    Assert.assertNotEquals(LocalPlanCache.key("a", 1L), LocalPlanCache.key("a", 2L));
+    Assert.assertNotEquals(LocalPlanCache.key("ab", "c"), LocalPlanCache.key("a", "bc"));
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    String directory = temp.newFolder().getPath();
+    long planSize = planSize(directory);
+    LocalPlanCache cache = new LocalPlanCache(directory, planSize * 2);
+    cache.put("plan-1", plan(1));
+    cache.put("plan-2", plan(1));
+    Assert.assertNotNull(cache.get("plan-1"));
+    cache.put("plan-3", plan(1));
+
+    // the least recently used plan is evicted
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(1, cache.evictionCount());
+    Assert.assertNull(cache.get("plan-2"));
+    Assert.assertNotNull(cache.get("plan-1"));
+    Assert.assertNotNull(cache.get("plan-3"));
+  }
+
+  @Test
+  public void testLoadPlansOfDirectory() throws IOException {
+    String directory = temp.newFolder().getPath();
+    new LocalPlanCache(directory, 1024 * 1024).put("plan-1", plan(2));
+
+    LocalPlanCache cache = new LocalPlanCache(directory, 1024 * 1024);
+    Assert.assertEquals(1, cache.size());
+    List<CombinedScanTask> tasks = cache.get("plan-1");
+    Assert.assertNotNull(tasks);
+    Assert.assertEquals(2, tasks.size());
+  }
+
+  @Test
+  public void testDropCorruptedPlan() throws IOException {
+    String directory = temp.newFolder().getPath();
+    LocalPlanCache cache = new LocalPlanCache(directory, 1024 * 1024);
+    cache.put("plan-1", plan(2));
+    File planFile = new File(directory, "plan-1.plan");
+    Files.write(planFile.toPath(), new byte[] {1, 2, 3});
+
+    Assert.assertNull(cache.get("plan-1"));
+    Assert.assertEquals(0, cache.size());
+    Assert.assertFalse(planFile.exists());
+  }
+
+  @Test
+  public void testDropUnsignedPlans() throws IOException {
+    String directory = temp.newFolder().getPath();
+    new LocalPlanCache(directory, 1024 * 1024).put("plan-1", plan(2));
+    // a plan file without the header, and a plan file signed by another secret
+    File forgedFile = new File(directory, "plan-2.plan");
+    Files.write(forgedFile.toPath(), SerializationUtil.serializeToBytes(plan(1)));
+    File tamperedFile = new File(directory, "plan-1.plan");
+    byte[] bytes = Files.readAllBytes(tamperedFile.toPath());
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(tamperedFile.toPath(), bytes);
+
+    LocalPlanCache cache = new LocalPlanCache(directory, 1024 * 1024);
+    Assert.assertFalse(forgedFile.exists());
+    Assert.assertEquals(1, cache.size());
+    Assert.assertNull(cache.get("plan-1"));
+    Assert.assertFalse(tamperedFile.exists());
+  }
+
+  @Test
+  public void testDropPlansWithoutSecret() throws IOException {
+    String directory = temp.newFolder().getPath();
+    new LocalPlanCache(directory, 1024 * 1024).put("plan-1", plan(2));
+    Assert.assertTrue(new File(directory, "plan-cache.secret").delete());
+
+    LocalPlanCache cache = new LocalPlanCache(directory, 1024 * 1024);
+    Assert.assertEquals(0, cache.size());
+    Assert.assertFalse(new File(directory, "plan-1.plan").exists());
+  }
+
+  @Test
+  public void testPrivateDirectory() throws IOException {
+    File directory = new File(temp.newFolder(), "plan-cache");
+    new LocalPlanCache(directory.getPath(), 1024 * 1024);
+    Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    Assert.assertEquals(PosixFilePermissions.fromString("rwx------"),
+        Files.getPosixFilePermissions(directory.toPath()));
+  }
+
+  private long planSize(String directory) {
+    LocalPlanCache cache = new LocalPlanCache(directory, 1024 * 1024);
+    cache.put("plan-0", plan(1));
+    long size = cache.sizeInBytes();
+    new File(directory, "plan-0.plan").delete();
+    return size;
+  }
+
+  private static List<CombinedScanTask> plan(int taskCount) {
+    List<CombinedScanTask> tasks = Lists.newArrayList();
+    for (int i = 0; i < taskCount; i++) {
+      tasks.add(new BaseCombinedScanTask(new NodeFileScanTask(DataTreeNode.of(3, i))));
+    }
+    return tasks;
+  }
+}
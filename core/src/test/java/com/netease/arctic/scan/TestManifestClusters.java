@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.scan;
+
+import org.apache.iceberg.GenericManifestFile;
+import org.apache.iceberg.GenericPartitionFieldSummary;
+import org.apache.iceberg.ManifestContent;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TestManifestClusters {
+
+  private static final Types.StructType PARTITION_TYPE = Types.StructType.of(
+      Types.NestedField.optional(1000, "day", Types.IntegerType.get()));
+
+  @Test
+  public void testDisjointRanges() {
+    List<ManifestFile> manifests = Lists.newArrayList(
+        manifest("m3", range(30, 40)),
+        manifest("m1", range(1, 10)),
+        manifest("m2", range(11, 20)));
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList("m1"), Arrays.asList("m2"), Arrays.asList("m3")),
+        paths(ManifestClusters.cluster(PARTITION_TYPE, manifests)));
+  }
+
+  @Test
+  public void testOverlappingRanges() {
+    List<ManifestFile> manifests = Lists.newArrayList(
+        manifest("m1", range(1, 10)),
+        manifest("m2", range(30, 40)),
+        manifest("m3", range(10, 12)),
+        manifest("m4", range(12, 12)),
+        manifest("m5", range(20, 25)));
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList("m1", "m3", "m4"), Arrays.asList("m5"), Arrays.asList("m2")),
+        paths(ManifestClusters.cluster(PARTITION_TYPE, manifests)));
+  }
+
+  @Test
+  public void testNullPartitions() {
+    List<ManifestFile> manifests = Lists.newArrayList(
+        manifest("m1", range(1, 10)),
+        manifest("m2", nullsOnly()),
+        manifest("m3", new GenericPartitionFieldSummary(true, false, bound(20), bound(25))),
+        manifest("m4", range(30, 40)));
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList("m1"), Arrays.asList("m4"), Arrays.asList("m2", "m3")),
+        paths(ManifestClusters.cluster(PARTITION_TYPE, manifests)));
+  }
+
+  @Test
+  public void testUnboundedRange() {
+    List<ManifestFile> manifests = Lists.newArrayList(
+        manifest("m1", range(1, 10)),
+        manifest("m2", new GenericPartitionFieldSummary(false, false, null, null)),
+        manifest("m3", range(30, 40)));
+    Assert.assertEquals(1, ManifestClusters.cluster(PARTITION_TYPE, manifests).size());
+  }
+
+  @Test
+  public void testMultipleFields() {
+    Types.StructType partitionType = Types.StructType.of(
+        Types.NestedField.optional(1000, "day", Types.IntegerType.get()),
+        Types.NestedField.optional(1001, "region", Types.StringType.get()));
+    List<ManifestFile> manifests = Lists.newArrayList(
+        manifest("m1", range(1, 10), stringRange("a", "c")),
+        manifest("m2", range(5, 10), stringRange("d", "f")),
+        manifest("m3", range(8, 12), stringRange("b", "e")));
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList("m1", "m2", "m3")),
+        paths(ManifestClusters.cluster(partitionType, manifests)));
+
+    manifests.remove(2);
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList("m1"), Arrays.asList("m2")),
+        paths(ManifestClusters.cluster(partitionType, manifests)));
+  }
+
+  @Test
+  public void testUnpartitioned() {
+    List<ManifestFile> manifests = Lists.newArrayList(manifest("m1"), manifest("m2"));
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList("m1", "m2")),
+        paths(ManifestClusters.cluster(Types.StructType.of(), manifests)));
+    Assert.assertTrue(ManifestClusters.cluster(Types.StructType.of(), Lists.newArrayList()).isEmpty());
+  }
+
+  private static List<List<String>> paths(List<List<ManifestFile>> clusters) {
+    return clusters.stream()
+        .map(cluster -> cluster.stream().map(ManifestFile::path).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+  }
+
+  private static ManifestFile manifest(String path, ManifestFile.PartitionFieldSummary... summaries) {
+    return new GenericManifestFile(path, 1024L, 0, ManifestContent.DATA, 1L, 1L, 1L,
+        1, 1L, 0, 0L, 0, 0L, Arrays.asList(summaries), null);
+  }
+
+  private static ManifestFile.PartitionFieldSummary range(int lower, int upper) {
+    return new GenericPartitionFieldSummary(false, false, bound(lower), bound(upper));
+  }
+
+  private static ManifestFile.PartitionFieldSummary stringRange(String lower, String upper) {
+    return new GenericPartitionFieldSummary(false, false,
+        Conversions.toByteBuffer(Types.StringType.get(), lower),
+        Conversions.toByteBuffer(Types.StringType.get(), upper));
+  }
+
+  private static ManifestFile.PartitionFieldSummary nullsOnly() {
+    return new GenericPartitionFieldSummary(true, false, null, null);
+  }
+
+  private static ByteBuffer bound(int value) {
+    return Conversions.toByteBuffer(Types.IntegerType.get(), value);
+  }
+}
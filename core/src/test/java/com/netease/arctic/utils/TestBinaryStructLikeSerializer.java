@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.utils;
+
+import com.netease.arctic.iceberg.StructLikeWrapper;
+import com.netease.arctic.iceberg.StructLikeWrapperFactory;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+public class TestBinaryStructLikeSerializer {
+
+  private static final Types.StructType NESTED_TYPE = Types.StructType.of(
+      Types.NestedField.optional(21, "n1", Types.IntegerType.get()),
+      Types.NestedField.optional(22, "n2", Types.StringType.get()));
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.optional(1, "c_bool", Types.BooleanType.get()),
+      Types.NestedField.optional(2, "c_int", Types.IntegerType.get()),
+      Types.NestedField.optional(3, "c_long", Types.LongType.get()),
+      Types.NestedField.optional(4, "c_float", Types.FloatType.get()),
+      Types.NestedField.optional(5, "c_double", Types.DoubleType.get()),
+      Types.NestedField.optional(6, "c_date", Types.DateType.get()),
+      Types.NestedField.optional(7, "c_ts", Types.TimestampType.withoutZone()),
+      Types.NestedField.optional(8, "c_string", Types.StringType.get()),
+      Types.NestedField.optional(9, "c_decimal", Types.DecimalType.of(10, 2)),
+      Types.NestedField.optional(10, "c_big_decimal", Types.DecimalType.of(38, 4)),
+      Types.NestedField.optional(11, "c_uuid", Types.UUIDType.get()),
+      Types.NestedField.optional(12, "c_fixed", Types.FixedType.ofLength(3)),
+      Types.NestedField.optional(13, "c_binary", Types.BinaryType.get()),
+      Types.NestedField.optional(14, "c_struct", NESTED_TYPE));
+
+  private static final String[] STRINGS = new String[] {"", "a", "a\u0000", "a\u0000b", "ab", "é", "中",
+      "😀", "b"};
+
+  private final Random random = new Random(0);
+
+  @Test
+  public void testRoundTrip() {
+    StructLikeWrapperFactory factory = new StructLikeWrapperFactory(SCHEMA.asStruct());
+    BinaryStructLikeSerializer serializer = new BinaryStructLikeSerializer(SCHEMA.asStruct(), factory);
+    for (int i = 0; i < 1000; i++) {
+      StructLikeWrapper expected = factory.create().set(randomRecord());
+      StructLikeWrapper actual = serializer.deserialize(serializer.serialize(expected));
+      Assert.assertEquals(expected, actual);
+    }
+    Assert.assertNull(serializer.deserialize(null));
+  }
+
+  @Test
+  public void testOrderPreserving() {
+    StructLikeWrapperFactory factory = new StructLikeWrapperFactory(SCHEMA.asStruct());
+    BinaryStructLikeSerializer serializer = new BinaryStructLikeSerializer(SCHEMA.asStruct(), factory);
+    Comparator<StructLike> comparator = Comparators.forType(SCHEMA.asStruct());
+    List<StructLike> records = Lists.newArrayList();
+    for (int i = 0; i < 200; i++) {
+      records.add(randomRecord());
+    }
+    for (StructLike left : records) {
+      byte[] leftBytes = serializer.serialize(factory.create().set(left));
+      for (StructLike right : records) {
+        byte[] rightBytes = serializer.serialize(factory.create().set(right));
+        Assert.assertEquals(
+            Integer.signum(comparator.compare(left, right)),
+            Integer.signum(compareUnsigned(leftBytes, rightBytes)));
+      }
+    }
+  }
+
+  @Test
+  public void testUnpairedSurrogates() {
+    StructLikeWrapperFactory factory = new StructLikeWrapperFactory(SCHEMA.asStruct());
+    BinaryStructLikeSerializer serializer = new BinaryStructLikeSerializer(SCHEMA.asStruct(), factory);
+    String[] strings = new String[] {"a\uD83D", "a\uDE00", "a?", "\uDE00\uD83D", "\uD83D\uDE00"};
+    List<ByteBuffer> serialized = Lists.newArrayList();
+    for (String string : strings) {
+      Record record = GenericRecord.create(SCHEMA);
+      record.set(7, string);
+      byte[] bytes = serializer.serialize(factory.create().set(record));
+      Assert.assertFalse(serialized.contains(ByteBuffer.wrap(bytes)));
+      serialized.add(ByteBuffer.wrap(bytes));
+      Assert.assertEquals(string, serializer.deserialize(bytes).get().get(7, String.class));
+    }
+  }
+
+  @Test
+  public void testDeserializeKeepsInput() {
+    StructLikeWrapperFactory factory = new StructLikeWrapperFactory(SCHEMA.asStruct());
+    BinaryStructLikeSerializer serializer = new BinaryStructLikeSerializer(SCHEMA.asStruct(), factory);
+    Record record = GenericRecord.create(SCHEMA);
+    record.set(7, "a\u0000b");
+    record.set(12, ByteBuffer.wrap(new byte[] {0, 1, 0}));
+    StructLikeWrapper expected = factory.create().set(record);
+    byte[] bytes = serializer.serialize(expected);
+    byte[] copy = bytes.clone();
+    // the same bytes could be deserialized again
+    Assert.assertEquals(expected, serializer.deserialize(bytes));
+    Assert.assertArrayEquals(copy, bytes);
+    Assert.assertEquals(expected, serializer.deserialize(bytes));
+  }
+
+  @Test
+  public void testSupportedTypes() {
+    Assert.assertTrue(BinaryStructLikeSerializer.isSupported(SCHEMA.asStruct()));
+    Assert.assertFalse(BinaryStructLikeSerializer.isSupported(Types.StructType.of(
+        Types.NestedField.optional(1, "c_list", Types.ListType.ofOptional(2, Types.IntegerType.get())))));
+  }
+
+  private Record randomRecord() {
+    Record record = GenericRecord.create(SCHEMA);
+    record.set(0, nullable(random.nextBoolean()));
+    record.set(1, nullable(random.nextInt(5) - 2));
+    record.set(2, nullable(random.nextLong() >> random.nextInt(64)));
+    record.set(3, nullable((random.nextFloat() - 0.5f) * random.nextInt(3)));
+    record.set(4, nullable((random.nextDouble() - 0.5d) * random.nextInt(3)));
+    record.set(5, nullable(random.nextInt()));
+    record.set(6, nullable(random.nextLong()));
+    record.set(7, nullable(STRINGS[random.nextInt(STRINGS.length)]));
+    record.set(8, nullable(BigDecimal.valueOf(random.nextInt(2000) - 1000, 2)));
+    record.set(9, nullable(new BigDecimal(random.nextDouble() * 1e30).setScale(4, RoundingMode.DOWN)
+        .multiply(BigDecimal.valueOf(random.nextInt(3) - 1))));
+    record.set(10, nullable(new UUID(random.nextLong(), random.nextLong())));
+    record.set(11, nullable(ByteBuffer.wrap(new byte[] {(byte) random.nextInt(3), 0, (byte) random.nextInt()})));
+    byte[] binary = new byte[random.nextInt(3)];
+    random.nextBytes(binary);
+    record.set(12, nullable(ByteBuffer.wrap(binary)));
+    Record nested = GenericRecord.create(NESTED_TYPE);
+    nested.set(0, nullable(random.nextInt(3)));
+    nested.set(1, nullable(STRINGS[random.nextInt(STRINGS.length)]));
+    record.set(13, nullable(nested));
+    return record;
+  }
+
+  private <T> T nullable(T value) {
+    return random.nextInt(10) == 0 ? null : value;
+  }
+
+  private static int compareUnsigned(byte[] left, byte[] right) {
+    for (int i = 0; i < Math.min(left.length, right.length); i++) {
+      int result = Integer.compare(left[i] & 0xFF, right[i] & 0xFF);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(left.length, right.length);
+  }
+}
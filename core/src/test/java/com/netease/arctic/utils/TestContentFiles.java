@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils;
+
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.MetadataColumns;
+import org.apache.iceberg.Metrics;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestContentFiles {
+
+  @Test
+  public void testMayContainPosDeletes() {
+    DeleteFile deleteFile = posDeleteFile("/data-2", "/data-4");
+    Assert.assertFalse(ContentFiles.mayContainPosDeletes(deleteFile, "/data-1"));
+    Assert.assertTrue(ContentFiles.mayContainPosDeletes(deleteFile, "/data-2"));
+    Assert.assertTrue(ContentFiles.mayContainPosDeletes(deleteFile, "/data-3"));
+    Assert.assertFalse(ContentFiles.mayContainPosDeletes(deleteFile, "/data-5"));
+  }
+
+  @Test
+  public void testMayContainPosDeletesOfSingleFile() {
+    Assert.assertTrue(ContentFiles.mayContainPosDeletesOfSingleFile(posDeleteFile("/data-2", "/data-2"), null));
+
+    DeleteFile deleteFile = posDeleteFile("/data-2", "/data-4");
+    Assert.assertFalse(ContentFiles.mayContainPosDeletesOfSingleFile(deleteFile, null));
+    Assert.assertTrue(ContentFiles.mayContainPosDeletesOfSingleFile(
+        deleteFile, Lists.newArrayList("/data-1", "/data-3", "/data-5")));
+    Assert.assertFalse(ContentFiles.mayContainPosDeletesOfSingleFile(
+        deleteFile, Lists.newArrayList("/data-1", "/data-2", "/data-3")));
+  }
+
+  private static DeleteFile posDeleteFile(String lowerPath, String upperPath) {
+    int pathFieldId = MetadataColumns.DELETE_FILE_PATH.fieldId();
+    Metrics metrics = new Metrics(10L, null, null, null, null,
+        ImmutableMap.of(pathFieldId, Conversions.toByteBuffer(Types.StringType.get(), lowerPath)),
+        ImmutableMap.of(pathFieldId, Conversions.toByteBuffer(Types.StringType.get(), upperPath)));
+    return FileMetadata.deleteFileBuilder(PartitionSpec.unpartitioned())
+        .ofPositionDeletes()
+        .withPath("/delete-" + lowerPath.substring(1) + ".parquet")
+        .withFormat(FileFormat.PARQUET)
+        .withFileSizeInBytes(10)
+        .withMetrics(metrics)
+        .build();
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TestGrowingWorkerPool {
+
+  @Test
+  public void testGrowToLargestSize() {
+    GrowingWorkerPool pool = new GrowingWorkerPool("test-growing", 8);
+    ExecutorService executor = pool.withSize(2);
+    Assert.assertEquals(2, pool.size());
+    Assert.assertSame(executor, pool.withSize(4));
+    Assert.assertEquals(4, pool.size());
+    // smaller sizes do not shrink the pool
+    pool.withSize(1);
+    Assert.assertEquals(4, pool.size());
+    // the pool is bounded by the max size
+    pool.withSize(100);
+    Assert.assertEquals(8, pool.size());
+  }
+
+  @Test
+  public void testRunConcurrently() throws InterruptedException {
+    GrowingWorkerPool pool = new GrowingWorkerPool("test-growing", 8);
+    pool.withSize(1);
+    ExecutorService executor = pool.withSize(3);
+    CountDownLatch started = new CountDownLatch(3);
+    CountDownLatch finish = new CountDownLatch(1);
+    for (int i = 0; i < 3; i++) {
+      executor.submit(() -> {
+        started.countDown();
+        finish.await();
+        return null;
+      });
+    }
+    // all tasks run at the same time after the pool grows
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+    finish.countDown();
+  }
+}
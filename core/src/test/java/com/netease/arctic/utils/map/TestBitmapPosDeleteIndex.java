@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.netease.arctic.utils.map;
+
+import org.apache.iceberg.deletes.PositionDelete;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class TestBitmapPosDeleteIndex {
+
+  private static final Map<String, List<Long>> POSITIONS = ImmutableMap.of(
+      "file1", Lists.newArrayList(0L, 3L, 5L, 100_000L),
+      "file2", Lists.newArrayList(1L, 2L, Integer.MAX_VALUE + 10L),
+      "file3", Lists.newArrayList());
+
+  private final List<String> loadedFiles = Lists.newArrayList();
+
+  @Test
+  public void testIsDeleted() {
+    BitmapPosDeleteIndex index = new BitmapPosDeleteIndex(this::load);
+    Assert.assertTrue(index.isDeleted("file1", 3L));
+    Assert.assertFalse(index.isDeleted("file1", 4L));
+    Assert.assertTrue(index.isDeleted("file1", 100_000L));
+    Assert.assertTrue(index.isDeleted("file2", Integer.MAX_VALUE + 10L));
+    Assert.assertFalse(index.isDeleted("file2", 3L));
+    Assert.assertFalse(index.isDeleted("file3", 0L));
+    Assert.assertFalse(index.isDeleted("file4", 0L));
+    Assert.assertTrue(index.memorySizeInBytes() > 0);
+    index.close();
+    Assert.assertEquals(0, index.memorySizeInBytes());
+  }
+
+  @Test
+  public void testLazyLoad() {
+    BitmapPosDeleteIndex index = new BitmapPosDeleteIndex(this::load);
+    Assert.assertTrue(loadedFiles.isEmpty());
+    index.isDeleted("file2", 0L);
+    index.isDeleted("file2", 1L);
+    Assert.assertEquals(Lists.newArrayList("file2"), loadedFiles);
+    index.isDeleted("file1", 0L);
+    index.isDeleted("file2", 0L);
+    Assert.assertEquals(Lists.newArrayList("file2", "file1"), loadedFiles);
+    Assert.assertEquals(2, index.loadedFileCount());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    BitmapPosDeleteIndex index = new BitmapPosDeleteIndex(this::load, 1L);
+    Assert.assertTrue(index.isDeleted("file1", 0L));
+    Assert.assertTrue(index.isDeleted("file2", 1L));
+    // only the bitmap of the file being read is kept
+    Assert.assertEquals(1, index.loadedFileCount());
+    Assert.assertTrue(index.isDeleted("file1", 5L));
+    Assert.assertEquals(Lists.newArrayList("file1", "file2", "file1"), loadedFiles);
+  }
+
+  @Test
+  public void testSharedPositions() {
+    List<PositionDelete<?>> sharedDeletes = Lists.newArrayList(
+        PositionDelete.create().set("file1", 7L, null),
+        PositionDelete.create().set("file1", 8L, null),
+        PositionDelete.create().set("file4", 1L, null));
+    int[] sharedLoadCount = {0};
+    BitmapPosDeleteIndex index = new BitmapPosDeleteIndex(this::load, () -> {
+      sharedLoadCount[0]++;
+      return CloseableIterable.withNoopClose(sharedDeletes);
+    }, 1L);
+    Assert.assertTrue(index.isDeleted("file1", 0L));
+    Assert.assertTrue(index.isDeleted("file1", 7L));
+    Assert.assertTrue(index.isDeleted("file4", 1L));
+    Assert.assertFalse(index.isDeleted("file4", 0L));
+    Assert.assertTrue(index.isDeleted("file2", 1L));
+    // shared positions are loaded once and never dropped
+    Assert.assertTrue(index.isDeleted("file1", 8L));
+    Assert.assertEquals(1, sharedLoadCount[0]);
+  }
+
+  private CloseableIterable<Long> load(String path) {
+    loadedFiles.add(path);
+    return CloseableIterable.withNoopClose(POSITIONS.getOrDefault(path, Lists.newArrayList()));
+  }
+}
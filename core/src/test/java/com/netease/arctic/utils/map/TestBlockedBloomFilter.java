@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBlockedBloomFilter {
+
+  @Test
+  public void testNoFalseNegatives() {
+    BlockedBloomFilter filter = new BlockedBloomFilter(10_000, 0.01);
+    for (long i = 0; i < 10_000; i++) {
+      filter.put(BlockedBloomFilter.mix64(i));
+    }
+    for (long i = 0; i < 10_000; i++) {
+      Assert.assertTrue(filter.mightContain(BlockedBloomFilter.mix64(i)));
+    }
+    Assert.assertTrue(filter.isFull());
+  }
+
+  @Test
+  public void testFalsePositiveRate() {
+    BlockedBloomFilter filter = new BlockedBloomFilter(100_000, 0.01);
+    for (long i = 0; i < 100_000; i++) {
+      filter.put(BlockedBloomFilter.mix64(i));
+    }
+    int falsePositives = 0;
+    int probes = 100_000;
+    for (long i = 100_000; i < 100_000 + probes; i++) {
+      if (filter.mightContain(BlockedBloomFilter.mix64(i))) {
+        falsePositives++;
+      }
+    }
+    // blocking costs a bit of accuracy compared to a standard Bloom filter
+    Assert.assertTrue("false positive rate: " + (double) falsePositives / probes,
+        falsePositives < probes * 0.02);
+    Assert.assertEquals(0.01, filter.expectedFpp(), 0.002);
+  }
+}
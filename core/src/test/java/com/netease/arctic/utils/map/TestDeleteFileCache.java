@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.util.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestDeleteFileCache {
+
+  @Test
+  public void testLoadOnce() throws Exception {
+    DeleteFileCache cache = new DeleteFileCache(1024);
+    AtomicInteger reads = new AtomicInteger();
+    DeleteFileCache.Key key = DeleteFileCache.Key.of("file1", 1L, "id");
+
+    for (int i = 0; i < 3; i++) {
+      try (CloseableIterable<Integer> records = cache.read(key, () -> readRecords(reads, 0, 10), r -> 16)) {
+        Assert.assertEquals(10, Lists.newArrayList(records).size());
+      }
+    }
+    Assert.assertEquals(1, reads.get());
+    Assert.assertEquals(1, cache.loadCount());
+    Assert.assertEquals(2, cache.hitCount());
+    Assert.assertEquals(160, cache.sizeInBytes());
+
+    // another sequence number or projection of the same file is another entry
+    try (CloseableIterable<Integer> records = cache.read(
+        DeleteFileCache.Key.of("file1", 2L, "id"), () -> readRecords(reads, 0, 10), r -> 16)) {
+      Assert.assertEquals(10, Lists.newArrayList(records).size());
+    }
+    Assert.assertEquals(2, reads.get());
+    Assert.assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testEvictReleasedEntries() {
+    DeleteFileCache cache = new DeleteFileCache(100);
+    DeleteFileCache.Handle<String> handle1 = cache.acquire(DeleteFileCache.Key.of("file1", 1L, ""), () -> "1", v -> 60);
+    DeleteFileCache.Handle<String> handle2 = cache.acquire(DeleteFileCache.Key.of("file2", 1L, ""), () -> "2", v -> 60);
+
+    // acquired entries are not evicted even if the cache exceeds its max size
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals(120, cache.sizeInBytes());
+    Assert.assertEquals("1", handle1.get());
+    Assert.assertEquals("2", handle2.get());
+
+    handle1.close();
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(60, cache.sizeInBytes());
+    Assert.assertThrows(IllegalStateException.class, handle1::get);
+
+    handle2.close();
+    Assert.assertEquals(1, cache.size());
+    cache.acquire(DeleteFileCache.Key.of("file3", 1L, ""), () -> "3", v -> 60).close();
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(60, cache.sizeInBytes());
+    Assert.assertEquals(3, cache.loadCount());
+  }
+
+  @Test
+  public void testLoadFailure() {
+    DeleteFileCache cache = new DeleteFileCache(100);
+    DeleteFileCache.Key key = DeleteFileCache.Key.of("file1", 1L, "");
+    Assert.assertThrows(IllegalStateException.class, () -> cache.acquire(key, () -> {
+      throw new IllegalStateException("failed to read");
+    }, v -> 0));
+    Assert.assertEquals(0, cache.size());
+
+    try (DeleteFileCache.Handle<String> handle = cache.acquire(key, () -> "1", v -> 10)) {
+      Assert.assertEquals("1", handle.get());
+    }
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testConcurrentLoad() throws Exception {
+    DeleteFileCache cache = new DeleteFileCache(1024 * 1024);
+    DeleteFileCache.Key key = DeleteFileCache.Key.of("file1", 1L, "");
+    AtomicInteger reads = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> futures = Lists.newArrayList();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          try (CloseableIterable<Integer> records = cache.read(key, () -> readRecords(reads, 0, 1000), r -> 16)) {
+            return Lists.newArrayList(records).size();
+          }
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> future : futures) {
+        Assert.assertEquals(1000, (int) future.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(1, reads.get());
+    Assert.assertEquals(7, cache.hitCount());
+  }
+
+  @Test
+  public void testReadPositions() {
+    DeleteFileCache cache = new DeleteFileCache(1024 * 1024);
+    DeleteFileCache.Key key = DeleteFileCache.Key.of("pos-file", 1L, "positions");
+    AtomicInteger reads = new AtomicInteger();
+    List<Pair<String, Long>> positions = Lists.newArrayList(
+        Pair.of("data1", 3L), Pair.of("data2", 1L), Pair.of("data1", 1L), Pair.of("data2", 5L));
+
+    Assert.assertEquals(
+        Lists.newArrayList(1L, 3L),
+        Lists.newArrayList(readPositions(cache, key, "data1", positions, reads)));
+    Assert.assertEquals(
+        Lists.newArrayList(1L, 5L),
+        Lists.newArrayList(readPositions(cache, key, "data2", positions, reads)));
+    Assert.assertEquals(0, Lists.newArrayList(readPositions(cache, key, "data3", positions, reads)).size());
+    Assert.assertEquals(1, reads.get());
+  }
+
+  private static CloseableIterable<Long> readPositions(
+      DeleteFileCache cache, DeleteFileCache.Key key, String dataFilePath,
+      List<Pair<String, Long>> positions, AtomicInteger reads) {
+    return cache.readPositions(key, dataFilePath, () -> {
+      reads.incrementAndGet();
+      return CloseableIterable.withNoopClose(positions);
+    }, Pair::first, Pair::second);
+  }
+
+  private static CloseableIterable<Integer> readRecords(AtomicInteger reads, int from, int to) {
+    reads.incrementAndGet();
+    List<Integer> records = Lists.newArrayList();
+    for (int i = from; i < to; i++) {
+      records.add(i);
+    }
+    return CloseableIterable.withNoopClose(records);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import com.netease.arctic.utils.SerializationUtil;
+import org.apache.iceberg.io.CloseableIterator;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class TestExternalSorter {
+
+  private static final SerializationUtil.SimpleSerializer<Long> SERIALIZER =
+      SerializationUtil.createJavaSimpleSerializer();
+
+  @Test
+  public void testSortInMemory() throws IOException {
+    testSort(Long.MAX_VALUE, 0);
+  }
+
+  @Test
+  public void testSortWithSpill() throws IOException {
+    // every 100 elements are spilled as a run
+    testSort(100 * 8 - 1, 100);
+  }
+
+  @Test
+  public void testSortWithMultiPassMerge() throws IOException {
+    // every 10 elements are spilled as a run, more runs than the max fan-in are merged in multiple passes
+    testSort(10 * 8 - 1, 1005);
+  }
+
+  @Test
+  public void testSortBoundedByArbiter() {
+    long elementSize = 1L << 16;
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(100 * elementSize, 1);
+    try (SpillMemoryArbiter.TaskMemory task = arbiter.registerTask();
+         ExternalSorter<Long> sorter = new ExternalSorter<>(
+             Comparator.naturalOrder(), SERIALIZER, value -> elementSize, Long.MAX_VALUE, null)) {
+      for (long i = 0; i < 400; i++) {
+        sorter.add(i);
+      }
+      // every 164 elements are spilled as a run when the task runs out of memory, 100 elements in the memory of the
+      // task and 64 elements in the working buffer
+      Assert.assertEquals(2, sorter.spilledRunCount());
+      Assert.assertEquals(100 * elementSize, task.usedBytes());
+      sorter.close();
+      Assert.assertEquals(0, task.usedBytes());
+    }
+  }
+
+  @Test
+  public void testSortWithoutTaskMemory() throws IOException {
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(1, 1);
+    try (SpillMemoryArbiter.TaskMemory task = arbiter.registerTask();
+         ExternalSorter<Long> sorter = new ExternalSorter<>(
+             Comparator.naturalOrder(), SERIALIZER, value -> 1L << 16, Long.MAX_VALUE, null)) {
+      for (long i = 0; i < 200; i++) {
+        sorter.add(199 - i);
+      }
+      // runs are not smaller than the working buffer even if the task could acquire nothing
+      Assert.assertEquals(3, sorter.spilledRunCount());
+      Assert.assertEquals(0, task.usedBytes());
+      List<Long> actual = Lists.newArrayList();
+      try (CloseableIterator<Long> iterator = sorter.sortedIterator()) {
+        iterator.forEachRemaining(actual::add);
+      }
+      Assert.assertEquals(200, actual.size());
+      for (int i = 0; i < actual.size(); i++) {
+        Assert.assertEquals(i, actual.get(i).longValue());
+      }
+    }
+  }
+
+  private void testSort(long maxInMemorySizeInBytes, int expectedRuns) throws IOException {
+    List<Long> expected = Lists.newArrayList();
+    Random random = new Random(7);
+    ExternalSorter<Long> sorter = new ExternalSorter<>(
+        Comparator.naturalOrder(), SERIALIZER, value -> 8L, maxInMemorySizeInBytes, null);
+    for (int i = 0; i < 10_050; i++) {
+      long value = random.nextInt(1000);
+      expected.add(value);
+      sorter.add(value);
+    }
+    expected.sort(Comparator.naturalOrder());
+    Assert.assertEquals(expectedRuns, sorter.spilledRunCount());
+
+    List<Long> actual = Lists.newArrayList();
+    try (CloseableIterator<Long> iterator = sorter.sortedIterator()) {
+      iterator.forEachRemaining(actual::add);
+    }
+    Assert.assertEquals(expected, actual);
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import com.netease.arctic.data.ChangedLsn;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.StructLikeMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestOffHeapStructLikeMap {
+
+  private static final Types.StructType PK_TYPE = Types.StructType.of(
+      Types.NestedField.optional(1, "id", Types.LongType.get()),
+      Types.NestedField.optional(2, "part", Types.IntegerType.get()),
+      Types.NestedField.optional(3, "flag", Types.BooleanType.get()));
+
+  @Test
+  public void testPutGetDelete() {
+    StructLikeMap<ChangedLsn> expected = StructLikeMap.create(PK_TYPE);
+    Random random = new Random(17);
+    try (OffHeapStructLikeMap<ChangedLsn> actual = OffHeapStructLikeMap.create(PK_TYPE, ChangedLsn.class)) {
+      // enough keys to resize several times and to span more than one segment
+      for (long i = 0; i < 100_000; i++) {
+        StructLike key = key(random.nextInt(50_000), (int) (i % 7), i % 3 == 0);
+        ChangedLsn value = ChangedLsn.of(i, i * 2);
+        expected.put(key, value);
+        actual.put(key, value);
+      }
+      for (int i = 0; i < 20_000; i++) {
+        StructLike key = key(random.nextInt(50_000), i % 7, i % 3 == 0);
+        expected.remove(key);
+        actual.delete(key);
+      }
+      Assert.assertEquals(expected.size(), actual.size());
+
+      random = new Random(17);
+      for (long i = 0; i < 100_000; i++) {
+        StructLike key = key(random.nextInt(50_000), (int) (i % 7), i % 3 == 0);
+        Assert.assertEquals(expected.get(key), actual.get(key));
+      }
+    }
+  }
+
+  @Test
+  public void testNullFields() {
+    try (OffHeapStructLikeMap<Long> map = OffHeapStructLikeMap.create(PK_TYPE, Long.class)) {
+      map.put(key(null, 0, false), 1L);
+      map.put(key(0L, null, false), 2L);
+      map.put(key(0L, 0, null), 3L);
+      map.put(key(0L, 0, false), 4L);
+
+      Assert.assertEquals(4, map.size());
+      Assert.assertEquals(Long.valueOf(1L), map.get(key(null, 0, false)));
+      Assert.assertEquals(Long.valueOf(2L), map.get(key(0L, null, false)));
+      Assert.assertEquals(Long.valueOf(3L), map.get(key(0L, 0, null)));
+      Assert.assertEquals(Long.valueOf(4L), map.get(key(0L, 0, false)));
+      Assert.assertNull(map.get(key(null, null, null)));
+    }
+  }
+
+  @Test
+  public void testBoundedMap() {
+    StructLikeMap<Long> expected = StructLikeMap.create(PK_TYPE);
+    long[] overflowBytes = new long[1];
+    try (OffHeapStructLikeMap<Long> actual = OffHeapStructLikeMap.create(PK_TYPE, Long.class, 64 * 1024,
+        remainingBytes -> {
+          overflowBytes[0] = remainingBytes;
+          return StructLikeMemoryMap.create(PK_TYPE);
+        })) {
+      for (long i = 0; i < 10_000; i++) {
+        StructLike key = key(i, (int) (i % 7), i % 3 == 0);
+        expected.put(key, i);
+        actual.put(key, i);
+      }
+      Assert.assertTrue(actual.isFull());
+      Assert.assertTrue(actual.offHeapSizeInBytes() <= 64 * 1024);
+      Assert.assertEquals(64 * 1024 - actual.offHeapSizeInBytes(), overflowBytes[0]);
+      Assert.assertTrue(actual.size() < expected.size());
+
+      // update keys both off heap and in the overflow map
+      for (long i = 0; i < 10_000; i += 2) {
+        StructLike key = key(i, (int) (i % 7), i % 3 == 0);
+        expected.put(key, -i);
+        actual.put(key, -i);
+      }
+      for (long i = 0; i < 10_000; i += 3) {
+        StructLike key = key(i, (int) (i % 7), i % 3 == 0);
+        expected.remove(key);
+        actual.delete(key);
+      }
+      for (long i = 0; i < 10_000; i++) {
+        StructLike key = key(i, (int) (i % 7), i % 3 == 0);
+        Assert.assertEquals(expected.get(key), actual.get(key));
+      }
+    }
+  }
+
+  @Test
+  public void testBoundedByArbiter() {
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(64 * 1024, 1);
+    try (SpillMemoryArbiter.TaskMemory task = arbiter.registerTask();
+         OffHeapStructLikeMap<Long> map = OffHeapStructLikeMap.create(PK_TYPE, Long.class, Long.MAX_VALUE,
+             remainingBytes -> StructLikeMemoryMap.create(PK_TYPE))) {
+      for (long i = 0; i < 10_000; i++) {
+        map.put(key(i, 0, false), i);
+      }
+      Assert.assertTrue(map.isFull());
+      Assert.assertEquals(map.offHeapSizeInBytes(), task.usedBytes());
+      for (long i = 0; i < 10_000; i++) {
+        Assert.assertEquals(Long.valueOf(i), map.get(key(i, 0, false)));
+      }
+      map.close();
+      Assert.assertEquals(0, task.usedBytes());
+    }
+  }
+
+  @Test
+  public void testWideKey() {
+    Types.StructType wideType = Types.StructType.of(
+        Types.NestedField.required(1, "id", Types.FixedType.ofLength(40_000)));
+    try (OffHeapStructLikeMap<Long> map = OffHeapStructLikeMap.create(wideType, Long.class)) {
+      for (int i = 0; i < 1_000; i++) {
+        map.put(wideKey(wideType, i), (long) i);
+      }
+      for (int i = 0; i < 1_000; i++) {
+        Assert.assertEquals(Long.valueOf(i), map.get(wideKey(wideType, i)));
+      }
+    }
+    Assert.assertFalse(OffHeapStructLikeMap.isSupported(
+        Types.StructType.of(Types.NestedField.required(1, "id", Types.FixedType.ofLength(1 << 30))), Long.class));
+  }
+
+  @Test
+  public void testIsSupported() {
+    Assert.assertTrue(OffHeapStructLikeMap.isSupported(PK_TYPE, Long.class));
+    Assert.assertTrue(OffHeapStructLikeMap.isSupported(PK_TYPE, ChangedLsn.class));
+    Assert.assertFalse(OffHeapStructLikeMap.isSupported(PK_TYPE, String.class));
+    Assert.assertFalse(OffHeapStructLikeMap.isSupported(
+        Types.StructType.of(Types.NestedField.required(1, "name", Types.StringType.get())), Long.class));
+    Assert.assertFalse(OffHeapStructLikeMap.isSupported(
+        Types.StructType.of(Types.NestedField.required(1, "amount", Types.DecimalType.of(38, 2))), Long.class));
+  }
+
+  private static StructLike key(Long id, Integer part, Boolean flag) {
+    GenericRecord record = GenericRecord.create(PK_TYPE);
+    record.set(0, id);
+    record.set(1, part);
+    record.set(2, flag);
+    return record;
+  }
+
+  private static StructLike wideKey(Types.StructType type, int id) {
+    byte[] bytes = new byte[40_000];
+    bytes[0] = (byte) id;
+    bytes[bytes.length - 1] = (byte) (id >> 8);
+    GenericRecord record = GenericRecord.create(type);
+    record.set(0, bytes);
+    return record;
+  }
+
+    private static StructLike key(long id, int part, boolean flag) {
+    return key(Long.valueOf(id), Integer.valueOf(part), Boolean.valueOf(flag));
+  }
+}
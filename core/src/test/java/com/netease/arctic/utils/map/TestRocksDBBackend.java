@@ -30,6 +30,27 @@ public class TestRocksDBBackend {
     Assert.assertEquals(originalCfCount, rocksDBBackend.listColumnFamilies().size());
   }
 
+  @Test
+  public void testSharedInstance() throws Exception {
+    RocksDBBackend shared = RocksDBBackend.initSharedInstance(null, 8L << 20, 8L << 20);
+    try {
+      RocksDBBackend[] fromOtherThread = new RocksDBBackend[1];
+      Thread thread = new Thread(() -> fromOtherThread[0] = RocksDBBackend.getOrCreateInstance());
+      thread.start();
+      thread.join();
+      Assert.assertSame(shared, RocksDBBackend.getOrCreateInstance());
+      Assert.assertSame(shared, fromOtherThread[0]);
+
+      shared.addColumnFamily(CF_NAME);
+      shared.put(CF_NAME, "name", "mj");
+      Assert.assertEquals("mj", shared.get(CF_NAME, "name"));
+      shared.dropColumnFamily(CF_NAME);
+    } finally {
+      RocksDBBackend.closeSharedInstance();
+    }
+    Assert.assertNotSame(shared, RocksDBBackend.getOrCreateInstance());
+  }
+
   @Test
   public void testPutGetDelete() {
     RocksDBBackend rocksDBBackend = RocksDBBackend.getOrCreateInstance();
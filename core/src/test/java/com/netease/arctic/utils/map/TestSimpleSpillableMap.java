@@ -112,6 +112,60 @@ public class TestSimpleSpillableMap {
     Assert.assertNull(actualMap.get(k2));
   }
 
+  @Test
+  public void testBloomFilterOverSpilledKeys() {
+    SimpleSpillableMap<Key, Value> actualMap = new SimpleSpillableMap<>(
+        5 * (keySize + valueSize),
+        null,
+        new DefaultSizeEstimator<>(),
+        new DefaultSizeEstimator<>());
+    SpillMetrics metrics = new SpillMetrics();
+    actualMap.setMetrics(metrics);
+
+    Map<Key, Value> expectedMap = Maps.newHashMap();
+    for (int i = 0; i < 100; i++) {
+      Key key = new Key();
+      Value value = new Value();
+      expectedMap.put(key, value);
+      actualMap.put(key, value);
+    }
+    Assert.assertTrue(actualMap.getBloomFilterSizeInBytes() > 0);
+    assertSimpleMaps(actualMap, expectedMap);
+    for (Key key : expectedMap.keySet()) {
+      Assert.assertTrue(actualMap.containsKey(key));
+    }
+    for (int i = 0; i < 1000; i++) {
+      Key absent = new Key();
+      Assert.assertNull(actualMap.get(absent));
+      Assert.assertFalse(actualMap.containsKey(absent));
+    }
+
+    actualMap.close();
+    Assert.assertTrue(metrics.hasBloomFilter());
+    Assert.assertTrue(metrics.bloomFilterFalsePositiveRate() < 0.05);
+  }
+
+  @Test
+  public void testBloomFilterOverKeysWithSameHashCode() {
+    SimpleSpillableMap<Key, Value> actualMap = new SimpleSpillableMap<>(
+        5 * (keySize + valueSize),
+        null,
+        new DefaultSizeEstimator<>(),
+        new DefaultSizeEstimator<>());
+    SpillMetrics metrics = new SpillMetrics();
+    actualMap.setMetrics(metrics);
+
+    for (int i = 0; i < 100; i++) {
+      actualMap.put(new SameHashCodeKey(), new Value());
+    }
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertFalse(actualMap.containsKey(new SameHashCodeKey()));
+    }
+
+    actualMap.close();
+    Assert.assertTrue(metrics.bloomFilterFalsePositiveRate() < 0.05);
+  }
+
   private SimpleSpillableMap<Key, Value> testMap(long expectMemorySize, int expectKeyCount) {
     SimpleSpillableMap<Key, Value> actualMap = new SimpleSpillableMap<>(expectMemorySize * (keySize + valueSize),
         null, new DefaultSizeEstimator<>(), new DefaultSizeEstimator<>());
@@ -151,6 +205,13 @@ public class TestSimpleSpillableMap {
     }
   }
 
+  private static class SameHashCodeKey extends Key {
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+  }
+
   private static class Value implements Serializable {
     Long value = random.nextLong();
     String[] values = new String[10];
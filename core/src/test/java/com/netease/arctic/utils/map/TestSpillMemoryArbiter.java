@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestSpillMemoryArbiter {
+
+  @Test
+  public void testBorrowUnusedShare() {
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(100, 4);
+    try (SpillMemoryArbiter.TaskMemory task = arbiter.registerTask()) {
+      Assert.assertSame(task, SpillMemoryArbiter.currentTask());
+      // the only running task could use the whole budget
+      Assert.assertTrue(task.tryAcquire(100));
+      Assert.assertFalse(task.tryAcquire(1));
+      task.release(40);
+      Assert.assertEquals(60, arbiter.usedBytes());
+    }
+    Assert.assertNull(SpillMemoryArbiter.currentTask());
+    Assert.assertEquals(0, arbiter.usedBytes());
+  }
+
+  @Test
+  public void testKeepFairShareOfRunningTasks() {
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(100, 4);
+    SpillMemoryArbiter.TaskMemory task1 = arbiter.registerTask();
+    SpillMemoryArbiter.TaskMemory task2 = arbiter.registerTask();
+    // 25 is kept for task2
+    Assert.assertFalse(task1.tryAcquire(80));
+    Assert.assertTrue(task1.tryAcquire(75));
+    Assert.assertTrue(task2.tryAcquire(25));
+    Assert.assertFalse(task2.tryAcquire(1));
+
+    // memory of a finished task goes back to the others
+    task1.close();
+    Assert.assertTrue(task2.tryAcquire(75));
+    Assert.assertEquals(100, task2.usedBytes());
+    task2.close();
+    Assert.assertEquals(0, arbiter.usedBytes());
+  }
+
+  @Test
+  public void testSpillableMapAcquireFromTask() {
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(2L << 20, 1);
+    try (SpillMemoryArbiter.TaskMemory task = arbiter.registerTask()) {
+      // the fixed limit is ignored once the map is created by a registered task
+      SimpleSpillableMap<Long, Long> map = new SimpleSpillableMap<>(
+          0L, null, value -> 1024L, value -> 1024L);
+      for (long i = 0; i < 2000; i++) {
+        map.put(i, i);
+      }
+      Assert.assertTrue(map.getMemoryMapSize() > 0);
+      Assert.assertTrue(map.getMemoryMapSize() < 2000);
+      Assert.assertTrue(map.getSizeOfFileOnDiskInBytes() > 0);
+      Assert.assertTrue(task.usedBytes() > 0);
+      for (long i = 0; i < 2000; i++) {
+        Assert.assertEquals(Long.valueOf(i), map.get(i));
+      }
+      map.close();
+      Assert.assertEquals(0, task.usedBytes());
+    }
+  }
+
+  @Test
+  public void testWithCurrentTask() throws Exception {
+    SpillMemoryArbiter arbiter = new SpillMemoryArbiter(100, 1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (SpillMemoryArbiter.TaskMemory task = arbiter.registerTask()) {
+      Assert.assertNull(executor.submit(SpillMemoryArbiter::currentTask).get());
+      Assert.assertSame(task, executor.submit(SpillMemoryArbiter.withCurrentTask(() -> {
+        SpillMemoryArbiter.currentTask().tryAcquire(10);
+        return SpillMemoryArbiter.currentTask();
+      })).get());
+      Assert.assertEquals(10, task.usedBytes());
+      // the task is not left in the thread of the executor
+      Assert.assertNull(executor.submit(SpillMemoryArbiter::currentTask).get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netease.arctic.utils.map;
+
+import com.netease.arctic.iceberg.InternalRecordWrapper;
+import com.netease.arctic.iceberg.StructLikeWrapper;
+import com.netease.arctic.iceberg.StructLikeWrapperFactory;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class TestStructLikeWrapperSchemaSizeEstimator {
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.required(1, "id", Types.IntegerType.get()),
+      Types.NestedField.required(2, "name", Types.StringType.get()),
+      Types.NestedField.required(3, "ts", Types.LongType.get()),
+      Types.NestedField.required(4, "op_time", Types.TimestampType.withoutZone()),
+      Types.NestedField.optional(5, "uid", Types.UUIDType.get()),
+      Types.NestedField.optional(6, "amount", Types.DecimalType.of(10, 2)),
+      Types.NestedField.optional(7, "data", Types.BinaryType.get()),
+      Types.NestedField.optional(8, "nested", Types.StructType.of(
+          Types.NestedField.optional(9, "nested_name", Types.StringType.get())))
+  );
+
+  @Test
+  public void testRetainedSize() {
+    StructLikeWrapperFactory wrapperFactory = new StructLikeWrapperFactory(SCHEMA.asStruct());
+    InternalRecordWrapper internalRecordWrapper = new InternalRecordWrapper(SCHEMA.asStruct());
+    StructLikeWrapper key1 = wrapperFactory.create().set(internalRecordWrapper.copyFor(createRecord(1000)));
+    StructLikeWrapper key2 = wrapperFactory.create().set(internalRecordWrapper.copyFor(createRecord(2000)));
+    // the wrapper of nested structs is shared and holds the last hashed struct, let it hold one of key1
+    key2.hashCode();
+    key1.hashCode();
+
+    // objects shared by both keys are only counted once
+    long retainedSize = GraphLayout.parseInstance((Object) new Object[] {key1, key2}).totalSize() -
+        GraphLayout.parseInstance((Object) new Object[] {key1}).totalSize();
+    long estimatedSize = new StructLikeWrapperSchemaSizeEstimator(SCHEMA.asStruct()).sizeEstimate(key2);
+    Assert.assertEquals(retainedSize, estimatedSize, retainedSize * 0.1);
+  }
+
+  @Test
+  public void testNullValues() {
+    StructLikeWrapperFactory wrapperFactory = new StructLikeWrapperFactory(SCHEMA.asStruct());
+    Record record = GenericRecord.create(SCHEMA);
+    record.set(0, 1000);
+    StructLikeWrapperSchemaSizeEstimator estimator = new StructLikeWrapperSchemaSizeEstimator(SCHEMA.asStruct());
+    long size = estimator.sizeEstimate(wrapperFactory.create().set(record));
+    Assert.assertTrue(size > 0);
+    Assert.assertTrue(size < estimator.sizeEstimate(wrapperFactory.create().set(createRecord(1000))));
+    Assert.assertEquals(0, estimator.sizeEstimate(null));
+  }
+
+  @Test
+  public void testKeySizeBeforeReading() {
+    Schema schema = SCHEMA.select("id", "name", "op_time");
+    Record record = GenericRecord.create(schema);
+    record.set(0, 1000);
+    record.set(1, "name-00001");
+    record.set(2, LocalDateTime.of(2022, 1, 1, 12, 0));
+    StructLikeWrapper key = new StructLikeWrapperFactory(schema.asStruct()).create()
+        .set(new InternalRecordWrapper(schema.asStruct()).copyFor(record));
+
+    StructLikeWrapperSchemaSizeEstimator estimator = new StructLikeWrapperSchemaSizeEstimator(schema.asStruct());
+    Assert.assertEquals(estimator.sizeEstimate(key), estimator.keySizeEstimate(ImmutableMap.of(2, 10L)));
+    Assert.assertTrue(
+        estimator.keySizeEstimate(ImmutableMap.of()) < estimator.keySizeEstimate(ImmutableMap.of(2, 100L)));
+  }
+
+  private static Record createRecord(int id) {
+    Record record = GenericRecord.create(SCHEMA);
+    record.set(0, id);
+    record.set(1, "name" + id);
+    record.set(2, (long) id * 1000);
+    record.set(3, LocalDateTime.of(2023, 6, 29, 13, 0, id % 60));
+    record.set(4, UUID.randomUUID());
+    record.set(5, new BigDecimal("12345.67"));
+    record.set(6, ByteBuffer.wrap(new byte[] {1, 2, 3, (byte) id}));
+    Record nested = GenericRecord.create(SCHEMA.findType("nested").asStructType());
+    nested.set(0, "nested" + id);
+    record.set(7, nested);
+    return record;
+  }
+}
@@ -22,6 +22,7 @@ import com.netease.arctic.flink.read.AdaptHiveFlinkParquetReaders;
 import com.netease.arctic.hive.io.reader.AbstractAdaptHiveArcticDataReader;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.iceberg.Schema;
@@ -57,6 +58,29 @@ public class FlinkArcticMORDataReader extends AbstractAdaptHiveArcticDataReader<
         reuseContainer);
   }
 
+  public FlinkArcticMORDataReader(
+      ArcticFileIO fileIO,
+      Schema tableSchema,
+      Schema projectedSchema,
+      PrimaryKeySpec primaryKeySpec,
+      String nameMapping,
+      boolean caseSensitive,
+      BiFunction<Type, Object, Object> convertConstant,
+      boolean reuseContainer,
+      StructLikeCollections structLikeCollections) {
+    super(
+        fileIO,
+        tableSchema,
+        projectedSchema,
+        primaryKeySpec,
+        nameMapping,
+        caseSensitive,
+        convertConstant,
+        null,
+        reuseContainer,
+        structLikeCollections);
+  }
+
   @Override
   protected Function<MessageType, ParquetValueReader<?>> getNewReaderFunction(
       Schema projectSchema, Map<Integer, ?> idToConstant) {
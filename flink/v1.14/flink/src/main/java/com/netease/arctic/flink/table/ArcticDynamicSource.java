@@ -25,11 +25,13 @@ import com.netease.arctic.flink.lookup.filter.RowDataPredicateExpressionVisitor;
 import com.netease.arctic.flink.read.hybrid.reader.DataIteratorReaderFunction;
 import com.netease.arctic.flink.read.hybrid.reader.RowDataReaderFunction;
 import com.netease.arctic.flink.read.source.FlinkArcticMORDataReader;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
 import com.netease.arctic.flink.util.FilterUtil;
 import com.netease.arctic.flink.util.IcebergAndFlinkFilters;
 import com.netease.arctic.hive.io.reader.AbstractAdaptHiveArcticDataReader;
 import com.netease.arctic.table.ArcticTable;
 import com.netease.arctic.utils.SchemaUtil;
+import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.flink.api.common.eventtime.WatermarkStrategy;
 import org.apache.flink.configuration.Configuration;
 import org.apache.flink.table.api.DataTypes;
@@ -303,7 +305,9 @@ public class ArcticDynamicSource
         null,
         true,
         convertConstant,
-        true);
+        true,
+        StructLikeCollections.withDeleteLoadParallelism(
+            Configuration.fromMap(properties).get(ArcticValidator.SOURCE_READER_DELETE_LOAD_PARALLELISM)));
   }
 
   static class ConvertTask implements BiFunction<Type, Object, Object>, Serializable {
@@ -121,6 +121,13 @@ public class ArcticValidator extends ConnectorDescriptorValidator {
           .defaultValue(2048)
           .withDescription("The target number of records for Iceberg reader fetch batch.");
 
+  public static final ConfigOption<Integer> SOURCE_READER_DELETE_LOAD_PARALLELISM =
+      ConfigOptions.key("read.delete-load-parallelism")
+          .intType()
+          .defaultValue(1)
+          .withDescription(
+              "The number of equality delete files read at the same time when merging on read.");
+
   public static final ConfigOption<String> SCAN_STARTUP_MODE =
       ConfigOptions.key("scan.startup.mode")
           .stringType()
@@ -22,6 +22,7 @@ import com.netease.arctic.flink.shuffle.ShuffleHelper;
 import com.netease.arctic.flink.table.ArcticTableLoader;
 import com.netease.arctic.flink.write.hidden.HiddenLogWriter;
 import com.netease.arctic.flink.write.hidden.LogMsgFactory;
+import com.netease.arctic.log.FormatVersion;
 import com.netease.arctic.log.LogData;
 import org.apache.flink.runtime.state.StateInitializationContext;
 import org.apache.flink.runtime.state.StateSnapshotContext;
@@ -44,7 +45,7 @@ import java.util.Properties;
  */
 public class AutomaticLogWriter extends ArcticLogWriter {
   private final AutomaticDoubleWriteStatus status;
-  private final ArcticLogWriter arcticLogWriter;
+  private final HiddenLogWriter arcticLogWriter;
 
   public AutomaticLogWriter(
       Schema schema,
@@ -62,6 +63,10 @@ public class AutomaticLogWriter extends ArcticLogWriter {
     this.status = new AutomaticDoubleWriteStatus(tableLoader, writeLogstoreWatermarkGap);
   }
 
+  public void setLogVersion(FormatVersion logVersion) {
+    arcticLogWriter.setLogVersion(logVersion);
+  }
+
   @Override
   public void setup(
       StreamTask<?, ?> containingTask, StreamConfig config, Output<StreamRecord<RowData>> output) {
@@ -39,6 +39,7 @@ import org.apache.iceberg.io.FileAppenderFactory;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -63,7 +64,8 @@ public class FlinkChangeTaskWriter extends ChangeTaskWriter<RowData> {
       RowType flinkSchema,
       PartitionSpec spec,
       PrimaryKeySpec primaryKeySpec,
-      boolean upsert) {
+      boolean upsert,
+      Map<String, String> properties) {
     super(
         format,
         appenderFactory,
@@ -74,7 +76,8 @@ public class FlinkChangeTaskWriter extends ChangeTaskWriter<RowData> {
         schema,
         spec,
         primaryKeySpec,
-        false);
+        false,
+        properties);
     this.wrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
     this.upsert = upsert;
   }
@@ -98,6 +98,14 @@ public abstract class AbstractHiddenLogWriter extends ArcticLogWriter {
     this.helper = helper;
   }
 
+  /**
+   * Set the version of log messages written, messages of {@link FormatVersion#FORMAT_VERSION_V2}
+   * are encoded in binary.
+   */
+  public void setLogVersion(FormatVersion logVersion) {
+    this.logVersion = checkNotNull(logVersion);
+  }
+
   @Override
   public void initializeState(StateInitializationContext context) throws Exception {
     super.initializeState(context);
@@ -30,10 +30,12 @@ import com.netease.arctic.flink.read.source.FileScanTaskReader;
 import com.netease.arctic.flink.read.source.FlinkArcticDataReader;
 import com.netease.arctic.flink.read.source.FlinkArcticMORDataReader;
 import com.netease.arctic.flink.read.source.MergeOnReadDataIterator;
+import com.netease.arctic.flink.table.descriptors.ArcticValidator;
 import com.netease.arctic.flink.util.ArcticUtils;
 import com.netease.arctic.io.ArcticFileIO;
 import com.netease.arctic.table.PrimaryKeySpec;
 import com.netease.arctic.utils.NodeFilter;
+import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.table.data.RowData;
 import org.apache.iceberg.Schema;
@@ -64,6 +66,7 @@ public class RowDataReaderFunction extends DataIteratorReaderFunction<RowData> {
   private final int arcticFileOffsetIndex;
 
   private final boolean reuse;
+  private final int deleteLoadParallelism;
 
   public RowDataReaderFunction(
       ReadableConfig config,
@@ -109,6 +112,7 @@ public class RowDataReaderFunction extends DataIteratorReaderFunction<RowData> {
     this.columnSize =
         projectedSchema == null ? readSchema.columns().size() : projectedSchema.columns().size();
     this.reuse = reuse;
+    this.deleteLoadParallelism = config.get(ArcticValidator.SOURCE_READER_DELETE_LOAD_PARALLELISM);
   }
 
   @Override
@@ -123,7 +127,8 @@ public class RowDataReaderFunction extends DataIteratorReaderFunction<RowData> {
               nameMapping,
               caseSensitive,
               RowDataUtil::convertConstant,
-              reuse);
+              reuse,
+              StructLikeCollections.withDeleteLoadParallelism(deleteLoadParallelism));
       return new MergeOnReadDataIterator(
           morDataReader, split.asMergeOnReadSplit().keyedTableScanTask(), io);
     } else if (split.isSnapshotSplit()) {
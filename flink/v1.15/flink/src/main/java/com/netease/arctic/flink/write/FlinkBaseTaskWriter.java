@@ -32,6 +32,8 @@ import org.apache.iceberg.StructLike;
 import org.apache.iceberg.flink.RowDataWrapper;
 import org.apache.iceberg.io.FileAppenderFactory;
 
+import java.util.Map;
+
 /**
  * task writer for {@link KeyedTable#baseTable()}. Dev should make sure outputFileFactory write to
  * base table's location
@@ -50,7 +52,8 @@ public class FlinkBaseTaskWriter extends BaseTaskWriter<RowData> {
       Schema schema,
       RowType flinkSchema,
       PartitionSpec spec,
-      PrimaryKeySpec primaryKeySpec) {
+      PrimaryKeySpec primaryKeySpec,
+      Map<String, String> properties) {
     super(
         format,
         appenderFactory,
@@ -61,7 +64,8 @@ public class FlinkBaseTaskWriter extends BaseTaskWriter<RowData> {
         schema,
         spec,
         primaryKeySpec,
-        false);
+        false,
+        properties);
     this.wrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
   }
 
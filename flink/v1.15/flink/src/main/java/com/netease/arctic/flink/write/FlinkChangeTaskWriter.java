@@ -39,6 +39,7 @@ import org.apache.iceberg.io.FileAppenderFactory;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -62,7 +63,8 @@ public class FlinkChangeTaskWriter extends ChangeTaskWriter<RowData> {
       RowType flinkSchema,
       PartitionSpec spec,
       PrimaryKeySpec primaryKeySpec,
-      boolean upsert) {
+      boolean upsert,
+      Map<String, String> properties) {
     super(
         format,
         appenderFactory,
@@ -73,7 +75,8 @@ public class FlinkChangeTaskWriter extends ChangeTaskWriter<RowData> {
         schema,
         spec,
         primaryKeySpec,
-        false);
+        false,
+        properties);
     this.wrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
     this.upsert = upsert;
   }
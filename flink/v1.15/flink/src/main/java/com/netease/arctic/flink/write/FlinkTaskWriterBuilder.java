@@ -194,7 +194,8 @@ public class FlinkTaskWriterBuilder implements TaskWriterBuilder<RowData> {
         selectSchema,
         flinkSchema,
         table.spec(),
-        primaryKeySpec);
+        primaryKeySpec,
+        table.properties());
   }
 
   private TaskWriter<RowData> buildChangeWriter() {
@@ -267,7 +268,8 @@ public class FlinkTaskWriterBuilder implements TaskWriterBuilder<RowData> {
         flinkSchema,
         keyedTable.spec(),
         keyedTable.primaryKeySpec(),
-        upsert);
+        upsert,
+        keyedTable.properties());
   }
 
   @Override
@@ -189,7 +189,7 @@ public class AdaptHiveGenericTaskWriterBuilder implements TaskWriterBuilder<Reco
         new GenericAppenderFactory(schema, table.spec());
     return new GenericBaseTaskWriter(fileFormat, appenderFactory,
         outputFileFactory,
-        table.io(), fileSizeBytes, mask, schema, table.spec(), primaryKeySpec, orderedWriter);
+        table.io(), fileSizeBytes, mask, schema, table.spec(), primaryKeySpec, orderedWriter, table.properties());
   }
 
   private GenericChangeTaskWriter buildChangeWriter() {
@@ -220,7 +220,7 @@ public class AdaptHiveGenericTaskWriterBuilder implements TaskWriterBuilder<Reco
         new CommonOutputFileFactory(table.changeLocation(), table.spec(), fileFormat, table.io(),
             table.changeTable().encryption(), partitionId, taskId, transactionId),
         table.io(), fileSizeBytes, mask, table.changeTable().schema(), table.spec(), table.primaryKeySpec(),
-        changeAction, orderedWriter);
+        changeAction, orderedWriter, table.properties());
   }
 
   private void writeBasePreconditions() {
@@ -49,7 +49,8 @@ public class MixFormatRewriteExecutor extends AbstractRewriteFilesExecutor {
     FileAppenderFactory<Record> appenderFactory = fullMetricAppenderFactory();
     return new ArcticTreeNodePosDeleteWriter<>(
         appenderFactory, deleteFileFormat(), partition(),
-        io, encryptionManager(), getTransactionId(input.rePosDeletedDataFilesForMixed()), baseLocation(), table.spec());
+        io, encryptionManager(), getTransactionId(input.rePosDeletedDataFilesForMixed()), baseLocation(), table.spec(),
+        posDeleteRecordsNumThreshold());
   }
 
   @Override
@@ -19,6 +19,7 @@
 package com.netease.arctic.hive.utils;
 
 import com.netease.arctic.catalog.ArcticCatalog;
+import com.netease.arctic.catalog.CachingArcticCatalog;
 import com.netease.arctic.hive.catalog.ArcticHiveCatalog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +33,6 @@ public class CatalogUtil {
    * @return Whether hive catalog. true is hive catalog, false isn't hive catalog.
    */
   public static boolean isHiveCatalog(ArcticCatalog arcticCatalog) {
-    return arcticCatalog instanceof ArcticHiveCatalog;
+    return CachingArcticCatalog.unwrap(arcticCatalog) instanceof ArcticHiveCatalog;
   }
 }
@@ -32,6 +32,8 @@ import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.types.StructType;
 
+import java.util.Map;
+
 public class ArcticSparkBaseTaskWriter extends BaseTaskWriter<InternalRow> {
 
   private final StructType structType;
@@ -46,7 +48,8 @@ public class ArcticSparkBaseTaskWriter extends BaseTaskWriter<InternalRow> {
       Schema schema,
       PartitionSpec spec,
       PrimaryKeySpec primaryKeySpec,
-      boolean orderedWriter) {
+      boolean orderedWriter,
+      Map<String, String> properties) {
     super(
         format,
         appenderFactory,
@@ -57,7 +60,8 @@ public class ArcticSparkBaseTaskWriter extends BaseTaskWriter<InternalRow> {
         schema,
         spec,
         primaryKeySpec,
-        orderedWriter);
+        orderedWriter,
+        properties);
     this.structType = SparkSchemaUtil.convert(schema);
   }
 
@@ -25,6 +25,7 @@ import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.spark.util.Stats;
 import com.netease.arctic.table.KeyedTable;
 import com.netease.arctic.table.PrimaryKeySpec;
+import com.netease.arctic.utils.map.StructLikeCollections;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.expressions.Expression;
@@ -57,10 +58,16 @@ import java.util.stream.Collectors;
 public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistics {
   private static final Logger LOG = LoggerFactory.getLogger(KeyedSparkBatchScan.class);
 
+  /**
+   * Read option of the number of equality delete files read at the same time when merging on read.
+   */
+  public static final String DELETE_LOAD_PARALLELISM = "read.delete-load-parallelism";
+
   private final KeyedTable table;
   private final boolean caseSensitive;
   private final Schema expectedSchema;
   private final List<Expression> filterExpressions;
+  private final int deleteLoadParallelism;
   private StructType readSchema = null;
   private List<CombinedScanTask> tasks = null;
 
@@ -74,6 +81,7 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     this.caseSensitive = caseSensitive;
     this.expectedSchema = expectedSchema;
     this.filterExpressions = filters;
+    this.deleteLoadParallelism = options.getInt(DELETE_LOAD_PARALLELISM, 1);
   }
 
   @Override
@@ -95,7 +103,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     ArcticInputPartition[] readTasks = new ArcticInputPartition[scanTasks.size()];
     for (int i = 0; i < scanTasks.size(); i++) {
       readTasks[i] =
-          new ArcticInputPartition(scanTasks.get(i), table, expectedSchema, caseSensitive);
+          new ArcticInputPartition(
+              scanTasks.get(i), table, expectedSchema, caseSensitive, deleteLoadParallelism);
     }
     return readTasks;
   }
@@ -211,7 +220,8 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
               task.expectedSchema,
               task.keySpec,
               task.nameMapping,
-              task.caseSensitive);
+              task.caseSensitive,
+              StructLikeCollections.withDeleteLoadParallelism(task.deleteLoadParallelism));
       scanTasks = task.combinedScanTask.tasks().iterator();
     }
 
@@ -254,12 +264,14 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
     final Schema tableSchema;
     final PrimaryKeySpec keySpec;
     final String nameMapping;
+    final int deleteLoadParallelism;
 
     ArcticInputPartition(
         CombinedScanTask combinedScanTask,
         KeyedTable table,
         Schema expectedSchema,
-        boolean caseSensitive) {
+        boolean caseSensitive,
+        int deleteLoadParallelism) {
       this.combinedScanTask = combinedScanTask;
       this.expectedSchema = expectedSchema;
       this.tableSchema = table.schema();
@@ -267,6 +279,7 @@ public class KeyedSparkBatchScan implements Scan, Batch, SupportsReportStatistic
       this.io = table.io();
       this.keySpec = table.primaryKeySpec();
       this.nameMapping = table.properties().get(TableProperties.DEFAULT_NAME_MAPPING);
+      this.deleteLoadParallelism = deleteLoadParallelism;
     }
   }
 }
@@ -15,6 +15,8 @@ import org.apache.iceberg.io.FileAppenderFactory;
 import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.spark.sql.catalyst.InternalRow;
 
+import java.util.Map;
+
 /** change task writer */
 public class ArcticSparkChangeTaskWriter extends ChangeTaskWriter<InternalRow> {
   private final Schema schema;
@@ -29,7 +31,8 @@ public class ArcticSparkChangeTaskWriter extends ChangeTaskWriter<InternalRow> {
       Schema schema,
       PartitionSpec spec,
       PrimaryKeySpec primaryKeySpec,
-      boolean orderedWriter) {
+      boolean orderedWriter,
+      Map<String, String> properties) {
     super(
         format,
         appenderFactory,
@@ -40,7 +43,8 @@ public class ArcticSparkChangeTaskWriter extends ChangeTaskWriter<InternalRow> {
         schema,
         spec,
         primaryKeySpec,
-        orderedWriter);
+        orderedWriter,
+        properties);
     this.schema = schema;
   }
 
@@ -180,7 +180,8 @@ public class TaskWriters {
         schema,
         table.spec(),
         primaryKeySpec,
-        orderedWriter);
+        orderedWriter,
+        table.properties());
   }
 
   public ChangeTaskWriter<InternalRow> newChangeWriter() {
@@ -229,7 +230,8 @@ public class TaskWriters {
         schema,
         table.spec(),
         primaryKeySpec,
-        orderedWriter);
+        orderedWriter,
+        table.properties());
   }
 
   public TaskWriter<InternalRow> newUnkeyedUpsertWriter() {
@@ -270,7 +272,8 @@ public class TaskWriters {
             schema,
             table.spec(),
             null,
-            orderedWriter);
+            orderedWriter,
+            table.properties());
     return new UnkeyedUpsertSparkWriter<>(
         table, build, commonOutputFileFactory, fileFormat, schema, arcticSparkBaseTaskWriter);
   }
@@ -34,6 +34,8 @@ public class ArcticConfig {
 
   private boolean enableSplitTaskByDeleteRatio = true;
 
+  private int deleteLoadParallelism = 1;
+
   public String getCatalogUrl() {
     return catalogUrl;
   }
@@ -54,6 +56,10 @@ public class ArcticConfig {
     return enableSplitTaskByDeleteRatio;
   }
 
+  public int getDeleteLoadParallelism() {
+    return deleteLoadParallelism;
+  }
+
   @Config("arctic.url")
   public void setCatalogUrl(String catalogUrl) {
     this.catalogUrl = catalogUrl;
@@ -79,4 +85,10 @@ public class ArcticConfig {
   public void setSplitTaskByDeleteRatio(double splitTaskByDeleteRatio) {
     this.splitTaskByDeleteRatio = splitTaskByDeleteRatio;
   }
+
+  @Config("arctic.delete-load-parallelism")
+  @ConfigDescription("Number of equality delete files read at the same time when merging on read")
+  public void setDeleteLoadParallelism(int deleteLoadParallelism) {
+    this.deleteLoadParallelism = deleteLoadParallelism;
+  }
 }
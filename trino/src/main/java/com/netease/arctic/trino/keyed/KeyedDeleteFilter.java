@@ -22,6 +22,7 @@ import com.netease.arctic.hive.io.reader.AdaptHiveArcticDeleteFilter;
 import com.netease.arctic.scan.KeyedTableScanTask;
 import com.netease.arctic.table.PrimaryKeySpec;
 import com.netease.arctic.trino.delete.TrinoRow;
+import com.netease.arctic.utils.map.StructLikeCollections;
 import io.trino.plugin.iceberg.IcebergColumnHandle;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
@@ -47,8 +48,10 @@ public class KeyedDeleteFilter extends AdaptHiveArcticDeleteFilter<TrinoRow> {
       Schema tableSchema,
       List<IcebergColumnHandle> requestedSchema,
       PrimaryKeySpec primaryKeySpec,
-      FileIO fileIO) {
-    super(keyedTableScanTask, tableSchema, filterSchema(tableSchema, requestedSchema), primaryKeySpec);
+      FileIO fileIO,
+      StructLikeCollections structLikeCollections) {
+    super(keyedTableScanTask, tableSchema, filterSchema(tableSchema, requestedSchema), primaryKeySpec,
+        null, structLikeCollections);
     this.fileIO = fileIO;
   }
 
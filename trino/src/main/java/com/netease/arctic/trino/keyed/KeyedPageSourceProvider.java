@@ -24,8 +24,10 @@ import com.netease.arctic.data.PrimaryKeyedFile;
 import com.netease.arctic.hive.io.reader.AdaptHiveArcticDeleteFilter;
 import com.netease.arctic.scan.ArcticFileScanTask;
 import com.netease.arctic.scan.KeyedTableScanTask;
+import com.netease.arctic.trino.ArcticConfig;
 import com.netease.arctic.trino.delete.TrinoRow;
 import com.netease.arctic.trino.unkeyed.IcebergPageSourceProvider;
+import com.netease.arctic.utils.map.StructLikeCollections;
 import io.trino.filesystem.TrinoFileSystemFactory;
 import io.trino.plugin.iceberg.IcebergColumnHandle;
 import io.trino.plugin.iceberg.IcebergUtil;
@@ -52,15 +54,18 @@ public class KeyedPageSourceProvider implements ConnectorPageSourceProvider {
   private final IcebergPageSourceProvider icebergPageSourceProvider;
   private final TypeManager typeManager;
   private final TrinoFileSystemFactory fileSystemFactory;
+  private final ArcticConfig arcticConfig;
 
   @Inject
   public KeyedPageSourceProvider(
       IcebergPageSourceProvider icebergPageSourceProvider,
       TypeManager typeManager,
-      TrinoFileSystemFactory fileSystemFactory) {
+      TrinoFileSystemFactory fileSystemFactory,
+      ArcticConfig arcticConfig) {
     this.icebergPageSourceProvider = icebergPageSourceProvider;
     this.typeManager = typeManager;
     this.fileSystemFactory = fileSystemFactory;
+    this.arcticConfig = arcticConfig;
   }
 
   @Override
@@ -84,7 +89,8 @@ public class KeyedPageSourceProvider implements ConnectorPageSourceProvider {
         tableSchema,
         ImmutableList.of(),
         keyedTableHandle.getPrimaryKeySpec(),
-        fileSystemFactory.create(session).toFileIo()
+        fileSystemFactory.create(session).toFileIo(),
+        StructLikeCollections.DEFAULT
     ).requiredSchema(), typeManager);
     ImmutableList.Builder<IcebergColumnHandle> requiredColumnsBuilder = ImmutableList.builder();
     requiredColumnsBuilder.addAll(icebergColumnHandles);
@@ -97,7 +103,8 @@ public class KeyedPageSourceProvider implements ConnectorPageSourceProvider {
         tableSchema,
         requiredColumns,
         keyedTableHandle.getPrimaryKeySpec(),
-        fileSystemFactory.create(session).toFileIo()
+        fileSystemFactory.create(session).toFileIo(),
+        StructLikeCollections.withDeleteLoadParallelism(arcticConfig.getDeleteLoadParallelism())
     );
 
     return new KeyedConnectorPageSource(